@@ -0,0 +1,58 @@
+package com.moviematcher.domain.model;
+
+/**
+ * FIFO-очередь неотрицательных int на кольцевом массиве
+ *
+ * Очередь фильмов участника: номера из MovieIdInterner вместо String
+ * в LinkedList - 4 байта на фильм вместо узла списка. Емкость - степень
+ * двойки, растет удвоением.
+ *
+ * Не потокобезопасна: сессию меняет только актор комнаты
+ */
+final class IntRingBuffer {
+
+    static final int EMPTY = -1;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private int[] elements = new int[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+
+    void offer(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must be non-negative");
+        }
+        if (size == elements.length) {
+            grow();
+        }
+        elements[(head + size) & (elements.length - 1)] = value;
+        size++;
+    }
+
+    /**
+     * Первый элемент или EMPTY, если очередь пуста
+     */
+    int poll() {
+        if (size == 0) {
+            return EMPTY;
+        }
+        int value = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        int[] grown = new int[elements.length * 2];
+        int tail = elements.length - head;
+        System.arraycopy(elements, head, grown, 0, tail);
+        System.arraycopy(elements, 0, grown, tail, head);
+        elements = grown;
+        head = 0;
+    }
+}
@@ -0,0 +1,88 @@
+package com.moviematcher.domain.model;
+
+import java.util.Arrays;
+
+/**
+ * Словарь ID фильмов сессии: String ↔ плотный int (0, 1, 2, ...)
+ *
+ * Лайки, дизлайки, показанные фильмы и очереди сессии хранят int-номера
+ * в BitSet и IntRingBuffer вместо String в HashSet/LinkedList - без
+ * узла и boxing на каждый фильм. Сами строки лежат здесь один раз.
+ *
+ * Открытая адресация с линейным пробированием: слот хранит номер + 1
+ * (0 - пусто), строка берется из ids по номеру. Номера не удаляются -
+ * словарь живет столько же, сколько сессия.
+ *
+ * Не потокобезопасен: сессию меняет только актор комнаты
+ */
+final class MovieIdInterner {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    private int size;
+
+    /**
+     * Номер фильма, новый - если фильм еще не встречался
+     */
+    int intern(String movieId) {
+        int slot = slotOf(movieId);
+        if (slots[slot] != 0) {
+            return slots[slot] - 1;
+        }
+
+        if (size == ids.length) {
+            grow();
+            slot = slotOf(movieId);
+        }
+        ids[size] = movieId;
+        slots[slot] = ++size;
+        return size - 1;
+    }
+
+    /**
+     * Номер фильма или -1, если фильм не встречался
+     */
+    int find(String movieId) {
+        return slots[slotOf(movieId)] - 1;
+    }
+
+    String idOf(int id) {
+        if (id < 0 || id >= size) {
+            throw new IllegalArgumentException("Unknown movie number: " + id);
+        }
+        return ids[id];
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int slotOf(String movieId) {
+        int mask = slots.length - 1;
+        int slot = spread(movieId.hashCode()) & mask;
+        while (slots[slot] != 0 && !ids[slots[slot] - 1].equals(movieId)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Заполнение таблицы слотов не выше половины
+    private void grow() {
+        ids = Arrays.copyOf(ids, ids.length * 2);
+        slots = new int[ids.length * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = spread(ids[id].hashCode()) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    private static int spread(int h) {
+        return (h ^ (h >>> 16)) * 0x9e3779b9;
+    }
+}
@@ -24,11 +24,17 @@ public class Participant {
     // ВАЖНО: Эти фильмы показываются первыми в голосовании!
     private final Queue<String> manuallySelectedMovieIds = new LinkedList<>();
 
-    // Лайкнутые фильмы
-    private final Set<String> likedMovies = new HashSet<>();
+    // Все добавленные вручную фильмы, включая уже показанные (для журнала)
+    private final List<String> addedMovieIds = new ArrayList<>();
 
-    // Дизлайкнутые фильмы
-    private final Set<String> dislikedMovies = new HashSet<>();
+    // Номера фильмов: свои до начала голосования, затем общие с сессией
+    private MovieIdInterner movieIds = new MovieIdInterner();
+
+    // Лайкнутые фильмы (биты по номерам movieIds)
+    private BitSet likedMovies = new BitSet();
+
+    // Дизлайкнутые фильмы (биты по номерам movieIds)
+    private BitSet dislikedMovies = new BitSet();
 
     // Готовность к голосованию
     private boolean readyToVote = false;
@@ -59,6 +65,7 @@ public class Participant {
             );
         }
         manuallySelectedMovieIds.offer(movieId);
+        addedMovieIds.add(movieId);
     }
 
     /**
@@ -79,16 +86,18 @@ public class Participant {
      * Лайкнуть фильм
      */
     public void likeMovie(String movieId) {
-        likedMovies.add(movieId);
-        dislikedMovies.remove(movieId); // Убираем из дизлайков если был
+        int id = movieIds.intern(movieId);
+        likedMovies.set(id);
+        dislikedMovies.clear(id); // Убираем из дизлайков если был
     }
 
     /**
      * Дизлайкнуть фильм
      */
     public void dislikeMovie(String movieId) {
-        dislikedMovies.add(movieId);
-        likedMovies.remove(movieId); // Убираем из лайков если был
+        int id = movieIds.intern(movieId);
+        dislikedMovies.set(id);
+        likedMovies.clear(id); // Убираем из лайков если был
     }
 
     /**
@@ -107,14 +116,55 @@ public class Participant {
      * Получить копию лайкнутых фильмов (defensive copy)
      */
     public Set<String> getLikedMovies() {
-        return new HashSet<>(likedMovies);
+        Set<String> liked = new HashSet<>();
+        likedMovies.stream().forEach(id -> liked.add(movieIds.idOf(id)));
+        return liked;
+    }
+
+    /**
+     * Получить копию дизлайкнутых фильмов (defensive copy)
+     */
+    public Set<String> getDislikedMovies() {
+        Set<String> disliked = new HashSet<>();
+        dislikedMovies.stream().forEach(id -> disliked.add(movieIds.idOf(id)));
+        return disliked;
+    }
+
+    /**
+     * Получить все добавленные вручную фильмы в порядке добавления (копия)
+     */
+    public List<String> getManuallySelectedMovies() {
+        return new ArrayList<>(addedMovieIds);
     }
 
     /**
      * Проверить, лайкнул ли участник этот фильм
      */
     public boolean hasLiked(String movieId) {
-        return likedMovies.contains(movieId);
+        int id = movieIds.find(movieId);
+        return id >= 0 && likedMovies.get(id);
+    }
+
+    /**
+     * Перейти на словарь номеров сессии голосования
+     *
+     * Голоса, отданные до сессии, переносятся в новые номера
+     */
+    void useMovieIds(MovieIdInterner sessionMovieIds) {
+        if (sessionMovieIds == movieIds) {
+            return;
+        }
+        likedMovies = renumber(likedMovies, sessionMovieIds);
+        dislikedMovies = renumber(dislikedMovies, sessionMovieIds);
+        movieIds = sessionMovieIds;
+    }
+
+    private BitSet renumber(BitSet movies, MovieIdInterner target) {
+        BitSet renumbered = new BitSet();
+        movies
+            .stream()
+            .forEach(id -> renumbered.set(target.intern(movieIds.idOf(id))));
+        return renumbered;
     }
 
     /**
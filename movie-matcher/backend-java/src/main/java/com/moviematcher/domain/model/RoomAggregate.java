@@ -3,6 +3,7 @@ package com.moviematcher.domain.model;
 import com.moviematcher.domain.strategy.VotingCompletionStrategy;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import org.jboss.logging.Logger;
 
@@ -19,6 +20,9 @@ import org.jboss.logging.Logger;
  * - Логика внутри модели, а не в сервисах
  * - Инварианты защищены
  * - Поведение инкапсулировано
+ *
+ * Не потокобезопасен: все команды комнаты выполняет ее актор
+ * (RoomDispatcher), единственный писатель состояния
  */
 public class RoomAggregate {
 
@@ -29,15 +33,24 @@ public class RoomAggregate {
     private final LocalDateTime createdAt;
     private final VotingCompletionStrategy completionStrategy;
 
+    // Seed для воспроизводимой случайной выборки колод комнаты
+    private final long deckSeed;
+
     // Состояние комнаты
     private RoomState state = RoomState.WAITING;
 
+    // Режим подачи фильмов, null - режим сервера по умолчанию
+    private StreamPacing.Mode pacingMode;
+
     // Участники комнаты
     private final List<Participant> participants = new ArrayList<>();
 
     // Текущая сессия голосования
     private VotingSession votingSession;
 
+    // Открытые WebSocket-сессии комнаты
+    private int connectedSessions;
+
     /**
      * Фабричный метод для создания комнаты
      */
@@ -46,13 +59,41 @@ public class RoomAggregate {
         String hostId,
         VotingCompletionStrategy completionStrategy
     ) {
-        return new RoomAggregate(id, hostId, completionStrategy);
+        return new RoomAggregate(
+            id,
+            hostId,
+            completionStrategy,
+            ThreadLocalRandom.current().nextLong(),
+            LocalDateTime.now()
+        );
+    }
+
+    /**
+     * Создать комнату с заданными seed колод и временем создания
+     * (восстановление из журнала)
+     */
+    public static RoomAggregate create(
+        String id,
+        String hostId,
+        VotingCompletionStrategy completionStrategy,
+        long deckSeed,
+        LocalDateTime createdAt
+    ) {
+        return new RoomAggregate(
+            id,
+            hostId,
+            completionStrategy,
+            deckSeed,
+            createdAt
+        );
     }
 
     private RoomAggregate(
         String id,
         String hostId,
-        VotingCompletionStrategy completionStrategy
+        VotingCompletionStrategy completionStrategy,
+        long deckSeed,
+        LocalDateTime createdAt
     ) {
         if (id == null || id.isBlank()) {
             throw new IllegalArgumentException(
@@ -73,7 +114,8 @@ public class RoomAggregate {
         this.id = id;
         this.hostId = hostId;
         this.completionStrategy = completionStrategy;
-        this.createdAt = LocalDateTime.now();
+        this.createdAt = createdAt;
+        this.deckSeed = deckSeed;
 
         // Создаем хоста как первого участника
         Participant host = new Participant(hostId, true);
@@ -148,6 +190,19 @@ public class RoomAggregate {
         log.infof("Participant {} set filters in room {}", participantId, id);
     }
 
+    /**
+     * Выбор режима подачи фильмов (до начала голосования)
+     */
+    public void setPacingMode(StreamPacing.Mode pacingMode) {
+        if (state != RoomState.WAITING) {
+            throw new IllegalStateException(
+                "Cannot change pacing after voting started"
+            );
+        }
+
+        this.pacingMode = pacingMode;
+    }
+
     /**
      * Добавление фильма участником через поиск
      */
@@ -271,6 +326,17 @@ public class RoomAggregate {
         votingSession.addMoviesToParticipant(participantId, movieIds);
     }
 
+    /**
+     * Сколько фильмов осталось в очереди участника (для дозагрузки колоды)
+     */
+    public int getParticipantQueueSize(String participantId) {
+        if (votingSession == null) {
+            return 0;
+        }
+
+        return votingSession.getQueueSize(participantId);
+    }
+
     /**
      * Получить следующий фильм для показа
      */
@@ -304,12 +370,22 @@ public class RoomAggregate {
     }
 
     /**
-     * Все ли участники вышли после завершения
+     * Обновить число открытых WebSocket-сессий комнаты
+     */
+    public void updateConnectedSessions(int sessions) {
+        if (sessions < 0) {
+            throw new IllegalArgumentException(
+                "Session count cannot be negative"
+            );
+        }
+        this.connectedSessions = sessions;
+    }
+
+    /**
+     * Все ли участники вышли после завершения: ни одной открытой сессии
      */
     private boolean allParticipantsLeft() {
-        // В реальности нужно отслеживать активность участников
-        // Пока упрощенная логика
-        return false;
+        return connectedSessions == 0;
     }
 
     /**
@@ -367,10 +443,56 @@ public class RoomAggregate {
         return id;
     }
 
+    /**
+     * Получить ID хоста
+     */
+    public String getHostId() {
+        return hostId;
+    }
+
+    /**
+     * Получить тип условия завершения голосования
+     */
+    public VotingCompletionType getCompletionType() {
+        return completionStrategy.type();
+    }
+
+    /**
+     * Получить время создания комнаты
+     */
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Получить режим подачи фильмов (null - по умолчанию)
+     */
+    public StreamPacing.Mode getPacingMode() {
+        return pacingMode;
+    }
+
+    /**
+     * Получить seed колод комнаты
+     */
+    public long getDeckSeed() {
+        return deckSeed;
+    }
+
     /**
      * Получить список участников
      */
     public List<Participant> getParticipants() {
         return new ArrayList<>(participants);
     }
+
+    /**
+     * Участники сессии голосования (пусто до ее начала): вышедшие во время
+     * голосования остаются в ней со своими голосами
+     */
+    public List<Participant> getVotingParticipants() {
+        if (votingSession == null) {
+            return List.of();
+        }
+        return votingSession.getParticipants();
+    }
 }
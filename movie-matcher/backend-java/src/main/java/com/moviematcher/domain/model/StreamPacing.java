@@ -0,0 +1,116 @@
+package com.moviematcher.domain.model;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Value Object для темпа подачи фильмов в комнату
+ *
+ * - FIXED_RATE: новый фильм каждые interval, как бы ни голосовали
+ * - DEMAND: комната держится на lookahead карточек впереди самого
+ *   медленного (или медианного) участника; пока никто не голосует,
+ *   новые карточки не отправляются
+ *
+ * Immutable по DDD принципам
+ */
+public class StreamPacing {
+
+    public enum Mode {
+        FIXED_RATE,
+        DEMAND
+    }
+
+    /**
+     * Чей темп голосования догоняет подача в режиме DEMAND
+     */
+    public enum Basis {
+        SLOWEST,
+        MEDIAN
+    }
+
+    private final Mode mode;
+    private final Duration interval;
+    private final int lookahead;
+    private final Basis basis;
+
+    public StreamPacing(
+        Mode mode,
+        Duration interval,
+        int lookahead,
+        Basis basis
+    ) {
+        if (mode == null || basis == null) {
+            throw new IllegalArgumentException(
+                "Pacing mode and basis cannot be null"
+            );
+        }
+        if (interval == null || interval.isNegative()) {
+            throw new IllegalArgumentException(
+                "Pacing interval must be non-negative"
+            );
+        }
+        if (lookahead < 1) {
+            throw new IllegalArgumentException(
+                "Pacing lookahead must be at least 1"
+            );
+        }
+
+        this.mode = mode;
+        this.interval = interval;
+        this.lookahead = lookahead;
+        this.basis = basis;
+    }
+
+    /**
+     * Те же параметры, другой режим (выбор режима комнатой)
+     */
+    public StreamPacing withMode(Mode mode) {
+        if (mode == null || mode == this.mode) {
+            return this;
+        }
+        return new StreamPacing(mode, interval, lookahead, basis);
+    }
+
+    /**
+     * Сколько карточек еще можно отправить в режиме DEMAND
+     *
+     * @param sent сколько карточек уже отправлено в комнату
+     * @param votedPerParticipant сколько карточек проголосовал каждый участник
+     * @return 0, если подачу нужно приостановить
+     */
+    public int credit(int sent, Collection<Integer> votedPerParticipant) {
+        int voted = votedPerParticipant.isEmpty()
+            ? 0
+            : switch (basis) {
+                case SLOWEST -> votedPerParticipant
+                    .stream()
+                    .mapToInt(Integer::intValue)
+                    .min()
+                    .orElse(0);
+                // Нижняя медиана: у двух участников это самый медленный
+                case MEDIAN -> votedPerParticipant
+                    .stream()
+                    .sorted()
+                    .skip((votedPerParticipant.size() - 1) / 2)
+                    .findFirst()
+                    .orElse(0);
+            };
+        return Math.max(0, voted + lookahead - sent);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public int getLookahead() {
+        return lookahead;
+    }
+
+    public Basis getBasis() {
+        return basis;
+    }
+}
@@ -1,5 +1,6 @@
 package com.moviematcher.domain.model;
 
+import com.moviematcher.domain.strategy.LikeTally;
 import com.moviematcher.domain.strategy.VotingCompletionStrategy;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -14,23 +15,31 @@ import org.jboss.logging.Logger;
  * 3. Один раунд = показан 1 фильм от каждого участника
  * 4. Проверка совпадений после каждого раунда
  * 5. Уникальность - никакой фильм не показывается дважды
+ *
+ * ID фильмов внутри сессии - плотные int-номера (MovieIdInterner):
+ * показанные фильмы и голоса хранятся в BitSet, очереди - в IntRingBuffer.
+ * Публичный API по-прежнему работает со String ID.
  */
 public class VotingSession {
 
     private static final Logger log = Logger.getLogger(VotingSession.class);
 
     private final List<Participant> participants;
-    private final VotingCompletionStrategy completionStrategy;
+    // Счетчики лайков по фильмам - завершение проверяется за O(1) на голос
+    private final LikeTally likeTally;
 
     // Текущий раунд голосования
     private int currentRound = 0;
 
-    // Фильмы, показанные участникам (для уникальности)
-    private final Set<String> shownMovieIds = new HashSet<>();
+    // Номера фильмов сессии, общие с участниками
+    private final MovieIdInterner movieIds = new MovieIdInterner();
+
+    // Фильмы, показанные участникам (для уникальности), биты по номерам
+    private final BitSet shownMovieIds = new BitSet();
 
-    // Очереди фильмов каждого участника (из фильтров)
-    private final Map<String, Queue<String>> participantMovieQueues =
-        new HashMap<>();
+    // Очереди номеров фильмов каждого участника (из фильтров),
+    // в порядке participants
+    private final IntRingBuffer[] participantMovieQueues;
 
     // Индекс текущего участника для чередования
     private int currentParticipantIndex = 0;
@@ -52,11 +61,19 @@ public class VotingSession {
         }
 
         this.participants = new ArrayList<>(participants);
-        this.completionStrategy = completionStrategy;
+        this.likeTally = completionStrategy.newTally(participants.size());
 
         // Инициализируем очереди для каждого участника
-        for (Participant participant : participants) {
-            participantMovieQueues.put(participant.getId(), new LinkedList<>());
+        this.participantMovieQueues = new IntRingBuffer[participants.size()];
+        for (int i = 0; i < participantMovieQueues.length; i++) {
+            participantMovieQueues[i] = new IntRingBuffer();
+            this.participants.get(i).useMovieIds(movieIds);
+        }
+
+        // Лайки, отданные до сессии, тоже считаются; совпадение по ним
+        // завершит голосование на следующем голосе
+        for (Participant participant : this.participants) {
+            participant.getLikedMovies().forEach(likeTally::onLike);
         }
 
         log.infof(
@@ -110,12 +127,12 @@ public class VotingSession {
             Participant currentParticipant = participants.get(
                 currentParticipantIndex
             );
-            Queue<String> queue = participantMovieQueues.get(
-                currentParticipant.getId()
-            );
+            IntRingBuffer queue = participantMovieQueues[
+                currentParticipantIndex
+            ];
 
             // Пробуем взять фильм из очереди текущего участника
-            String movieId = queue.poll();
+            int movieId = queue.poll();
 
             // Переходим к следующему участнику
             currentParticipantIndex =
@@ -127,14 +144,14 @@ public class VotingSession {
                 log.debugf("Started round {}", currentRound);
             }
 
-            if (movieId != null && !isMovieShown(movieId)) {
+            if (movieId != IntRingBuffer.EMPTY && !shownMovieIds.get(movieId)) {
                 log.debugf(
                     "Next movie from rotation: {} (participant: {}, round: {})",
-                    movieId,
+                    movieIds.idOf(movieId),
                     currentParticipant.getId(),
                     currentRound
                 );
-                return movieId;
+                return movieIds.idOf(movieId);
             }
 
             attempts++;
@@ -151,7 +168,7 @@ public class VotingSession {
         String participantId,
         List<String> movieIds
     ) {
-        Queue<String> queue = participantMovieQueues.get(participantId);
+        IntRingBuffer queue = findQueue(participantId);
         if (queue == null) {
             log.warnf(
                 "Participant {} not found in voting session",
@@ -164,12 +181,20 @@ public class VotingSession {
         long added = movieIds
             .stream()
             .filter(id -> !isMovieShown(id))
-            .peek(queue::offer)
+            .peek(id -> queue.offer(this.movieIds.intern(id)))
             .count();
 
         log.debugf("Added {} movies to participant {}", added, participantId);
     }
 
+    /**
+     * Сколько фильмов осталось в очереди участника
+     */
+    public int getQueueSize(String participantId) {
+        IntRingBuffer queue = findQueue(participantId);
+        return queue == null ? 0 : queue.size();
+    }
+
     /**
      * Записать голос участника
      */
@@ -185,10 +210,17 @@ public class VotingSession {
             );
         }
 
+        boolean wasLiked = participant.hasLiked(movieId);
         if (isLike) {
             participant.likeMovie(movieId);
+            if (!wasLiked) {
+                likeTally.onLike(movieId);
+            }
         } else {
             participant.dislikeMovie(movieId);
+            if (wasLiked) {
+                likeTally.onUnlike(movieId);
+            }
         }
 
         log.debugf(
@@ -206,23 +238,9 @@ public class VotingSession {
      * Проверка условия завершения голосования
      */
     private void checkCompletion() {
-        Map<String, Set<String>> participantLikes = participants
-            .stream()
-            .collect(
-                Collectors.toMap(
-                    Participant::getId,
-                    Participant::getLikedMovies
-                )
-            );
-
-        if (
-            completionStrategy.isComplete(participantLikes, participants.size())
-        ) {
+        if (likeTally.isComplete()) {
             completed = true;
-            matchedMovies = completionStrategy.getMatchedMovies(
-                participantLikes,
-                participants.size()
-            );
+            matchedMovies = likeTally.getMatchedMovies();
             log.infof(
                 "Voting completed! Matched {} movies",
                 matchedMovies.size()
@@ -234,14 +252,27 @@ public class VotingSession {
      * Проверка, показан ли уже фильм
      */
     public boolean isMovieShown(String movieId) {
-        return shownMovieIds.contains(movieId);
+        int id = movieIds.find(movieId);
+        return id >= 0 && shownMovieIds.get(id);
     }
 
     /**
      * Пометить фильм как показанный
      */
     private void markMovieAsShown(String movieId) {
-        shownMovieIds.add(movieId);
+        shownMovieIds.set(movieIds.intern(movieId));
+    }
+
+    /**
+     * Очередь участника по ID
+     */
+    private IntRingBuffer findQueue(String participantId) {
+        for (int i = 0; i < participants.size(); i++) {
+            if (participants.get(i).getId().equals(participantId)) {
+                return participantMovieQueues[i];
+            }
+        }
+        return null;
     }
 
     /**
@@ -269,6 +300,13 @@ public class VotingSession {
             );
     }
 
+    /**
+     * Участники сессии в порядке чередования, включая вышедших из комнаты
+     */
+    public List<Participant> getParticipants() {
+        return new ArrayList<>(participants);
+    }
+
     /**
      * Проверить, завершено ли голосование
      */
@@ -0,0 +1,75 @@
+package com.moviematcher.domain.strategy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Счетчики лайков по фильмам для одной сессии голосования
+ *
+ * Создается стратегией (VotingCompletionStrategy.newTally) с ее порогом.
+ * Каждый голос меняет один счетчик и, возможно, множество прошедших
+ * фильмов - завершение проверяется за O(1), без копирования лайков.
+ *
+ * Не потокобезопасен: сессию меняет только актор комнаты
+ */
+public final class LikeTally {
+
+    private final int requiredLikes;
+    private final Map<String, Integer> likeCounts = new HashMap<>();
+
+    // Фильмы, набравшие порог, в порядке достижения
+    private final Set<String> matched = new LinkedHashSet<>();
+
+    public LikeTally(int requiredLikes) {
+        if (requiredLikes < 1) {
+            throw new IllegalArgumentException(
+                "Required likes must be at least 1"
+            );
+        }
+        this.requiredLikes = requiredLikes;
+    }
+
+    /**
+     * Участник лайкнул фильм (раньше лайка от него не было)
+     */
+    public void onLike(String movieId) {
+        int likes = likeCounts.merge(movieId, 1, Integer::sum);
+        if (likes >= requiredLikes) {
+            matched.add(movieId);
+        }
+    }
+
+    /**
+     * Участник снял лайк с фильма (лайк от него был)
+     */
+    public void onUnlike(String movieId) {
+        Integer likes = likeCounts.computeIfPresent(movieId, (id, count) ->
+            count > 1 ? count - 1 : null
+        );
+        if (likes == null || likes < requiredLikes) {
+            matched.remove(movieId);
+        }
+    }
+
+    /**
+     * Есть ли фильм, набравший порог
+     */
+    public boolean isComplete() {
+        return !matched.isEmpty();
+    }
+
+    /**
+     * Фильмы, набравшие порог
+     */
+    public List<String> getMatchedMovies() {
+        return new ArrayList<>(matched);
+    }
+
+    public int getLikes(String movieId) {
+        return likeCounts.getOrDefault(movieId, 0);
+    }
+}
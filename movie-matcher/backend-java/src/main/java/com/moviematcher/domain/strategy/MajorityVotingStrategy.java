@@ -1,5 +1,6 @@
 package com.moviematcher.domain.strategy;
 
+import com.moviematcher.domain.model.VotingCompletionType;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -74,6 +75,16 @@ public class MajorityVotingStrategy implements VotingCompletionStrategy {
         return (int) Math.ceil(totalParticipants * MAJORITY_THRESHOLD);
     }
 
+    @Override
+    public VotingCompletionType type() {
+        return VotingCompletionType.MAJORITY;
+    }
+
+    @Override
+    public int requiredLikes(int totalParticipants) {
+        return Math.max(1, calculateRequiredVotes(totalParticipants));
+    }
+
     /**
      * Подсчитывает количество лайков для каждого фильма
      */
@@ -1,5 +1,6 @@
 package com.moviematcher.domain.strategy;
 
+import com.moviematcher.domain.model.VotingCompletionType;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -61,6 +62,16 @@ public class UnanimousVotingStrategy implements VotingCompletionStrategy {
             .collect(Collectors.toList());
     }
 
+    @Override
+    public VotingCompletionType type() {
+        return VotingCompletionType.UNANIMOUS;
+    }
+
+    @Override
+    public int requiredLikes(int totalParticipants) {
+        return Math.max(1, totalParticipants);
+    }
+
     /**
      * Подсчитывает количество лайков для каждого фильма
      *
@@ -1,5 +1,6 @@
 package com.moviematcher.domain.strategy;
 
+import com.moviematcher.domain.model.VotingCompletionType;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -31,4 +32,29 @@ public interface VotingCompletionStrategy {
      * @return список ID фильмов, которые прошли по условию
      */
     List<String> getMatchedMovies(Map<String, Set<String>> participantLikes, int totalParticipants);
+
+    /**
+     * Сколько лайков нужно фильму, чтобы пройти по условию стратегии
+     *
+     * @param totalParticipants общее количество участников
+     * @return порог лайков, не меньше 1
+     */
+    int requiredLikes(int totalParticipants);
+
+    /**
+     * Тип условия завершения, которому соответствует стратегия
+     */
+    VotingCompletionType type();
+
+    /**
+     * Инкрементальный вариант isComplete/getMatchedMovies: счетчики лайков
+     * по фильмам, которые сессия обновляет через onLike/onUnlike.
+     * Решение о завершении - O(1) на голос, без пересборки всех лайков
+     *
+     * @param totalParticipants общее количество участников
+     * @return новый счетчик для одной сессии голосования
+     */
+    default LikeTally newTally(int totalParticipants) {
+        return new LikeTally(requiredLikes(totalParticipants));
+    }
 }
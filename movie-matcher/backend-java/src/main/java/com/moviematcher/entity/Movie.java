@@ -7,9 +7,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Entity
 @Table(name = "movies")
+@EntityListeners(MovieChangeListener.class)
 public class Movie extends PanacheEntityBase {
 
     @Id
@@ -69,6 +71,10 @@ public class Movie extends PanacheEntityBase {
     @Column(columnDefinition = "TEXT")
     public String awards;
 
+    // Случайный ключ для выборки колоды голосования (см. MovieRepository.findRandomByFilters)
+    @Column(name = "random_key", nullable = false)
+    public Double randomKey;
+
     // Metadata
     @Column(name = "created_at", nullable = false)
     public LocalDateTime createdAt;
@@ -124,6 +130,9 @@ public class Movie extends PanacheEntityBase {
     public void prePersist() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        if (randomKey == null) {
+            randomKey = ThreadLocalRandom.current().nextDouble();
+        }
     }
 
     @PreUpdate
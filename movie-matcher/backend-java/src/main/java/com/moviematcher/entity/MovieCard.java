@@ -0,0 +1,58 @@
+package com.moviematcher.entity;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Денормализованная карточка фильма для голосования (read model)
+ *
+ * Одна строка на фильм: режиссер, актеры, страна и жанры уже склеены.
+ * Пишется только через MovieCardRepository.refresh после коммита Movie,
+ * читается потоком голосования и ответом на поиск
+ */
+@Entity
+@Table(name = "movie_cards")
+public class MovieCard extends PanacheEntityBase {
+
+    @Id
+    @Column(name = "imdb_id", length = 20)
+    public String imdbId;
+
+    @Column(name = "movie_id", nullable = false, unique = true)
+    public Long movieId;
+
+    @Column(nullable = false, length = 500)
+    public String title;
+
+    public Integer year;
+
+    public Integer runtime; // minutes
+
+    @Column(name = "poster_url", columnDefinition = "TEXT")
+    public String posterUrl;
+
+    @Column(columnDefinition = "TEXT")
+    public String plot;
+
+    @Column(name = "imdb_rating", precision = 3, scale = 1)
+    public BigDecimal imdbRating;
+
+    @Column(length = 200)
+    public String director;
+
+    // "Actor 1, Actor 2, Actor 3" по order_index
+    @Column(columnDefinition = "TEXT")
+    public String actors;
+
+    @Column(length = 100)
+    public String country;
+
+    // "Drama, Comedy"
+    @Column(columnDefinition = "TEXT")
+    public String genres;
+
+    @Column(name = "updated_at", nullable = false)
+    public LocalDateTime updatedAt;
+}
@@ -0,0 +1,41 @@
+package com.moviematcher.entity;
+
+import io.quarkus.arc.Arc;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener для Movie
+ *
+ * Превращает вставки и обновления фильмов в CDI события {@link MovieChangedEvent},
+ * чтобы кэши поверх таблицы movies могли инвалидироваться
+ * независимо от того, кто сохранил фильм (поиск, обогащение, импорт)
+ *
+ * Изменение только связей (жанры, страны, титры) строку movies не меняет
+ * и колбэков не вызывает; нативная запись тоже. Такие пути публикуют
+ * MovieChangedEvent сами (см. DiscoveredMovieIngestService)
+ */
+public class MovieChangeListener {
+
+    @PostPersist
+    void afterInsert(Movie movie) {
+        fire(new MovieChangedEvent(movie.id, movie.imdbId, true));
+    }
+
+    @PostUpdate
+    void afterUpdate(Movie movie) {
+        fire(new MovieChangedEvent(movie.id, movie.imdbId, false));
+    }
+
+    private void fire(MovieChangedEvent event) {
+        var container = Arc.container();
+        if (container == null || !container.isRunning()) {
+            return; // вне CDI (например, в unit тестах) - некому слушать
+        }
+        container
+            .beanManager()
+            .getEvent()
+            .select(MovieChangedEvent.class)
+            .fire(event);
+    }
+}
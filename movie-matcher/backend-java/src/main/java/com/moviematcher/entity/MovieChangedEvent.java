@@ -0,0 +1,14 @@
+package com.moviematcher.entity;
+
+/**
+ * CDI событие: фильм добавлен или обновлен в БД
+ *
+ * Публикуется {@link MovieChangeListener}. Наблюдатели, которым важна
+ * только закоммиченная запись, подписываются с
+ * {@code @Observes(during = TransactionPhase.AFTER_SUCCESS)}
+ *
+ * @param movieId ID фильма в БД
+ * @param imdbId IMDB ID фильма
+ * @param created true - новый фильм, false - обновление
+ */
+public record MovieChangedEvent(Long movieId, String imdbId, boolean created) {}
@@ -0,0 +1,134 @@
+package com.moviematcher.infrastructure.actor;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.jboss.logging.Logger;
+
+/**
+ * Единственный писатель состояния: очередь команд над state
+ *
+ * Команды из любых потоков попадают в mailbox и выполняются по одной,
+ * в порядке поступления, в event-loop потоке актора (ActorPool). Состояние
+ * видит только этот поток, поэтому ему не нужны блокировки.
+ *
+ * За один заход выполняется не больше DRAIN_BATCH команд - занятый актор
+ * не задерживает остальные акторы своего потока.
+ *
+ * Синхронные call/execute из потока самого актора выполняются сразу:
+ * команда, вызвавшая другую команду того же актора, не ждет сама себя
+ */
+public final class Actor<S> {
+
+    private static final Logger log = Logger.getLogger(Actor.class);
+
+    private static final int DRAIN_BATCH = 64;
+
+    private final S state;
+    private final ActorPool.EventLoop loop;
+    private final ActorPool pool;
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    Actor(S state, ActorPool.EventLoop loop, ActorPool pool) {
+        this.state = state;
+        this.loop = loop;
+        this.pool = pool;
+    }
+
+    /**
+     * Отправить команду, не дожидаясь выполнения. Ошибка только логируется
+     */
+    public void tell(Consumer<S> command) {
+        enqueue(() -> {
+            try {
+                command.accept(state);
+            } catch (Throwable e) {
+                log.error("Actor command failed", e);
+            }
+        });
+    }
+
+    /**
+     * Отправить команду; результат или ее исключение - в future
+     */
+    public <T> CompletableFuture<T> ask(Function<S, T> command) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        enqueue(() -> {
+            try {
+                result.complete(command.apply(state));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Выполнить команду и дождаться результата.
+     * Исключение команды пробрасывается как есть
+     */
+    public <T> T call(Function<S, T> command) {
+        if (loop.inEventLoop()) {
+            return command.apply(state);
+        }
+
+        try {
+            return ask(command).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Выполнить команду без результата и дождаться ее
+     */
+    public void execute(Consumer<S> command) {
+        call(s -> {
+            command.accept(s);
+            return null;
+        });
+    }
+
+    private void enqueue(Runnable command) {
+        pool.enqueued();
+        mailbox.offer(command);
+        schedule();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            loop.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            for (int i = 0; i < DRAIN_BATCH; i++) {
+                Runnable command = mailbox.poll();
+                if (command == null) {
+                    break;
+                }
+                pool.dequeued();
+                command.run();
+            }
+        } finally {
+            // И после Error: иначе актор больше никогда не запланируется
+            scheduled.set(false);
+            // Команды, пришедшие во время захода или оставшиеся за пачкой
+            if (!mailbox.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.moviematcher.infrastructure.actor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Шардированный пул event-loop потоков для акторов
+ *
+ * Каждый актор (Actor) закреплен за одним потоком по хэшу ключа, поэтому
+ * его состояние меняет только этот поток - без блокировок. Потоков
+ * немного (по умолчанию по числу ядер), акторов - сколько угодно:
+ * актор - это очередь команд, а не поток.
+ *
+ * Команды должны быть короткими и не ждать синхронно другие акторы -
+ * ввод-вывод и загрузки выполняются вне пула, а в актор приходит
+ * только результат
+ */
+public final class ActorPool implements AutoCloseable {
+
+    private final EventLoop[] loops;
+    private final AtomicLong backlog = new AtomicLong();
+
+    /**
+     * @param threads    число event-loop потоков
+     * @param namePrefix префикс имен потоков
+     */
+    public ActorPool(int threads, String namePrefix) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least 1 thread");
+        }
+
+        this.loops = new EventLoop[threads];
+        for (int i = 0; i < threads; i++) {
+            loops[i] = new EventLoop(namePrefix + "-" + i);
+        }
+    }
+
+    /**
+     * Создать актор над state, закрепленный за потоком по ключу
+     */
+    public <S> Actor<S> spawn(Object key, S state) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        EventLoop loop = loops[Math.floorMod(hash, loops.length)];
+        return new Actor<>(state, loop, this);
+    }
+
+    /**
+     * Сколько команд ждут выполнения во всех акторах
+     */
+    public long backlog() {
+        return backlog.get();
+    }
+
+    public int threads() {
+        return loops.length;
+    }
+
+    @Override
+    public void close() {
+        for (EventLoop loop : loops) {
+            loop.executor.shutdown();
+        }
+        for (EventLoop loop : loops) {
+            try {
+                loop.executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    void enqueued() {
+        backlog.incrementAndGet();
+    }
+
+    void dequeued() {
+        backlog.decrementAndGet();
+    }
+
+    /**
+     * Один поток пула: исполняет пачки команд своих акторов
+     */
+    static final class EventLoop {
+
+        private final ExecutorService executor;
+        private volatile Thread thread;
+
+        private EventLoop(String name) {
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread created = new Thread(runnable, name);
+                created.setDaemon(true);
+                thread = created;
+                return created;
+            });
+        }
+
+        void execute(Runnable task) {
+            executor.execute(task);
+        }
+
+        boolean inEventLoop() {
+            return Thread.currentThread() == thread;
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.moviematcher.infrastructure.adapter;
+
+import com.moviematcher.entity.Movie;
+import com.moviematcher.entity.MovieChangedEvent;
+import com.moviematcher.infrastructure.catalog.CatalogIndex;
+import com.moviematcher.infrastructure.catalog.CatalogRow;
+import com.moviematcher.model.RoomFilters;
+import com.moviematcher.repository.MovieRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Адаптер каталога в памяти (CatalogIndex) для сборки колод голосования
+ *
+ * Индекс строится при старте приложения из movies и таблиц связей
+ * и дополняется после коммита каждого сохраненного фильма (MovieChangedEvent).
+ * Пока индекс не построен, isAvailable() = false и вызывающий
+ * использует DatabaseMovieDataSource.
+ *
+ * Фильтрация и выборка идут без Postgres, БД нужна только чтобы
+ * превратить найденные imdbId в сущности Movie (findByFilters)
+ */
+@ApplicationScoped
+public class CatalogMovieDataSource implements MovieDataSource {
+
+    private static final Logger log = Logger.getLogger(
+        CatalogMovieDataSource.class
+    );
+
+    private static final String MOVIES_SQL = """
+        SELECT m.id, m.imdb_id, m.type, m.year, m.runtime, m.imdb_rating
+          FROM movies m
+        """;
+    private static final String GENRES_SQL = """
+        SELECT mg.movie_id, g.slug, g.name
+          FROM movie_genres mg
+          JOIN genres g ON g.id = mg.genre_id
+        """;
+    private static final String COUNTRIES_SQL = """
+        SELECT mc.movie_id, c.code
+          FROM movie_countries mc
+          JOIN countries c ON c.id = mc.country_id
+        """;
+    private static final String LANGUAGES_SQL = """
+        SELECT ml.movie_id, l.code
+          FROM movie_languages ml
+          JOIN languages l ON l.id = ml.language_id
+        """;
+
+    private final EntityManager em;
+    private final MovieRepository movieRepository;
+    private final boolean enabled;
+
+    private volatile CatalogIndex index;
+    private volatile boolean ready;
+
+    // Фильмы, сохраненные во время построения индекса - догоняем после
+    private final Queue<Long> pendingDuringBuild = new ConcurrentLinkedQueue<>();
+
+    // Очередь разбирает один поток: иначе строка, прочитанная раньше,
+    // может лечь в индекс позже более свежей
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    @jakarta.inject.Inject
+    public CatalogMovieDataSource(
+        EntityManager em,
+        MovieRepository movieRepository,
+        @ConfigProperty(
+            name = "movie.catalog-index.enabled",
+            defaultValue = "true"
+        ) boolean enabled
+    ) {
+        this.em = em;
+        this.movieRepository = movieRepository;
+        this.enabled = enabled;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            log.info("Catalog index disabled, decks are built by the database");
+            return;
+        }
+
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Failed to build catalog index, falling back to DB", e);
+        }
+    }
+
+    /**
+     * Построить индекс заново и атомарно подменить текущий
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        ready = false;
+
+        CatalogIndex fresh = new CatalogIndex();
+        List<CatalogRow> rows = QuarkusTransaction.requiringNew().call(() ->
+            loadRows(null)
+        );
+        rows.forEach(fresh::upsert);
+
+        index = fresh;
+        ready = true;
+        catchUp();
+
+        log.infof(
+            "Catalog index built: {} movies in {} ms",
+            fresh.size(),
+            (System.nanoTime() - start) / 1_000_000
+        );
+    }
+
+    /**
+     * Инкрементальное обновление после коммита фильма
+     */
+    void onMovieChanged(
+        @Observes(during = TransactionPhase.AFTER_SUCCESS) MovieChangedEvent event
+    ) {
+        if (!enabled || event.movieId() == null) {
+            return;
+        }
+
+        pendingDuringBuild.add(event.movieId());
+        if (ready) {
+            catchUp();
+        }
+    }
+
+    private void catchUp() {
+        // Событие, пришедшее во время разбора, подхватит следующий круг
+        while (
+            !pendingDuringBuild.isEmpty() && draining.compareAndSet(false, true)
+        ) {
+            try {
+                if (!drainPending()) {
+                    return;
+                }
+            } finally {
+                draining.set(false);
+            }
+        }
+    }
+
+    // false - не удалось, id возвращены в очередь до следующего события
+    private boolean drainPending() {
+        List<Long> movieIds = new ArrayList<>();
+        Long movieId;
+        while ((movieId = pendingDuringBuild.poll()) != null) {
+            movieIds.add(movieId);
+        }
+        if (movieIds.isEmpty()) {
+            return true;
+        }
+
+        try {
+            List<CatalogRow> rows = QuarkusTransaction.requiringNew().call(() ->
+                loadRows(movieIds)
+            );
+            rows.forEach(index::upsert);
+            return true;
+        } catch (Exception e) {
+            pendingDuringBuild.addAll(movieIds);
+            log.errorf("Failed to update catalog index for {}", movieIds, e);
+            return false;
+        }
+    }
+
+    @Override
+    public List<String> findRandomIdsByFilters(
+        RoomFilters filters,
+        long seed,
+        int page,
+        int pageSize
+    ) {
+        CatalogIndex current = requireIndex();
+        BitSet rows = current.match(filters);
+        return current.sample(rows, seed, offset(page, pageSize), pageSize);
+    }
+
+    @Override
+    public List<String> findIdsByFilters(RoomFilters filters) {
+        CatalogIndex current = requireIndex();
+        BitSet rows = current.match(filters);
+        return current.page(rows, 0, rows.cardinality());
+    }
+
+    @Override
+    public List<Movie> findRandomByFilters(
+        RoomFilters filters,
+        long seed,
+        int page,
+        int pageSize
+    ) {
+        return loadMovies(findRandomIdsByFilters(filters, seed, page, pageSize));
+    }
+
+    @Override
+    public List<Movie> findByFilters(
+        RoomFilters filters,
+        int page,
+        int pageSize
+    ) {
+        CatalogIndex current = requireIndex();
+        BitSet rows = current.match(filters);
+        return loadMovies(current.page(rows, offset(page, pageSize), pageSize));
+    }
+
+    @Override
+    public Optional<Movie> findByExternalId(String externalId) {
+        return Optional.ofNullable(Movie.findByImdbId(externalId));
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return ready;
+    }
+
+    @Override
+    public String getSourceName() {
+        return "Catalog";
+    }
+
+    private CatalogIndex requireIndex() {
+        if (!ready) {
+            throw new IllegalStateException("Catalog index is not built yet");
+        }
+        return index;
+    }
+
+    // Страницы считаются с 1, как в остальных источниках
+    private int offset(int page, int pageSize) {
+        return Math.max(0, page - 1) * pageSize;
+    }
+
+    // Одним запросом, с ассоциациями карточки
+    private List<Movie> loadMovies(List<String> imdbIds) {
+        if (imdbIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(
+            movieRepository.findByImdbIds(imdbIds).values()
+        );
+    }
+
+    /**
+     * Четыре запроса на весь каталог (или на список movieIds)
+     */
+    private List<CatalogRow> loadRows(Collection<Long> movieIds) {
+        Map<Long, RowBuilder> builders = new LinkedHashMap<>();
+
+        for (Object[] row : query(MOVIES_SQL, "m.id", movieIds)) {
+            RowBuilder builder = new RowBuilder();
+            builder.movieId = ((Number) row[0]).longValue();
+            builder.imdbId = (String) row[1];
+            builder.type = (String) row[2];
+            builder.year = row[3] != null ? ((Number) row[3]).intValue() : null;
+            builder.runtime = row[4] != null
+                ? ((Number) row[4]).intValue()
+                : null;
+            builder.imdbRating = (BigDecimal) row[5];
+            builders.put(builder.movieId, builder);
+        }
+
+        for (Object[] row : query(GENRES_SQL, "mg.movie_id", movieIds)) {
+            RowBuilder builder = builders.get(((Number) row[0]).longValue());
+            if (builder != null) {
+                builder.genres.put((String) row[1], (String) row[2]);
+            }
+        }
+        for (Object[] row : query(COUNTRIES_SQL, "mc.movie_id", movieIds)) {
+            RowBuilder builder = builders.get(((Number) row[0]).longValue());
+            if (builder != null) {
+                builder.countries.add((String) row[1]);
+            }
+        }
+        for (Object[] row : query(LANGUAGES_SQL, "ml.movie_id", movieIds)) {
+            RowBuilder builder = builders.get(((Number) row[0]).longValue());
+            if (builder != null) {
+                builder.languages.add((String) row[1]);
+            }
+        }
+
+        // Порядок ordinal = порядок id, как при начальной загрузке
+        return builders
+            .values()
+            .stream()
+            .sorted(Comparator.comparingLong(b -> b.movieId))
+            .map(RowBuilder::build)
+            .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> query(
+        String sql,
+        String movieIdColumn,
+        Collection<Long> movieIds
+    ) {
+        if (movieIds == null) {
+            return em.createNativeQuery(sql).getResultList();
+        }
+        return em
+            .createNativeQuery(sql + " WHERE " + movieIdColumn + " IN (:ids)")
+            .setParameter("ids", movieIds)
+            .getResultList();
+    }
+
+    private static final class RowBuilder {
+
+        long movieId;
+        String imdbId;
+        String type;
+        Integer year;
+        Integer runtime;
+        BigDecimal imdbRating;
+        final Map<String, String> genres = new HashMap<>();
+        final Set<String> countries = new HashSet<>();
+        final Set<String> languages = new HashSet<>();
+
+        CatalogRow build() {
+            return new CatalogRow(
+                movieId,
+                imdbId,
+                type,
+                year,
+                runtime,
+                imdbRating,
+                genres,
+                countries,
+                languages
+            );
+        }
+    }
+}
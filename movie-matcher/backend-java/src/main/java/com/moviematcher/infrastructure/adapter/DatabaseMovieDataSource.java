@@ -52,6 +52,44 @@ public class DatabaseMovieDataSource implements MovieDataSource {
         );
     }
 
+    @Override
+    public List<Movie> findRandomByFilters(
+        RoomFilters filters,
+        long seed,
+        int page,
+        int pageSize
+    ) {
+        log.debugf(
+            "Sampling movies in DB with filters: {}, seed: {}, page: {}",
+            filters,
+            seed,
+            page
+        );
+
+        // В репозитории страницы считаются с 0
+        return movieRepository.findRandomByFilters(
+            filters.getGenre(),
+            filters.getYearFrom(),
+            filters.getYearTo(),
+            filters.getMinRating(),
+            filters.getType(),
+            seed,
+            Math.max(0, page - 1),
+            pageSize
+        );
+    }
+
+    @Override
+    public List<String> findIdsByFilters(RoomFilters filters) {
+        return movieRepository.findImdbIdsByDeckFilters(
+            filters.getGenre(),
+            filters.getYearFrom(),
+            filters.getYearTo(),
+            filters.getMinRating(),
+            filters.getType()
+        );
+    }
+
     @Override
     public Optional<Movie> findByExternalId(String externalId) {
         log.debugf("Searching movie in DB by external ID: {}", externalId);
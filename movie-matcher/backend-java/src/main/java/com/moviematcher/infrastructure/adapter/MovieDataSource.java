@@ -17,6 +17,7 @@ import java.util.Optional;
  *
  * Реализации:
  * - DatabaseMovieDataSource - поиск в локальной БД
+ * - CatalogMovieDataSource - колоночный индекс каталога в памяти
  * - TmdbApiDataSource - получение данных из TMDB API
  * - OmdbApiDataSource - получение данных из OMDB API
  */
@@ -32,6 +33,53 @@ public interface MovieDataSource {
      */
     List<Movie> findByFilters(RoomFilters filters, int page, int pageSize);
 
+    /**
+     * Случайная выборка фильмов по фильтрам, воспроизводимая по seed
+     *
+     * Одинаковый seed дает одинаковые страницы, поэтому страница 2
+     * не повторяет фильмы страницы 1.
+     * По умолчанию источник не умеет в seed и просто делегирует в findByFilters
+     *
+     * @param filters фильтры (жанр, год, рейтинг, тип)
+     * @param seed seed комнаты/участника
+     * @param page номер страницы (начиная с 1)
+     * @param pageSize размер страницы
+     * @return список фильмов в случайном порядке
+     */
+    default List<Movie> findRandomByFilters(
+        RoomFilters filters,
+        long seed,
+        int page,
+        int pageSize
+    ) {
+        return findByFilters(filters, page, pageSize);
+    }
+
+    /**
+     * То же, что findRandomByFilters, но только imdbId - для очередей голосования.
+     * Источники, которые умеют выбирать без загрузки сущностей, переопределяют
+     */
+    default List<String> findRandomIdsByFilters(
+        RoomFilters filters,
+        long seed,
+        int page,
+        int pageSize
+    ) {
+        return findRandomByFilters(filters, seed, page, pageSize)
+            .stream()
+            .map(movie -> movie.imdbId)
+            .toList();
+    }
+
+    /**
+     * Все imdbId под фильтры, без перетасовки - для общего пула кандидатов
+     * колод (DeckCandidateCache), порядок задает уже пул.
+     * По умолчанию - одна страница findRandomIdsByFilters без ограничения
+     */
+    default List<String> findIdsByFilters(RoomFilters filters) {
+        return findRandomIdsByFilters(filters, 0L, 1, Integer.MAX_VALUE);
+    }
+
     /**
      * Поиск фильма по внешнему ID (IMDB ID или TMDB ID)
      *
@@ -2,12 +2,17 @@ package com.moviematcher.infrastructure.adapter;
 
 import com.moviematcher.client.tmdb.TmdbRestClient;
 import com.moviematcher.client.tmdb.TmdbSearchResponse;
+import com.moviematcher.client.tmdb.TmdbSearchResult;
 import com.moviematcher.entity.Movie;
 import com.moviematcher.infrastructure.mapper.TmdbMovieMapper;
 import com.moviematcher.model.RoomFilters;
+import io.quarkus.virtual.threads.VirtualThreads;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
@@ -37,13 +42,17 @@ public class TmdbApiDataSource implements MovieDataSource {
 
     final TmdbMovieMapper movieMapper;
 
+    final ExecutorService detailLoader;
+
     @jakarta.inject.Inject
     public TmdbApiDataSource(
         @RestClient TmdbRestClient tmdbClient,
-        TmdbMovieMapper movieMapper
+        TmdbMovieMapper movieMapper,
+        @VirtualThreads ExecutorService detailLoader
     ) {
         this.tmdbClient = tmdbClient;
         this.movieMapper = movieMapper;
+        this.detailLoader = detailLoader;
     }
 
     @Override
@@ -59,28 +68,8 @@ public class TmdbApiDataSource implements MovieDataSource {
         );
 
         try {
-            // TMDB Discover API - мощный метод для фильтрации
-            TmdbSearchResponse response = tmdbClient.discoverMovies(
-                apiKey,
-                "ru-RU", // ВАЖНО: Русский язык!
-                "popularity.desc", // Сортировка по популярности
-                page,
-                mapGenreToTmdbId(filters.getGenre()),
-                filters.getYearFrom(),
-                filters.getYearTo(),
-                filters.getMinRating() != null
-                    ? filters.getMinRating().doubleValue()
-                    : null,
-                100 // Минимум 100 голосов для фильтрации мусора
-            );
-
-            if (response == null || response.results() == null) {
-                return List.of();
-            }
-
             // Конвертируем результаты в Movie entities
-            List<Movie> movies = response
-                .results()
+            List<Movie> movies = discover(filters, page)
                 .stream()
                 .limit(pageSize)
                 .map(movieMapper::toMovieFromSearchResult)
@@ -94,6 +83,93 @@ public class TmdbApiDataSource implements MovieDataSource {
         }
     }
 
+    /**
+     * Discover с деталями фильмов - для колод голосования
+     *
+     * В результатах discover нет imdb_id, а без него фильм нельзя
+     * ни сохранить, ни показать. Детали страницы запрашиваются параллельно
+     * в виртуальных потоках; фильмы без imdb_id или с ошибкой деталей
+     * отбрасываются. Титры не запрашиваются - их дозагрузит обогащение.
+     *
+     * Ошибка discover пробрасывается: пустой список значит, что страниц
+     * больше нет, и колода перестает дозагружаться из TMDB
+     */
+    public List<Movie> discoverWithDetails(
+        RoomFilters filters,
+        int page,
+        int pageSize
+    ) {
+        List<TmdbSearchResult> results = discover(filters, page)
+            .stream()
+            .limit(pageSize)
+            .toList();
+
+        List<CompletableFuture<Movie>> details = results
+            .stream()
+            .map(result ->
+                CompletableFuture.supplyAsync(
+                    () -> loadDetails(result.id()),
+                    detailLoader
+                )
+            )
+            .toList();
+        List<Movie> movies = details
+            .stream()
+            .map(CompletableFuture::join)
+            .filter(Objects::nonNull)
+            .toList();
+
+        log.infof(
+            "Found {} movies from TMDB discover, {} with IMDB ID",
+            results.size(),
+            movies.size()
+        );
+        return movies;
+    }
+
+    private List<TmdbSearchResult> discover(RoomFilters filters, int page) {
+        // TMDB Discover API - мощный метод для фильтрации
+        TmdbSearchResponse response = tmdbClient.discoverMovies(
+            apiKey,
+            "ru-RU", // ВАЖНО: Русский язык!
+            "popularity.desc", // Сортировка по популярности
+            page,
+            mapGenreToTmdbId(filters.getGenre()),
+            filters.getYearFrom(),
+            filters.getYearTo(),
+            filters.getMinRating() != null
+                ? filters.getMinRating().doubleValue()
+                : null,
+            100 // Минимум 100 голосов для фильтрации мусора
+        );
+
+        if (response == null || response.results() == null) {
+            return List.of();
+        }
+        return response.results();
+    }
+
+    private Movie loadDetails(Long tmdbId) {
+        try {
+            var movieDetails = tmdbClient.getMovieDetails(
+                tmdbId,
+                apiKey,
+                "ru-RU"
+            );
+            if (
+                movieDetails == null ||
+                movieDetails.imdbId() == null ||
+                movieDetails.imdbId().isBlank()
+            ) {
+                return null;
+            }
+            return movieMapper.toMovie(movieDetails, null);
+        } catch (Exception e) {
+            log.warnf("Failed to load TMDB details for {}: {}", tmdbId, e);
+            return null;
+        }
+    }
+
     @Override
     public Optional<Movie> findByExternalId(String externalId) {
         log.debugf("Searching movie in TMDB by external ID: {}", externalId);
@@ -0,0 +1,106 @@
+package com.moviematcher.infrastructure.cache;
+
+/**
+ * Приблизительный счетчик частоты ключей (count-min sketch, TinyLFU)
+ *
+ * Четыре 4-битных счетчика на ключ в общем массиве long: память
+ * не зависит от числа разных ключей. Оценка частоты - минимум из четырех,
+ * может быть завышена коллизиями, но не занижена.
+ *
+ * Старение: после sampleSize инкрементов все счетчики делятся пополам,
+ * поэтому вчерашние хиты не держат место вечно.
+ *
+ * Потокобезопасен через synchronized - операции короткие
+ */
+public class FrequencySketch {
+
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L,
+        0xb492b66fbe98f273L,
+        0x9ae16a3b2f90404fL,
+        0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param expectedSize сколько ключей держит кэш над скетчем
+     */
+    public FrequencySketch(int expectedSize) {
+        if (expectedSize < 1) {
+            throw new IllegalArgumentException(
+                "Expected size must be positive"
+            );
+        }
+
+        int length = Integer.highestOneBit(Math.max(2, expectedSize) - 1) << 1;
+        this.table = new long[length];
+        this.tableMask = length - 1;
+        this.sampleSize = 10 * expectedSize;
+    }
+
+    /**
+     * Оценка частоты ключа, 0..15
+     */
+    public synchronized int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            frequency = Math.min(frequency, count(hash, i));
+        }
+        return frequency;
+    }
+
+    /**
+     * Учесть обращение к ключу
+     */
+    public synchronized void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = indexOf(hash, i);
+            int offset = offsetOf(hash, i);
+            if (((table[index] >>> offset) & 0xfL) < MAX_COUNT) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private int count(int hash, int i) {
+        return (int) ((table[indexOf(hash, i)] >>> offsetOf(hash, i)) & 0xfL);
+    }
+
+    // Каждая хэш-функция - свое слово массива и свой 4-битный счетчик в нем
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+
+    private int offsetOf(int hash, int i) {
+        return (((hash >>> (i << 3)) & 3) << 2) + (i << 4);
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
@@ -0,0 +1,471 @@
+package com.moviematcher.infrastructure.catalog;
+
+import com.moviematcher.domain.model.MovieFilters;
+import com.moviematcher.repository.MovieRepository.MatchMode;
+import com.moviematcher.repository.MovieRepository.MovieFilterCriteria;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Колоночный индекс каталога фильмов в памяти
+ *
+ * Каждый фильм - строка с плотным порядковым номером (ordinal).
+ * Числовые поля хранятся примитивными колонками:
+ * - year, runtime - short[] (NULL = Short.MIN_VALUE)
+ * - imdbRating - byte[] рейтинг * 10 (NULL = -1)
+ * - type - byte[] код из словаря типов
+ * Жанры, страны, языки и типы - битовые карты по ordinal на каждое значение.
+ *
+ * Фильтр вычисляется как пересечение/объединение битовых карт; по колонкам
+ * проходят только оставшиеся строки и только если заданы диапазоны
+ * (годы, длительность, рейтинг) - без обращения к Postgres.
+ *
+ * Ordinal никогда не переиспользуется, обновление фильма перезаписывает его строку.
+ * Чтение параллельно, запись (upsert) эксклюзивна
+ */
+public final class CatalogIndex {
+
+    static final short NO_SHORT = Short.MIN_VALUE;
+    static final byte NO_RATING = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int size;
+    private String[] imdbIds = new String[INITIAL_CAPACITY];
+    private short[] years = new short[INITIAL_CAPACITY];
+    private short[] runtimes = new short[INITIAL_CAPACITY];
+    private byte[] ratings = new byte[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final List<String> typeNames = new ArrayList<>();
+    // код типа → строки
+    private final List<BitSet> typeRows = new ArrayList<>();
+
+    // slug → строки, slug → название в нижнем регистре (для поиска по подстроке)
+    private final Map<String, BitSet> genres = new HashMap<>();
+    private final Map<String, String> genreNames = new HashMap<>();
+    private final Map<String, BitSet> countries = new HashMap<>();
+    private final Map<String, BitSet> languages = new HashMap<>();
+
+    /**
+     * Добавить фильм или перезаписать его строку
+     */
+    public void upsert(CatalogRow row) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = ordinals.get(row.movieId());
+            int ordinal;
+            if (existing != null) {
+                ordinal = existing;
+                clearMemberships(ordinal);
+            } else {
+                ordinal = size++;
+                ensureCapacity(size);
+                ordinals.put(row.movieId(), ordinal);
+            }
+
+            imdbIds[ordinal] = row.imdbId();
+            years[ordinal] = toShort(row.year());
+            runtimes[ordinal] = toShort(row.runtime());
+            ratings[ordinal] = toScaledRating(row.imdbRating());
+            types[ordinal] = typeCode(row.type());
+            typeRows.get(types[ordinal]).set(ordinal);
+
+            if (row.genres() != null) {
+                row
+                    .genres()
+                    .forEach((slug, name) -> {
+                        genreNames.put(slug, name.toLowerCase());
+                        genres
+                            .computeIfAbsent(slug, k -> new BitSet())
+                            .set(ordinal);
+                    });
+            }
+            setMemberships(countries, row.countries(), ordinal);
+            setMemberships(languages, row.languages(), ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Строки под фильтры участника комнаты - та же семантика,
+     * что у MovieRepository.findRandomByFilters (жанр - подстрока названия)
+     */
+    public BitSet match(MovieFilters filters) {
+        lock.readLock().lock();
+        try {
+            BitSet rows;
+            String genre = filters.getGenre();
+            if (genre != null && !genre.isBlank()) {
+                rows = genresByName(genre.toLowerCase());
+            } else {
+                rows = rowsOfType(filters.getType());
+            }
+
+            byte minRating = filters.getMinRating() != null
+                ? scaledLowerBound(filters.getMinRating())
+                : NO_RATING;
+
+            return filterColumns(
+                rows,
+                filters.getType(),
+                filters.getYearFrom(),
+                filters.getYearTo(),
+                null,
+                null,
+                minRating,
+                Byte.MAX_VALUE,
+                filters.getMinRating() != null
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Строки под MovieFilterCriteria
+     *
+     * @return empty, если критерии используют поля вне индекса
+     *         (студии, ключевые слова, название, титры) - тогда нужен Postgres
+     */
+    public Optional<BitSet> match(MovieFilterCriteria criteria) {
+        if (
+            !isEmpty(criteria.studioNames) ||
+            !isEmpty(criteria.keywordSlugs) ||
+            !isBlank(criteria.titleSearch) ||
+            !isBlank(criteria.directorName) ||
+            !isBlank(criteria.actorName)
+        ) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            BitSet rows = rowsOfType(criteria.type);
+            intersectMemberships(
+                rows,
+                genres,
+                criteria.genreSlugs,
+                criteria.genreMatch
+            );
+            intersectMemberships(
+                rows,
+                countries,
+                criteria.countryCodes,
+                criteria.countryMatch
+            );
+            intersectMemberships(
+                rows,
+                languages,
+                criteria.languageCodes,
+                criteria.languageMatch
+            );
+
+            boolean ratingRequired =
+                criteria.minImdbRating != null ||
+                criteria.maxImdbRating != null ||
+                (criteria.sortBy != null && criteria.sortBy.contains("rating"));
+
+            return Optional.of(
+                filterColumns(
+                    rows,
+                    criteria.type,
+                    criteria.yearFrom,
+                    criteria.yearTo,
+                    criteria.minRuntime,
+                    criteria.maxRuntime,
+                    criteria.minImdbRating != null
+                        ? scaledLowerBound(criteria.minImdbRating)
+                        : NO_RATING,
+                    criteria.maxImdbRating != null
+                        ? scaledUpperBound(criteria.maxImdbRating)
+                        : Byte.MAX_VALUE,
+                    ratingRequired
+                )
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Страница случайной выборки, воспроизводимой по seed
+     *
+     * Частичная тасовка Фишера-Йетса по рангам строк (k-я установленная
+     * строка): переставленные позиции хранятся в разреженной карте, поэтому
+     * память O(offset + limit), а не массив всех кандидатов. Ранги страницы
+     * переводятся в ordinal одним проходом по rows.
+     * Одинаковый seed на том же наборе строк дает те же страницы
+     */
+    public List<String> sample(BitSet rows, long seed, int offset, int limit) {
+        int candidates = rows.cardinality();
+        int end = Math.min(candidates, offset + limit);
+        if (offset >= end) {
+            return List.of();
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        Map<Integer, Integer> swapped = new HashMap<>();
+        int[] ranks = new int[end - offset];
+        for (int i = 0; i < end; i++) {
+            int j = i + random.nextInt(candidates - i);
+            int atI = swapped.getOrDefault(i, i);
+            int atJ = swapped.getOrDefault(j, j);
+            swapped.put(j, atI);
+            if (i >= offset) {
+                ranks[i - offset] = atJ;
+            }
+        }
+
+        return imdbIdsOf(ordinalsOfRanks(rows, ranks));
+    }
+
+    // ranks[i] → ordinal ranks[i]-й установленной строки, порядок сохраняется
+    private static int[] ordinalsOfRanks(BitSet rows, int[] ranks) {
+        Integer[] order = new Integer[ranks.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(ranks[a], ranks[b]));
+
+        int[] ordinals = new int[ranks.length];
+        int rank = 0;
+        int row = rows.nextSetBit(0);
+        for (Integer position : order) {
+            for (; rank < ranks[position]; rank++) {
+                row = rows.nextSetBit(row + 1);
+            }
+            ordinals[position] = row;
+        }
+        return ordinals;
+    }
+
+    /**
+     * Страница в порядке ordinal (порядок загрузки каталога)
+     */
+    public List<String> page(BitSet rows, int offset, int limit) {
+        int[] page = rows.stream().skip(offset).limit(limit).toArray();
+        return imdbIdsOf(page);
+    }
+
+    private List<String> imdbIdsOf(int[] rowOrdinals) {
+        lock.readLock().lock();
+        try {
+            List<String> result = new ArrayList<>(rowOrdinals.length);
+            for (int ordinal : rowOrdinals) {
+                result.add(imdbIds[ordinal]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet filterColumns(
+        BitSet rows,
+        String type,
+        Integer yearFrom,
+        Integer yearTo,
+        Integer minRuntime,
+        Integer maxRuntime,
+        byte minRating,
+        byte maxRating,
+        boolean ratingRequired
+    ) {
+        if (type != null && !type.isBlank()) {
+            int typeCode = typeNames.indexOf(type);
+            if (typeCode < 0) {
+                return new BitSet();
+            }
+            rows.and(typeRows.get(typeCode));
+        }
+
+        // Без диапазонов колонки смотреть незачем
+        if (
+            yearFrom == null &&
+            yearTo == null &&
+            minRuntime == null &&
+            maxRuntime == null &&
+            !ratingRequired
+        ) {
+            return rows;
+        }
+
+        for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1)) {
+            boolean matches =
+                inRange(years[i], yearFrom, yearTo) &&
+                inRange(runtimes[i], minRuntime, maxRuntime) &&
+                (!ratingRequired ||
+                    (ratings[i] != NO_RATING &&
+                        ratings[i] >= minRating &&
+                        ratings[i] <= maxRating));
+            if (!matches) {
+                rows.clear(i);
+            }
+        }
+        return rows;
+    }
+
+    // NULL не проходит ни одну границу, как в SQL
+    private boolean inRange(short value, Integer from, Integer to) {
+        if (from == null && to == null) return true;
+        if (value == NO_SHORT) return false;
+        return (from == null || value >= from) && (to == null || value <= to);
+    }
+
+    private BitSet genresByName(String namePart) {
+        BitSet rows = new BitSet();
+        genreNames.forEach((slug, name) -> {
+            if (name.contains(namePart)) {
+                rows.or(genres.get(slug));
+            }
+        });
+        return rows;
+    }
+
+    private void intersectMemberships(
+        BitSet rows,
+        Map<String, BitSet> dimension,
+        Collection<String> values,
+        MatchMode match
+    ) {
+        if (isEmpty(values)) {
+            return;
+        }
+
+        if (match == MatchMode.ALL) {
+            for (String value : values) {
+                rows.and(dimension.getOrDefault(value, new BitSet()));
+            }
+            return;
+        }
+
+        BitSet any = new BitSet();
+        for (String value : values) {
+            BitSet members = dimension.get(value);
+            if (members != null) {
+                any.or(members);
+            }
+        }
+        rows.and(any);
+    }
+
+    // Копия строк типа (тип задан) или всех строк - стартовый набор фильтра
+    private BitSet rowsOfType(String type) {
+        if (type != null && !type.isBlank()) {
+            int typeCode = typeNames.indexOf(type);
+            return typeCode < 0
+                ? new BitSet()
+                : (BitSet) typeRows.get(typeCode).clone();
+        }
+        BitSet rows = new BitSet(size);
+        rows.set(0, size);
+        return rows;
+    }
+
+    private void setMemberships(
+        Map<String, BitSet> dimension,
+        Collection<String> values,
+        int ordinal
+    ) {
+        if (values == null) return;
+        for (String value : values) {
+            dimension.computeIfAbsent(value, k -> new BitSet()).set(ordinal);
+        }
+    }
+
+    private void clearMemberships(int ordinal) {
+        typeRows.get(types[ordinal]).clear(ordinal);
+        genres.values().forEach(bits -> bits.clear(ordinal));
+        countries.values().forEach(bits -> bits.clear(ordinal));
+        languages.values().forEach(bits -> bits.clear(ordinal));
+    }
+
+    private byte typeCode(String type) {
+        int code = typeNames.indexOf(type);
+        if (code < 0) {
+            typeNames.add(type);
+            typeRows.add(new BitSet());
+            code = typeNames.size() - 1;
+        }
+        return (byte) code;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= imdbIds.length) {
+            return;
+        }
+        int capacity = Math.max(required, imdbIds.length * 2);
+        imdbIds = Arrays.copyOf(imdbIds, capacity);
+        years = Arrays.copyOf(years, capacity);
+        runtimes = Arrays.copyOf(runtimes, capacity);
+        ratings = Arrays.copyOf(ratings, capacity);
+        types = Arrays.copyOf(types, capacity);
+    }
+
+    private static short toShort(Integer value) {
+        if (value == null) return NO_SHORT;
+        return (short) Math.max(
+            Short.MIN_VALUE + 1,
+            Math.min(Short.MAX_VALUE, value)
+        );
+    }
+
+    static byte toScaledRating(BigDecimal rating) {
+        if (rating == null) return NO_RATING;
+        int scaled = rating
+            .movePointRight(1)
+            .setScale(0, RoundingMode.HALF_UP)
+            .intValue();
+        return (byte) Math.max(0, Math.min(100, scaled));
+    }
+
+    // rating >= 7.25 ⇔ scaled >= 73 (рейтинги хранятся с одним знаком)
+    private static byte scaledLowerBound(BigDecimal rating) {
+        int scaled = rating
+            .movePointRight(1)
+            .setScale(0, RoundingMode.CEILING)
+            .intValue();
+        return (byte) Math.max(0, Math.min(101, scaled));
+    }
+
+    private static byte scaledUpperBound(BigDecimal rating) {
+        int scaled = rating
+            .movePointRight(1)
+            .setScale(0, RoundingMode.FLOOR)
+            .intValue();
+        return (byte) Math.max(-1, Math.min(100, scaled));
+    }
+
+    private static boolean isEmpty(Collection<?> values) {
+        return values == null || values.isEmpty();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,24 @@
+package com.moviematcher.infrastructure.catalog;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Строка каталога для CatalogIndex - только фильтруемые поля фильма
+ *
+ * @param genres slug → название жанра
+ * @param countries коды стран
+ * @param languages коды языков
+ */
+public record CatalogRow(
+    long movieId,
+    String imdbId,
+    String type,
+    Integer year,
+    Integer runtime,
+    BigDecimal imdbRating,
+    Map<String, String> genres,
+    Set<String> countries,
+    Set<String> languages
+) {}
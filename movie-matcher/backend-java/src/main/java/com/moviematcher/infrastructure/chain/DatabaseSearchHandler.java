@@ -10,7 +10,7 @@ import org.jboss.logging.Logger;
 /**
  * Первый обработчик в цепочке - поиск в локальной БД
  *
- * Если фильм найден в БД - возвращаем его
+ * Если фильм найден в БД - возвращаем его (лучшее совпадение по trigram similarity)
  * Если не найден - передаем запрос следующему обработчику (TMDB или OMDB)
  */
 @ApplicationScoped
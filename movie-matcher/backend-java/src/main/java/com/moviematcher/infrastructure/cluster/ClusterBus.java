@@ -0,0 +1,32 @@
+package com.moviematcher.infrastructure.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Шина сообщений между узлами кластера
+ *
+ * У каждого узла свой адрес (канал); сообщение - строка любого размера.
+ * Сообщения одного отправителя одному узлу приходят в порядке отправки,
+ * доставка - не более одного раза: узел, который был недоступен,
+ * пропущенные сообщения не получит.
+ *
+ * Реализации:
+ * - PostgresNotifyBus - LISTEN/NOTIFY в существующей базе
+ */
+public interface ClusterBus extends AutoCloseable {
+
+    /**
+     * Начать прием сообщений, адресованных узлу
+     *
+     * @param listener вызывается в потоке шины - не должен блокироваться
+     */
+    void start(String nodeId, Consumer<String> listener);
+
+    /**
+     * Отправить сообщение узлу
+     */
+    void publish(String nodeId, String message);
+
+    @Override
+    void close();
+}
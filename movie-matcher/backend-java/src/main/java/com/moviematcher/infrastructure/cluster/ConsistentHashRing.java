@@ -0,0 +1,75 @@
+package com.moviematcher.infrastructure.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Кольцо consistent hashing: ключ → узел-владелец
+ *
+ * Каждый узел занимает на кольце virtualNodes точек; владелец ключа -
+ * первая точка по часовой стрелке от хэша ключа. При добавлении или
+ * удалении узла переезжает только ~1/N ключей, а виртуальные точки
+ * выравнивают нагрузку между узлами.
+ *
+ * Кольцо неизменяемо - новое членство строит новое кольцо
+ */
+public final class ConsistentHashRing {
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+    private final List<String> nodes;
+
+    /**
+     * @param nodes        ID узлов кластера
+     * @param virtualNodes точек кольца на узел
+     */
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("Need at least 1 node");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("Need at least 1 virtual node");
+        }
+
+        this.nodes = List.copyOf(nodes);
+        for (String node : this.nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                // При коллизии точек побеждает меньший ID - одинаково на всех узлах
+                ring.merge(hash(node + "#" + i), node, (a, b) ->
+                    a.compareTo(b) <= 0 ? a : b
+                );
+            }
+        }
+    }
+
+    /**
+     * Узел-владелец ключа
+     */
+    public String ownerOf(String key) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    // FNV-1a по UTF-8 и финальное перемешивание (fmix64 из MurmurHash3):
+    // хэш одинаков на всех узлах и JVM, в отличие от String.hashCode()
+    // не кучкуется на похожих ключах
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
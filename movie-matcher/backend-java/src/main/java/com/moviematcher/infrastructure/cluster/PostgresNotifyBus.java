@@ -0,0 +1,282 @@
+package com.moviematcher.infrastructure.cluster;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+/**
+ * Шина кластера на Postgres LISTEN/NOTIFY
+ *
+ * Узел слушает канал movie_matcher_<nodeId> на отдельном соединении (вне
+ * пула - оно занято навсегда); отправка - pg_notify через пул.
+ *
+ * Payload NOTIFY ограничен 8000 байт, поэтому сообщение режется на части
+ * "id:index:count:data" по CHUNK_CHARS символов (до 4 байт UTF-8 на
+ * символ). Части одного сообщения уходят одной транзакцией: Postgres
+ * доставляет их вместе и по порядку, получатель склеивает по id.
+ *
+ * Соединение слушателя восстанавливается после обрыва; сообщения,
+ * отправленные в это время, теряются (как и у самого NOTIFY)
+ */
+@ApplicationScoped
+public class PostgresNotifyBus implements ClusterBus {
+
+    private static final Logger log = Logger.getLogger(PostgresNotifyBus.class);
+
+    static final int CHUNK_CHARS = 1900;
+
+    private static final int POLL_MILLIS = 500;
+    private static final long RECONNECT_MILLIS = 1000;
+
+    private final DataSource dataSource;
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+
+    // Уникален между перезапусками узла: id частей не пересекаются
+    private final String instanceId = Long.toHexString(
+        ThreadLocalRandom.current().nextLong()
+    );
+    private final AtomicLong sequence = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @jakarta.inject.Inject
+    public PostgresNotifyBus(
+        DataSource dataSource,
+        @ConfigProperty(name = "quarkus.datasource.jdbc.url") String jdbcUrl,
+        @ConfigProperty(name = "quarkus.datasource.username") String username,
+        @ConfigProperty(name = "quarkus.datasource.password") String password
+    ) {
+        this.dataSource = dataSource;
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+    }
+
+    @Override
+    public synchronized void start(String nodeId, Consumer<String> listener) {
+        if (running) {
+            throw new IllegalStateException("Cluster bus already started");
+        }
+
+        String channel = channel(nodeId);
+        running = true;
+        listenerThread = Thread.ofPlatform()
+            .name("cluster-bus-" + nodeId)
+            .daemon()
+            .start(() -> listen(channel, listener));
+        log.infof("Cluster bus listening on channel {}", channel);
+    }
+
+    @Override
+    public void publish(String nodeId, String message) {
+        List<String> chunks = split(
+            instanceId + "." + sequence.incrementAndGet(),
+            message
+        );
+
+        try (
+            Connection connection = dataSource.getConnection();
+            PreparedStatement notify = connection.prepareStatement(
+                "SELECT pg_notify(?, ?)"
+            )
+        ) {
+            boolean autoCommit = connection.getAutoCommit();
+            if (chunks.size() > 1) {
+                connection.setAutoCommit(false);
+            }
+            try {
+                for (String chunk : chunks) {
+                    notify.setString(1, channel(nodeId));
+                    notify.setString(2, chunk);
+                    notify.executeQuery().close();
+                }
+                if (chunks.size() > 1) {
+                    connection.commit();
+                }
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(
+                "Cluster bus publish to " + nodeId + " failed",
+                e
+            );
+        }
+    }
+
+    @Override
+    @PreDestroy
+    public void close() {
+        running = false;
+        Thread thread;
+        synchronized (this) {
+            thread = listenerThread;
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void listen(String channel, Consumer<String> listener) {
+        Assembler assembler = new Assembler();
+        while (running) {
+            try (
+                Connection connection = DriverManager.getConnection(
+                    jdbcUrl,
+                    username,
+                    password
+                )
+            ) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pg = connection.unwrap(PGConnection.class);
+
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(
+                        POLL_MILLIS
+                    );
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        String message = assembler.accept(
+                            notification.getParameter()
+                        );
+                        if (message != null) {
+                            deliver(listener, message);
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                log.warnf(
+                    "Cluster bus connection lost, reconnecting: {}",
+                    e.getMessage()
+                );
+                assembler.clear();
+                try {
+                    Thread.sleep(RECONNECT_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        log.infof("Cluster bus stopped listening on channel {}", channel);
+    }
+
+    private static void deliver(Consumer<String> listener, String message) {
+        try {
+            listener.accept(message);
+        } catch (RuntimeException e) {
+            log.error("Cluster message handler failed", e);
+        }
+    }
+
+    /**
+     * Имя канала узла: только [a-z0-9_], чтобы LISTEN не требовал кавычек
+     */
+    static String channel(String nodeId) {
+        String sanitized = nodeId
+            .toLowerCase(Locale.ROOT)
+            .replaceAll("[^a-z0-9_]", "_");
+        return "movie_matcher_" + sanitized;
+    }
+
+    /**
+     * Разрезать сообщение на части "id:index:count:data"
+     */
+    static List<String> split(String id, String message) {
+        List<String> data = new ArrayList<>();
+        int start = 0;
+        do {
+            int end = Math.min(start + CHUNK_CHARS, message.length());
+            // Не разрываем суррогатную пару
+            if (
+                end < message.length() &&
+                Character.isHighSurrogate(message.charAt(end - 1))
+            ) {
+                end--;
+            }
+            data.add(message.substring(start, end));
+            start = end;
+        } while (start < message.length());
+
+        List<String> chunks = new ArrayList<>(data.size());
+        for (int i = 0; i < data.size(); i++) {
+            chunks.add(id + ":" + i + ":" + data.size() + ":" + data.get(i));
+        }
+        return chunks;
+    }
+
+    /**
+     * Склейка частей; используется только потоком слушателя
+     */
+    static final class Assembler {
+
+        private final Map<String, String[]> pending = new HashMap<>();
+
+        /**
+         * @return целое сообщение, когда пришла его последняя часть, иначе null
+         */
+        String accept(String chunk) {
+            int first = chunk.indexOf(':');
+            int second = chunk.indexOf(':', first + 1);
+            int third = chunk.indexOf(':', second + 1);
+            if (first < 0 || second < 0 || third < 0) {
+                log.warn("Malformed cluster message chunk dropped");
+                return null;
+            }
+
+            String id = chunk.substring(0, first);
+            int index = Integer.parseInt(chunk.substring(first + 1, second));
+            int count = Integer.parseInt(chunk.substring(second + 1, third));
+            String data = chunk.substring(third + 1);
+
+            if (count == 1) {
+                return data;
+            }
+
+            String[] parts = pending.computeIfAbsent(id, k -> new String[count]);
+            parts[index] = data;
+            for (String part : parts) {
+                if (part == null) {
+                    return null;
+                }
+            }
+            pending.remove(id);
+            return String.join("", parts);
+        }
+
+        int pending() {
+            return pending.size();
+        }
+
+        void clear() {
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.moviematcher.infrastructure.journal;
+
+import com.moviematcher.domain.model.StreamPacing;
+import com.moviematcher.domain.model.VotingCompletionType;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Двоичный формат тела записи журнала
+ *
+ * seq (long), timestamp (long), тип (byte), поля записи. Строки - в
+ * modified UTF-8 (DataOutput.writeUTF), nullable-поля - с байтом-флагом,
+ * списки - с числом элементов (int).
+ * Рамку (длина + CRC32C) пишет SegmentedJournal
+ */
+final class JournalCodec {
+
+    private static final byte CREATE = 1;
+    private static final byte JOIN = 2;
+    private static final byte LEAVE = 3;
+    private static final byte FILTERS = 4;
+    private static final byte ADD_MOVIE = 5;
+    private static final byte READY = 6;
+    private static final byte START_VOTING = 7;
+    private static final byte VOTE = 8;
+    private static final byte REMOVE = 9;
+
+    private JournalCodec() {}
+
+    static byte[] encode(long seq, long timestampMillis, JournalRecord record) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(seq);
+            out.writeLong(timestampMillis);
+            if (record instanceof JournalRecord.Create create) {
+                out.writeByte(CREATE);
+                out.writeUTF(create.roomId());
+                out.writeUTF(create.hostId());
+                out.writeUTF(create.completionType().name());
+                writeNullable(
+                    out,
+                    create.pacingMode() != null
+                        ? create.pacingMode().name()
+                        : null
+                );
+                out.writeLong(create.deckSeed());
+                out.writeLong(create.createdAtMillis());
+            } else if (record instanceof JournalRecord.Join join) {
+                out.writeByte(JOIN);
+                out.writeUTF(join.roomId());
+                out.writeUTF(join.participantId());
+            } else if (record instanceof JournalRecord.Leave leave) {
+                out.writeByte(LEAVE);
+                out.writeUTF(leave.roomId());
+                out.writeUTF(leave.participantId());
+            } else if (record instanceof JournalRecord.Filters filters) {
+                out.writeByte(FILTERS);
+                out.writeUTF(filters.roomId());
+                out.writeUTF(filters.participantId());
+                writeNullable(out, filters.genre());
+                writeNullable(out, filters.yearFrom());
+                writeNullable(out, filters.yearTo());
+                writeNullable(
+                    out,
+                    filters.minRating() != null
+                        ? filters.minRating().toPlainString()
+                        : null
+                );
+                writeNullable(out, filters.type());
+            } else if (record instanceof JournalRecord.AddMovie add) {
+                out.writeByte(ADD_MOVIE);
+                out.writeUTF(add.roomId());
+                out.writeUTF(add.participantId());
+                out.writeUTF(add.movieId());
+            } else if (record instanceof JournalRecord.Ready ready) {
+                out.writeByte(READY);
+                out.writeUTF(ready.roomId());
+                out.writeUTF(ready.participantId());
+            } else if (record instanceof JournalRecord.StartVoting start) {
+                out.writeByte(START_VOTING);
+                out.writeUTF(start.roomId());
+                out.writeInt(start.participantIds().size());
+                for (String participantId : start.participantIds()) {
+                    out.writeUTF(participantId);
+                }
+            } else if (record instanceof JournalRecord.Vote vote) {
+                out.writeByte(VOTE);
+                out.writeUTF(vote.roomId());
+                out.writeUTF(vote.participantId());
+                out.writeUTF(vote.movieId());
+                out.writeBoolean(vote.isLike());
+            } else if (record instanceof JournalRecord.Remove remove) {
+                out.writeByte(REMOVE);
+                out.writeUTF(remove.roomId());
+            } else {
+                throw new IllegalArgumentException(
+                    "Unknown journal record " + record
+                );
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IOException если тело обрезано или тип записи неизвестен
+     */
+    static JournalEntry decode(byte[] body) throws IOException {
+        DataInputStream in = new DataInputStream(
+            new ByteArrayInputStream(body)
+        );
+        long seq = in.readLong();
+        long timestampMillis = in.readLong();
+        byte type = in.readByte();
+        String roomId = in.readUTF();
+
+        JournalRecord record = switch (type) {
+            case CREATE -> {
+                String hostId = in.readUTF();
+                VotingCompletionType completionType =
+                    VotingCompletionType.valueOf(in.readUTF());
+                String pacing = readNullableString(in);
+                yield new JournalRecord.Create(
+                    roomId,
+                    hostId,
+                    completionType,
+                    pacing != null ? StreamPacing.Mode.valueOf(pacing) : null,
+                    in.readLong(),
+                    in.readLong()
+                );
+            }
+            case JOIN -> new JournalRecord.Join(roomId, in.readUTF());
+            case LEAVE -> new JournalRecord.Leave(roomId, in.readUTF());
+            case FILTERS -> {
+                String participantId = in.readUTF();
+                String genre = readNullableString(in);
+                Integer yearFrom = readNullableInt(in);
+                Integer yearTo = readNullableInt(in);
+                String minRating = readNullableString(in);
+                yield new JournalRecord.Filters(
+                    roomId,
+                    participantId,
+                    genre,
+                    yearFrom,
+                    yearTo,
+                    minRating != null ? new BigDecimal(minRating) : null,
+                    readNullableString(in)
+                );
+            }
+            case ADD_MOVIE -> new JournalRecord.AddMovie(
+                roomId,
+                in.readUTF(),
+                in.readUTF()
+            );
+            case READY -> new JournalRecord.Ready(roomId, in.readUTF());
+            case START_VOTING -> {
+                int count = in.readInt();
+                List<String> participantIds = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    participantIds.add(in.readUTF());
+                }
+                yield new JournalRecord.StartVoting(roomId, participantIds);
+            }
+            case VOTE -> new JournalRecord.Vote(
+                roomId,
+                in.readUTF(),
+                in.readUTF(),
+                in.readBoolean()
+            );
+            case REMOVE -> new JournalRecord.Remove(roomId);
+            default -> throw new IOException(
+                "Unknown journal record type " + type
+            );
+        };
+        return new JournalEntry(seq, timestampMillis, record);
+    }
+
+    private static void writeNullable(DataOutputStream out, String value)
+        throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, Integer value)
+        throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in)
+        throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static Integer readNullableInt(DataInputStream in)
+        throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+}
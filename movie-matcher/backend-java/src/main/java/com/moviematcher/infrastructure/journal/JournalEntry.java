@@ -0,0 +1,9 @@
+package com.moviematcher.infrastructure.journal;
+
+/**
+ * Запись журнала с порядковым номером и временем добавления
+ *
+ * @param seq             номер записи, строго растет по журналу
+ * @param timestampMillis время добавления (epoch millis)
+ */
+public record JournalEntry(long seq, long timestampMillis, JournalRecord record) {}
@@ -0,0 +1,71 @@
+package com.moviematcher.infrastructure.journal;
+
+import com.moviematcher.domain.model.StreamPacing;
+import com.moviematcher.domain.model.VotingCompletionType;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Запись журнала комнат: одна успешно выполненная команда комнаты
+ *
+ * В журнал попадают только команды, меняющие состояние RoomAggregate и
+ * VotingSession. Очереди фильмов и позиция стриминга выводятся из
+ * фильтров и колод и не журналируются
+ */
+public sealed interface JournalRecord {
+    String roomId();
+
+    record Create(
+        String roomId,
+        String hostId,
+        VotingCompletionType completionType,
+        StreamPacing.Mode pacingMode,
+        long deckSeed,
+        long createdAtMillis
+    ) implements JournalRecord {}
+
+    record Join(String roomId, String participantId)
+        implements JournalRecord {}
+
+    record Leave(String roomId, String participantId)
+        implements JournalRecord {}
+
+    record Filters(
+        String roomId,
+        String participantId,
+        String genre,
+        Integer yearFrom,
+        Integer yearTo,
+        BigDecimal minRating,
+        String type
+    ) implements JournalRecord {}
+
+    record AddMovie(String roomId, String participantId, String movieId)
+        implements JournalRecord {}
+
+    record Ready(String roomId, String participantId)
+        implements JournalRecord {}
+
+    /**
+     * Голосование началось с этими участниками сессии - по порядку; кто
+     * выйдет во время голосования, останется в сессии со своими голосами
+     */
+    record StartVoting(String roomId, List<String> participantIds)
+        implements JournalRecord {
+        public StartVoting {
+            participantIds = List.copyOf(participantIds);
+        }
+    }
+
+    record Vote(
+        String roomId,
+        String participantId,
+        String movieId,
+        boolean isLike
+    ) implements JournalRecord {}
+
+    /**
+     * Комната удалена из реестра - при восстановлении она не возвращается
+     */
+    record Remove(String roomId) implements JournalRecord {}
+}
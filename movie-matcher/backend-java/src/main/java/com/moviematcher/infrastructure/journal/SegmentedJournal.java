@@ -0,0 +1,547 @@
+package com.moviematcher.infrastructure.journal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import org.jboss.logging.Logger;
+
+/**
+ * Журнал только на добавление: memory-mapped сегменты и снапшоты
+ *
+ * Записи лежат в сегментах segment-<первый seq>.log фиксированного
+ * размера, отображенных в память; рамка записи - длина (int), CRC32C
+ * тела (int) и тело (JournalCodec). Нулевая длина - конец данных.
+ *
+ * Group commit: append только кодирует запись, выдает ей seq и ставит
+ * в очередь. Единственный поток-писатель забирает все, что накопилось
+ * (до maxBatch), копирует в сегмент и один раз на пачку делает force
+ * (при fsync), после чего завершает future всей пачки. Пока идет force,
+ * копится следующая пачка - задержка не зависит от числа писателей.
+ *
+ * Записанное в отображение переживает падение процесса (страницы
+ * принадлежат ядру); fsync нужен только против падения ОС или питания.
+ *
+ * Снапшот snapshot-<seq>.snap - записи, восстанавливающие все живые
+ * комнаты (seq каждой - последний учтенный в ней номер). После снапшота
+ * сегменты целиком до его seq удаляются, и восстановление читает снапшот
+ * и короткий хвост журнала.
+ *
+ * Восстановление останавливается на первой битой рамке сегмента
+ * (оборванная запись при падении) и продолжает запись с этого места
+ */
+public final class SegmentedJournal implements AutoCloseable {
+
+    private static final Logger log = Logger.getLogger(SegmentedJournal.class);
+
+    private static final int FRAME_HEADER = 8;
+    private static final int SNAPSHOT_MAGIC = 0x4d4d4a53; // "MMJS"
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int maxBatch;
+    private final boolean fsync;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private long lastSequence;
+
+    // Сегменты по первому seq; меняются писателем и снапшотом
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private MappedByteBuffer active;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder records = new LongAdder();
+
+    private volatile boolean running;
+    private boolean recovered;
+    private Thread writer;
+
+    /**
+     * @param segmentBytes размер сегмента
+     * @param maxBatch     максимум записей в одной пачке group commit
+     * @param fsync        force каждой пачки на диск
+     */
+    public SegmentedJournal(
+        Path dir,
+        int segmentBytes,
+        int maxBatch,
+        boolean fsync
+    ) {
+        if (segmentBytes < 4096) {
+            throw new IllegalArgumentException("Segment is too small");
+        }
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("Need at least 1 per batch");
+        }
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.maxBatch = maxBatch;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Прочитать снапшот и хвост журнала, подготовить запись
+     *
+     * Вызывается один раз до start(). Записи хвоста, уже учтенные
+     * снапшотом для своей комнаты, пропускаются
+     *
+     * @param consumer записи снапшота, затем хвоста - по порядку
+     * @return номер последней записи
+     */
+    public synchronized long recover(Consumer<JournalEntry> consumer)
+        throws IOException {
+        if (recovered) {
+            throw new IllegalStateException("Journal already recovered");
+        }
+        Files.createDirectories(dir);
+
+        long snapshotSeq = 0;
+        Map<String, Long> covered = new HashMap<>();
+        TreeMap<Long, Path> snapshots = list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        if (!snapshots.isEmpty()) {
+            snapshotSeq = snapshots.lastKey();
+            readSnapshot(snapshots.lastEntry().getValue(), entry -> {
+                covered.merge(entry.record().roomId(), entry.seq(), Math::max);
+                consumer.accept(entry);
+            });
+        }
+        lastSequence = snapshotSeq;
+        for (long seq : covered.values()) {
+            lastSequence = Math.max(lastSequence, seq);
+        }
+
+        segments.putAll(list(SEGMENT_PREFIX, SEGMENT_SUFFIX));
+        for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+            Long next = segments.higherKey(segment.getKey());
+            if (next != null && next - 1 <= snapshotSeq) {
+                // Целиком в снапшоте, но не удален (сбой при удалении)
+                continue;
+            }
+            boolean last = next == null;
+            MappedByteBuffer buffer = map(segment.getValue());
+            int end = scan(buffer, snapshotSeq, entry -> {
+                Long roomCovered = covered.get(entry.record().roomId());
+                if (roomCovered == null || entry.seq() > roomCovered) {
+                    consumer.accept(entry);
+                }
+            });
+            if (last) {
+                active = buffer;
+                active.position(end);
+                // Оборванная запись и все после нее - мусор, затираем
+                clear(active, end);
+            }
+        }
+
+        recovered = true;
+        return lastSequence;
+    }
+
+    /**
+     * Запустить поток-писатель
+     */
+    public synchronized void start() {
+        if (!recovered) {
+            throw new IllegalStateException("Recover the journal first");
+        }
+        if (running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "room-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Добавить запись
+     *
+     * Порядок записей - порядок вызовов append. Future завершается
+     * номером записи, когда ее пачка записана (и сброшена на диск при fsync).
+     * Запись, не помещающаяся в сегмент, отклоняется до выдачи seq и не
+     * роняет пачку соседей
+     */
+    public CompletableFuture<Long> append(JournalRecord record) {
+        CompletableFuture<Long> done = new CompletableFuture<>();
+        // seq в теле фиксированной длины: кодируем до блокировки,
+        // номер вписываем под ней
+        byte[] body = JournalCodec.encode(0, System.currentTimeMillis(), record);
+        int frame = FRAME_HEADER + body.length;
+        if (frame > segmentBytes) {
+            done.completeExceptionally(
+                new IllegalArgumentException(
+                    "Journal record of " + frame + " bytes exceeds segment"
+                )
+            );
+            return done;
+        }
+        synchronized (queue) {
+            if (!running) {
+                done.completeExceptionally(
+                    new IllegalStateException("Journal is not running")
+                );
+                return done;
+            }
+            long seq = ++lastSequence;
+            ByteBuffer.wrap(body).putLong(0, seq);
+            queue.add(new Pending(body, seq, done));
+        }
+        return done;
+    }
+
+    /**
+     * Номер последней выданной записи (возможно, еще в очереди)
+     */
+    public long lastSequence() {
+        synchronized (queue) {
+            return lastSequence;
+        }
+    }
+
+    /**
+     * Записать снапшот и удалить сегменты, целиком покрытые им
+     *
+     * @param fromSequence все записи с seq не больше этого учтены в entries
+     *                     или относятся к удаленным комнатам
+     * @param entries      записи, восстанавливающие живые комнаты; seq
+     *                     записи - последний учтенный номер ее комнаты
+     */
+    public void snapshot(long fromSequence, List<JournalEntry> entries)
+        throws IOException {
+        Path target = dir.resolve(name(SNAPSHOT_PREFIX, fromSequence, SNAPSHOT_SUFFIX));
+        Path tmp = dir.resolve(target.getFileName() + ".tmp");
+
+        try (
+            FileChannel channel = FileChannel.open(
+                tmp,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE
+            );
+            DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(
+                    Channels.newOutputStream(channel),
+                    1 << 16
+                )
+            )
+        ) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(fromSequence);
+            for (JournalEntry entry : entries) {
+                byte[] body = JournalCodec.encode(
+                    entry.seq(),
+                    entry.timestampMillis(),
+                    entry.record()
+                );
+                out.writeInt(body.length);
+                out.writeInt(crc(body));
+                out.write(body);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(
+            tmp,
+            target,
+            StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING
+        );
+
+        // Старые снапшоты и сегменты, все записи которых не новее fromSequence
+        for (Path old : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX).headMap(fromSequence).values()) {
+            Files.deleteIfExists(old);
+        }
+        List<Path> obsolete = new ArrayList<>();
+        synchronized (segments) {
+            Long next = null;
+            for (Long first : segments.descendingKeySet()) {
+                if (next != null && next - 1 <= fromSequence) {
+                    obsolete.add(segments.get(first));
+                }
+                next = first;
+            }
+            obsolete.forEach(path ->
+                segments.values().remove(path)
+            );
+        }
+        for (Path path : obsolete) {
+            Files.deleteIfExists(path);
+        }
+
+        log.infof(
+            "Journal snapshot at {} with {} records, {} segments dropped",
+            fromSequence,
+            entries.size(),
+            obsolete.size()
+        );
+    }
+
+    public long batches() {
+        return batches.sum();
+    }
+
+    public long records() {
+        return records.sum();
+    }
+
+    public int segments() {
+        synchronized (segments) {
+            return segments.size();
+        }
+    }
+
+    /**
+     * Дописать очередь, сбросить на диск и остановить писателя
+     */
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            synchronized (queue) {
+                running = false;
+            }
+            thread = writer;
+        }
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (active != null) {
+            active.force();
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<Pending> batch) {
+        try {
+            int from = active != null ? active.position() : 0;
+            for (Pending pending : batch) {
+                int frame = FRAME_HEADER + pending.body.length;
+                if (active == null || active.remaining() < frame) {
+                    flush(from);
+                    roll(pending.seq);
+                    from = 0;
+                }
+                int position = active.position();
+                // Длина пишется последней: без нее рамка не видна читателю
+                active.putInt(position + 4, crc(pending.body));
+                active.put(position + FRAME_HEADER, pending.body);
+                active.putInt(position, pending.body.length);
+                active.position(position + frame);
+            }
+            flush(from);
+
+            batches.increment();
+            records.add(batch.size());
+            for (Pending pending : batch) {
+                pending.done.complete(pending.seq);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Journal batch write failed", e);
+            for (Pending pending : batch) {
+                pending.done.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void flush(int from) {
+        if (fsync && active != null && active.position() > from) {
+            active.force(from, active.position() - from);
+        }
+    }
+
+    private void roll(long firstSeq) throws IOException {
+        if (active != null && fsync) {
+            active.force();
+        }
+        Path path = dir.resolve(name(SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX));
+        MappedByteBuffer buffer = map(path);
+        synchronized (segments) {
+            segments.put(firstSeq, path);
+        }
+        active = buffer;
+        log.debugf("Journal rolled to segment {}", path.getFileName());
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (
+            FileChannel channel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+            )
+        ) {
+            // Отображение остается действительным после закрытия канала
+            return channel.map(
+                FileChannel.MapMode.READ_WRITE,
+                0,
+                segmentBytes
+            );
+        }
+    }
+
+    /**
+     * Прочитать целые рамки сегмента
+     *
+     * Записи не новее skipThrough проверяются по CRC, но не декодируются
+     *
+     * @return позиция после последней целой рамки
+     */
+    private int scan(
+        MappedByteBuffer buffer,
+        long skipThrough,
+        Consumer<JournalEntry> consumer
+    ) throws IOException {
+        CRC32C crc = new CRC32C();
+        int position = 0;
+        while (position + FRAME_HEADER <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || position + FRAME_HEADER + length > buffer.capacity()) {
+                log.warnf("Journal frame at {} is torn, truncating", position);
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.slice(position + FRAME_HEADER, length));
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                log.warnf("Journal frame at {} fails CRC, truncating", position);
+                break;
+            }
+            // Тело начинается с seq
+            long seq = buffer.getLong(position + FRAME_HEADER);
+            lastSequence = Math.max(lastSequence, seq);
+            if (seq > skipThrough) {
+                byte[] body = new byte[length];
+                buffer.get(position + FRAME_HEADER, body);
+                consumer.accept(JournalCodec.decode(body));
+            }
+            position += FRAME_HEADER + length;
+        }
+        return position;
+    }
+
+    private void readSnapshot(Path path, Consumer<JournalEntry> consumer)
+        throws IOException {
+        try (
+            InputStream file = Files.newInputStream(path);
+            DataInputStream in = new DataInputStream(
+                new BufferedInputStream(file, 1 << 16)
+            )
+        ) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a journal snapshot: " + path);
+            }
+            in.readLong();
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                int crc = in.readInt();
+                byte[] body = in.readNBytes(length);
+                if (body.length != length || crc(body) != crc) {
+                    throw new IOException("Corrupt journal snapshot: " + path);
+                }
+                consumer.accept(JournalCodec.decode(body));
+            }
+        }
+    }
+
+    private static void clear(MappedByteBuffer buffer, int from) {
+        for (int i = from; i < buffer.capacity(); i++) {
+            // Не трогаем нулевые страницы, чтобы не делать их грязными
+            if (buffer.get(i) != 0) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+    }
+
+    private TreeMap<Long, Path> list(String prefix, String suffix)
+        throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (Stream<Path> paths = Files.list(dir)) {
+            paths.forEach(path -> {
+                String name = path.getFileName().toString();
+                if (name.startsWith(prefix) && name.endsWith(suffix)) {
+                    files.put(
+                        Long.parseLong(
+                            name.substring(
+                                prefix.length(),
+                                name.length() - suffix.length()
+                            )
+                        ),
+                        path
+                    );
+                }
+            });
+        }
+        return files;
+    }
+
+    private static String name(String prefix, long seq, String suffix) {
+        return prefix + String.format("%020d", seq) + suffix;
+    }
+
+    private static int crc(byte[] body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body, 0, body.length);
+        return (int) crc.getValue();
+    }
+
+    private record Pending(byte[] body, long seq, CompletableFuture<Long> done) {}
+}
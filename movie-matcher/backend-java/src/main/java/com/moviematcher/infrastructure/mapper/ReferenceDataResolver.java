@@ -0,0 +1,368 @@
+package com.moviematcher.infrastructure.mapper;
+
+import com.moviematcher.entity.Country;
+import com.moviematcher.entity.Genre;
+import com.moviematcher.entity.Language;
+import com.moviematcher.entity.Person;
+import com.moviematcher.entity.Studio;
+import io.quarkus.hibernate.orm.panache.Panache;
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Кэш справочников для мапперов (TmdbMovieMapper)
+ *
+ * Раньше каждый жанр, страна, язык, студия и каждый человек из титров
+ * искались отдельным find(...).firstResult() - десятки запросов на фильм.
+ *
+ * - Genre/Country/Language/Studio маленькие: загружаются целиком
+ *   при старте, размер ограничен movie.reference-cache.max-size
+ * - Person - LRU по имени (movie.reference-cache.people-size)
+ * - Промахи одного фильма добираются одним запросом IN (...)
+ * - Отсутствующие записи создаются в транзакции вызывающего: откатится
+ *   фильм - откатятся и они. Справочники вставляются через
+ *   INSERT ... ON CONFLICT DO NOTHING, поэтому параллельная вставка той же
+ *   записи другим маппером или нодой не ломает транзакцию фильма
+ * - В кэш попадает только закоммиченное (после завершения транзакции)
+ *
+ * Возвращаются собственные копии (id и ключевые поля), а не общие
+ * экземпляры из кэша: мапперы работают в разных виртуальных потоках,
+ * а для связей Movie достаточно id
+ */
+@ApplicationScoped
+public class ReferenceDataResolver {
+
+    private static final Logger log = Logger.getLogger(
+        ReferenceDataResolver.class
+    );
+
+    private final Map<String, Genre> genresByName = new ConcurrentHashMap<>();
+    private final Map<String, Country> countriesByCode =
+        new ConcurrentHashMap<>();
+    private final Map<String, Language> languagesByCode =
+        new ConcurrentHashMap<>();
+    private final Map<String, Studio> studiosByName = new ConcurrentHashMap<>();
+    private final Map<String, Person> peopleByName;
+
+    private final TransactionSynchronizationRegistry transactions;
+    private final int maxSize;
+    private final boolean preload;
+
+    @jakarta.inject.Inject
+    public ReferenceDataResolver(
+        TransactionSynchronizationRegistry transactions,
+        @ConfigProperty(
+            name = "movie.reference-cache.max-size",
+            defaultValue = "10000"
+        ) int maxSize,
+        @ConfigProperty(
+            name = "movie.reference-cache.people-size",
+            defaultValue = "5000"
+        ) int peopleSize,
+        @ConfigProperty(
+            name = "movie.reference-cache.preload",
+            defaultValue = "true"
+        ) boolean preload
+    ) {
+        this.transactions = transactions;
+        this.maxSize = maxSize;
+        this.preload = preload;
+        this.peopleByName = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                    Map.Entry<String, Person> eldest
+                ) {
+                    return size() > peopleSize;
+                }
+            }
+        );
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (!preload) {
+            return;
+        }
+
+        try {
+            QuarkusTransaction.requiringNew().run(() -> {
+                Genre.<Genre>listAll().forEach(g ->
+                    cache(genresByName, g.name, copy(g))
+                );
+                Country.<Country>listAll().forEach(c ->
+                    cache(countriesByCode, c.code, copy(c))
+                );
+                Language.<Language>listAll().forEach(l ->
+                    cache(languagesByCode, l.code, copy(l))
+                );
+                Studio.<Studio>listAll().forEach(s ->
+                    cache(studiosByName, s.name, copy(s))
+                );
+            });
+            log.infof(
+                "Reference cache preloaded: {} genres, {} countries, {} languages, {} studios",
+                genresByName.size(),
+                countriesByCode.size(),
+                languagesByCode.size(),
+                studiosByName.size()
+            );
+        } catch (Exception e) {
+            log.error("Failed to preload reference cache", e);
+        }
+    }
+
+    /**
+     * Жанры по названию: name → slug для новых
+     */
+    public Map<String, Genre> resolveGenres(Map<String, String> slugsByName) {
+        return resolve(
+            slugsByName.keySet(),
+            genresByName,
+            names -> Genre.list("name in ?1", names),
+            genre -> genre.name,
+            name -> {
+                insertIfAbsent(
+                    "INSERT INTO genres (name, slug) VALUES (?1, ?2)",
+                    name,
+                    slugsByName.get(name)
+                );
+                return Genre.findByName(name);
+            },
+            ReferenceDataResolver::copy
+        );
+    }
+
+    /**
+     * Страны по коду: code → название для новых
+     */
+    public Map<String, Country> resolveCountries(
+        Map<String, String> namesByCode
+    ) {
+        return resolve(
+            namesByCode.keySet(),
+            countriesByCode,
+            codes -> Country.list("code in ?1", codes),
+            country -> country.code,
+            code -> {
+                insertIfAbsent(
+                    "INSERT INTO countries (code, name) VALUES (?1, ?2)",
+                    code,
+                    namesByCode.get(code)
+                );
+                return Country.findByCode(code);
+            },
+            ReferenceDataResolver::copy
+        );
+    }
+
+    /**
+     * Языки по коду: code → название для новых
+     */
+    public Map<String, Language> resolveLanguages(
+        Map<String, String> namesByCode
+    ) {
+        return resolve(
+            namesByCode.keySet(),
+            languagesByCode,
+            codes -> Language.list("code in ?1", codes),
+            language -> language.code,
+            code -> {
+                insertIfAbsent(
+                    "INSERT INTO languages (code, name) VALUES (?1, ?2)",
+                    code,
+                    namesByCode.get(code)
+                );
+                return Language.findByCode(code);
+            },
+            ReferenceDataResolver::copy
+        );
+    }
+
+    public Map<String, Studio> resolveStudios(Collection<String> names) {
+        return resolve(
+            names,
+            studiosByName,
+            batch -> Studio.list("name in ?1", batch),
+            studio -> studio.name,
+            name -> {
+                insertIfAbsent("INSERT INTO studios (name) VALUES (?1)", name);
+                return Studio.findByName(name);
+            },
+            ReferenceDataResolver::copy
+        );
+    }
+
+    /**
+     * Люди по имени - все имена одного фильма одним запросом.
+     * Имя у людей не уникально, новые сохраняются обычным persist
+     */
+    public Map<String, Person> resolvePeople(Collection<String> names) {
+        return resolve(
+            names,
+            peopleByName,
+            batch -> Person.list("name in ?1 ORDER BY id", batch),
+            person -> person.name,
+            name -> {
+                Person person = new Person();
+                person.name = name;
+                person.persist();
+                return person;
+            },
+            ReferenceDataResolver::copy
+        );
+    }
+
+    /**
+     * Сбросить кэш (например, после ручной правки справочников)
+     */
+    public void invalidateAll() {
+        genresByName.clear();
+        countriesByCode.clear();
+        languagesByCode.clear();
+        studiosByName.clear();
+        peopleByName.clear();
+    }
+
+    private <T extends PanacheEntityBase> Map<String, T> resolve(
+        Collection<String> keys,
+        Map<String, T> cache,
+        Function<List<String>, List<T>> batchLoader,
+        Function<T, String> keyOf,
+        Function<String, T> create,
+        UnaryOperator<T> copy
+    ) {
+        Map<String, T> resolved = new LinkedHashMap<>();
+        Set<String> misses = new LinkedHashSet<>();
+
+        for (String key : keys) {
+            if (key == null || key.isBlank()) continue;
+            T cached = cache.get(key);
+            if (cached != null) {
+                resolved.put(key, copy.apply(cached));
+            } else {
+                misses.add(key);
+            }
+        }
+        if (misses.isEmpty()) {
+            return resolved;
+        }
+
+        // Один запрос на все промахи, создание - в той же транзакции
+        QuarkusTransaction.joiningExisting().run(() -> {
+            Map<String, T> found = new LinkedHashMap<>();
+            for (T entity : batchLoader.apply(new ArrayList<>(misses))) {
+                String key = keyOf.apply(entity);
+                if (misses.remove(key)) {
+                    found.put(key, copy.apply(entity));
+                }
+            }
+
+            // Чего нет в БД - создаем
+            for (String key : misses) {
+                T entity = create.apply(key);
+                if (entity != null) {
+                    found.put(key, copy.apply(entity));
+                } else {
+                    // Конфликт по другому уникальному полю (например, slug)
+                    log.warnf("Cannot create reference entity {}", key);
+                }
+            }
+
+            found.forEach((key, entity) -> resolved.put(key, copy.apply(entity)));
+            cacheAfterCommit(cache, found);
+        });
+        return resolved;
+    }
+
+    // Строка, созданная в этой транзакции, может еще откатиться
+    private <T> void cacheAfterCommit(Map<String, T> cache, Map<String, T> found) {
+        transactions.registerInterposedSynchronization(
+            new Synchronization() {
+                @Override
+                public void beforeCompletion() {}
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        found.forEach((key, entity) -> cache(cache, key, entity));
+                    }
+                }
+            }
+        );
+    }
+
+    private static boolean insertIfAbsent(String sql, Object... params) {
+        var query = Panache.getEntityManager().createNativeQuery(
+            sql + " ON CONFLICT DO NOTHING"
+        );
+        for (int i = 0; i < params.length; i++) {
+            query.setParameter(i + 1, params[i]);
+        }
+        return query.executeUpdate() > 0;
+    }
+
+    private static Genre copy(Genre genre) {
+        Genre copy = new Genre();
+        copy.id = genre.id;
+        copy.name = genre.name;
+        copy.slug = genre.slug;
+        return copy;
+    }
+
+    private static Country copy(Country country) {
+        Country copy = new Country();
+        copy.id = country.id;
+        copy.code = country.code;
+        copy.name = country.name;
+        return copy;
+    }
+
+    private static Language copy(Language language) {
+        Language copy = new Language();
+        copy.id = language.id;
+        copy.code = language.code;
+        copy.name = language.name;
+        return copy;
+    }
+
+    private static Studio copy(Studio studio) {
+        Studio copy = new Studio();
+        copy.id = studio.id;
+        copy.name = studio.name;
+        return copy;
+    }
+
+    private static Person copy(Person person) {
+        Person copy = new Person();
+        copy.id = person.id;
+        copy.imdbId = person.imdbId;
+        copy.name = person.name;
+        return copy;
+    }
+
+    // Людей ограничивает сам LRU, справочники - maxSize
+    private <T> void cache(Map<String, T> cache, String key, T value) {
+        if (cache.size() < maxSize) {
+            cache.put(key, value);
+        }
+    }
+}
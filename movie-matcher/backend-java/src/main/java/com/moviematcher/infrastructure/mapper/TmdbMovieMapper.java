@@ -5,9 +5,13 @@ import com.moviematcher.entity.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 import org.mapstruct.*;
 
 /**
@@ -26,9 +30,15 @@ import org.mapstruct.*;
     unmappedTargetPolicy = ReportingPolicy.IGNORE,
     nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE
 )
-public interface TmdbMovieMapper {
-    String TMDB_IMAGE_BASE_URL = "https://image.tmdb.org/t/p/w500";
-    String TMDB_BACKDROP_BASE_URL = "https://image.tmdb.org/t/p/original";
+public abstract class TmdbMovieMapper {
+
+    static final String TMDB_IMAGE_BASE_URL = "https://image.tmdb.org/t/p/w500";
+    static final String TMDB_BACKDROP_BASE_URL =
+        "https://image.tmdb.org/t/p/original";
+
+    // Справочники и люди - через общий кэш, без запроса на каждый элемент
+    @jakarta.inject.Inject
+    ReferenceDataResolver referenceData;
 
     /**
      * Конвертация полного TMDB ответа в Movie entity
@@ -104,7 +114,10 @@ public interface TmdbMovieMapper {
     @Mapping(target = "rottenTomatoesScore", ignore = true)
     @Mapping(target = "awards", ignore = true)
     @Mapping(target = "keywords", ignore = true)
-    Movie toMovie(TmdbMovieResponse response, TmdbCreditsResponse credits);
+    public abstract Movie toMovie(
+        TmdbMovieResponse response,
+        TmdbCreditsResponse credits
+    );
 
     /**
      * Конвертация поискового результата
@@ -145,12 +158,12 @@ public interface TmdbMovieMapper {
         qualifiedByName = "toBigDecimal"
     )
     @Mapping(target = "imdbVotes", source = "voteCount")
-    Movie toMovieFromSearchResult(TmdbSearchResult result);
+    public abstract Movie toMovieFromSearchResult(TmdbSearchResult result);
 
     // ============ Custom Mapping Methods ============
 
     @Named("parseDate")
-    default LocalDate parseDate(String dateStr) {
+    public LocalDate parseDate(String dateStr) {
         if (dateStr == null || dateStr.isBlank()) return null;
         try {
             return LocalDate.parse(dateStr, DateTimeFormatter.ISO_DATE);
@@ -160,13 +173,13 @@ public interface TmdbMovieMapper {
     }
 
     @Named("extractYear")
-    default Integer extractYear(String dateStr) {
+    public Integer extractYear(String dateStr) {
         LocalDate date = parseDate(dateStr);
         return date != null ? date.getYear() : null;
     }
 
     @Named("truncateOverview")
-    default String truncateOverview(String overview) {
+    public String truncateOverview(String overview) {
         if (overview == null) return null;
         return overview.length() > 1000
             ? overview.substring(0, 1000)
@@ -174,153 +187,128 @@ public interface TmdbMovieMapper {
     }
 
     @Named("buildPosterUrl")
-    default String buildPosterUrl(String posterPath) {
+    public String buildPosterUrl(String posterPath) {
         return posterPath != null ? TMDB_IMAGE_BASE_URL + posterPath : null;
     }
 
     @Named("buildBackdropUrl")
-    default String buildBackdropUrl(String backdropPath) {
+    public String buildBackdropUrl(String backdropPath) {
         return backdropPath != null
             ? TMDB_BACKDROP_BASE_URL + backdropPath
             : null;
     }
 
     @Named("toBigDecimal")
-    default BigDecimal toBigDecimal(Double value) {
+    public BigDecimal toBigDecimal(Double value) {
         return value != null ? BigDecimal.valueOf(value) : null;
     }
 
     @Named("mapGenres")
-    default Set<Genre> mapGenres(List<TmdbGenre> tmdbGenres) {
+    public Set<Genre> mapGenres(List<TmdbGenre> tmdbGenres) {
         if (tmdbGenres == null) return Set.of();
 
-        return tmdbGenres
-            .stream()
-            .map(tg -> {
-                Genre genre = Genre.find("name", tg.name()).firstResult();
-                if (genre == null) {
-                    genre = new Genre();
-                    genre.name = tg.name();
-                    genre.slug = slugify(tg.name());
-                }
-                return genre;
-            })
-            .collect(Collectors.toSet());
+        Map<String, String> slugsByName = new LinkedHashMap<>();
+        tmdbGenres.forEach(tg -> slugsByName.put(tg.name(), slugify(tg.name())));
+
+        return new HashSet<>(referenceData.resolveGenres(slugsByName).values());
     }
 
     @Named("mapCountries")
-    default Set<Country> mapCountries(List<TmdbCountry> tmdbCountries) {
+    public Set<Country> mapCountries(List<TmdbCountry> tmdbCountries) {
         if (tmdbCountries == null) return Set.of();
 
-        return tmdbCountries
-            .stream()
-            .map(tc -> {
-                Country country = Country.find(
-                    "code",
-                    tc.iso31661()
-                ).firstResult();
-                if (country == null) {
-                    country = new Country();
-                    country.code = tc.iso31661();
-                    country.name = tc.name();
-                }
-                return country;
-            })
-            .collect(Collectors.toSet());
+        Map<String, String> namesByCode = new LinkedHashMap<>();
+        tmdbCountries.forEach(tc -> namesByCode.put(tc.iso31661(), tc.name()));
+
+        return new HashSet<>(
+            referenceData.resolveCountries(namesByCode).values()
+        );
     }
 
     @Named("mapLanguages")
-    default Set<Language> mapLanguages(List<TmdbLanguage> tmdbLanguages) {
+    public Set<Language> mapLanguages(List<TmdbLanguage> tmdbLanguages) {
         if (tmdbLanguages == null) return Set.of();
 
-        return tmdbLanguages
-            .stream()
-            .map(tl -> {
-                Language language = Language.find(
-                    "code",
-                    tl.iso6391()
-                ).firstResult();
-                if (language == null) {
-                    language = new Language();
-                    language.code = tl.iso6391();
-                    language.name = tl.name();
-                }
-                return language;
-            })
-            .collect(Collectors.toSet());
+        Map<String, String> namesByCode = new LinkedHashMap<>();
+        tmdbLanguages.forEach(tl -> namesByCode.put(tl.iso6391(), tl.name()));
+
+        return new HashSet<>(
+            referenceData.resolveLanguages(namesByCode).values()
+        );
     }
 
     @Named("mapStudios")
-    default Set<Studio> mapStudios(List<TmdbCompany> tmdbCompanies) {
+    public Set<Studio> mapStudios(List<TmdbCompany> tmdbCompanies) {
         if (tmdbCompanies == null) return Set.of();
 
-        return tmdbCompanies
+        List<String> names = tmdbCompanies
             .stream()
-            .map(tc -> {
-                Studio studio = Studio.find("name", tc.name()).firstResult();
-                if (studio == null) {
-                    studio = new Studio();
-                    studio.name = tc.name();
-                }
-                return studio;
-            })
-            .collect(Collectors.toSet());
+            .map(TmdbCompany::name)
+            .toList();
+
+        return new HashSet<>(referenceData.resolveStudios(names).values());
     }
 
     @Named("mapCredits")
-    default Set<MovieCredit> mapCredits(TmdbCreditsResponse credits) {
+    public Set<MovieCredit> mapCredits(TmdbCreditsResponse credits) {
         if (credits == null) return Set.of();
 
-        Set<MovieCredit> movieCredits = new java.util.HashSet<>();
-
-        // Актеры (первые 10)
-        if (credits.cast() != null) {
-            credits
+        // Актеры (первые 10), без имени человека не найти и не создать
+        List<TmdbCastMember> cast = credits.cast() != null
+            ? credits
                 .cast()
                 .stream()
+                .filter(c -> hasName(c.name()))
                 .limit(10)
-                .forEach(cast -> {
-                    Person person = findOrCreatePerson(cast.name());
-                    MovieCredit credit = new MovieCredit();
-                    credit.person = person;
-                    credit.roleType = "actor";
-                    credit.characterName = cast.character();
-                    credit.orderIndex = cast.order();
-                    movieCredits.add(credit);
-                });
-        }
+                .toList()
+            : List.of();
 
         // Режиссер
-        if (credits.crew() != null) {
-            credits
+        Optional<TmdbCrewMember> director = credits.crew() != null
+            ? credits
                 .crew()
                 .stream()
                 .filter(crew -> "Director".equals(crew.job()))
+                .filter(crew -> hasName(crew.name()))
                 .findFirst()
-                .ifPresent(director -> {
-                    Person person = findOrCreatePerson(director.name());
-                    MovieCredit credit = new MovieCredit();
-                    credit.person = person;
-                    credit.roleType = "director";
-                    movieCredits.add(credit);
-                });
-        }
+            : Optional.empty();
+
+        // Все имена фильма - одним запросом
+        List<String> names = new ArrayList<>();
+        cast.forEach(c -> names.add(c.name()));
+        director.ifPresent(d -> names.add(d.name()));
+        Map<String, Person> people = referenceData.resolvePeople(names);
+
+        Set<MovieCredit> movieCredits = new HashSet<>();
+
+        cast.forEach(c -> {
+            Person person = people.get(c.name());
+            if (person == null) return;
+            MovieCredit credit = new MovieCredit();
+            credit.person = person;
+            credit.roleType = "actor";
+            credit.characterName = c.character();
+            credit.orderIndex = c.order();
+            movieCredits.add(credit);
+        });
+
+        director.map(d -> people.get(d.name())).ifPresent(person -> {
+            MovieCredit credit = new MovieCredit();
+            credit.person = person;
+            credit.roleType = "director";
+            movieCredits.add(credit);
+        });
 
         return movieCredits;
     }
 
     // ============ Helper Methods ============
 
-    default Person findOrCreatePerson(String name) {
-        Person person = Person.find("name", name).firstResult();
-        if (person == null) {
-            person = new Person();
-            person.name = name;
-        }
-        return person;
+    private static boolean hasName(String name) {
+        return name != null && !name.isBlank();
     }
 
-    default String slugify(String text) {
+    public String slugify(String text) {
         if (text == null) return "";
         return text
             .toLowerCase()
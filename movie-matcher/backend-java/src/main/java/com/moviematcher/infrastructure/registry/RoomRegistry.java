@@ -0,0 +1,74 @@
+package com.moviematcher.infrastructure.registry;
+
+import com.moviematcher.domain.model.RoomAggregate;
+import com.moviematcher.infrastructure.actor.Actor;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Реестр живых комнат: roomId → актор комнаты
+ *
+ * Хранилище разбито на shards: поиск - O(1) в одном shard-е, очистка
+ * и метрики - по shard-у, без обхода всех комнат сразу.
+ *
+ * Реализации:
+ * - ShardedRoomRegistry - комнаты в памяти этого узла
+ * - внешние хранилища (при горизонтальном масштабировании)
+ */
+public interface RoomRegistry {
+
+    /**
+     * Зарегистрировать комнату
+     *
+     * @param createdAt создание комнаты - от него считается срок жизни,
+     *                  в том числе у комнаты, восстановленной из журнала
+     * @throws IllegalStateException если комната с таким ID уже есть
+     */
+    void register(
+        String roomId,
+        Actor<RoomAggregate> room,
+        LocalDateTime createdAt
+    );
+
+    /**
+     * Найти комнату
+     */
+    Optional<Actor<RoomAggregate>> find(String roomId);
+
+    /**
+     * Отметить активность в комнате: отодвигает срок простоя
+     */
+    void touch(String roomId);
+
+    /**
+     * Удалить комнату
+     *
+     * @return true, если комната была в реестре
+     */
+    boolean remove(String roomId);
+
+    /**
+     * Число комнат во всех shard-ах
+     */
+    int size();
+
+    /**
+     * Число shard-ов
+     */
+    int shards();
+
+    /**
+     * Удалить комнаты shard-а, чей срок жизни или простоя истек к nowNanos
+     *
+     * @param nowNanos момент по System.nanoTime()
+     * @return ID удаленных комнат
+     */
+    List<String> expire(int shard, long nowNanos);
+
+    /**
+     * Снимок комнат shard-а для проверок состояния
+     */
+    Map<String, Actor<RoomAggregate>> snapshot(int shard);
+}
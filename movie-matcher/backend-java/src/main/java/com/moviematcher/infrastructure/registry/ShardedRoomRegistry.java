@@ -0,0 +1,327 @@
+package com.moviematcher.infrastructure.registry;
+
+import com.moviematcher.domain.model.RoomAggregate;
+import com.moviematcher.infrastructure.actor.Actor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Реестр комнат в памяти, разбитый на shards
+ *
+ * Shard - HashMap под своей блокировкой (lock striping): комнаты разных
+ * shard-ов не спорят за блокировку. У каждого shard-а свой индекс сроков -
+ * куча по дедлайну на System.nanoTime(). Дедлайн комнаты - ранний из
+ * двух: создание комнаты + maxAge и последняя активность + idleTimeout.
+ * Комната, восстановленная из журнала, сохраняет свой возраст.
+ *
+ * touch() только пишет время активности, куча не перестраивается.
+ * Когда запись доходит до вершины кучи, expire() пересчитывает дедлайн:
+ * истек - комната удаляется, нет - запись возвращается в кучу с новым
+ * дедлайном. Работа expire() - O(истекших + тронутых с прошлого раза),
+ * а не O(всех комнат). В куче только ID комнаты и номер регистрации:
+ * удаленная раньше срока комната не держит в ней свой актор и
+ * пропускается при истечении.
+ *
+ * Метрики по shard-у (тег shard):
+ * - movie.room.registry.size - комнаты
+ * - movie.room.registry.lookups{result=hit|miss} - поиски
+ * - movie.room.registry.expired - комнаты, удаленные по сроку или простою
+ */
+@ApplicationScoped
+public class ShardedRoomRegistry implements RoomRegistry {
+
+    private final Shard[] shards;
+    private final long maxAgeNanos;
+    private final long idleTimeoutNanos;
+    private final LongSupplier nanoClock;
+
+    @jakarta.inject.Inject
+    public ShardedRoomRegistry(
+        MeterRegistry meterRegistry,
+        @ConfigProperty(
+            name = "movie.room.registry.shards",
+            defaultValue = "16"
+        ) int shards,
+        @ConfigProperty(
+            name = "movie.room.max-age",
+            defaultValue = "24h"
+        ) Duration maxAge,
+        @ConfigProperty(
+            name = "movie.room.idle-timeout",
+            defaultValue = "30m"
+        ) Duration idleTimeout
+    ) {
+        this(shards, maxAge, idleTimeout);
+
+        for (int i = 0; i < this.shards.length; i++) {
+            Shard shard = this.shards[i];
+            String tag = Integer.toString(i);
+            Gauge.builder("movie.room.registry.size", shard, Shard::size)
+                .tag("shard", tag)
+                .register(meterRegistry);
+            FunctionCounter.builder(
+                "movie.room.registry.lookups",
+                shard.hits,
+                LongAdder::sum
+            )
+                .tags("shard", tag, "result", "hit")
+                .register(meterRegistry);
+            FunctionCounter.builder(
+                "movie.room.registry.lookups",
+                shard.misses,
+                LongAdder::sum
+            )
+                .tags("shard", tag, "result", "miss")
+                .register(meterRegistry);
+            FunctionCounter.builder(
+                "movie.room.registry.expired",
+                shard.expired,
+                LongAdder::sum
+            )
+                .tag("shard", tag)
+                .register(meterRegistry);
+        }
+    }
+
+    public ShardedRoomRegistry(
+        int shards,
+        Duration maxAge,
+        Duration idleTimeout
+    ) {
+        this(shards, maxAge, idleTimeout, System::nanoTime);
+    }
+
+    ShardedRoomRegistry(
+        int shards,
+        Duration maxAge,
+        Duration idleTimeout,
+        LongSupplier nanoClock
+    ) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Need at least 1 shard");
+        }
+
+        this.shards = new Shard[shards];
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = new Shard();
+        }
+        this.maxAgeNanos = maxAge.toNanos();
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public void register(
+        String roomId,
+        Actor<RoomAggregate> room,
+        LocalDateTime createdAt
+    ) {
+        long now = nanoClock.getAsLong();
+        long ageNanos = Math.max(
+            0,
+            Duration.between(createdAt, LocalDateTime.now()).toNanos()
+        );
+        Entry entry = new Entry(
+            roomId,
+            room,
+            now - ageNanos + maxAgeNanos,
+            now,
+            idleTimeoutNanos
+        );
+        shardOf(roomId).register(entry);
+    }
+
+    @Override
+    public Optional<Actor<RoomAggregate>> find(String roomId) {
+        return Optional.ofNullable(shardOf(roomId).find(roomId));
+    }
+
+    @Override
+    public void touch(String roomId) {
+        shardOf(roomId).touch(roomId, nanoClock.getAsLong());
+    }
+
+    @Override
+    public boolean remove(String roomId) {
+        return shardOf(roomId).remove(roomId);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public int shards() {
+        return shards.length;
+    }
+
+    @Override
+    public List<String> expire(int shard, long nowNanos) {
+        return shards[shard].expire(nowNanos);
+    }
+
+    @Override
+    public Map<String, Actor<RoomAggregate>> snapshot(int shard) {
+        return shards[shard].snapshot();
+    }
+
+    private Shard shardOf(String roomId) {
+        int hash = roomId.hashCode();
+        hash ^= hash >>> 16;
+        return shards[Math.floorMod(hash, shards.length)];
+    }
+
+    private static final class Shard {
+
+        private final Map<String, Entry> rooms = new HashMap<>();
+        private final PriorityQueue<Deadline> expiry = new PriorityQueue<>(
+            (a, b) -> Long.compare(a.scheduledNanos() - b.scheduledNanos(), 0)
+        );
+        private long registrations;
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder expired = new LongAdder();
+
+        synchronized void register(Entry entry) {
+            if (rooms.containsKey(entry.roomId)) {
+                throw new IllegalStateException(
+                    "Room already registered: " + entry.roomId
+                );
+            }
+            entry.registration = ++registrations;
+            rooms.put(entry.roomId, entry);
+            expiry.add(
+                new Deadline(
+                    entry.roomId,
+                    entry.registration,
+                    entry.deadlineNanos()
+                )
+            );
+        }
+
+        Actor<RoomAggregate> find(String roomId) {
+            Entry entry;
+            synchronized (this) {
+                entry = rooms.get(roomId);
+            }
+            (entry != null ? hits : misses).increment();
+            return entry != null ? entry.room : null;
+        }
+
+        void touch(String roomId, long nowNanos) {
+            Entry entry;
+            synchronized (this) {
+                entry = rooms.get(roomId);
+            }
+            if (entry != null) {
+                entry.lastActivityNanos = nowNanos;
+            }
+        }
+
+        synchronized boolean remove(String roomId) {
+            return rooms.remove(roomId) != null;
+        }
+
+        synchronized int size() {
+            return rooms.size();
+        }
+
+        synchronized List<String> expire(long nowNanos) {
+            List<String> removed = new ArrayList<>();
+            while (
+                !expiry.isEmpty() &&
+                nowNanos - expiry.peek().scheduledNanos() >= 0
+            ) {
+                Deadline due = expiry.poll();
+                // Комната могла быть удалена раньше срока
+                Entry entry = rooms.get(due.roomId());
+                if (entry == null || entry.registration != due.registration()) {
+                    continue;
+                }
+
+                long deadline = entry.deadlineNanos();
+                if (nowNanos - deadline >= 0) {
+                    rooms.remove(entry.roomId);
+                    removed.add(entry.roomId);
+                } else {
+                    // Была активность - ждем до нового дедлайна
+                    expiry.add(
+                        new Deadline(entry.roomId, entry.registration, deadline)
+                    );
+                }
+            }
+            expired.add(removed.size());
+            return removed;
+        }
+
+        synchronized Map<String, Actor<RoomAggregate>> snapshot() {
+            Map<String, Actor<RoomAggregate>> copy = new HashMap<>();
+            rooms.forEach((roomId, entry) -> copy.put(roomId, entry.room));
+            return copy;
+        }
+    }
+
+    private static final class Entry {
+
+        private final String roomId;
+        private final Actor<RoomAggregate> room;
+        private final long maxAgeDeadlineNanos;
+        private final long idleTimeoutNanos;
+
+        // Пишется без блокировки shard-а из touch()
+        private volatile long lastActivityNanos;
+
+        // Номер регистрации в shard-е: отличает запись кучи от записи
+        // комнаты, удаленной и заново зарегистрированной под тем же ID
+        private long registration;
+
+        private Entry(
+            String roomId,
+            Actor<RoomAggregate> room,
+            long maxAgeDeadlineNanos,
+            long nowNanos,
+            long idleTimeoutNanos
+        ) {
+            this.roomId = roomId;
+            this.room = room;
+            this.maxAgeDeadlineNanos = maxAgeDeadlineNanos;
+            this.idleTimeoutNanos = idleTimeoutNanos;
+            this.lastActivityNanos = nowNanos;
+        }
+
+        long deadlineNanos() {
+            long idleDeadline = lastActivityNanos + idleTimeoutNanos;
+            return idleDeadline - maxAgeDeadlineNanos < 0
+                ? idleDeadline
+                : maxAgeDeadlineNanos;
+        }
+    }
+
+    /**
+     * Запись кучи сроков: без актора, только ID и номер регистрации
+     */
+    private record Deadline(
+        String roomId,
+        long registration,
+        long scheduledNanos
+    ) {}
+}
@@ -0,0 +1,182 @@
+package com.moviematcher.infrastructure.scheduling;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Хэшированное колесо таймеров (hashed timing wheel)
+ *
+ * Один дедлайн на ключ: повторный schedule(key) заменяет предыдущий.
+ * schedule и cancel - O(1) и потокобезопасны, advance вызывается
+ * одним потоком-тикером. Время передается снаружи (System.nanoTime()),
+ * поэтому колесо детерминировано в тестах.
+ *
+ * Точность - один тик: таймаут срабатывает на первом тике после дедлайна.
+ * Отмененные записи удаляются лениво, при следующем проходе их ячейки
+ *
+ * @param <K> ключ (например, roomId)
+ * @param <V> полезная нагрузка таймаута
+ */
+public class TimingWheel<K, V> {
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final int mask;
+    private final List<Timeout<K, V>>[] buckets;
+
+    private final Map<K, Timeout<K, V>> scheduled = new ConcurrentHashMap<>();
+    private final Queue<Timeout<K, V>> added = new ConcurrentLinkedQueue<>();
+
+    // Следующий необработанный тик, меняется только в advance()
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(Duration tick, int wheelSize, long startNanos) {
+        if (tick.isZero() || tick.isNegative()) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        if (wheelSize < 1 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException(
+                "Wheel size must be a power of two"
+            );
+        }
+
+        this.tickNanos = tick.toNanos();
+        this.startNanos = startNanos;
+        this.mask = wheelSize - 1;
+        this.buckets = new List[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Запланировать (или перепланировать) таймаут ключа
+     */
+    public void schedule(K key, V value, long deadlineNanos) {
+        Timeout<K, V> timeout = new Timeout<>(key, value, deadlineNanos);
+        Timeout<K, V> previous = scheduled.put(key, timeout);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        added.add(timeout);
+    }
+
+    /**
+     * Отменить таймаут ключа
+     *
+     * @return true, если таймаут был запланирован
+     */
+    public boolean cancel(K key) {
+        Timeout<K, V> timeout = scheduled.remove(key);
+        if (timeout == null) {
+            return false;
+        }
+        timeout.cancelled = true;
+        return true;
+    }
+
+    /**
+     * Число запланированных ключей
+     */
+    public int size() {
+        return scheduled.size();
+    }
+
+    /**
+     * Прокрутить колесо до момента now
+     *
+     * @return истекшие таймауты в порядке тиков
+     */
+    public List<Timeout<K, V>> advance(long nowNanos) {
+        List<Timeout<K, V>> expired = new ArrayList<>();
+        long lastTick = Math.floorDiv(nowNanos - startNanos, tickNanos);
+
+        transferAdded();
+        while (tick <= lastTick) {
+            expireBucket(buckets[(int) (tick & mask)], expired);
+            tick++;
+        }
+        return expired;
+    }
+
+    private void transferAdded() {
+        Timeout<K, V> timeout;
+        while ((timeout = added.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+
+            // Дедлайн в прошлом - в ближайший тик
+            long deadlineTick = Math.max(
+                tick,
+                ceilDiv(timeout.deadlineNanos - startNanos, tickNanos)
+            );
+            timeout.rounds = (deadlineTick - tick) / buckets.length;
+            buckets[(int) (deadlineTick & mask)].add(timeout);
+        }
+    }
+
+    private void expireBucket(
+        List<Timeout<K, V>> bucket,
+        List<Timeout<K, V>> expired
+    ) {
+        int kept = 0;
+        for (int i = 0; i < bucket.size(); i++) {
+            Timeout<K, V> timeout = bucket.get(i);
+            if (timeout.cancelled) {
+                continue;
+            }
+            if (timeout.rounds > 0) {
+                timeout.rounds--;
+                bucket.set(kept++, timeout);
+                continue;
+            }
+            if (scheduled.remove(timeout.key, timeout)) {
+                expired.add(timeout);
+            }
+        }
+        bucket.subList(kept, bucket.size()).clear();
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    /**
+     * Запланированный таймаут
+     */
+    public static final class Timeout<K, V> {
+
+        private final K key;
+        private final V value;
+        private final long deadlineNanos;
+
+        // Полных оборотов колеса до срабатывания, только поток-тикер
+        private long rounds;
+        private volatile boolean cancelled;
+
+        Timeout(K key, V value, long deadlineNanos) {
+            this.key = key;
+            this.value = value;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public K key() {
+            return key;
+        }
+
+        public V value() {
+            return value;
+        }
+
+        public long deadlineNanos() {
+            return deadlineNanos;
+        }
+    }
+}
@@ -6,5 +6,7 @@ import jakarta.validation.constraints.NotNull;
 
 public record CreateRoomRequest(
     @NotBlank @JsonProperty("host_id") String hostId,
-    @NotNull RoomFilters filters
+    @NotNull RoomFilters filters,
+    // "fixed-rate" или "demand", по умолчанию - режим сервера
+    @JsonProperty("pacing") String pacing
 ) {}
@@ -0,0 +1,81 @@
+package com.moviematcher.model;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import java.math.BigDecimal;
+
+/**
+ * Команда комнаты, пересылаемая узлу-владельцу комнаты (RoomCluster)
+ *
+ * Каждой команде соответствует метод RoomApplicationService;
+ * RoomApplicationService.apply выполняет ее на владельце
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes(
+    {
+        @JsonSubTypes.Type(value = RoomCommand.Join.class, name = "Join"),
+        @JsonSubTypes.Type(value = RoomCommand.Leave.class, name = "Leave"),
+        @JsonSubTypes.Type(
+            value = RoomCommand.SetFilters.class,
+            name = "SetFilters"
+        ),
+        @JsonSubTypes.Type(
+            value = RoomCommand.AddMovie.class,
+            name = "AddMovie"
+        ),
+        @JsonSubTypes.Type(value = RoomCommand.Ready.class, name = "Ready"),
+        @JsonSubTypes.Type(
+            value = RoomCommand.StartVoting.class,
+            name = "StartVoting"
+        ),
+        @JsonSubTypes.Type(value = RoomCommand.Vote.class, name = "Vote"),
+        @JsonSubTypes.Type(value = RoomCommand.Exists.class, name = "Exists"),
+        @JsonSubTypes.Type(
+            value = RoomCommand.ReadyToStart.class,
+            name = "ReadyToStart"
+        ),
+        @JsonSubTypes.Type(
+            value = RoomCommand.SessionsChanged.class,
+            name = "SessionsChanged"
+        ),
+    }
+)
+public sealed interface RoomCommand {
+    record Join(String participantId) implements RoomCommand {}
+
+    record Leave(String participantId) implements RoomCommand {}
+
+    record SetFilters(
+        String participantId,
+        String genre,
+        Integer yearFrom,
+        Integer yearTo,
+        BigDecimal minRating,
+        String type
+    ) implements RoomCommand {}
+
+    record AddMovie(String participantId, String movieId)
+        implements RoomCommand {}
+
+    record Ready(String participantId) implements RoomCommand {}
+
+    record StartVoting() implements RoomCommand {}
+
+    record Vote(String participantId, String movieId, boolean isLike)
+        implements RoomCommand {}
+
+    /**
+     * Есть ли комната (проверка при открытии WebSocket)
+     */
+    record Exists() implements RoomCommand {}
+
+    /**
+     * Все участники готовы и их не меньше двух (автостарт голосования)
+     */
+    record ReadyToStart() implements RoomCommand {}
+
+    /**
+     * Изменилось число WebSocket-сессий комнаты на каком-то узле
+     */
+    record SessionsChanged() implements RoomCommand {}
+}
@@ -106,7 +106,8 @@ public sealed interface ServerMessage {
     ) implements ServerMessage {}
 
     record VotingCompleted(
-        @JsonProperty("matched_movies") List<String> matchedMovies
+        @JsonProperty("matched_movies") List<String> matchedMovies,
+        @JsonProperty("matched_cards") List<MovieData> matchedCards
     ) implements ServerMessage {}
 
     record NoMoreMovies() implements ServerMessage {}
@@ -0,0 +1,288 @@
+package com.moviematcher.repository;
+
+import com.moviematcher.entity.Movie;
+import com.moviematcher.entity.MovieCredit;
+import com.moviematcher.model.MovieData;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Read path for voting cards (MovieData)
+ *
+ * Cards are served from the denormalized movie_cards table, one indexed
+ * row per imdbId. Rows are (re)built by {@link #refresh} from a projection
+ * of the six card tables: director, top-3 actors by order_index, first
+ * country and genres are scalar subqueries. Movies whose card row is not
+ * written yet are read through the same projection, so a card never
+ * touches a lazy collection of Movie
+ */
+@ApplicationScoped
+public class MovieCardRepository {
+
+    private static final int MAX_ACTORS = 3;
+
+    // Deterministic "first": credits by order_index, countries and genres by id
+    private static final String CARD_PROJECTION = """
+        SELECT m.imdb_id,
+               m.title,
+               m.year,
+               m.runtime,
+               m.poster_url,
+               m.plot,
+               m.imdb_rating,
+               (SELECT p.name
+                  FROM movie_credits c
+                  JOIN people p ON p.id = c.person_id
+                 WHERE c.movie_id = m.id AND c.role_type = 'director'
+                 ORDER BY c.order_index NULLS LAST, c.id
+                 LIMIT 1) AS director,
+               (SELECT string_agg(a.name, ', ' ORDER BY a.ord)
+                  FROM (SELECT p.name,
+                               row_number() OVER (
+                                   ORDER BY c.order_index NULLS LAST, c.id
+                               ) AS ord
+                          FROM movie_credits c
+                          JOIN people p ON p.id = c.person_id
+                         WHERE c.movie_id = m.id AND c.role_type = 'actor'
+                         ORDER BY c.order_index NULLS LAST, c.id
+                         LIMIT 3) a) AS actors,
+               (SELECT co.name
+                  FROM movie_countries mc
+                  JOIN countries co ON co.id = mc.country_id
+                 WHERE mc.movie_id = m.id
+                 ORDER BY co.id
+                 LIMIT 1) AS country,
+               (SELECT string_agg(g.name, ', ' ORDER BY g.id)
+                  FROM movie_genres mg
+                  JOIN genres g ON g.id = mg.genre_id
+                 WHERE mg.movie_id = m.id) AS genres,
+               m.id
+          FROM movies m
+        """;
+
+    private static final String STORED_CARDS = """
+        SELECT c.imdb_id, c.title, c.year, c.runtime, c.poster_url, c.plot,
+               c.imdb_rating, c.director, c.actors, c.country, c.genres
+          FROM movie_cards c
+         WHERE c.imdb_id IN (:imdbIds)
+        """;
+
+    private static final String UPSERT_CARDS =
+        """
+        INSERT INTO movie_cards (imdb_id, title, year, runtime, poster_url, plot,
+                                 imdb_rating, director, actors, country, genres,
+                                 movie_id, updated_at)
+        SELECT card.*, now()
+          FROM (
+        """ +
+        CARD_PROJECTION +
+        """
+                WHERE m.id IN (:movieIds)
+               ) card
+        ON CONFLICT (imdb_id) DO UPDATE SET
+            title = EXCLUDED.title,
+            year = EXCLUDED.year,
+            runtime = EXCLUDED.runtime,
+            poster_url = EXCLUDED.poster_url,
+            plot = EXCLUDED.plot,
+            imdb_rating = EXCLUDED.imdb_rating,
+            director = EXCLUDED.director,
+            actors = EXCLUDED.actors,
+            country = EXCLUDED.country,
+            genres = EXCLUDED.genres,
+            movie_id = EXCLUDED.movie_id,
+            updated_at = EXCLUDED.updated_at
+        """;
+
+    private final EntityManager em;
+
+    @jakarta.inject.Inject
+    public MovieCardRepository(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * Cards for many movies: one read of movie_cards, plus one projection
+     * query for ids that have no card row yet
+     *
+     * @return imdbId -> card in the requested order, unknown ids are absent
+     */
+    public Map<String, MovieData> findCardsByImdbIds(Collection<String> imdbIds) {
+        Map<String, MovieData> cards = new LinkedHashMap<>();
+        if (imdbIds == null || imdbIds.isEmpty()) {
+            return cards;
+        }
+
+        Map<String, MovieData> byId = new HashMap<>();
+        collectCards(STORED_CARDS, imdbIds, byId);
+
+        List<String> missing = imdbIds
+            .stream()
+            .filter(id -> !byId.containsKey(id))
+            .distinct()
+            .toList();
+        if (!missing.isEmpty()) {
+            collectCards(
+                CARD_PROJECTION + " WHERE m.imdb_id IN (:imdbIds)",
+                missing,
+                byId
+            );
+        }
+
+        for (String imdbId : imdbIds) {
+            MovieData card = byId.get(imdbId);
+            if (card != null) {
+                cards.put(imdbId, card);
+            }
+        }
+        return cards;
+    }
+
+    /**
+     * Rebuild card rows of the given movies from the normalized tables.
+     * Must run after the movie (and its associations) is committed
+     *
+     * @return number of rows written
+     */
+    public int refresh(Collection<Long> movieIds) {
+        if (movieIds == null || movieIds.isEmpty()) {
+            return 0;
+        }
+        return em
+            .createNativeQuery(UPSERT_CARDS)
+            .setParameter("movieIds", movieIds)
+            .executeUpdate();
+    }
+
+    /**
+     * Card for a single movie
+     */
+    public Optional<MovieData> findCard(String imdbId) {
+        return Optional.ofNullable(
+            findCardsByImdbIds(List.of(imdbId)).get(imdbId)
+        );
+    }
+
+    /**
+     * Card built from an already loaded entity, same shape as the query.
+     * For movies not visible to the query yet (fresh search results)
+     */
+    public static MovieData fromEntity(Movie movie) {
+        List<MovieCredit> credits = movie.credits == null
+            ? List.of()
+            : movie.credits
+                .stream()
+                .sorted(
+                    Comparator.comparing(
+                        (MovieCredit c) -> c.orderIndex,
+                        Comparator.nullsLast(Comparator.naturalOrder())
+                    ).thenComparing(
+                        c -> c.id,
+                        Comparator.nullsLast(Comparator.naturalOrder())
+                    )
+                )
+                .toList();
+
+        String director = credits
+            .stream()
+            .filter(c -> "director".equals(c.roleType))
+            .map(c -> c.person.name)
+            .findFirst()
+            .orElse("");
+        String actors = credits
+            .stream()
+            .filter(c -> "actor".equals(c.roleType))
+            .limit(MAX_ACTORS)
+            .map(c -> c.person.name)
+            .collect(Collectors.joining(", "));
+        String country = movie.countries == null
+            ? ""
+            : movie.countries
+                .stream()
+                .min(
+                    Comparator.comparing(
+                        c -> c.id,
+                        Comparator.nullsLast(Comparator.naturalOrder())
+                    )
+                )
+                .map(c -> c.name)
+                .orElse("");
+        String genres = movie.genres == null
+            ? ""
+            : movie.genres
+                .stream()
+                .sorted(
+                    Comparator.comparing(
+                        g -> g.id,
+                        Comparator.nullsLast(Comparator.naturalOrder())
+                    )
+                )
+                .map(g -> g.name)
+                .collect(Collectors.joining(", "));
+
+        return new MovieData(
+            movie.title,
+            movie.year != null ? movie.year.toString() : "",
+            "", // rated
+            movie.runtime != null ? movie.runtime + " min" : "",
+            movie.posterUrl,
+            director,
+            actors,
+            movie.plot,
+            country,
+            genres,
+            movie.imdbRating != null ? movie.imdbRating.toString() : "",
+            movie.imdbId
+        );
+    }
+
+    private void collectCards(
+        String sql,
+        Collection<String> imdbIds,
+        Map<String, MovieData> into
+    ) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em
+            .createNativeQuery(sql)
+            .setParameter("imdbIds", imdbIds)
+            .getResultList();
+
+        for (Object[] row : rows) {
+            MovieData card = toCard(row);
+            into.put(card.imdbId(), card);
+        }
+    }
+
+    private static MovieData toCard(Object[] row) {
+        Object year = row[2];
+        Object runtime = row[3];
+        Object rating = row[6];
+
+        return new MovieData(
+            (String) row[1],
+            year != null ? year.toString() : "",
+            "", // rated
+            runtime != null ? runtime + " min" : "",
+            (String) row[4],
+            orEmpty(row[7]),
+            orEmpty(row[8]),
+            (String) row[5],
+            orEmpty(row[9]),
+            orEmpty(row[10]),
+            rating != null ? rating.toString() : "",
+            (String) row[0]
+        );
+    }
+
+    private static String orEmpty(Object value) {
+        return value != null ? value.toString() : "";
+    }
+}
@@ -0,0 +1,104 @@
+package com.moviematcher.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Кэш total для MovieRepository.findByFilters (режим CountMode.CACHED)
+ *
+ * Ключ - отпечаток фильтров (MovieFilterCriteria.fingerprint()),
+ * значение живет TTL: total в режиме CACHED может отставать от каталога
+ * не дольше TTL, записи фильмов кэш не сбрасывают.
+ *
+ * Поколение (generation) защищает от гонки: count, посчитанный до
+ * явного invalidateAll, не попадет в кэш после него
+ */
+@ApplicationScoped
+public class MovieCountCache {
+
+    private final Map<String, CachedCount> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final long ttlNanos;
+    private final int maxSize;
+
+    @jakarta.inject.Inject
+    public MovieCountCache(
+        @ConfigProperty(
+            name = "movie.search.count-cache.ttl",
+            defaultValue = "5m"
+        ) Duration ttl,
+        @ConfigProperty(
+            name = "movie.search.count-cache.max-size",
+            defaultValue = "1000"
+        ) int maxSize
+    ) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Получить закэшированный total, если он еще не протух
+     */
+    public OptionalLong get(String fingerprint) {
+        CachedCount cached = entries.get(fingerprint);
+        if (cached == null) {
+            return OptionalLong.empty();
+        }
+        if (System.nanoTime() - cached.expiresAtNanos() > 0) {
+            entries.remove(fingerprint, cached);
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(cached.total());
+    }
+
+    /**
+     * Текущее поколение - снимать до подсчета, передавать в put
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Сохранить total, если с момента подсчета не было инвалидации
+     */
+    public void put(String fingerprint, long total, long countedAtGeneration) {
+        if (countedAtGeneration != generation.get()) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evictExpired();
+            if (entries.size() >= maxSize) {
+                entries.clear();
+            }
+        }
+        entries.put(
+            fingerprint,
+            new CachedCount(total, System.nanoTime() + ttlNanos)
+        );
+    }
+
+    /**
+     * Сбросить весь кэш
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(c -> now - c.expiresAtNanos() > 0);
+    }
+
+    private record CachedCount(long total, long expiresAtNanos) {}
+}
@@ -0,0 +1,255 @@
+package com.moviematcher.repository;
+
+import com.moviematcher.repository.MovieRepository.MatchMode;
+import com.moviematcher.repository.MovieRepository.MovieFilterCriteria;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.jboss.logging.Logger;
+
+/**
+ * Оценка total по плану запроса Postgres (режим CountMode.ESTIMATED)
+ *
+ * Вместо count(*) выполняет EXPLAIN того же фильтра и берет
+ * оценку rows из корня плана. Стоит одного планирования без выполнения,
+ * точность - как у статистики планировщика (ANALYZE)
+ *
+ * Фильтр строится параметризованным SQL, значения никогда не попадают в текст запроса
+ */
+@ApplicationScoped
+public class MovieCountEstimator {
+
+    private static final Logger log = Logger.getLogger(
+        MovieCountEstimator.class
+    );
+
+    // Первая строка текстового плана: "... (cost=0.00..35.50 rows=2550 width=8)"
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    // Атрибуты Movie, которые могут требоваться NOT NULL, → колонки
+    private static final Map<String, String> COLUMNS = Map.of(
+        "imdbRating",
+        "m.imdb_rating",
+        "imdbVotes",
+        "m.imdb_votes",
+        "year",
+        "m.year"
+    );
+
+    private final EntityManager em;
+
+    @jakarta.inject.Inject
+    public MovieCountEstimator(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * Оценить количество фильмов под фильтр
+     *
+     * @return оценка планировщика или empty, если план не удалось разобрать
+     */
+    public OptionalLong estimate(MovieFilterCriteria criteria) {
+        List<Object> params = new ArrayList<>();
+        String sql =
+            "EXPLAIN SELECT m.id FROM movies m" + buildWhere(criteria, params);
+
+        Query query = em.createNativeQuery(sql);
+        for (int i = 0; i < params.size(); i++) {
+            query.setParameter(i + 1, params.get(i));
+        }
+
+        List<?> plan = query.getResultList();
+        if (plan.isEmpty()) {
+            return OptionalLong.empty();
+        }
+
+        Matcher matcher = PLAN_ROWS.matcher(plan.get(0).toString());
+        if (!matcher.find()) {
+            log.warnf("Cannot parse plan rows from: {}", plan.get(0));
+            return OptionalLong.empty();
+        }
+
+        return OptionalLong.of(Long.parseLong(matcher.group(1)));
+    }
+
+    /**
+     * WHERE эквивалентный MovieRepository.buildPredicates
+     */
+    String buildWhere(MovieFilterCriteria criteria, List<Object> params) {
+        List<String> clauses = new ArrayList<>();
+
+        if (criteria.type != null && !criteria.type.isBlank()) {
+            clauses.add("m.type = ?");
+            params.add(criteria.type);
+        }
+
+        addMembership(
+            clauses,
+            params,
+            criteria.genreSlugs,
+            criteria.genreMatch,
+            "movie_genres",
+            "genre_id",
+            "genres",
+            "slug"
+        );
+        addMembership(
+            clauses,
+            params,
+            criteria.countryCodes,
+            criteria.countryMatch,
+            "movie_countries",
+            "country_id",
+            "countries",
+            "code"
+        );
+        addMembership(
+            clauses,
+            params,
+            criteria.languageCodes,
+            criteria.languageMatch,
+            "movie_languages",
+            "language_id",
+            "languages",
+            "code"
+        );
+        addMembership(
+            clauses,
+            params,
+            criteria.studioNames,
+            criteria.studioMatch,
+            "movie_studios",
+            "studio_id",
+            "studios",
+            "name"
+        );
+        addMembership(
+            clauses,
+            params,
+            criteria.keywordSlugs,
+            criteria.keywordMatch,
+            "movie_keywords",
+            "keyword_id",
+            "keywords",
+            "slug"
+        );
+
+        addRange(clauses, params, "m.year", criteria.yearFrom, criteria.yearTo);
+        addRange(
+            clauses,
+            params,
+            "m.imdb_rating",
+            criteria.minImdbRating,
+            criteria.maxImdbRating
+        );
+        addRange(
+            clauses,
+            params,
+            "m.runtime",
+            criteria.minRuntime,
+            criteria.maxRuntime
+        );
+
+        if (criteria.titleSearch != null && !criteria.titleSearch.isBlank()) {
+            String pattern = "%" + criteria.titleSearch.toLowerCase() + "%";
+            clauses.add(
+                "(lower(m.title) LIKE ? OR lower(m.original_title) LIKE ?)"
+            );
+            params.add(pattern);
+            params.add(pattern);
+        }
+
+        addCredit(clauses, params, "director", criteria.directorName);
+        addCredit(clauses, params, "actor", criteria.actorName);
+
+        for (String attribute : MovieRepository.nonNullAttributes(criteria)) {
+            clauses.add(COLUMNS.get(attribute) + " IS NOT NULL");
+        }
+
+        return clauses.isEmpty() ? "" : " WHERE " + String.join(" AND ", clauses);
+    }
+
+    private void addMembership(
+        List<String> clauses,
+        List<Object> params,
+        List<String> values,
+        MatchMode match,
+        String linkTable,
+        String linkColumn,
+        String refTable,
+        String refColumn
+    ) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+
+        String exists =
+            "EXISTS (SELECT 1 FROM " +
+            linkTable +
+            " l JOIN " +
+            refTable +
+            " r ON r.id = l." +
+            linkColumn +
+            " WHERE l.movie_id = m.id AND r." +
+            refColumn;
+
+        // ALL - отдельный EXISTS на каждое значение, как в MovieRepository
+        if (match == MatchMode.ALL) {
+            for (String value : new LinkedHashSet<>(values)) {
+                clauses.add(exists + " = ?)");
+                params.add(value);
+            }
+            return;
+        }
+
+        clauses.add(exists + " IN (" + placeholders(values.size()) + "))");
+        params.addAll(values);
+    }
+
+    private void addRange(
+        List<String> clauses,
+        List<Object> params,
+        String column,
+        Object from,
+        Object to
+    ) {
+        if (from != null) {
+            clauses.add(column + " >= ?");
+            params.add(from);
+        }
+        if (to != null) {
+            clauses.add(column + " <= ?");
+            params.add(to);
+        }
+    }
+
+    private void addCredit(
+        List<String> clauses,
+        List<Object> params,
+        String roleType,
+        String personName
+    ) {
+        if (personName == null || personName.isBlank()) {
+            return;
+        }
+
+        clauses.add(
+            "EXISTS (SELECT 1 FROM movie_credits c JOIN people p ON p.id = c.person_id" +
+            " WHERE c.movie_id = m.id AND c.role_type = ? AND lower(p.name) LIKE ?)"
+        );
+        params.add(roleType);
+        params.add("%" + personName.toLowerCase() + "%");
+    }
+
+    private String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,97 @@
+package com.moviematcher.repository;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Непрозрачный токен продолжения для keyset (seek) пагинации
+ *
+ * Хранит позицию последней строки страницы: значения ключей сортировки и id.
+ * Следующая страница запрашивается через WHERE (sortKey, id) > (last) вместо OFFSET,
+ * поэтому глубокие страницы стоят столько же, сколько первая.
+ *
+ * Токен привязан к sortBy и направлению сортировки - токен от другой сортировки отклоняется.
+ */
+public record MovieCursor(
+    String sortBy,
+    boolean ascending,
+    String primaryKey,
+    String secondaryKey,
+    long id
+) {
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Закодировать курсор в URL-safe строку
+     */
+    public String encode() {
+        String raw = String.join(
+            SEPARATOR,
+            VERSION,
+            escape(sortBy),
+            ascending ? "a" : "d",
+            escape(primaryKey),
+            escape(secondaryKey),
+            Long.toString(id)
+        );
+        return Base64.getUrlEncoder()
+            .withoutPadding()
+            .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Раскодировать токен, полученный от клиента
+     *
+     * @throws IllegalArgumentException если токен поврежден
+     */
+    public static MovieCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("Cursor cannot be empty");
+        }
+
+        try {
+            String raw = new String(
+                Base64.getUrlDecoder().decode(token),
+                StandardCharsets.UTF_8
+            );
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+
+            if (parts.length != 6 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Unsupported cursor format");
+            }
+
+            return new MovieCursor(
+                unescape(parts[1]),
+                "a".equals(parts[2]),
+                unescape(parts[3]),
+                unescape(parts[4]),
+                Long.parseLong(parts[5])
+            );
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    /**
+     * Проверка, что курсор выдан для той же сортировки
+     */
+    public boolean matches(String sortBy, boolean ascending) {
+        return this.sortBy.equals(sortBy) && this.ascending == ascending;
+    }
+
+    // null кодируем пустой строкой, а пустую строку - маркером "~"
+    private static String escape(String value) {
+        if (value == null) return "";
+        if (value.isEmpty()) return "~";
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String unescape(String value) {
+        if (value.isEmpty()) return null;
+        if ("~".equals(value)) return "";
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+}
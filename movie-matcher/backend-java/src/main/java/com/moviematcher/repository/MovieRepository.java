@@ -2,27 +2,82 @@ package com.moviematcher.repository;
 
 import com.moviematcher.entity.Movie;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
-import io.quarkus.panache.common.Parameters;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class MovieRepository implements PanacheRepository<Movie> {
 
+    // Bind parameters per IN list, well below the Postgres limit
+    static final int IMDB_ID_CHUNK = 500;
+
+    // Casts: a NULL in a multi-row VALUES list has no type of its own
+    private static final String INSERT_MOVIES = """
+        INSERT INTO movies (imdb_id, title, original_title, type, year,
+                            release_date, runtime, plot, plot_short,
+                            poster_url, backdrop_url, imdb_rating, imdb_votes)
+        VALUES
+        """;
+    private static final String INSERT_MOVIE_ROW = """
+        (:imdbId%1$d, :title%1$d, :originalTitle%1$d, :type%1$d,
+         CAST(:year%1$d AS integer), CAST(:releaseDate%1$d AS date),
+         CAST(:runtime%1$d AS integer), :plot%1$d, :plotShort%1$d,
+         :posterUrl%1$d, :backdropUrl%1$d,
+         CAST(:imdbRating%1$d AS numeric), CAST(:imdbVotes%1$d AS integer))""";
+    private static final String INSERT_MOVIES_ON_CONFLICT = """
+
+        ON CONFLICT (imdb_id) DO NOTHING
+        RETURNING id, imdb_id
+        """;
+
     private final EntityManager em;
+    private final MovieCountCache countCache;
+    private final MovieCountEstimator countEstimator;
 
     @jakarta.inject.Inject
-    public MovieRepository(EntityManager em) {
+    public MovieRepository(
+        EntityManager em,
+        MovieCountCache countCache,
+        MovieCountEstimator countEstimator
+    ) {
         this.em = em;
+        this.countCache = countCache;
+        this.countEstimator = countEstimator;
     }
 
     /**
      * Universal method to find movies by all possible filters
      * Uses Criteria API for 100% protection against SQL injection
+     *
+     * Two pagination modes:
+     * - offset (default) - page * pageSize, fine for the first few pages
+     * - keyset - seeks after the cursor's (sortKey, id) tuple, so deep pages
+     *   cost the same as the first one. Next token is returned in
+     *   {@link MovieSearchResult#nextCursor}
+     *
+     * Total is computed according to {@link MovieFilterCriteria#countMode}.
+     * The page is always fetched as pageSize + 1 rows, so hasNext is exact
+     * even when the total is estimated or skipped
      */
     public MovieSearchResult findByFilters(MovieFilterCriteria criteria) {
         CriteriaBuilder cb = em.getCriteriaBuilder();
@@ -31,157 +86,461 @@ public class MovieRepository implements PanacheRepository<Movie> {
         CriteriaQuery<Movie> query = cb.createQuery(Movie.class);
         Root<Movie> movie = query.from(Movie.class);
 
-        // Count query for total
+        // Build predicates (WHERE conditions)
+        List<Predicate> predicates = buildPredicates(
+            cb,
+            query,
+            movie,
+            criteria
+        );
+
+        String sortBy = resolveSortBy(criteria);
+        boolean ascending = isAscending(criteria);
+
+        // Keyset: continue after the cursor's row
+        if (criteria.keyset && criteria.cursor != null) {
+            MovieCursor cursor = MovieCursor.decode(criteria.cursor);
+            if (!cursor.matches(sortBy, ascending)) {
+                throw new IllegalArgumentException(
+                    "Cursor was issued for a different sort order"
+                );
+            }
+            predicates.add(
+                buildSeekPredicate(cb, movie, sortBy, ascending, cursor)
+            );
+        }
+
+        if (!predicates.isEmpty()) {
+            query.where(cb.and(predicates.toArray(new Predicate[0])));
+        }
+
+        // Apply sorting (filters are EXISTS subqueries, no DISTINCT needed)
+        query.orderBy(buildOrderBy(cb, movie, criteria));
+
+        // Execute main query with pagination, one extra row detects the next page
+        TypedQuery<Movie> pageQuery = em.createQuery(query);
+        if (!criteria.keyset) {
+            pageQuery.setFirstResult(criteria.page * criteria.pageSize);
+        }
+        List<Movie> movies = pageQuery
+            .setMaxResults(criteria.pageSize + 1)
+            .getResultList();
+
+        boolean hasNext = movies.size() > criteria.pageSize;
+        if (hasNext) {
+            movies = new ArrayList<>(movies.subList(0, criteria.pageSize));
+        }
+
+        String nextCursor = criteria.keyset && hasNext
+            ? toCursor(movies.get(movies.size() - 1), sortBy, ascending)
+                .encode()
+            : null;
+
+        // Lower bound known from the page itself
+        long seen =
+            (criteria.keyset ? 0L : (long) criteria.page * criteria.pageSize) +
+            movies.size() +
+            (hasNext ? 1 : 0);
+
+        return switch (criteria.countMode) {
+            case EXACT -> new MovieSearchResult(
+                movies,
+                countExact(criteria),
+                true,
+                hasNext,
+                criteria.page,
+                criteria.pageSize,
+                nextCursor
+            );
+            case CACHED -> new MovieSearchResult(
+                movies,
+                countCached(criteria),
+                true,
+                hasNext,
+                criteria.page,
+                criteria.pageSize,
+                nextCursor
+            );
+            case ESTIMATED -> new MovieSearchResult(
+                movies,
+                Math.max(seen, countEstimated(criteria)),
+                false,
+                hasNext,
+                criteria.page,
+                criteria.pageSize,
+                nextCursor
+            );
+            case HAS_NEXT -> new MovieSearchResult(
+                movies,
+                -1,
+                false,
+                hasNext,
+                criteria.page,
+                criteria.pageSize,
+                nextCursor
+            );
+        };
+    }
+
+    /**
+     * count(movie) with the same filters
+     */
+    private long countExact(MovieFilterCriteria criteria) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
         CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
         Root<Movie> countRoot = countQuery.from(Movie.class);
 
-        // Build predicates (WHERE conditions)
-        List<Predicate> predicates = buildPredicates(cb, movie, criteria);
         List<Predicate> countPredicates = buildPredicates(
             cb,
+            countQuery,
             countRoot,
             criteria
         );
 
-        // Apply predicates to queries
-        if (!predicates.isEmpty()) {
-            query.where(cb.and(predicates.toArray(new Predicate[0])));
-            countQuery
-                .select(cb.count(countRoot))
-                .where(cb.and(countPredicates.toArray(new Predicate[0])));
-        } else {
-            countQuery.select(cb.count(countRoot));
+        countQuery.select(cb.count(countRoot));
+        if (!countPredicates.isEmpty()) {
+            countQuery.where(cb.and(countPredicates.toArray(new Predicate[0])));
         }
 
-        // Make DISTINCT to avoid duplicates from joins
-        query.distinct(true);
-        countQuery.distinct(true);
+        return em.createQuery(countQuery).getSingleResult();
+    }
 
-        // Apply sorting
-        query.orderBy(buildOrderBy(cb, movie, criteria));
+    /**
+     * Exact count, memoized by criteria fingerprint for the cache TTL
+     */
+    private long countCached(MovieFilterCriteria criteria) {
+        String fingerprint = criteria.fingerprint();
+        OptionalLong cached = countCache.get(fingerprint);
+        if (cached.isPresent()) {
+            return cached.getAsLong();
+        }
 
-        // Execute count query
-        Long total = em.createQuery(countQuery).getSingleResult();
+        long generation = countCache.generation();
+        long total = countExact(criteria);
+        countCache.put(fingerprint, total, generation);
+        return total;
+    }
 
-        // Execute main query with pagination
-        List<Movie> movies = em
-            .createQuery(query)
-            .setFirstResult(criteria.page * criteria.pageSize)
-            .setMaxResults(criteria.pageSize)
-            .getResultList();
+    /**
+     * Planner estimate, falls back to the cached count if the plan is unusable
+     */
+    private long countEstimated(MovieFilterCriteria criteria) {
+        OptionalLong estimate = countEstimator.estimate(criteria);
+        return estimate.isPresent()
+            ? estimate.getAsLong()
+            : countCached(criteria);
+    }
+
+    /**
+     * Seek predicate for the ORDER BY produced by {@link #buildOrderBy}
+     *
+     * Expanded form of (k1, k2, id) > (v1, v2, lastId) with a redundant
+     * range bound on k1 so Postgres can use it as an index condition
+     */
+    private Predicate buildSeekPredicate(
+        CriteriaBuilder cb,
+        Root<Movie> movie,
+        String sortBy,
+        boolean ascending,
+        MovieCursor cursor
+    ) {
+        Path<Long> id = movie.get("id");
+        Predicate idAfter = after(cb, id, cursor.id(), ascending);
+
+        switch (sortBy) {
+            case "rating": {
+                Path<BigDecimal> rating = movie.get("imdbRating");
+                Path<Integer> votes = movie.get("imdbVotes");
+                BigDecimal lastRating = new BigDecimal(cursor.primaryKey());
+                Integer lastVotes = Integer.valueOf(cursor.secondaryKey());
+                return cb.and(
+                    notBefore(cb, rating, lastRating, ascending),
+                    cb.or(
+                        after(cb, rating, lastRating, ascending),
+                        cb.and(
+                            cb.equal(rating, lastRating),
+                            after(cb, votes, lastVotes, false)
+                        ),
+                        cb.and(
+                            cb.equal(rating, lastRating),
+                            cb.equal(votes, lastVotes),
+                            idAfter
+                        )
+                    )
+                );
+            }
+            case "year":
+                return seekSingleKey(
+                    cb,
+                    movie.get("year"),
+                    Integer.valueOf(cursor.primaryKey()),
+                    ascending,
+                    idAfter
+                );
+            case "title":
+                return seekSingleKey(
+                    cb,
+                    movie.get("title"),
+                    cursor.primaryKey(),
+                    ascending,
+                    idAfter
+                );
+            case "popularity":
+                return seekSingleKey(
+                    cb,
+                    movie.get("imdbVotes"),
+                    Integer.valueOf(cursor.primaryKey()),
+                    false,
+                    after(cb, id, cursor.id(), false)
+                );
+            default:
+                throw new IllegalArgumentException(
+                    "Unsupported sort for keyset pagination: " + sortBy
+                );
+        }
+    }
 
-        return new MovieSearchResult(
-            movies,
-            total,
-            criteria.page,
-            criteria.pageSize
+    private <T extends Comparable<? super T>> Predicate seekSingleKey(
+        CriteriaBuilder cb,
+        Path<T> key,
+        T last,
+        boolean ascending,
+        Predicate idAfter
+    ) {
+        return cb.and(
+            notBefore(cb, key, last, ascending),
+            cb.or(
+                after(cb, key, last, ascending),
+                cb.and(cb.equal(key, last), idAfter)
+            )
         );
     }
 
+    private <T extends Comparable<? super T>> Predicate after(
+        CriteriaBuilder cb,
+        Expression<? extends T> key,
+        T last,
+        boolean ascending
+    ) {
+        return ascending ? cb.greaterThan(key, last) : cb.lessThan(key, last);
+    }
+
+    private <T extends Comparable<? super T>> Predicate notBefore(
+        CriteriaBuilder cb,
+        Expression<? extends T> key,
+        T last,
+        boolean ascending
+    ) {
+        return ascending
+            ? cb.greaterThanOrEqualTo(key, last)
+            : cb.lessThanOrEqualTo(key, last);
+    }
+
+    /**
+     * Build cursor pointing at the given (last) row of a page
+     */
+    private MovieCursor toCursor(
+        Movie last,
+        String sortBy,
+        boolean ascending
+    ) {
+        return switch (sortBy) {
+            case "rating" -> new MovieCursor(
+                sortBy,
+                ascending,
+                last.imdbRating.toPlainString(),
+                last.imdbVotes.toString(),
+                last.id
+            );
+            case "year" -> new MovieCursor(
+                sortBy,
+                ascending,
+                last.year.toString(),
+                null,
+                last.id
+            );
+            case "title" -> new MovieCursor(
+                sortBy,
+                ascending,
+                last.title,
+                null,
+                last.id
+            );
+            case "popularity" -> new MovieCursor(
+                sortBy,
+                ascending,
+                last.imdbVotes.toString(),
+                null,
+                last.id
+            );
+            default -> throw new IllegalArgumentException(
+                "Unsupported sort for keyset pagination: " + sortBy
+            );
+        };
+    }
+
+    /**
+     * Normalize sortBy: unknown values fall back to rating
+     */
+    private static String resolveSortBy(MovieFilterCriteria criteria) {
+        String sortBy = criteria.sortBy != null ? criteria.sortBy : "rating";
+        return switch (sortBy) {
+            case "rating", "year", "title", "popularity" -> sortBy;
+            default -> "rating";
+        };
+    }
+
+    private static boolean isAscending(MovieFilterCriteria criteria) {
+        return criteria.sortAscending != null && criteria.sortAscending;
+    }
+
     /**
      * Build WHERE predicates safely using Criteria API
+     *
+     * Multi-valued dimensions (genres, countries, languages, studios, keywords,
+     * credits) are emitted as correlated EXISTS subqueries instead of joins,
+     * so the outer query never multiplies rows and needs no DISTINCT.
+     * Predicates are returned in a heuristic most-selective-first order
+     * (see {@link Selectivity}); the planner is free to reorder them
      */
     private List<Predicate> buildPredicates(
         CriteriaBuilder cb,
+        AbstractQuery<?> query,
         Root<Movie> movie,
         MovieFilterCriteria criteria
     ) {
-        List<Predicate> predicates = new ArrayList<>();
+        List<PlannedPredicate> planned = new ArrayList<>();
 
         // Filter by type (movie, series, episode)
         if (criteria.type != null && !criteria.type.isBlank()) {
-            predicates.add(cb.equal(movie.get("type"), criteria.type));
-        }
-
-        // Filter by genres
-        if (criteria.genreSlugs != null && !criteria.genreSlugs.isEmpty()) {
-            Join<Object, Object> genreJoin = movie.join(
-                "genres",
-                JoinType.INNER
-            );
-            predicates.add(genreJoin.get("slug").in(criteria.genreSlugs));
-        }
-
-        // Filter by countries
-        if (criteria.countryCodes != null && !criteria.countryCodes.isEmpty()) {
-            Join<Object, Object> countryJoin = movie.join(
-                "countries",
-                JoinType.INNER
-            );
-            predicates.add(countryJoin.get("code").in(criteria.countryCodes));
-        }
-
-        // Filter by languages
-        if (
-            criteria.languageCodes != null && !criteria.languageCodes.isEmpty()
-        ) {
-            Join<Object, Object> languageJoin = movie.join(
-                "languages",
-                JoinType.INNER
-            );
-            predicates.add(languageJoin.get("code").in(criteria.languageCodes));
-        }
-
-        // Filter by studios
-        if (criteria.studioNames != null && !criteria.studioNames.isEmpty()) {
-            Join<Object, Object> studioJoin = movie.join(
-                "studios",
-                JoinType.INNER
+            planned.add(
+                new PlannedPredicate(
+                    cb.equal(movie.get("type"), criteria.type),
+                    Selectivity.TYPE
+                )
             );
-            predicates.add(studioJoin.get("name").in(criteria.studioNames));
         }
 
-        // Filter by keywords
-        if (criteria.keywordSlugs != null && !criteria.keywordSlugs.isEmpty()) {
-            Join<Object, Object> keywordJoin = movie.join(
-                "keywords",
-                JoinType.INNER
-            );
-            predicates.add(keywordJoin.get("slug").in(criteria.keywordSlugs));
-        }
+        // Filter by genres, countries, languages, studios, keywords
+        addMembership(
+            planned,
+            cb,
+            query,
+            movie,
+            "genres",
+            "slug",
+            criteria.genreSlugs,
+            criteria.genreMatch,
+            Selectivity.GENRE
+        );
+        addMembership(
+            planned,
+            cb,
+            query,
+            movie,
+            "countries",
+            "code",
+            criteria.countryCodes,
+            criteria.countryMatch,
+            Selectivity.COUNTRY
+        );
+        addMembership(
+            planned,
+            cb,
+            query,
+            movie,
+            "languages",
+            "code",
+            criteria.languageCodes,
+            criteria.languageMatch,
+            Selectivity.LANGUAGE
+        );
+        addMembership(
+            planned,
+            cb,
+            query,
+            movie,
+            "studios",
+            "name",
+            criteria.studioNames,
+            criteria.studioMatch,
+            Selectivity.STUDIO
+        );
+        addMembership(
+            planned,
+            cb,
+            query,
+            movie,
+            "keywords",
+            "slug",
+            criteria.keywordSlugs,
+            criteria.keywordMatch,
+            Selectivity.KEYWORD
+        );
 
         // Filter by year range
         if (criteria.yearFrom != null) {
-            predicates.add(
-                cb.greaterThanOrEqualTo(movie.get("year"), criteria.yearFrom)
+            planned.add(
+                new PlannedPredicate(
+                    cb.greaterThanOrEqualTo(movie.get("year"), criteria.yearFrom),
+                    Selectivity.RANGE_BOUND
+                )
             );
         }
         if (criteria.yearTo != null) {
-            predicates.add(
-                cb.lessThanOrEqualTo(movie.get("year"), criteria.yearTo)
+            planned.add(
+                new PlannedPredicate(
+                    cb.lessThanOrEqualTo(movie.get("year"), criteria.yearTo),
+                    Selectivity.RANGE_BOUND
+                )
             );
         }
 
         // Filter by IMDB rating
         if (criteria.minImdbRating != null) {
-            predicates.add(
-                cb.greaterThanOrEqualTo(
-                    movie.get("imdbRating"),
-                    criteria.minImdbRating
+            planned.add(
+                new PlannedPredicate(
+                    cb.greaterThanOrEqualTo(
+                        movie.get("imdbRating"),
+                        criteria.minImdbRating
+                    ),
+                    Selectivity.RANGE_BOUND
                 )
             );
         }
         if (criteria.maxImdbRating != null) {
-            predicates.add(
-                cb.lessThanOrEqualTo(
-                    movie.get("imdbRating"),
-                    criteria.maxImdbRating
+            planned.add(
+                new PlannedPredicate(
+                    cb.lessThanOrEqualTo(
+                        movie.get("imdbRating"),
+                        criteria.maxImdbRating
+                    ),
+                    Selectivity.RANGE_BOUND
                 )
             );
         }
 
         // Filter by runtime (duration)
         if (criteria.minRuntime != null) {
-            predicates.add(
-                cb.greaterThanOrEqualTo(
-                    movie.get("runtime"),
-                    criteria.minRuntime
+            planned.add(
+                new PlannedPredicate(
+                    cb.greaterThanOrEqualTo(
+                        movie.get("runtime"),
+                        criteria.minRuntime
+                    ),
+                    Selectivity.RANGE_BOUND
                 )
             );
         }
         if (criteria.maxRuntime != null) {
-            predicates.add(
-                cb.lessThanOrEqualTo(movie.get("runtime"), criteria.maxRuntime)
+            planned.add(
+                new PlannedPredicate(
+                    cb.lessThanOrEqualTo(
+                        movie.get("runtime"),
+                        criteria.maxRuntime
+                    ),
+                    Selectivity.RANGE_BOUND
+                )
             );
         }
 
@@ -197,57 +556,187 @@ public class MovieRepository implements PanacheRepository<Movie> {
                 cb.lower(movie.get("originalTitle")),
                 searchPattern
             );
-            predicates.add(cb.or(titleMatch, originalTitleMatch));
+            planned.add(
+                new PlannedPredicate(
+                    cb.or(titleMatch, originalTitleMatch),
+                    Selectivity.TITLE
+                )
+            );
         }
 
-        // Filter by director
-        if (criteria.directorName != null && !criteria.directorName.isBlank()) {
-            Join<Object, Object> creditJoin = movie.join(
-                "credits",
-                JoinType.INNER
-            );
-            Join<Object, Object> personJoin = creditJoin.join(
-                "person",
-                JoinType.INNER
-            );
-            predicates.add(cb.equal(creditJoin.get("roleType"), "director"));
-            predicates.add(
-                cb.like(
-                    cb.lower(personJoin.get("name")),
-                    "%" + criteria.directorName.toLowerCase() + "%"
+        // Filter by director / actor
+        addCredit(
+            planned,
+            cb,
+            query,
+            movie,
+            "director",
+            criteria.directorName,
+            Selectivity.DIRECTOR
+        );
+        addCredit(
+            planned,
+            cb,
+            query,
+            movie,
+            "actor",
+            criteria.actorName,
+            Selectivity.ACTOR
+        );
+
+        // Exclude nulls for rating-based sorting and keyset sort keys
+        for (String attribute : nonNullAttributes(criteria)) {
+            planned.add(
+                new PlannedPredicate(
+                    cb.isNotNull(movie.get(attribute)),
+                    Selectivity.NOT_NULL
                 )
             );
         }
 
-        // Filter by actor
-        if (criteria.actorName != null && !criteria.actorName.isBlank()) {
-            Join<Object, Object> creditJoin = movie.join(
-                "credits",
-                JoinType.INNER
-            );
-            Join<Object, Object> personJoin = creditJoin.join(
-                "person",
-                JoinType.INNER
-            );
-            predicates.add(cb.equal(creditJoin.get("roleType"), "actor"));
-            predicates.add(
+        // Stable sort keeps declaration order for equal estimates
+        planned.sort(Comparator.comparingDouble(PlannedPredicate::selectivity));
+
+        List<Predicate> predicates = new ArrayList<>(planned.size());
+        for (PlannedPredicate p : planned) {
+            predicates.add(p.predicate());
+        }
+        return predicates;
+    }
+
+    /**
+     * EXISTS (movie.{relation} with {attribute} IN values) for ANY,
+     * one EXISTS per distinct value for ALL
+     */
+    private void addMembership(
+        List<PlannedPredicate> planned,
+        CriteriaBuilder cb,
+        AbstractQuery<?> query,
+        Root<Movie> movie,
+        String relation,
+        String attribute,
+        List<String> values,
+        MatchMode match,
+        double perValue
+    ) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+
+        if (match == MatchMode.ALL) {
+            for (String value : new LinkedHashSet<>(values)) {
+                Subquery<Long> sub = query.subquery(Long.class);
+                Join<Movie, Object> related = sub
+                    .correlate(movie)
+                    .join(relation);
+                sub
+                    .select(related.get("id"))
+                    .where(cb.equal(related.get(attribute), value));
+                planned.add(new PlannedPredicate(cb.exists(sub), perValue));
+            }
+            return;
+        }
+
+        Subquery<Long> sub = query.subquery(Long.class);
+        Join<Movie, Object> related = sub.correlate(movie).join(relation);
+        sub.select(related.get("id")).where(related.get(attribute).in(values));
+        planned.add(
+            new PlannedPredicate(
+                cb.exists(sub),
+                Math.min(1.0, perValue * values.size())
+            )
+        );
+    }
+
+    /**
+     * EXISTS (credit with roleType and person name LIKE %name%)
+     */
+    private void addCredit(
+        List<PlannedPredicate> planned,
+        CriteriaBuilder cb,
+        AbstractQuery<?> query,
+        Root<Movie> movie,
+        String roleType,
+        String personName,
+        double selectivity
+    ) {
+        if (personName == null || personName.isBlank()) {
+            return;
+        }
+
+        Subquery<Long> sub = query.subquery(Long.class);
+        Join<Movie, Object> credit = sub.correlate(movie).join("credits");
+        Join<Object, Object> person = credit.join("person");
+        sub
+            .select(credit.get("id"))
+            .where(
+                cb.equal(credit.get("roleType"), roleType),
                 cb.like(
-                    cb.lower(personJoin.get("name")),
-                    "%" + criteria.actorName.toLowerCase() + "%"
+                    cb.lower(person.get("name")),
+                    "%" + personName.toLowerCase() + "%"
                 )
             );
-        }
+        planned.add(new PlannedPredicate(cb.exists(sub), selectivity));
+    }
+
+    /**
+     * Hand-picked guesses at the fraction of the catalog passing one
+     * predicate, not derived from statistics. They only fix the order
+     * predicates are emitted in; whether that order survives is up to
+     * the Postgres planner
+     */
+    static final class Selectivity {
+
+        static final double NOT_NULL = 0.9;
+        static final double TYPE = 0.7;
+        static final double RANGE_BOUND = 0.5;
+        // per requested value
+        static final double GENRE = 0.15;
+        static final double LANGUAGE = 0.1;
+        static final double COUNTRY = 0.08;
+        static final double STUDIO = 0.01;
+        static final double KEYWORD = 0.01;
+        static final double TITLE = 0.01;
+        static final double ACTOR = 0.005;
+        static final double DIRECTOR = 0.002;
+
+        private Selectivity() {}
+    }
+
+    private record PlannedPredicate(Predicate predicate, double selectivity) {}
+
+    /**
+     * Movie attributes that must be NOT NULL for this criteria:
+     * - imdbRating for rating-based sorting
+     * - every sort key in keyset mode (NULL keys are not comparable)
+     */
+    static Set<String> nonNullAttributes(MovieFilterCriteria criteria) {
+        Set<String> attributes = new LinkedHashSet<>();
 
-        // Exclude nulls for rating-based sorting
         if (criteria.sortBy != null && criteria.sortBy.contains("rating")) {
-            predicates.add(cb.isNotNull(movie.get("imdbRating")));
+            attributes.add("imdbRating");
         }
 
-        return predicates;
+        if (criteria.keyset) {
+            switch (resolveSortBy(criteria)) {
+                case "rating" -> {
+                    attributes.add("imdbRating");
+                    attributes.add("imdbVotes");
+                }
+                case "year" -> attributes.add("year");
+                case "popularity" -> attributes.add("imdbVotes");
+                default -> {}
+            }
+        }
+
+        return attributes;
     }
 
     /**
      * Build ORDER BY clause safely
+     *
+     * id is the last tiebreaker, so the order is total and stable between pages.
+     * Each order is served by a keyset index (changesets 007, 011)
      */
     private List<Order> buildOrderBy(
         CriteriaBuilder cb,
@@ -256,9 +745,8 @@ public class MovieRepository implements PanacheRepository<Movie> {
     ) {
         List<Order> orders = new ArrayList<>();
 
-        String sortBy = criteria.sortBy != null ? criteria.sortBy : "rating";
-        boolean ascending =
-            criteria.sortAscending != null && criteria.sortAscending;
+        String sortBy = resolveSortBy(criteria);
+        boolean ascending = isAscending(criteria);
 
         switch (sortBy) {
             case "rating":
@@ -285,11 +773,13 @@ public class MovieRepository implements PanacheRepository<Movie> {
                 break;
             case "popularity":
                 orders.add(cb.desc(movie.get("imdbVotes")));
-                break;
-            default:
-                orders.add(cb.desc(movie.get("imdbRating")));
+                orders.add(cb.desc(movie.get("id")));
+                return orders;
         }
 
+        orders.add(
+            ascending ? cb.asc(movie.get("id")) : cb.desc(movie.get("id"))
+        );
         return orders;
     }
 
@@ -301,30 +791,342 @@ public class MovieRepository implements PanacheRepository<Movie> {
     }
 
     /**
-     * Quick search by title (safe)
+     * Find many movies by IMDB ID (safe), ready to be rendered as cards
+     *
+     * Genres, countries and credits with their people are fetched eagerly,
+     * so the returned entities never hit a lazy collection. Credits are
+     * fetched by a second query over the same movies: joining them with
+     * genres and countries in one statement would multiply the rows.
+     * Large inputs are split into chunks of {@value #IMDB_ID_CHUNK} ids
+     *
+     * @return imdbId -> movie in the requested order, unknown ids are absent
+     */
+    public Map<String, Movie> findByImdbIds(Collection<String> imdbIds) {
+        Map<String, Movie> byId = new HashMap<>();
+        for (List<String> chunk : chunks(imdbIds)) {
+            List<Movie> movies = em
+                .createQuery(
+                    """
+                    SELECT DISTINCT m FROM Movie m
+                    LEFT JOIN FETCH m.genres
+                    LEFT JOIN FETCH m.countries
+                    WHERE m.imdbId IN :imdbIds
+                    """,
+                    Movie.class
+                )
+                .setParameter("imdbIds", chunk)
+                .getResultList();
+            if (movies.isEmpty()) {
+                continue;
+            }
+
+            // Fills m.credits of the movies above in the persistence context
+            em
+                .createQuery(
+                    """
+                    SELECT DISTINCT m FROM Movie m
+                    LEFT JOIN FETCH m.credits c
+                    LEFT JOIN FETCH c.person
+                    WHERE m IN :movies
+                    """,
+                    Movie.class
+                )
+                .setParameter("movies", movies)
+                .getResultList();
+
+            movies.forEach(movie -> byId.put(movie.imdbId, movie));
+        }
+
+        Map<String, Movie> ordered = new LinkedHashMap<>();
+        for (String imdbId : imdbIds) {
+            Movie movie = byId.get(imdbId);
+            if (movie != null) {
+                ordered.put(imdbId, movie);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Which of the given IMDB IDs are already in the catalog (safe).
+     * Only the id column is read - for dedupe checks
+     */
+    public Set<String> findExistingImdbIds(Collection<String> imdbIds) {
+        Set<String> existing = new HashSet<>();
+        for (List<String> chunk : chunks(imdbIds)) {
+            existing.addAll(
+                em
+                    .createQuery(
+                        """
+                        SELECT m.imdbId FROM Movie m
+                        WHERE m.imdbId IN :imdbIds
+                        """,
+                        String.class
+                    )
+                    .setParameter("imdbIds", chunk)
+                    .getResultList()
+            );
+        }
+        return existing;
+    }
+
+    /**
+     * Batched insert of movies that are not in the catalog yet (safe),
+     * e.g. TMDB discover results. Must run in a transaction.
+     *
+     * One multi-row INSERT ... ON CONFLICT (imdb_id) DO NOTHING per chunk,
+     * so two rooms discovering the same movie never fail each other.
+     * Genres, countries, languages and studios of the inserted rows are
+     * linked the same way; credits are left to enrichment.
+     *
+     * Native inserts bypass MovieChangeListener - the caller fires
+     * MovieChangedEvent for the returned rows
+     *
+     * @return imdbId -> id of the rows actually inserted
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Long> insertIfAbsent(Collection<Movie> movies) {
+        Map<String, Movie> byImdbId = new LinkedHashMap<>();
+        for (Movie movie : movies) {
+            if (movie.imdbId != null && !movie.imdbId.isBlank()) {
+                byImdbId.putIfAbsent(movie.imdbId, movie);
+            }
+        }
+
+        Map<String, Long> inserted = new LinkedHashMap<>();
+        List<Movie> distinct = new ArrayList<>(byImdbId.values());
+        for (int from = 0; from < distinct.size(); from += IMDB_ID_CHUNK) {
+            List<Movie> chunk = distinct.subList(
+                from,
+                Math.min(from + IMDB_ID_CHUNK, distinct.size())
+            );
+
+            StringJoiner rows = new StringJoiner(",\n");
+            for (int i = 0; i < chunk.size(); i++) {
+                rows.add(String.format(INSERT_MOVIE_ROW, i));
+            }
+            var query = em.createNativeQuery(
+                INSERT_MOVIES + rows + INSERT_MOVIES_ON_CONFLICT
+            );
+            for (int i = 0; i < chunk.size(); i++) {
+                Movie movie = chunk.get(i);
+                query
+                    .setParameter("imdbId" + i, movie.imdbId)
+                    .setParameter("title" + i, movie.title)
+                    .setParameter("originalTitle" + i, movie.originalTitle)
+                    .setParameter(
+                        "type" + i,
+                        movie.type != null ? movie.type : "movie"
+                    )
+                    .setParameter("year" + i, movie.year)
+                    .setParameter("releaseDate" + i, movie.releaseDate)
+                    .setParameter("runtime" + i, movie.runtime)
+                    .setParameter("plot" + i, movie.plot)
+                    .setParameter("plotShort" + i, movie.plotShort)
+                    .setParameter("posterUrl" + i, movie.posterUrl)
+                    .setParameter("backdropUrl" + i, movie.backdropUrl)
+                    .setParameter("imdbRating" + i, movie.imdbRating)
+                    .setParameter("imdbVotes" + i, movie.imdbVotes);
+            }
+            for (Object[] row : (List<Object[]>) query.getResultList()) {
+                inserted.put((String) row[1], ((Number) row[0]).longValue());
+            }
+        }
+
+        Map<Long, Movie> byMovieId = new LinkedHashMap<>();
+        inserted.forEach((imdbId, movieId) ->
+            byMovieId.put(movieId, byImdbId.get(imdbId))
+        );
+        insertAssociations(byMovieId);
+
+        return inserted;
+    }
+
+    /**
+     * Link genres, countries, languages and studios carried by the given
+     * copies to the already stored movies with the same imdbId, e.g. when
+     * a TMDB discover result enriches a movie saved from OMDB. Must run
+     * in a transaction.
+     *
+     * Only link tables are written, so the movies row stays clean and
+     * MovieChangeListener sees nothing - the caller fires MovieChangedEvent
+     * for the returned movies
+     *
+     * @return id -> imdbId of the stored movies that gained a link
+     */
+    public Map<Long, String> linkMissingAssociations(Collection<Movie> movies) {
+        Map<String, Movie> byImdbId = new LinkedHashMap<>();
+        for (Movie movie : movies) {
+            if (movie.imdbId != null && !movie.imdbId.isBlank()) {
+                byImdbId.putIfAbsent(movie.imdbId, movie);
+            }
+        }
+
+        Map<Long, Movie> byMovieId = new LinkedHashMap<>();
+        Map<Long, String> imdbIds = new HashMap<>();
+        for (List<String> chunk : chunks(byImdbId.keySet())) {
+            List<Object[]> rows = em
+                .createQuery(
+                    """
+                    SELECT m.id, m.imdbId FROM Movie m
+                    WHERE m.imdbId IN :imdbIds
+                    """,
+                    Object[].class
+                )
+                .setParameter("imdbIds", chunk)
+                .getResultList();
+            for (Object[] row : rows) {
+                Long movieId = (Long) row[0];
+                byMovieId.put(movieId, byImdbId.get((String) row[1]));
+                imdbIds.put(movieId, (String) row[1]);
+            }
+        }
+
+        Map<Long, String> linked = new LinkedHashMap<>();
+        for (Long movieId : insertAssociations(byMovieId)) {
+            linked.put(movieId, imdbIds.get(movieId));
+        }
+        return linked;
+    }
+
+    // Returns ids of the movies that actually gained a link
+    private Set<Long> insertAssociations(Map<Long, Movie> byMovieId) {
+        List<Object[]> genres = new ArrayList<>();
+        List<Object[]> countries = new ArrayList<>();
+        List<Object[]> languages = new ArrayList<>();
+        List<Object[]> studios = new ArrayList<>();
+        byMovieId.forEach((movieId, movie) -> {
+            movie.genres.forEach(g -> addLink(genres, movieId, g.id));
+            movie.countries.forEach(c -> addLink(countries, movieId, c.id));
+            movie.languages.forEach(l -> addLink(languages, movieId, l.id));
+            movie.studios.forEach(st -> addLink(studios, movieId, st.id));
+        });
+
+        Set<Long> linked = new LinkedHashSet<>();
+        linked.addAll(insertLinks("movie_genres", "genre_id", genres));
+        linked.addAll(insertLinks("movie_countries", "country_id", countries));
+        linked.addAll(insertLinks("movie_languages", "language_id", languages));
+        linked.addAll(insertLinks("movie_studios", "studio_id", studios));
+        return linked;
+    }
+
+    private static void addLink(
+        List<Object[]> links,
+        Long movieId,
+        Object refId
+    ) {
+        if (refId != null) {
+            links.add(new Object[] { movieId, refId });
+        }
+    }
+
+    // Returns movie_id of every link actually inserted
+    @SuppressWarnings("unchecked")
+    private Set<Long> insertLinks(
+        String table,
+        String refColumn,
+        List<Object[]> links
+    ) {
+        Set<Long> linked = new HashSet<>();
+        for (int from = 0; from < links.size(); from += IMDB_ID_CHUNK) {
+            List<Object[]> chunk = links.subList(
+                from,
+                Math.min(from + IMDB_ID_CHUNK, links.size())
+            );
+
+            StringJoiner rows = new StringJoiner(", ");
+            for (int i = 0; i < chunk.size(); i++) {
+                rows.add("(:movie" + i + ", :ref" + i + ")");
+            }
+            var query = em.createNativeQuery(
+                "INSERT INTO " +
+                table +
+                " (movie_id, " +
+                refColumn +
+                ") VALUES " +
+                rows +
+                " ON CONFLICT DO NOTHING RETURNING movie_id"
+            );
+            for (int i = 0; i < chunk.size(); i++) {
+                query
+                    .setParameter("movie" + i, chunk.get(i)[0])
+                    .setParameter("ref" + i, chunk.get(i)[1]);
+            }
+            for (Object movieId : (List<Object>) query.getResultList()) {
+                linked.add(((Number) movieId).longValue());
+            }
+        }
+        return linked;
+    }
+
+    private static List<List<String>> chunks(Collection<String> imdbIds) {
+        if (imdbIds == null || imdbIds.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> distinct = imdbIds
+            .stream()
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < distinct.size(); i += IMDB_ID_CHUNK) {
+            chunks.add(
+                distinct.subList(i, Math.min(i + IMDB_ID_CHUNK, distinct.size()))
+            );
+        }
+        return chunks;
+    }
+
+    /**
+     * Quick search by title (safe), best match first
+     *
+     * Substring (LIKE) and fuzzy (pg_trgm %) matches on title and
+     * original_title, both served by the trigram GIN indexes.
+     * Ranking: exact title match, then trigram similarity, then popularity
      */
+    @SuppressWarnings("unchecked")
     public List<Movie> quickSearchByTitle(String title, int limit) {
         if (title == null || title.isBlank()) {
             return List.of();
         }
 
-        Parameters params = Parameters.with(
-            "pattern",
-            "%" + title.toLowerCase() + "%"
-        );
+        String query = title.trim().toLowerCase();
 
-        return find(
-            "LOWER(title) LIKE :pattern OR LOWER(originalTitle) LIKE :pattern",
-            params
-        )
-            .page(0, limit)
-            .list();
+        return em
+            .createNativeQuery(
+                """
+                SELECT m.* FROM movies m
+                WHERE lower(m.title) LIKE :pattern
+                   OR lower(m.original_title) LIKE :pattern
+                   OR lower(m.title) % :query
+                   OR lower(m.original_title) % :query
+                ORDER BY
+                    (lower(m.title) = :query
+                        OR lower(m.original_title) = :query) DESC,
+                    GREATEST(
+                        similarity(lower(m.title), :query),
+                        similarity(lower(m.original_title), :query)
+                    ) DESC,
+                    m.imdb_votes DESC NULLS LAST,
+                    m.id
+                LIMIT :limit
+                """,
+                Movie.class
+            )
+            .setParameter("pattern", "%" + query + "%")
+            .setParameter("query", query)
+            .setParameter("limit", limit)
+            .getResultList();
     }
 
     /**
      * Получить случайные фильмы по фильтрам
      * ВАЖНО: Возвращает в РАНДОМНОМ порядке для голосования
      *
+     * Каждый вызов берет новый seed - страницы между вызовами не согласованы.
+     * Для воспроизводимых страниц используйте {@link #findRandomByFilters}
+     *
      * @param genre жанр (может быть null)
      * @param yearFrom год от (может быть null)
      * @param yearTo год до (может быть null)
@@ -342,11 +1144,358 @@ public class MovieRepository implements PanacheRepository<Movie> {
         String type,
         int page,
         int pageSize
+    ) {
+        return findRandomByFilters(
+            genre,
+            yearFrom,
+            yearTo,
+            minRating,
+            type,
+            ThreadLocalRandom.current().nextLong(),
+            page,
+            pageSize
+        );
+    }
+
+    /**
+     * Случайная выборка фильмов по фильтрам без ORDER BY RANDOM()
+     *
+     * У каждого фильма есть персистентный индексированный random_key в [0, 1),
+     * выданный при вставке. seed комнаты задает точку старта на этой
+     * "окружности": сначала идут фильмы с random_key >= start, затем
+     * с random_key < start. Обе части читаются seek-ом по индексу
+     * (random_key, id), без сортировки всего набора.
+     *
+     * Один и тот же seed дает одни и те же страницы, поэтому страница 2
+     * не повторяет фильмы страницы 1. Страница N находится seek-ом через
+     * ключи предыдущих страниц (без загрузки сущностей и без OFFSET);
+     * кто держит позицию сам - продолжает через
+     * {@link #findRandomByFilters(String, Integer, Integer, BigDecimal, String, long, RandomKeyCursor, int)}
+     *
+     * @param seed seed комнаты/участника
+     * @param page номер страницы (с 0)
+     * @param pageSize размер страницы
+     * @return список фильмов в случайном порядке
+     */
+    public List<Movie> findRandomByFilters(
+        String genre,
+        Integer yearFrom,
+        Integer yearTo,
+        BigDecimal minRating,
+        String type,
+        long seed,
+        int page,
+        int pageSize
+    ) {
+        double start = startKeyForSeed(seed);
+        RandomKeyCursor after = null;
+        for (int skipped = 0; skipped < page; skipped++) {
+            List<RandomKeyCursor> keys = readRandomCircle(
+                start,
+                after,
+                pageSize,
+                (fromStart, from, limit) ->
+                    findRandomSegmentKeys(
+                        genre,
+                        yearFrom,
+                        yearTo,
+                        minRating,
+                        type,
+                        start,
+                        fromStart,
+                        from,
+                        limit
+                    )
+            );
+            if (keys.size() < pageSize) {
+                return List.of();
+            }
+            after = keys.get(keys.size() - 1);
+        }
+        return findRandomByFilters(
+            genre,
+            yearFrom,
+            yearTo,
+            minRating,
+            type,
+            seed,
+            after,
+            pageSize
+        );
+    }
+
+    /**
+     * Следующая страница случайной выборки после последнего фильма
+     * предыдущей страницы ({@link RandomKeyCursor#of}); null - первая страница
+     *
+     * @param seed seed комнаты/участника, тот же, что у предыдущих страниц
+     * @param after позиция последнего фильма предыдущей страницы
+     * @param pageSize размер страницы
+     * @return список фильмов в случайном порядке
+     */
+    public List<Movie> findRandomByFilters(
+        String genre,
+        Integer yearFrom,
+        Integer yearTo,
+        BigDecimal minRating,
+        String type,
+        long seed,
+        RandomKeyCursor after,
+        int pageSize
+    ) {
+        double start = startKeyForSeed(seed);
+        return readRandomCircle(start, after, pageSize, (fromStart, from, limit) ->
+            findRandomSegment(
+                genre,
+                yearFrom,
+                yearTo,
+                minRating,
+                type,
+                start,
+                fromStart,
+                from,
+                limit
+            )
+        );
+    }
+
+    /**
+     * Позиция фильма на окружности random_key: (random_key, id)
+     */
+    public record RandomKeyCursor(double randomKey, long id) {
+        public static RandomKeyCursor of(Movie movie) {
+            return new RandomKeyCursor(movie.randomKey, movie.id);
+        }
+    }
+
+    /**
+     * Выдать новые random_key следующей пачке фильмов (по id после afterId)
+     *
+     * Короткая транзакция на пачку вместо UPDATE всей таблицы: строки
+     * не блокируются надолго. Колоды комнат листают свои кэшированные
+     * списки кандидатов (DeckCandidateCache), а не random_key, поэтому
+     * перемешивание идущее голосование не задевает
+     *
+     * @return последний перемешанный id, -1 - фильмов после afterId нет
+     */
+    public long reshuffleRandomKeys(long afterId, int batchSize) {
+        @SuppressWarnings("unchecked")
+        List<Number> ids = em
+            .createNativeQuery(
+                """
+                UPDATE movies SET random_key = random()
+                WHERE id IN (
+                    SELECT id FROM movies WHERE id > ?1 ORDER BY id LIMIT ?2
+                )
+                RETURNING id
+                """
+            )
+            .setParameter(1, afterId)
+            .setParameter(2, batchSize)
+            .getResultList();
+        return ids.stream().mapToLong(Number::longValue).max().orElse(-1L);
+    }
+
+    /**
+     * Точка старта на окружности random_key для seed
+     */
+    static double startKeyForSeed(long seed) {
+        return new SplittableRandom(seed).nextDouble();
+    }
+
+    /**
+     * Обход окружности с позиции after: [start, 1), затем [0, start)
+     *
+     * Позиция с random_key < start уже во второй части - первая пройдена
+     */
+    private static <T> List<T> readRandomCircle(
+        double start,
+        RandomKeyCursor after,
+        int limit,
+        RandomSegmentReader<T> reader
+    ) {
+        boolean wrapped = after != null && after.randomKey() < start;
+        List<T> rows = new ArrayList<>(reader.read(!wrapped, after, limit));
+        if (!wrapped && rows.size() < limit) {
+            rows.addAll(reader.read(false, null, limit - rows.size()));
+        }
+        return rows;
+    }
+
+    @FunctionalInterface
+    private interface RandomSegmentReader<T> {
+        List<T> read(boolean fromStart, RandomKeyCursor after, int limit);
+    }
+
+    private List<Movie> findRandomSegment(
+        String genre,
+        Integer yearFrom,
+        Integer yearTo,
+        BigDecimal minRating,
+        String type,
+        double start,
+        boolean fromStart,
+        RandomKeyCursor after,
+        int limit
     ) {
         CriteriaBuilder cb = em.getCriteriaBuilder();
         CriteriaQuery<Movie> query = cb.createQuery(Movie.class);
         Root<Movie> movie = query.from(Movie.class);
 
+        query.where(
+            randomSegmentPredicates(
+                cb,
+                movie,
+                genre,
+                yearFrom,
+                yearTo,
+                minRating,
+                type,
+                start,
+                fromStart,
+                after
+            )
+        );
+        query.distinct(true);
+
+        // Порядок по индексированному ключу - seek, а не сортировка
+        query.orderBy(cb.asc(movie.get("randomKey")), cb.asc(movie.get("id")));
+
+        return em.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Все imdbId фильмов под фильтры колоды, без порядка - для общего
+     * пула кандидатов (DeckCandidateCache), перетасовку задает пул
+     */
+    public List<String> findImdbIdsByDeckFilters(
+        String genre,
+        Integer yearFrom,
+        Integer yearTo,
+        BigDecimal minRating,
+        String type
+    ) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<String> query = cb.createQuery(String.class);
+        Root<Movie> movie = query.from(Movie.class);
+
+        query.select(movie.get("imdbId"));
+        query.where(
+            buildDeckPredicates(
+                cb,
+                movie,
+                genre,
+                yearFrom,
+                yearTo,
+                minRating,
+                type
+            ).toArray(new Predicate[0])
+        );
+        query.distinct(true);
+
+        return em.createQuery(query).getResultList();
+    }
+
+    // Только ключи - для пропуска страниц без загрузки сущностей
+    private List<RandomKeyCursor> findRandomSegmentKeys(
+        String genre,
+        Integer yearFrom,
+        Integer yearTo,
+        BigDecimal minRating,
+        String type,
+        double start,
+        boolean fromStart,
+        RandomKeyCursor after,
+        int limit
+    ) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Movie> movie = query.from(Movie.class);
+        Path<Double> randomKey = movie.get("randomKey");
+        Path<Long> id = movie.get("id");
+
+        query.select(cb.tuple(randomKey, id));
+        query.where(
+            randomSegmentPredicates(
+                cb,
+                movie,
+                genre,
+                yearFrom,
+                yearTo,
+                minRating,
+                type,
+                start,
+                fromStart,
+                after
+            )
+        );
+        query.distinct(true);
+        query.orderBy(cb.asc(randomKey), cb.asc(id));
+
+        return em
+            .createQuery(query)
+            .setMaxResults(limit)
+            .getResultList()
+            .stream()
+            .map(row -> new RandomKeyCursor(row.get(randomKey), row.get(id)))
+            .toList();
+    }
+
+    private Predicate[] randomSegmentPredicates(
+        CriteriaBuilder cb,
+        Root<Movie> movie,
+        String genre,
+        Integer yearFrom,
+        Integer yearTo,
+        BigDecimal minRating,
+        String type,
+        double start,
+        boolean fromStart,
+        RandomKeyCursor after
+    ) {
+        List<Predicate> predicates = buildDeckPredicates(
+            cb,
+            movie,
+            genre,
+            yearFrom,
+            yearTo,
+            minRating,
+            type
+        );
+        Path<Double> randomKey = movie.get("randomKey");
+        predicates.add(
+            fromStart
+                ? cb.greaterThanOrEqualTo(randomKey, start)
+                : cb.lessThan(randomKey, start)
+        );
+        // (random_key, id) > (after) - продолжение с последнего фильма
+        if (after != null) {
+            Path<Long> id = movie.get("id");
+            predicates.add(
+                seekSingleKey(
+                    cb,
+                    randomKey,
+                    after.randomKey(),
+                    true,
+                    cb.greaterThan(id, after.id())
+                )
+            );
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    /**
+     * WHERE условия для колоды голосования (фильтры участника комнаты)
+     */
+    private List<Predicate> buildDeckPredicates(
+        CriteriaBuilder cb,
+        Root<Movie> movie,
+        String genre,
+        Integer yearFrom,
+        Integer yearTo,
+        BigDecimal minRating,
+        String type
+    ) {
         List<Predicate> predicates = new ArrayList<>();
 
         // Фильтр по типу
@@ -386,20 +1535,7 @@ public class MovieRepository implements PanacheRepository<Movie> {
             predicates.add(cb.isNotNull(movie.get("imdbRating")));
         }
 
-        if (!predicates.isEmpty()) {
-            query.where(cb.and(predicates.toArray(new Predicate[0])));
-        }
-
-        query.distinct(true);
-
-        // ВАЖНО: Сортировка RANDOM для случайного порядка!
-        query.orderBy(cb.asc(cb.function("RANDOM", Double.class)));
-
-        return em
-            .createQuery(query)
-            .setFirstResult(page * pageSize)
-            .setMaxResults(pageSize)
-            .getResultList();
+        return predicates;
     }
 
     /**
@@ -408,25 +1544,82 @@ public class MovieRepository implements PanacheRepository<Movie> {
     public static class MovieSearchResult {
 
         public final List<Movie> movies;
+        // -1 if not counted (CountMode.HAS_NEXT)
         public final long total;
+        // false for planner estimates and uncounted totals
+        public final boolean totalExact;
+        public final boolean hasNext;
         public final int page;
         public final int pageSize;
+        // -1 if total is unknown
         public final int totalPages;
 
+        // Keyset mode: token for the next page, null if this page is the last
+        public final String nextCursor;
+
         public MovieSearchResult(
             List<Movie> movies,
             long total,
             int page,
             int pageSize
+        ) {
+            this(
+                movies,
+                total,
+                true,
+                (long) (page + 1) * pageSize < total,
+                page,
+                pageSize,
+                null
+            );
+        }
+
+        public MovieSearchResult(
+            List<Movie> movies,
+            long total,
+            boolean totalExact,
+            boolean hasNext,
+            int page,
+            int pageSize,
+            String nextCursor
         ) {
             this.movies = movies;
             this.total = total;
+            this.totalExact = totalExact;
+            this.hasNext = hasNext;
             this.page = page;
             this.pageSize = pageSize;
-            this.totalPages = (int) Math.ceil((double) total / pageSize);
+            this.totalPages = total < 0
+                ? -1
+                : (int) Math.ceil((double) total / pageSize);
+            this.nextCursor = nextCursor;
         }
     }
 
+    /**
+     * Semantics of a multi-valued filter
+     */
+    public enum MatchMode {
+        // movie has at least one of the values
+        ANY,
+        // movie has every value
+        ALL,
+    }
+
+    /**
+     * How MovieSearchResult.total is obtained
+     */
+    public enum CountMode {
+        // count(*) on every call
+        EXACT,
+        // exact count memoized by criteria fingerprint (TTL)
+        CACHED,
+        // Postgres planner row estimate, no query execution
+        ESTIMATED,
+        // no count at all, only hasNext (pageSize + 1 fetch)
+        HAS_NEXT,
+    }
+
     /**
      * Filter criteria object - all filters in one place
      */
@@ -442,6 +1635,13 @@ public class MovieRepository implements PanacheRepository<Movie> {
         public List<String> studioNames;
         public List<String> keywordSlugs;
 
+        // Per-dimension semantics: movie has any of the values / all of them
+        public MatchMode genreMatch = MatchMode.ANY;
+        public MatchMode countryMatch = MatchMode.ANY;
+        public MatchMode languageMatch = MatchMode.ANY;
+        public MatchMode studioMatch = MatchMode.ANY;
+        public MatchMode keywordMatch = MatchMode.ANY;
+
         // Range filters
         public Integer yearFrom;
         public Integer yearTo;
@@ -459,6 +1659,13 @@ public class MovieRepository implements PanacheRepository<Movie> {
         public int page = 0;
         public int pageSize = 50;
 
+        // Keyset pagination: cursor == null means the first page
+        public boolean keyset = false;
+        public String cursor;
+
+        // Total strategy
+        public CountMode countMode = CountMode.EXACT;
+
         // Sorting
         public String sortBy = "rating"; // "rating", "year", "title", "popularity"
         public Boolean sortAscending = false;
@@ -478,11 +1685,29 @@ public class MovieRepository implements PanacheRepository<Movie> {
             return this;
         }
 
+        public MovieFilterCriteria withGenres(
+            List<String> genreSlugs,
+            MatchMode match
+        ) {
+            this.genreSlugs = genreSlugs;
+            this.genreMatch = match;
+            return this;
+        }
+
         public MovieFilterCriteria withCountries(List<String> countryCodes) {
             this.countryCodes = countryCodes;
             return this;
         }
 
+        public MovieFilterCriteria withKeywords(
+            List<String> keywordSlugs,
+            MatchMode match
+        ) {
+            this.keywordSlugs = keywordSlugs;
+            this.keywordMatch = match;
+            return this;
+        }
+
         public MovieFilterCriteria withYearRange(Integer from, Integer to) {
             this.yearFrom = from;
             this.yearTo = to;
@@ -505,6 +1730,74 @@ public class MovieRepository implements PanacheRepository<Movie> {
             return this;
         }
 
+        /**
+         * Switch to keyset pagination, cursor is the previous nextCursor
+         * (null for the first page)
+         */
+        public MovieFilterCriteria withCursor(String cursor, int pageSize) {
+            this.keyset = true;
+            this.cursor = cursor;
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        public MovieFilterCriteria withCountMode(CountMode countMode) {
+            this.countMode = countMode;
+            return this;
+        }
+
+        /**
+         * Key of everything that affects the filtered set
+         * (not page, page size, cursor or count mode).
+         * Normalized only as far as the SQL is: value lists are sets (IN),
+         * title and credit searches are lower-cased (LIKE on lower()),
+         * type, slugs, codes and studio names match exactly
+         */
+        public String fingerprint() {
+            StringJoiner joiner = new StringJoiner("|");
+            joiner.add("type=" + exact(type));
+            joiner.add("genres=" + normalize(genreSlugs, genreMatch));
+            joiner.add("countries=" + normalize(countryCodes, countryMatch));
+            joiner.add("languages=" + normalize(languageCodes, languageMatch));
+            joiner.add("studios=" + normalize(studioNames, studioMatch));
+            joiner.add("keywords=" + normalize(keywordSlugs, keywordMatch));
+            joiner.add("year=" + yearFrom + ".." + yearTo);
+            joiner.add(
+                "rating=" +
+                normalize(minImdbRating) +
+                ".." +
+                normalize(maxImdbRating)
+            );
+            joiner.add("runtime=" + minRuntime + ".." + maxRuntime);
+            joiner.add("title=" + lowerCased(titleSearch));
+            joiner.add("director=" + lowerCased(directorName));
+            joiner.add("actor=" + lowerCased(actorName));
+            joiner.add("notNull=" + nonNullAttributes(this));
+            return joiner.toString();
+        }
+
+        // Blank filters add no predicate
+        private static String exact(String value) {
+            return value == null || value.isBlank() ? "" : value;
+        }
+
+        private static String lowerCased(String value) {
+            return exact(value).toLowerCase();
+        }
+
+        private static String normalize(List<String> values, MatchMode match) {
+            if (values == null || values.isEmpty()) return "";
+            return match + ":" + values
+                .stream()
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining(","));
+        }
+
+        private static String normalize(BigDecimal value) {
+            return value == null ? "" : value.stripTrailingZeros().toPlainString();
+        }
+
         public MovieFilterCriteria withSorting(
             String sortBy,
             boolean ascending
@@ -1,6 +1,7 @@
 package com.moviematcher.resource;
 
 import com.moviematcher.service.RoomApplicationService;
+import com.moviematcher.domain.model.StreamPacing;
 import com.moviematcher.domain.model.VotingCompletionType;
 import com.moviematcher.model.*;
 import jakarta.validation.Valid;
@@ -36,9 +37,27 @@ public class RoomResource {
 
         VotingCompletionType completionType = VotingCompletionType.UNANIMOUS;
 
+        StreamPacing.Mode pacingMode = null;
+        if (request.pacing() != null && !request.pacing().isBlank()) {
+            try {
+                pacingMode = StreamPacing.Mode.valueOf(
+                    request.pacing().trim().toUpperCase().replace('-', '_')
+                );
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(
+                        new ErrorResponse(
+                            "Unknown pacing mode: " + request.pacing()
+                        )
+                    )
+                    .build();
+            }
+        }
+
         CreateRoomResponse response = roomService.createRoom(
             request.hostId(),
-            completionType
+            completionType,
+            pacingMode
         );
 
         return Response.ok(response).build();
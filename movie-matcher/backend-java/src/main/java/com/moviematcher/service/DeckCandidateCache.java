@@ -0,0 +1,391 @@
+package com.moviematcher.service;
+
+import com.moviematcher.domain.model.MovieFilters;
+import com.moviematcher.entity.Movie;
+import com.moviematcher.entity.MovieChangedEvent;
+import com.moviematcher.model.MovieData;
+import com.moviematcher.repository.MovieRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Общий для всех комнат кэш кандидатов колод
+ *
+ * Популярные комбинации фильтров (комедии 2010-2024 от 7.0) выбирают
+ * многие комнаты. Ключ - нормализованный отпечаток MovieFilters, значение -
+ * все подходящие ID из каталога/БД и страницы TMDB discover. Каждая
+ * комната берет из них свою перетасовку по seed участника (view),
+ * без повторного запроса.
+ *
+ * Записи живут TTL. Фильм (MovieChangedEvent), ставший подходящим,
+ * дописывается в записи; запись сбрасывается, только когда перестал
+ * подходить ее собственный фильм. Страницы TMDB от наших фильмов
+ * не зависят - только TTL.
+ *
+ * Метрики: movie.deck.candidate-cache{result=hit|miss},
+ * movie.deck.candidate-cache.size
+ */
+@ApplicationScoped
+public class DeckCandidateCache {
+
+    private static final Logger log = Logger.getLogger(
+        DeckCandidateCache.class
+    );
+
+    private final Map<String, CandidatePool> pools = new ConcurrentHashMap<>();
+    private final Map<String, TmdbPage> tmdbPages = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final MovieRepository movieRepository;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Counter hits;
+    private final Counter misses;
+
+    @jakarta.inject.Inject
+    public DeckCandidateCache(
+        MovieRepository movieRepository,
+        MeterRegistry meterRegistry,
+        @ConfigProperty(
+            name = "movie.deck.candidate-cache.ttl",
+            defaultValue = "10m"
+        ) Duration ttl,
+        @ConfigProperty(
+            name = "movie.deck.candidate-cache.max-size",
+            defaultValue = "500"
+        ) int maxSize
+    ) {
+        this.movieRepository = movieRepository;
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+
+        this.hits = meterRegistry.counter(
+            "movie.deck.candidate-cache",
+            "result",
+            "hit"
+        );
+        this.misses = meterRegistry.counter(
+            "movie.deck.candidate-cache",
+            "result",
+            "miss"
+        );
+        Gauge.builder("movie.deck.candidate-cache.size", pools, Map::size)
+            .description("Filter signatures with cached deck candidates")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Нормализованный отпечаток фильтров - ровно настолько, насколько
+     * нормализует запрос: регистр жанра (LIKE по lower) и масштаб
+     * рейтинга (7 и 7.0) не создают разные записи, тип сравнивается точно
+     */
+    public static String signature(MovieFilters filters) {
+        return String.join(
+            "|",
+            "genre=" + normalize(filters.getGenre()),
+            "year=" + filters.getYearFrom() + "-" + filters.getYearTo(),
+            "rating=" +
+            (filters.getMinRating() != null
+                    ? filters.getMinRating().stripTrailingZeros().toPlainString()
+                    : "*"),
+            "type=" + exact(filters.getType())
+        );
+    }
+
+    /**
+     * Кандидаты под фильтры: из кэша или через loader (все подходящие ID)
+     */
+    public List<String> candidates(
+        MovieFilters filters,
+        Supplier<List<String>> loader
+    ) {
+        String signature = signature(filters);
+        CandidatePool cached = fresh(pools, signature);
+        if (cached != null) {
+            hits.increment();
+            return cached.ids();
+        }
+
+        misses.increment();
+        long loadedAtGeneration = generation.get();
+        List<String> ids = List.copyOf(loader.get());
+        // Фильм, сохраненный во время загрузки, в запись уже не допишется
+        if (loadedAtGeneration == generation.get()) {
+            bound(pools);
+            pools.put(
+                signature,
+                new CandidatePool(
+                    filters,
+                    ids,
+                    Set.copyOf(ids),
+                    System.nanoTime() + ttlNanos
+                )
+            );
+        }
+        return ids;
+    }
+
+    /**
+     * Страница TMDB discover под фильтры: из кэша или через loader.
+     * Пустые страницы не кэшируются - это может быть и сбой TMDB
+     */
+    public List<MovieData> tmdbPage(
+        MovieFilters filters,
+        int page,
+        Supplier<List<MovieData>> loader
+    ) {
+        String key = signature(filters) + "|page=" + page;
+        TmdbPage cached = fresh(tmdbPages, key);
+        if (cached != null) {
+            hits.increment();
+            return cached.cards();
+        }
+
+        misses.increment();
+        List<MovieData> cards = List.copyOf(loader.get());
+        if (!cards.isEmpty()) {
+            bound(tmdbPages);
+            tmdbPages.put(
+                key,
+                new TmdbPage(cards, System.nanoTime() + ttlNanos)
+            );
+        }
+        return cards;
+    }
+
+    /**
+     * Перетасовка кандидатов для одной комнаты/участника: порядок задает
+     * хэш (seed, ID). Страница - limit кандидатов сразу после afterId
+     * (null - с начала): поиск по рангу, а не смещение, поэтому дописанный
+     * в запись фильм не сдвигает границы страниц, а запись не сортируется
+     * целиком - только куча на limit элементов
+     */
+    public static <T> List<T> view(
+        List<T> candidates,
+        Function<T, String> idOf,
+        long seed,
+        String afterId,
+        int limit
+    ) {
+        if (limit <= 0) {
+            return List.of();
+        }
+
+        Comparator<T> order = (a, b) ->
+            compare(seed, idOf.apply(a), idOf.apply(b));
+        // Наибольший из отобранных - в вершине, его и вытесняем
+        PriorityQueue<T> page = new PriorityQueue<>(limit, order.reversed());
+        for (T candidate : candidates) {
+            if (
+                afterId != null &&
+                compare(seed, idOf.apply(candidate), afterId) <= 0
+            ) {
+                continue;
+            }
+            if (page.size() < limit) {
+                page.add(candidate);
+            } else if (order.compare(candidate, page.peek()) < 0) {
+                page.poll();
+                page.add(candidate);
+            }
+        }
+
+        List<T> result = new ArrayList<>(page);
+        result.sort(order);
+        return result;
+    }
+
+    /**
+     * Сбросить весь кэш
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        pools.clear();
+        tmdbPages.clear();
+    }
+
+    public int size() {
+        return pools.size();
+    }
+
+    /**
+     * Подходящий фильм дописывается в неполные записи, запись
+     * сбрасывается, если ее фильм перестал подходить
+     */
+    void onMovieChanged(
+        @Observes(during = TransactionPhase.AFTER_SUCCESS) MovieChangedEvent event
+    ) {
+        generation.incrementAndGet();
+        if (event.imdbId() == null || pools.isEmpty()) {
+            return;
+        }
+
+        try {
+            Movie movie = QuarkusTransaction.requiringNew().call(() ->
+                movieRepository
+                    .findByImdbIds(List.of(event.imdbId()))
+                    .get(event.imdbId())
+            );
+            if (movie != null) {
+                apply(movie);
+            }
+        } catch (Exception e) {
+            log.errorf(
+                "Failed to update deck candidates for {}, dropping cache",
+                event.imdbId(),
+                e
+            );
+            pools.clear();
+        }
+    }
+
+    void apply(Movie movie) {
+        for (Map.Entry<String, CandidatePool> entry : pools.entrySet()) {
+            CandidatePool pool = entry.getValue();
+            boolean matches = matches(pool.filters(), movie);
+            if (pool.idSet().contains(movie.imdbId)) {
+                if (!matches) {
+                    // Фильм выпал из записи - перезагрузим при следующем промахе
+                    pools.remove(entry.getKey(), pool);
+                }
+            } else if (matches) {
+                pools.replace(entry.getKey(), pool, pool.extend(movie.imdbId));
+            }
+        }
+    }
+
+    /**
+     * Та же семантика, что у колоды в БД и CatalogIndex.match:
+     * жанр - подстрока названия, рейтинг обязателен при minRating
+     */
+    static boolean matches(MovieFilters filters, Movie movie) {
+        if (filters.getType() != null && !filters.getType().equals(movie.type)) {
+            return false;
+        }
+
+        String genre = filters.getGenre();
+        if (genre != null && !genre.isBlank()) {
+            String needle = genre.toLowerCase();
+            boolean genreMatches = movie.genres
+                .stream()
+                .anyMatch(
+                    g -> g.name != null && g.name.toLowerCase().contains(needle)
+                );
+            if (!genreMatches) {
+                return false;
+            }
+        }
+
+        Integer year = movie.year;
+        if (
+            (filters.getYearFrom() != null &&
+                (year == null || year < filters.getYearFrom())) ||
+            (filters.getYearTo() != null &&
+                (year == null || year > filters.getYearTo()))
+        ) {
+            return false;
+        }
+
+        BigDecimal minRating = filters.getMinRating();
+        return (
+            minRating == null ||
+            (movie.imdbRating != null &&
+                movie.imdbRating.compareTo(minRating) >= 0)
+        );
+    }
+
+    private static <V extends Expiring> V fresh(Map<String, V> map, String key) {
+        V cached = map.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (System.nanoTime() - cached.expiresAtNanos() > 0) {
+            map.remove(key, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    private <V extends Expiring> void bound(Map<String, V> map) {
+        if (map.size() < maxSize) {
+            return;
+        }
+        long now = System.nanoTime();
+        map.values().removeIf(v -> now - v.expiresAtNanos() > 0);
+        if (map.size() >= maxSize) {
+            map.clear();
+        }
+    }
+
+    // Пустой фильтр условия не добавляет
+    private static String exact(String value) {
+        return value == null || value.isBlank() ? "*" : value;
+    }
+
+    private static String normalize(String value) {
+        return exact(value).toLowerCase(Locale.ROOT);
+    }
+
+    // Порядок перетасовки: ранг, при равных рангах - ID
+    private static int compare(long seed, String a, String b) {
+        int byRank = Long.compare(rank(seed, a), rank(seed, b));
+        return byRank != 0 ? byRank : a.compareTo(b);
+    }
+
+    // SplitMix64 от seed и ID
+    private static long rank(long seed, String id) {
+        long z = seed + Objects.hashCode(id) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private interface Expiring {
+        long expiresAtNanos();
+    }
+
+    private record CandidatePool(
+        MovieFilters filters,
+        List<String> ids,
+        Set<String> idSet,
+        long expiresAtNanos
+    ) implements Expiring {
+        CandidatePool extend(String imdbId) {
+            List<String> extended = new ArrayList<>(ids);
+            extended.add(imdbId);
+            Set<String> extendedSet = new HashSet<>(idSet);
+            extendedSet.add(imdbId);
+            return new CandidatePool(
+                filters,
+                List.copyOf(extended),
+                Set.copyOf(extendedSet),
+                expiresAtNanos
+            );
+        }
+    }
+
+    private record TmdbPage(List<MovieData> cards, long expiresAtNanos)
+        implements Expiring {}
+}
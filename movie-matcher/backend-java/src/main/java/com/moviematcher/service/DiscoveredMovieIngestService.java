@@ -0,0 +1,111 @@
+package com.moviematcher.service;
+
+import com.moviematcher.entity.Movie;
+import com.moviematcher.entity.MovieChangedEvent;
+import com.moviematcher.model.MovieData;
+import com.moviematcher.repository.MovieCardRepository;
+import com.moviematcher.repository.MovieRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import java.util.List;
+import java.util.Map;
+import org.jboss.logging.Logger;
+
+/**
+ * Сохранение фильмов из TMDB discover до того, как они попадут в колоду
+ *
+ * Раньше найденные в TMDB фильмы не сохранялись: карточку для них
+ * приходилось строить из сущности, в каталог и в следующие колоды они
+ * не попадали, а запрос к TMDB повторялся. Теперь страница discover
+ * сохраняется одной транзакцией (MovieRepository.insertIfAbsent,
+ * ON CONFLICT по imdb_id), после коммита MovieChangedEvent обновляет
+ * каталог, карточки и кэши колод. Уже сохраненные фильмы получают
+ * недостающие связи (жанры, страны, языки, студии) и то же событие.
+ *
+ * Карточки отдаются сразу из загруженных сущностей - колода не ждет
+ * перечитывания из БД и не зависит от успеха записи. Фильмы discover
+ * без imdbId отбрасываются: по нему карточка живет в колоде
+ * (ConcurrentHashMap), а imdb_id в movies NOT NULL
+ */
+@ApplicationScoped
+public class DiscoveredMovieIngestService {
+
+    private static final Logger log = Logger.getLogger(
+        DiscoveredMovieIngestService.class
+    );
+
+    private final MovieRepository movieRepository;
+    private final Event<MovieChangedEvent> movieChanged;
+
+    @jakarta.inject.Inject
+    public DiscoveredMovieIngestService(
+        MovieRepository movieRepository,
+        Event<MovieChangedEvent> movieChanged
+    ) {
+        this.movieRepository = movieRepository;
+        this.movieChanged = movieChanged;
+    }
+
+    /**
+     * Сохранить новые фильмы страницы и вернуть карточки всех фильмов
+     */
+    public List<MovieData> ingest(List<Movie> page) {
+        List<Movie> discovered = page
+            .stream()
+            .filter(movie -> movie.imdbId != null && !movie.imdbId.isBlank())
+            .toList();
+        if (discovered.size() < page.size()) {
+            log.debugf(
+                "Skipped {} discovered movies without imdbId",
+                page.size() - discovered.size()
+            );
+        }
+        if (discovered.isEmpty()) {
+            return List.of();
+        }
+
+        try {
+            Map<String, Long> inserted = QuarkusTransaction.requiringNew().call(
+                () -> {
+                    Map<String, Long> ids = movieRepository.insertIfAbsent(
+                        discovered
+                    );
+                    // Вставка нативная, MovieChangeListener ее не видит
+                    ids.forEach((imdbId, movieId) ->
+                        movieChanged.fire(
+                            new MovieChangedEvent(movieId, imdbId, true)
+                        )
+                    );
+                    // Уже сохраненным фильмам - недостающие жанры, страны...
+                    // Меняются только связи, @PostUpdate не сработает
+                    movieRepository
+                        .linkMissingAssociations(
+                            discovered
+                                .stream()
+                                .filter(movie -> !ids.containsKey(movie.imdbId))
+                                .toList()
+                        )
+                        .forEach((movieId, imdbId) ->
+                            movieChanged.fire(
+                                new MovieChangedEvent(movieId, imdbId, false)
+                            )
+                        );
+                    return ids;
+                }
+            );
+            log.infof(
+                "Persisted {} of {} discovered movies",
+                inserted.size(),
+                discovered.size()
+            );
+        } catch (Exception e) {
+            log.errorf("Failed to persist discovered movies", e);
+        }
+
+        return discovered
+            .stream()
+            .map(MovieCardRepository::fromEntity)
+            .toList();
+    }
+}
@@ -3,11 +3,14 @@ package com.moviematcher.service;
 import com.moviematcher.entity.EnrichmentQueueItem;
 import com.moviematcher.entity.EnrichmentQueueItem.EnrichmentStatus;
 import com.moviematcher.entity.Movie;
+import com.moviematcher.repository.MovieRepository;
 import io.quarkus.scheduler.Scheduled;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.jboss.logging.Logger;
 
 /**
@@ -33,6 +36,13 @@ public class EnrichmentService {
     private static final int MAX_RETRY_COUNT = 3;
     private static final int BATCH_SIZE = 10;
 
+    private final MovieRepository movieRepository;
+
+    @jakarta.inject.Inject
+    public EnrichmentService(MovieRepository movieRepository) {
+        this.movieRepository = movieRepository;
+    }
+
     /**
      * Добавить фильм в очередь обогащения
      *
@@ -67,17 +77,7 @@ public class EnrichmentService {
             return;
         }
 
-        EnrichmentQueueItem item = new EnrichmentQueueItem();
-        item.externalId = externalId;
-        item.source = source;
-        item.status = EnrichmentStatus.PENDING;
-        item.persist();
-
-        log.infof(
-            "Enqueued movie {} from {} for enrichment",
-            externalId,
-            source
-        );
+        persistQueueItem(externalId, source);
     }
 
     /**
@@ -88,8 +88,30 @@ public class EnrichmentService {
         List<String> externalIds,
         String source
     ) {
+        if (externalIds.isEmpty()) {
+            return;
+        }
+
+        // Две проверки на весь список вместо двух запросов на каждый ID
+        Set<String> skip = new HashSet<>(
+            movieRepository.findExistingImdbIds(externalIds)
+        );
+        skip.addAll(
+            EnrichmentQueueItem.<EnrichmentQueueItem>list(
+                "externalId in ?1 and source = ?2 and status != ?3",
+                externalIds,
+                source,
+                EnrichmentStatus.FAILED
+            )
+                .stream()
+                .map(item -> item.externalId)
+                .toList()
+        );
+
         for (String externalId : externalIds) {
-            enqueueMovieForEnrichment(externalId, source);
+            if (skip.add(externalId)) {
+                persistQueueItem(externalId, source);
+            }
         }
         log.infof(
             "Enqueued {} movies from {} for enrichment",
@@ -98,6 +120,20 @@ public class EnrichmentService {
         );
     }
 
+    private void persistQueueItem(String externalId, String source) {
+        EnrichmentQueueItem item = new EnrichmentQueueItem();
+        item.externalId = externalId;
+        item.source = source;
+        item.status = EnrichmentStatus.PENDING;
+        item.persist();
+
+        log.infof(
+            "Enqueued movie {} from {} for enrichment",
+            externalId,
+            source
+        );
+    }
+
     /**
      * Scheduled task для обработки очереди
      * Выполняется каждые 10 секунд
@@ -117,15 +153,23 @@ public class EnrichmentService {
 
         log.infof("Processing {} items from enrichment queue", pending.size());
 
+        // Уже сохраненные фильмы - одним запросом на всю пачку
+        Set<String> existing = movieRepository.findExistingImdbIds(
+            pending.stream().map(item -> item.externalId).toList()
+        );
+
         for (EnrichmentQueueItem item : pending) {
-            processQueueItem(item);
+            processQueueItem(item, existing);
         }
     }
 
     /**
      * Обработка одного элемента очереди
      */
-    private void processQueueItem(EnrichmentQueueItem item) {
+    private void processQueueItem(
+        EnrichmentQueueItem item,
+        Set<String> existingImdbIds
+    ) {
         try {
             item.status = EnrichmentStatus.PROCESSING;
             item.persist();
@@ -137,8 +181,7 @@ public class EnrichmentService {
             );
 
             // Проверяем, не добавили ли фильм уже
-            Movie existing = Movie.findByImdbId(item.externalId);
-            if (existing != null) {
+            if (existingImdbIds.contains(item.externalId)) {
                 log.infof(
                     "Movie {} already exists, removing from queue",
                     item.externalId
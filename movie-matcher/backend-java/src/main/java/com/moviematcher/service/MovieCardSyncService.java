@@ -0,0 +1,97 @@
+package com.moviematcher.service;
+
+import com.moviematcher.entity.MovieChangedEvent;
+import com.moviematcher.repository.MovieCardRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import org.jboss.logging.Logger;
+
+/**
+ * Синхронизация read-таблицы movie_cards с movies
+ *
+ * Любое сохранение Movie (TmdbSearchHandler, OmdbSearchHandler) публикует
+ * MovieChangedEvent; нативная вставка и дозапись связей из TMDB discover
+ * публикуют его явно (DiscoveredMovieIngestService). Id фильмов копятся
+ * за транзакцию, после ее коммита карточки пересобираются одним refresh
+ * в отдельной транзакции - к этому моменту жанры, страны и титры
+ * уже записаны.
+ *
+ * Ошибка синхронизации не ломает запись фильма: чтение карточки без строки
+ * в movie_cards идет через проекцию
+ */
+@ApplicationScoped
+public class MovieCardSyncService {
+
+    private static final Logger log = Logger.getLogger(
+        MovieCardSyncService.class
+    );
+
+    // Ключ ресурса транзакции с id фильмов, ждущих пересборки
+    private static final Object PENDING = new Object();
+
+    private final MovieCardRepository movieCardRepository;
+    private final TransactionSynchronizationRegistry transactions;
+
+    @jakarta.inject.Inject
+    public MovieCardSyncService(
+        MovieCardRepository movieCardRepository,
+        TransactionSynchronizationRegistry transactions
+    ) {
+        this.movieCardRepository = movieCardRepository;
+        this.transactions = transactions;
+    }
+
+    void onMovieChanged(@Observes MovieChangedEvent event) {
+        if (event.movieId() == null) {
+            return;
+        }
+
+        if (transactions.getTransactionKey() == null) {
+            refresh(Set.of(event.movieId()));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<Long> pending = (Set<Long>) transactions.getResource(PENDING);
+        if (pending == null) {
+            Set<Long> ids = new LinkedHashSet<>();
+            transactions.putResource(PENDING, ids);
+            refreshAfterCommit(ids);
+            pending = ids;
+        }
+        pending.add(event.movieId());
+    }
+
+    private void refreshAfterCommit(Set<Long> ids) {
+        transactions.registerInterposedSynchronization(
+            new Synchronization() {
+                @Override
+                public void beforeCompletion() {}
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        refresh(ids);
+                    }
+                }
+            }
+        );
+    }
+
+    private void refresh(Set<Long> ids) {
+        try {
+            QuarkusTransaction.requiringNew().run(() ->
+                movieCardRepository.refresh(ids)
+            );
+            log.debugf("Movie cards refreshed for {} movies", ids.size());
+        } catch (Exception e) {
+            log.errorf("Failed to refresh movie cards for {}", ids, e);
+        }
+    }
+}
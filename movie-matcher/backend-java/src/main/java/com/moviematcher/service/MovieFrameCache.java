@@ -0,0 +1,208 @@
+package com.moviematcher.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviematcher.entity.MovieChangedEvent;
+import com.moviematcher.infrastructure.cache.FrequencySketch;
+import com.moviematcher.model.MovieData;
+import com.moviematcher.model.ServerMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Кэш готовых кадров ServerMessage.NewMovie по imdbId
+ *
+ * Популярный фильм показывается во многих комнатах, и раньше для каждой
+ * карточка заново искалась и сериализовалась в JSON. Теперь кадр
+ * кодируется один раз и уходит в сессии как есть.
+ *
+ * Вытеснение - LRU с допуском TinyLFU: новый кадр при полном кэше
+ * вытесняет самый давний, только если его фильм встречался чаще
+ * (FrequencySketch). Разовые фильмы не вымывают популярные.
+ *
+ * Кадр сбрасывается после коммита изменения фильма (MovieChangedEvent).
+ * Сброс во время промаха (карточка уже прочитана) не должен вернуть
+ * в кэш старый кадр: промах запоминает версию сбросов фильма и не
+ * кэширует кадр, если она сменилась. Версии - по полосам хэша imdbId,
+ * совпадение полос только лишний раз пропускает кэширование.
+ *
+ * Кэшируется текст кадра, а не UTF-8 байты: клиенты (Vue, Flutter)
+ * ждут текстовые WebSocket-кадры, а jakarta.websocket принимает текст
+ * только как String - кодирование в UTF-8 остается за контейнером.
+ *
+ * Метрики:
+ * - movie.stream.frame-cache{result=hit|miss} и .hit-ratio
+ * - movie.stream.frame-cache.allocations-saved - пропущенные сериализации
+ *   (поиск карточки, буфер JSON и String на каждое попадание); байты
+ *   не считаются - UTF-8 кодирует контейнер на каждой отправке
+ */
+@ApplicationScoped
+public class MovieFrameCache {
+
+    private static final Logger log = Logger.getLogger(MovieFrameCache.class);
+
+    private static final int VERSION_STRIPES = 256;
+
+    private final ObjectMapper objectMapper;
+    private final int maxSize;
+    private final FrequencySketch sketch;
+
+    // access-order: первый элемент - давно не использованный
+    private final LinkedHashMap<String, String> frames = new LinkedHashMap<>(
+        16,
+        0.75f,
+        true
+    );
+    // Счетчики сбросов по полосам imdbId, под замком frames
+    private final long[] versions = new long[VERSION_STRIPES];
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter allocationsSaved;
+
+    @jakarta.inject.Inject
+    public MovieFrameCache(
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        @ConfigProperty(
+            name = "movie.stream.frame-cache.max-size",
+            defaultValue = "10000"
+        ) int maxSize
+    ) {
+        this.objectMapper = objectMapper;
+        this.maxSize = maxSize;
+        this.sketch = new FrequencySketch(maxSize);
+
+        this.hits = meterRegistry.counter(
+            "movie.stream.frame-cache",
+            "result",
+            "hit"
+        );
+        this.misses = meterRegistry.counter(
+            "movie.stream.frame-cache",
+            "result",
+            "miss"
+        );
+        this.allocationsSaved = Counter.builder(
+            "movie.stream.frame-cache.allocations-saved"
+        )
+            .description("Card lookups and JSON serializations skipped")
+            .register(meterRegistry);
+        Gauge.builder("movie.stream.frame-cache.hit-ratio", this, c ->
+            c.hitRatio()
+        )
+            .description("Share of NewMovie frames served from the cache")
+            .register(meterRegistry);
+        Gauge.builder("movie.stream.frame-cache.size", this, c -> c.size())
+            .register(meterRegistry);
+    }
+
+    /**
+     * Кадр NewMovie фильма: из кэша или из карточки card
+     *
+     * @param card поиск карточки, вызывается только при промахе
+     * @return empty, если карточки нет
+     */
+    public Optional<String> newMovieFrame(
+        String imdbId,
+        Supplier<Optional<MovieData>> card
+    ) {
+        sketch.increment(imdbId);
+
+        String cached;
+        long version;
+        synchronized (frames) {
+            cached = frames.get(imdbId);
+            version = versions[stripe(imdbId)];
+        }
+        if (cached != null) {
+            hits.increment();
+            allocationsSaved.increment();
+            return Optional.of(cached);
+        }
+
+        misses.increment();
+        Optional<MovieData> movie = card.get();
+        if (movie.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(
+                new ServerMessage.NewMovie(movie.get())
+            );
+        } catch (JsonProcessingException e) {
+            log.errorf("Error serializing movie {}", imdbId, e);
+            return Optional.empty();
+        }
+
+        admit(imdbId, version, json);
+        return Optional.of(json);
+    }
+
+    /**
+     * Сбросить кадр фильма
+     */
+    public void invalidate(String imdbId) {
+        synchronized (frames) {
+            versions[stripe(imdbId)]++;
+            frames.remove(imdbId);
+        }
+    }
+
+    public int size() {
+        synchronized (frames) {
+            return frames.size();
+        }
+    }
+
+    double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    void onMovieChanged(
+        @Observes(during = TransactionPhase.AFTER_SUCCESS) MovieChangedEvent event
+    ) {
+        if (event.imdbId() != null) {
+            invalidate(event.imdbId());
+        }
+    }
+
+    private void admit(String imdbId, long version, String frame) {
+        synchronized (frames) {
+            // Фильм изменился, пока кадр строился - он уже устарел
+            if (versions[stripe(imdbId)] != version) {
+                return;
+            }
+            if (frames.size() >= maxSize && !frames.containsKey(imdbId)) {
+                Iterator<Map.Entry<String, String>> eldest = frames
+                    .entrySet()
+                    .iterator();
+                String victim = eldest.next().getKey();
+                // TinyLFU: не вытесняем то, что спрашивают чаще
+                if (sketch.frequency(imdbId) <= sketch.frequency(victim)) {
+                    return;
+                }
+                eldest.remove();
+            }
+            frames.put(imdbId, frame);
+        }
+    }
+
+    private static int stripe(String imdbId) {
+        return imdbId.hashCode() & (VERSION_STRIPES - 1);
+    }
+}
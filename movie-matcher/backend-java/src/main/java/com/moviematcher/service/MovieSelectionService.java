@@ -1,19 +1,40 @@
 package com.moviematcher.service;
 
+import com.moviematcher.domain.model.MovieFilters;
 import com.moviematcher.domain.model.Participant;
 import com.moviematcher.domain.model.RoomAggregate;
-import com.moviematcher.entity.Movie;
+import com.moviematcher.domain.model.RoomState;
+import com.moviematcher.domain.model.StreamPacing;
+import com.moviematcher.infrastructure.actor.Actor;
+import com.moviematcher.infrastructure.adapter.CatalogMovieDataSource;
 import com.moviematcher.infrastructure.adapter.DatabaseMovieDataSource;
+import com.moviematcher.infrastructure.adapter.MovieDataSource;
 import com.moviematcher.infrastructure.adapter.TmdbApiDataSource;
 import com.moviematcher.model.MovieData;
 import com.moviematcher.model.RoomFilters;
 import com.moviematcher.model.ServerMessage;
+import com.moviematcher.repository.MovieCardRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.virtual.threads.VirtualThreads;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 /**
@@ -32,61 +53,424 @@ public class MovieSelectionService {
     );
 
     private final DatabaseMovieDataSource databaseSource;
+    private final CatalogMovieDataSource catalogSource;
     private final TmdbApiDataSource tmdbSource;
     private final WebSocketBroadcastService broadcastService;
-
-    private static final int MOVIES_PER_BATCH = 20;
+    private final MovieFrameCache frameCache;
+    private final MovieCardRepository movieCardRepository;
+    private final DeckCandidateCache candidateCache;
+    private final DiscoveredMovieIngestService discoveredMovies;
+    private final RoomStreamScheduler scheduler;
+    private final ExecutorService deckLoader;
+    private final Duration deckLoadTimeout;
+    private final int batchSize;
+    private final int refillWatermark;
+    private final Timer timeToFirstMovie;
+    private final MeterRegistry meterRegistry;
+    private final StreamPacing defaultPacing;
+
+    private static final Duration RETRY_DELAY = Duration.ofMillis(100);
+
+    // Дозагрузка колоды: повторы при ошибке источника
+    private static final int REFILL_RETRIES = 3;
+    private static final Duration REFILL_BACKOFF = Duration.ofMillis(200);
+    private static final Duration REFILL_MAX_BACKOFF = Duration.ofSeconds(2);
+
+    // TMDB discover отдает 20 фильмов на страницу
+    private static final int TMDB_PAGE_SIZE = 20;
+
+    // Колоды комнат, пока идет стриминг
+    private final Map<String, RoomDeck> decks = new ConcurrentHashMap<>();
+
+    // Колоды, загруженные заранее в WAITING: roomId → participantId → deck
+    private final Map<String, Map<String, PrewarmedDeck>> prewarmed =
+        new ConcurrentHashMap<>();
 
     @jakarta.inject.Inject
     public MovieSelectionService(
         DatabaseMovieDataSource databaseSource,
+        CatalogMovieDataSource catalogSource,
         TmdbApiDataSource tmdbSource,
-        WebSocketBroadcastService broadcastService
+        WebSocketBroadcastService broadcastService,
+        MovieFrameCache frameCache,
+        MovieCardRepository movieCardRepository,
+        DeckCandidateCache candidateCache,
+        DiscoveredMovieIngestService discoveredMovies,
+        RoomStreamScheduler scheduler,
+        @VirtualThreads ExecutorService deckLoader,
+        @ConfigProperty(
+            name = "movie.deck.load-timeout",
+            defaultValue = "5s"
+        ) Duration deckLoadTimeout,
+        @ConfigProperty(
+            name = "movie.deck.batch-size",
+            defaultValue = "20"
+        ) int batchSize,
+        @ConfigProperty(
+            name = "movie.deck.refill-watermark",
+            defaultValue = "5"
+        ) int refillWatermark,
+        MeterRegistry meterRegistry,
+        @ConfigProperty(
+            name = "movie.stream.pacing.mode",
+            defaultValue = "fixed-rate"
+        ) StreamPacing.Mode pacingMode,
+        @ConfigProperty(
+            name = "movie.stream.pacing.interval",
+            defaultValue = "500ms"
+        ) Duration pacingInterval,
+        @ConfigProperty(
+            name = "movie.stream.pacing.lookahead",
+            defaultValue = "3"
+        ) int pacingLookahead,
+        @ConfigProperty(
+            name = "movie.stream.pacing.basis",
+            defaultValue = "slowest"
+        ) StreamPacing.Basis pacingBasis
     ) {
         this.databaseSource = databaseSource;
+        this.catalogSource = catalogSource;
         this.tmdbSource = tmdbSource;
         this.broadcastService = broadcastService;
+        this.frameCache = frameCache;
+        this.movieCardRepository = movieCardRepository;
+        this.candidateCache = candidateCache;
+        this.discoveredMovies = discoveredMovies;
+        this.scheduler = scheduler;
+        this.deckLoader = deckLoader;
+        this.deckLoadTimeout = deckLoadTimeout;
+        this.batchSize = batchSize;
+        this.refillWatermark = refillWatermark;
+        this.meterRegistry = meterRegistry;
+        this.defaultPacing = new StreamPacing(
+            pacingMode,
+            pacingInterval,
+            pacingLookahead,
+            pacingBasis
+        );
+        this.timeToFirstMovie = Timer.builder(
+            "movie.stream.time-to-first-movie"
+        )
+            .description("From voting start to the first NewMovie broadcast")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Заранее загрузить колоду участника, пока комната в WAITING
+     *
+     * Вызывается при каждой смене фильтров: предыдущая загрузка этого
+     * участника отменяется и заменяется. На старте голосования колода
+     * берется, только если фильтры участника с тех пор не менялись
+     */
+    public void prewarmDeck(
+        String roomId,
+        Actor<RoomAggregate> room,
+        String participantId
+    ) {
+        Participant participant = room
+            .call(RoomAggregate::getParticipants)
+            .stream()
+            .filter(p -> p.getId().equals(participantId))
+            .findFirst()
+            .orElse(null);
+        if (participant == null || participant.getFilters() == null) {
+            return;
+        }
+
+        CompletableFuture<ParticipantDeck> future = loadDeckAsync(
+            room,
+            participant,
+            DeckCursor.START
+        ).subscribeAsCompletionStage();
+        PrewarmedDeck previous = prewarmed
+            .computeIfAbsent(roomId, id -> new ConcurrentHashMap<>())
+            .put(
+                participantId,
+                new PrewarmedDeck(participant.getFilters(), future)
+            );
+        if (previous != null) {
+            previous.future().cancel(true);
+        }
+
+        log.debugf(
+            "Pre-warming deck for participant {} in room {}",
+            participantId,
+            roomId
+        );
+    }
+
+    /**
+     * Забыть заранее загруженную колоду участника (вышел из комнаты)
+     */
+    public void discardPrewarmedDeck(String roomId, String participantId) {
+        Map<String, PrewarmedDeck> room = prewarmed.get(roomId);
+        if (room != null) {
+            PrewarmedDeck deck = room.remove(participantId);
+            if (deck != null) {
+                deck.future().cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Забыть все заранее загруженные колоды комнаты (комната удалена)
+     */
+    public void discardPrewarmedDecks(String roomId) {
+        Map<String, PrewarmedDeck> room = prewarmed.remove(roomId);
+        if (room != null) {
+            room.values().forEach(deck -> deck.future().cancel(true));
+        }
     }
 
     /**
      * Начать стриминг фильмов в комнату
      *
      * Логика:
-     * 1. Загружаем фильмы для каждого участника по их фильтрам
-     * 2. Добавляем в очереди VotingSession
-     * 3. Начинаем поочередную подачу фильмов
+     * 1. Колоды, загруженные заранее (prewarmDeck) и уже готовые, сразу
+     *    попадают в очереди VotingSession - первый фильм уходит без ожидания
+     * 2. Остальные колоды грузятся параллельно (виртуальные потоки),
+     *    общий дедлайн movie.deck.load-timeout; еще идущая заранее
+     *    начатая загрузка не перезапускается
+     * 3. Подача фильмов начинается, как только готова первая колода.
+     *    Колода, не успевшая к дедлайну, считается пустой
+     *
+     * Не блокирует вызывающий поток (обработчик WebSocket)
      */
-    public void startMovieStream(String roomId, RoomAggregate room) {
+    public void startMovieStream(String roomId, Actor<RoomAggregate> room) {
         log.infof("Starting movie stream for room {}", roomId);
 
-        // Загружаем фильмы для каждого участника
-        for (Participant participant : room.getParticipants()) {
-            if (participant.getFilters() != null) {
-                loadMoviesForParticipant(room, participant);
+        List<Participant> participants = room
+            .call(RoomAggregate::getParticipants)
+            .stream()
+            .filter(p -> p.getFilters() != null)
+            .toList();
+        RoomDeck deck = new RoomDeck(
+            participants.size(),
+            defaultPacing.withMode(room.call(RoomAggregate::getPacingMode))
+        );
+        decks.put(roomId, deck);
+
+        Map<String, PrewarmedDeck> warm = prewarmed.remove(roomId);
+        List<Participant> pending = new ArrayList<>();
+        Map<Participant, Uni<ParticipantDeck>> inFlight = new HashMap<>();
+        for (Participant participant : participants) {
+            PrewarmedDeck candidate = warm != null
+                ? warm.remove(participant.getId())
+                : null;
+            String outcome = prewarmOutcome(candidate, participant);
+            meterRegistry
+                .counter("movie.deck.prewarm", "result", outcome)
+                .increment();
+
+            if ("hit".equals(outcome)) {
+                applyDeck(room, deck, candidate.future().join());
+            } else if ("in-flight".equals(outcome)) {
+                inFlight.put(
+                    participant,
+                    Uni.createFrom().completionStage(candidate.future())
+                );
+            } else {
+                if (candidate != null) {
+                    candidate.future().cancel(true);
+                }
+                pending.add(participant);
             }
         }
+        if (warm != null) {
+            warm.values().forEach(stale -> stale.future().cancel(true));
+        }
 
-        // Начинаем асинхронную подачу фильмов
-        streamMoviesAsync(roomId, room)
-            .subscribe()
-            .with(
-                result ->
-                    log.infof("Movie stream completed for room {}", roomId),
-                error ->
-                    log.errorf(
-                        "Error in movie stream for room {}",
+        // Часть колод уже в очередях (или грузить нечего) - стримим сразу
+        if (!deck.isLoading() || deck.pending.get() < participants.size()) {
+            startStreamOnce(roomId, room, deck);
+        }
+
+        for (Participant participant : pending) {
+            inFlight.put(
+                participant,
+                loadDeckAsync(room, participant, DeckCursor.START)
+            );
+        }
+        inFlight.forEach((participant, load) ->
+            load
+                .ifNoItem()
+                .after(deckLoadTimeout)
+                .fail()
+                .onFailure()
+                .recoverWithItem(error -> {
+                    log.warnf(
+                        "Deck for participant {} in room {} not loaded: {}",
+                        participant.getId(),
                         roomId,
-                        error
-                    )
+                        error.toString()
+                    );
+                    return ParticipantDeck.empty(participant.getId());
+                })
+                .subscribe()
+                .with(loaded -> {
+                    applyDeck(room, deck, loaded);
+                    startStreamOnce(roomId, room, deck);
+                })
+        );
+    }
+
+    // hit - готова и актуальна, in-flight - актуальна, но еще грузится
+    private String prewarmOutcome(
+        PrewarmedDeck candidate,
+        Participant participant
+    ) {
+        if (candidate == null) {
+            return "miss";
+        }
+        // Фильтры сменились после старта загрузки
+        if (candidate.filters() != participant.getFilters()) {
+            return "stale";
+        }
+        CompletableFuture<ParticipantDeck> future = candidate.future();
+        if (!future.isDone()) {
+            return "in-flight";
+        }
+        return future.isCompletedExceptionally() ? "failed" : "hit";
+    }
+
+    private Uni<ParticipantDeck> loadDeckAsync(
+        Actor<RoomAggregate> room,
+        Participant participant,
+        DeckCursor cursor
+    ) {
+        return Uni.createFrom()
+            .item(() -> loadDeck(room, participant, cursor))
+            .runSubscriptionOn(deckLoader);
+    }
+
+    /**
+     * Карточки фильмов в порядке imdbIds (например, совпадения
+     * VotingCompleted), неизвестные ID пропускаются
+     */
+    public List<MovieData> findCards(List<String> imdbIds) {
+        return new ArrayList<>(
+            movieCardRepository.findCardsByImdbIds(imdbIds).values()
+        );
+    }
+
+    private void applyDeck(
+        Actor<RoomAggregate> room,
+        RoomDeck deck,
+        ParticipantDeck loaded
+    ) {
+        deck.feeds.put(loaded.participantId(), new DeckFeed(loaded.next()));
+        try {
+            deck.cards.putAll(loaded.cards());
+            room.execute(r ->
+                r.addMoviesToParticipantQueue(
+                    loaded.participantId(),
+                    loaded.movieIds()
+                )
             );
+        } catch (Exception e) {
+            log.errorf(
+                "Failed to queue deck of participant {}",
+                loaded.participantId(),
+                e
+            );
+        } finally {
+            deck.pending.decrementAndGet();
+        }
+    }
+
+    private void startStreamOnce(
+        String roomId,
+        Actor<RoomAggregate> room,
+        RoomDeck deck
+    ) {
+        if (!deck.streaming.compareAndSet(false, true)) {
+            return;
+        }
+
+        runStream(roomId, room);
     }
 
     /**
-     * Загрузить фильмы для участника по его фильтрам
+     * Голос участника - подтверждение, что карточка просмотрена.
+     * В режиме DEMAND возобновляет приостановленную подачу
      */
-    private void loadMoviesForParticipant(
-        RoomAggregate room,
-        Participant participant
+    public void onVote(
+        String roomId,
+        Actor<RoomAggregate> room,
+        String participantId,
+        String movieId
+    ) {
+        RoomDeck deck = decks.get(roomId);
+        if (deck == null) {
+            return;
+        }
+        Optional<List<String>> voters = room.call(r ->
+            r.getState() == RoomState.VOTING
+                ? Optional.of(r.getParticipantIds())
+                : Optional.empty()
+        );
+        if (voters.isEmpty()) {
+            stopStream(roomId);
+            return;
+        }
+
+        boolean resume = deck.recordVote(participantId, movieId, voters.get());
+        if (resume) {
+            log.debugf("Resuming paced stream in room {}", roomId);
+            runStream(roomId, room);
+        }
+    }
+
+    /**
+     * Участник вышел. В режиме DEMAND подача могла ждать именно его
+     * голосов - без него кредит может появиться
+     */
+    public void onParticipantLeft(String roomId, Actor<RoomAggregate> room) {
+        RoomDeck deck = decks.get(roomId);
+        if (deck == null) {
+            return;
+        }
+
+        if (deck.resumeIfCredit(room.call(RoomAggregate::getParticipantIds))) {
+            log.debugf("Resuming paced stream in room {} after leave", roomId);
+            runStream(roomId, room);
+        }
+    }
+
+    private void runStream(String roomId, Actor<RoomAggregate> room) {
+        scheduleStep(roomId, room, Duration.ZERO);
+    }
+
+    /**
+     * Остановить стриминг комнаты (голосование закончилось, комната удалена)
+     */
+    public void stopStream(String roomId) {
+        scheduler.cancel(roomId);
+        decks.remove(roomId);
+    }
+
+    private void scheduleStep(
+        String roomId,
+        Actor<RoomAggregate> room,
+        Duration delay
+    ) {
+        scheduler.schedule(roomId, delay, () -> sendNextMovie(roomId, room));
+    }
+
+    /**
+     * Загрузить страницу колоды участника по его фильтрам
+     *
+     * Выполняется в виртуальном потоке; транзакции короткие, добор
+     * из TMDB (HTTP) - вне них. Сначала страница кандидатов каталога,
+     * когда они исчерпаны - страницы TMDB discover. И то и другое берется
+     * из общего DeckCandidateCache. Комнату не меняет - результат
+     * применяют applyDeck / applyRefill
+     */
+    private ParticipantDeck loadDeck(
+        Actor<RoomAggregate> room,
+        Participant participant,
+        DeckCursor cursor
     ) {
         var filters = participant.getFilters();
 
@@ -99,162 +483,415 @@ public class MovieSelectionService {
             filters.getType()
         );
 
-        // Сначала пробуем БД (быстрее)
-        List<Movie> movies = databaseSource.findByFilters(
-            roomFilters,
-            1, // page
-            MOVIES_PER_BATCH
-        );
-
-        // Если в БД мало - добавляем из TMDB
-        if (movies.size() < MOVIES_PER_BATCH) {
-            List<Movie> tmdbMovies = tmdbSource.findByFilters(
-                roomFilters,
-                1,
-                MOVIES_PER_BATCH - movies.size()
+        // Seed участника: одинаковые фильтры у разных участников дают разные колоды
+        long seed =
+            room.call(RoomAggregate::getDeckSeed) ^
+            participant.getId().hashCode();
+
+        // Сначала индекс каталога в памяти, пока он не построен - БД
+        MovieDataSource deckSource = catalogSource.isAvailable()
+            ? catalogSource
+            : databaseSource;
+
+        Map<String, MovieData> cards = new HashMap<>();
+        List<String> movieIds = new ArrayList<>();
+        String dbAfter = cursor.dbAfter();
+        boolean dbExhausted = cursor.dbExhausted();
+        if (!dbExhausted) {
+            // Кандидаты под эти фильтры общие для всех комнат,
+            // страница участника - его перетасовка кандидатов
+            List<String> candidates = candidateCache.candidates(filters, () ->
+                QuarkusTransaction.requiringNew().call(() ->
+                    deckSource.findIdsByFilters(roomFilters)
+                )
             );
-            movies.addAll(tmdbMovies);
-        }
+            movieIds.addAll(
+                DeckCandidateCache.view(
+                    candidates,
+                    id -> id,
+                    seed,
+                    dbAfter,
+                    batchSize
+                )
+            );
+            dbExhausted = movieIds.size() < batchSize;
+            if (!movieIds.isEmpty()) {
+                dbAfter = movieIds.get(movieIds.size() - 1);
+            }
 
-        // Конвертируем в IDs и добавляем в очередь
-        List<String> movieIds = movies
-            .stream()
-            .map(m -> m.imdbId)
-            .collect(Collectors.toList());
+            // Карточки всей страницы одним пакетом, а не запросом на фильм
+            if (!movieIds.isEmpty()) {
+                cards.putAll(
+                    QuarkusTransaction.requiringNew().call(() ->
+                        movieCardRepository.findCardsByImdbIds(movieIds)
+                    )
+                );
+            }
+        }
 
-        room.addMoviesToParticipantQueue(participant.getId(), movieIds);
+        // Если в каталоге мало - добавляем из TMDB. Ошибка TMDB не теряет
+        // страницу каталога: курсор TMDB не сдвигается, следующая
+        // дозагрузка повторит ту же страницу
+        int tmdbPage = cursor.tmdbPage();
+        boolean tmdbExhausted = cursor.tmdbExhausted();
+        if (movieIds.size() < batchSize && !tmdbExhausted) {
+            int page = tmdbPage;
+            try {
+                // Новые фильмы страницы сохраняются до попадания в очередь
+                List<MovieData> tmdbCards = candidateCache.tmdbPage(
+                    filters,
+                    page,
+                    () ->
+                        discoveredMovies.ingest(
+                            tmdbSource.discoverWithDetails(
+                                roomFilters,
+                                page,
+                                TMDB_PAGE_SIZE
+                            )
+                        )
+                );
+                tmdbExhausted = tmdbCards.isEmpty();
+                tmdbPage++;
+                for (MovieData card : DeckCandidateCache.view(
+                    tmdbCards,
+                    MovieData::imdbId,
+                    seed,
+                    null,
+                    batchSize - movieIds.size()
+                )) {
+                    movieIds.add(card.imdbId());
+                    cards.putIfAbsent(card.imdbId(), card);
+                }
+            } catch (Exception e) {
+                log.warnf(
+                    "TMDB page {} for participant {} not loaded: {}",
+                    page,
+                    participant.getId(),
+                    e.toString()
+                );
+            }
+        }
 
         log.infof(
             "Loaded {} movies for participant {} in room",
             movieIds.size(),
             participant.getId()
         );
+        return new ParticipantDeck(
+            participant.getId(),
+            movieIds,
+            cards,
+            new DeckCursor(
+                dbAfter,
+                tmdbPage,
+                dbExhausted,
+                tmdbExhausted
+            )
+        );
     }
 
     /**
-     * Асинхронная подача фильмов
+     * Дозагрузка колод: участникам, у которых в очереди меньше
+     * refill-watermark фильмов, асинхронно грузится следующая страница.
+     * Поток стриминга не ждет загрузку, поэтому дедлайна у нее нет:
+     * результат долгой загрузки не выбрасывается. Ошибка источника
+     * повторяется с backoff; после REFILL_RETRIES повторов участник
+     * больше не дозагружается, но курсор не сбрасывается. Исчерпанной
+     * колода считается только по пустой странице источника
      */
-    private Uni<Void> streamMoviesAsync(String roomId, RoomAggregate room) {
-        return Uni.createFrom()
-            .voidItem()
-            .onItem()
-            .transformToUni(v -> sendNextMovie(roomId, room));
+    private void refillLowQueues(
+        String roomId,
+        Actor<RoomAggregate> room,
+        RoomDeck deck
+    ) {
+        List<Participant> lowQueues = room.call(r ->
+            r
+                .getParticipants()
+                .stream()
+                .filter(
+                    p -> r.getParticipantQueueSize(p.getId()) < refillWatermark
+                )
+                .toList()
+        );
+        for (Participant participant : lowQueues) {
+            DeckFeed feed = deck.feeds.get(participant.getId());
+            if (
+                feed == null ||
+                feed.cursor.exhausted() ||
+                feed.failed ||
+                !feed.refilling.compareAndSet(false, true)
+            ) {
+                continue;
+            }
+
+            loadDeckAsync(room, participant, feed.cursor)
+                .onFailure()
+                .retry()
+                .withBackOff(REFILL_BACKOFF, REFILL_MAX_BACKOFF)
+                .atMost(REFILL_RETRIES)
+                .subscribe()
+                .with(
+                    loaded -> applyRefill(room, deck, feed, loaded),
+                    error -> {
+                        log.warnf(
+                            "Refill for participant {} in room {} failed after {} retries: {}",
+                            participant.getId(),
+                            roomId,
+                            REFILL_RETRIES,
+                            error.toString()
+                        );
+                        // Повторы исчерпаны - уже загруженное доигрывается
+                        feed.failed = true;
+                        feed.refilling.set(false);
+                    }
+                );
+        }
+    }
+
+    private void applyRefill(
+        Actor<RoomAggregate> room,
+        RoomDeck deck,
+        DeckFeed feed,
+        ParticipantDeck loaded
+    ) {
+        try {
+            deck.cards.putAll(loaded.cards());
+            room.execute(r ->
+                r.addMoviesToParticipantQueue(
+                    loaded.participantId(),
+                    loaded.movieIds()
+                )
+            );
+            feed.cursor = loaded.next();
+        } catch (Exception e) {
+            log.errorf(
+                "Failed to queue refill of participant {}",
+                loaded.participantId(),
+                e
+            );
+        } finally {
+            feed.refilling.set(false);
+        }
     }
 
     /**
-     * Отправить следующий фильм
+     * Шаг стриминга: отправить следующий фильм и запланировать следующий шаг
+     *
+     * Выполняется RoomStreamScheduler в пуле воркеров; у комнаты всегда
+     * не больше одного запланированного шага
      */
-    private Uni<Void> sendNextMovie(String roomId, RoomAggregate room) {
-        if (room.getState() != com.moviematcher.domain.model.RoomState.VOTING) {
+    private void sendNextMovie(String roomId, Actor<RoomAggregate> room) {
+        if (room.call(RoomAggregate::getState) != RoomState.VOTING) {
             log.infof("Voting ended in room {}, stopping stream", roomId);
-            return Uni.createFrom().voidItem();
+            decks.remove(roomId);
+            return;
+        }
+
+        // Колоды нет - стрим остановлен (stopStream), шаг уже лишний
+        RoomDeck deck = decks.get(roomId);
+        if (deck == null) {
+            return;
+        }
+
+        if (deck.parkIfNoCredit(room.call(RoomAggregate::getParticipantIds))) {
+            // DEMAND: комната уже на lookahead карточек впереди - ждем голосов
+            log.debugf("Paced stream in room {} waits for votes", roomId);
+            return;
         }
 
-        Optional<String> nextMovieId = room.getNextMovie();
+        refillLowQueues(roomId, room, deck);
+
+        Optional<String> nextMovieId = room.call(RoomAggregate::getNextMovie);
+
+        if (nextMovieId.isEmpty() && deck.isLoading()) {
+            // Очереди пусты, но колоды участников еще грузятся
+            scheduleStep(roomId, room, RETRY_DELAY);
+            return;
+        }
 
         if (nextMovieId.isEmpty()) {
             log.infof("No more movies available for room {}", roomId);
+            decks.remove(roomId);
             broadcastService.broadcast(
                 roomId,
                 new ServerMessage.NoMoreMovies()
             );
-            return Uni.createFrom().voidItem();
+            return;
         }
 
-        // Получаем полную информацию о фильме
-        Movie movie = Movie.findByImdbId(nextMovieId.get());
-
-        if (movie == null) {
-            log.warnf("Movie {} not found in DB, skipping", nextMovieId.get());
-            // Пропускаем и берем следующий
-            return Uni.createFrom()
-                .voidItem()
-                .onItem()
-                .delayIt()
-                .by(Duration.ofMillis(100))
-                .onItem()
-                .transformToUni(v -> sendNextMovie(roomId, room));
+        // Готовый кадр; при промахе - карточка из колоды, иначе запросом
+        String movieId = nextMovieId.get();
+        Optional<String> frame = frameCache.newMovieFrame(movieId, () -> {
+            MovieData prepared = deck.cards.get(movieId);
+            return prepared != null
+                ? Optional.of(prepared)
+                : QuarkusTransaction.requiringNew().call(() ->
+                    movieCardRepository.findCard(movieId)
+                );
+        });
+
+        if (frame.isEmpty()) {
+            log.warnf("Movie {} not found in DB, skipping", movieId);
+            // Пропускаем и сразу берем следующий - ждать тут нечего
+            scheduleStep(roomId, room, Duration.ZERO);
+            return;
         }
 
-        // Конвертируем в MovieData для отправки
-        MovieData movieData = convertToMovieData(movie);
+        if (deck.firstMovieSent.compareAndSet(false, true)) {
+            timeToFirstMovie.record(
+                System.nanoTime() - deck.streamStartedAt,
+                TimeUnit.NANOSECONDS
+            );
+        }
 
         // Отправляем фильм всем участникам
-        broadcastService.broadcast(
-            roomId,
-            new ServerMessage.NewMovie(movieData)
-        );
+        broadcastService.broadcastFrame(roomId, frame.get());
+        deck.sent.incrementAndGet();
 
-        log.debugf("Sent movie '{}' to room {}", movie.title, roomId);
+        log.debugf("Sent movie {} to room {}", movieId, roomId);
 
-        // Ждем немного перед следующим фильмом (чтобы не флудить)
-        return Uni.createFrom()
-            .voidItem()
-            .onItem()
-            .delayIt()
-            .by(Duration.ofMillis(500))
-            .onItem()
-            .transformToUni(v -> sendNextMovie(roomId, room));
+        // FIXED_RATE ждет interval (чтобы не флудить), DEMAND - кредит
+        Duration pause = deck.pacing.getMode() == StreamPacing.Mode.FIXED_RATE
+            ? deck.pacing.getInterval()
+            : Duration.ZERO;
+        scheduleStep(roomId, room, pause);
     }
 
     /**
-     * Конвертация Movie entity → MovieData DTO
+     * Колода комнаты: карточки всех участников, число еще не загруженных
+     * и учет темпа (отправлено / проголосовано каждым участником)
      */
-    private MovieData convertToMovieData(Movie movie) {
-        return new MovieData(
-            movie.title,
-            movie.year != null ? movie.year.toString() : "",
-            "", // rated
-            movie.runtime != null ? movie.runtime + " min" : "",
-            movie.posterUrl,
-            extractDirector(movie),
-            extractActors(movie),
-            movie.plot,
-            extractCountry(movie),
-            extractGenres(movie),
-            movie.imdbRating != null ? movie.imdbRating.toString() : "",
-            movie.imdbId
-        );
-    }
+    private static final class RoomDeck {
+
+        final Map<String, MovieData> cards = new ConcurrentHashMap<>();
+        final AtomicInteger pending;
+        final AtomicBoolean streaming = new AtomicBoolean();
+        final AtomicBoolean firstMovieSent = new AtomicBoolean();
+        // Старт стрима, а не готовность колоды: метрика включает загрузку
+        final long streamStartedAt = System.nanoTime();
+
+        // participantId → позиция в источниках для дозагрузки
+        final Map<String, DeckFeed> feeds = new ConcurrentHashMap<>();
+
+        final StreamPacing pacing;
+        final AtomicInteger sent = new AtomicInteger();
+        // participantId → фильмы, за которые он проголосовал
+        private final Map<String, Set<String>> votes = new HashMap<>();
+        private boolean parked;
+
+        RoomDeck(int participants, StreamPacing pacing) {
+            this.pending = new AtomicInteger(participants);
+            this.pacing = pacing;
+        }
 
-    private String extractDirector(Movie movie) {
-        if (movie.credits == null) return "";
+        boolean isLoading() {
+            return (
+                pending.get() > 0 ||
+                feeds.values().stream().anyMatch(feed -> feed.refilling.get())
+            );
+        }
 
-        return movie.credits
-            .stream()
-            .filter(c -> "director".equals(c.roleType))
-            .map(c -> c.person.name)
-            .findFirst()
-            .orElse("");
-    }
+        /**
+         * true - кредита нет, поток подачи останавливается до голоса
+         */
+        synchronized boolean parkIfNoCredit(List<String> participantIds) {
+            if (pacing.getMode() != StreamPacing.Mode.DEMAND) {
+                return false;
+            }
+            parked = credit(participantIds) == 0;
+            return parked;
+        }
 
-    private String extractActors(Movie movie) {
-        if (movie.credits == null) return "";
+        /**
+         * true - поток был остановлен и голос дал кредит: его надо возобновить
+         */
+        synchronized boolean recordVote(
+            String participantId,
+            String movieId,
+            List<String> participantIds
+        ) {
+            votes
+                .computeIfAbsent(participantId, id -> new HashSet<>())
+                .add(movieId);
+            return resumeIfCredit(participantIds);
+        }
 
-        return movie.credits
-            .stream()
-            .filter(c -> "actor".equals(c.roleType))
-            .limit(3)
-            .map(c -> c.person.name)
-            .collect(Collectors.joining(", "));
+        /**
+         * true - поток был остановлен, а кредит появился: его надо возобновить
+         */
+        synchronized boolean resumeIfCredit(List<String> participantIds) {
+            if (parked && credit(participantIds) > 0) {
+                parked = false;
+                return true;
+            }
+            return false;
+        }
+
+        // Вышедшие участники темп не держат
+        private int credit(List<String> participantIds) {
+            List<Integer> voted = participantIds
+                .stream()
+                .map(id -> votes.getOrDefault(id, Set.of()).size())
+                .toList();
+            return pacing.credit(sent.get(), voted);
+        }
     }
 
-    private String extractCountry(Movie movie) {
-        if (movie.countries == null || movie.countries.isEmpty()) return "";
+    /**
+     * Заранее начатая загрузка и фильтры, для которых она начата
+     */
+    private record PrewarmedDeck(
+        MovieFilters filters,
+        CompletableFuture<ParticipantDeck> future
+    ) {}
+
+    private record ParticipantDeck(
+        String participantId,
+        List<String> movieIds,
+        Map<String, MovieData> cards,
+        DeckCursor next
+    ) {
+        // Не загрузилась к дедлайну - дозагрузка начнет с первой страницы
+        static ParticipantDeck empty(String participantId) {
+            return new ParticipantDeck(
+                participantId,
+                List.of(),
+                Map.of(),
+                DeckCursor.START
+            );
+        }
+    }
 
-        return movie.countries
-            .stream()
-            .map(c -> c.name)
-            .findFirst()
-            .orElse("");
+    /**
+     * Следующие страницы каталога и TMDB discover для колоды участника.
+     * Каталог листается от последнего выданного кандидата (dbAfter),
+     * а не по номеру страницы
+     */
+    private record DeckCursor(
+        String dbAfter,
+        int tmdbPage,
+        boolean dbExhausted,
+        boolean tmdbExhausted
+    ) {
+        static final DeckCursor START = new DeckCursor(null, 1, false, false);
+
+        boolean exhausted() {
+            return dbExhausted && tmdbExhausted;
+        }
     }
 
-    private String extractGenres(Movie movie) {
-        if (movie.genres == null || movie.genres.isEmpty()) return "";
+    /**
+     * Дозагрузка колоды участника: курсор, флаг идущей загрузки
+     * и отказ источника после всех повторов
+     */
+    private static final class DeckFeed {
 
-        return movie.genres
-            .stream()
-            .map(g -> g.name)
-            .collect(Collectors.joining(", "));
+        volatile DeckCursor cursor;
+        final AtomicBoolean refilling = new AtomicBoolean();
+        volatile boolean failed;
+
+        DeckFeed(DeckCursor cursor) {
+            this.cursor = cursor;
+        }
     }
 }
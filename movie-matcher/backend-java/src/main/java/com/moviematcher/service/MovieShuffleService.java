@@ -0,0 +1,66 @@
+package com.moviematcher.service;
+
+import com.moviematcher.repository.MovieRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Сервис периодического перемешивания random_key фильмов
+ *
+ * Выборка колоды голосования идет seek-ом по random_key,
+ * поэтому без перемешивания порядок фильмов со временем "застывает":
+ * разные seed дают лишь разные точки старта на одной и той же окружности.
+ *
+ * Перемешивание идет пачками по id, каждая - своей транзакцией.
+ * Комнатам, которые уже голосуют, оно не мешает: их колоды листают
+ * кэшированные списки кандидатов, а не random_key
+ */
+@ApplicationScoped
+public class MovieShuffleService {
+
+    private static final Logger log = Logger.getLogger(
+        MovieShuffleService.class
+    );
+
+    private final MovieRepository movieRepository;
+    private final int batchSize;
+
+    @jakarta.inject.Inject
+    public MovieShuffleService(
+        MovieRepository movieRepository,
+        @ConfigProperty(
+            name = "movie.sampling.reshuffle-batch-size",
+            defaultValue = "5000"
+        ) int batchSize
+    ) {
+        this.movieRepository = movieRepository;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Scheduled task для перемешивания
+     * Интервал задается movie.sampling.reshuffle-interval
+     */
+    @Scheduled(
+        every = "${movie.sampling.reshuffle-interval:6h}",
+        concurrentExecution = Scheduled.ConcurrentExecution.SKIP
+    )
+    public void reshuffle() {
+        long lastId = 0;
+        int batches = 0;
+        while (true) {
+            long after = lastId;
+            lastId = QuarkusTransaction.requiringNew().call(() ->
+                movieRepository.reshuffleRandomKeys(after, batchSize)
+            );
+            if (lastId < 0) {
+                break;
+            }
+            batches++;
+        }
+        log.infof("Reshuffled random keys in {} batches", batches);
+    }
+}
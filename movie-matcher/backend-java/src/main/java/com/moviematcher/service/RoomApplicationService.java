@@ -4,11 +4,15 @@ import com.moviematcher.domain.model.*;
 import com.moviematcher.domain.strategy.MajorityVotingStrategy;
 import com.moviematcher.domain.strategy.UnanimousVotingStrategy;
 import com.moviematcher.domain.strategy.VotingCompletionStrategy;
+import com.moviematcher.infrastructure.actor.Actor;
+import com.moviematcher.infrastructure.journal.JournalRecord;
+import com.moviematcher.infrastructure.registry.RoomRegistry;
 import com.moviematcher.model.*;
+import com.moviematcher.service.RoomJournal.Journaled;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
-import java.time.Duration;
+import jakarta.enterprise.event.Observes;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import org.jboss.logging.Logger;
 
 /**
@@ -16,27 +20,88 @@ import org.jboss.logging.Logger;
  *
  * Фасад между presentation layer (WebSocket/REST) и domain layer
  * Оркестрирует работу domain моделей и инфраструктуры
+ *
+ * Комната меняется только командами ее актора (RoomDispatcher): внутри
+ * команды - правила домена, снаружи - рассылки и загрузки колод
+ *
+ * В кластере (RoomCluster) комната живет на узле-владельце: команды
+ * комнаты чужого узла пересылаются ему как RoomCommand и выполняются
+ * там методом apply
+ *
+ * Успешные команды комнаты пишутся в RoomJournal внутри команды актора;
+ * при старте узла комнаты восстанавливаются из журнала
  */
 @ApplicationScoped
+@io.quarkus.runtime.Startup
 public class RoomApplicationService {
 
     private static final Logger log = Logger.getLogger(
         RoomApplicationService.class
     );
 
-    // In-memory хранилище комнат (heap, не БД!)
-    private final Map<String, RoomAggregate> rooms = new ConcurrentHashMap<>();
+    // Хранилище комнат (в памяти узла - ShardedRoomRegistry)
+    private final RoomRegistry rooms;
 
     private final WebSocketBroadcastService broadcastService;
     private final MovieSelectionService movieSelectionService;
+    private final RoomDispatcher dispatcher;
+    private final RoomCluster cluster;
+    private final RoomJournal journal;
 
     @jakarta.inject.Inject
     public RoomApplicationService(
         WebSocketBroadcastService broadcastService,
-        MovieSelectionService movieSelectionService
+        MovieSelectionService movieSelectionService,
+        RoomDispatcher dispatcher,
+        RoomRegistry rooms,
+        RoomCluster cluster,
+        RoomJournal journal
     ) {
         this.broadcastService = broadcastService;
         this.movieSelectionService = movieSelectionService;
+        this.dispatcher = dispatcher;
+        this.rooms = rooms;
+        this.cluster = cluster;
+        this.journal = journal;
+        cluster.onCommand(this::apply);
+    }
+
+    /**
+     * Сервис одиночного узла (без кластера)
+     */
+    public RoomApplicationService(
+        WebSocketBroadcastService broadcastService,
+        MovieSelectionService movieSelectionService,
+        RoomDispatcher dispatcher,
+        RoomRegistry rooms
+    ) {
+        this(
+            broadcastService,
+            movieSelectionService,
+            dispatcher,
+            rooms,
+            RoomCluster.standalone(),
+            RoomJournal.disabled()
+        );
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        restoreRooms();
+    }
+
+    /**
+     * Вернуть в реестр комнаты из журнала
+     *
+     * Комнатам, где шло голосование, заново запускается подача фильмов
+     */
+    void restoreRooms() {
+        for (RoomAggregate room : journal.recover()) {
+            Actor<RoomAggregate> actor = dispatcher.spawn(room);
+            rooms.register(room.getId(), actor, room.getCreatedAt());
+            if (room.getState() == RoomState.VOTING) {
+                movieSelectionService.startMovieStream(room.getId(), actor);
+            }
+        }
     }
 
     /**
@@ -46,17 +111,43 @@ public class RoomApplicationService {
         String hostId,
         VotingCompletionType completionType
     ) {
-        String roomId = UUID.randomUUID().toString();
+        return createRoom(hostId, completionType, null);
+    }
 
-        // Выбираем стратегию завершения голосования
-        VotingCompletionStrategy strategy = switch (completionType) {
-            case UNANIMOUS -> new UnanimousVotingStrategy();
-            case MAJORITY -> new MajorityVotingStrategy();
-        };
+    /**
+     * Создать комнату с выбранным режимом подачи фильмов
+     *
+     * @param pacingMode FIXED_RATE или DEMAND, null - режим сервера
+     */
+    public CreateRoomResponse createRoom(
+        String hostId,
+        VotingCompletionType completionType,
+        StreamPacing.Mode pacingMode
+    ) {
+        // ID, которым владеет этот узел - создание не пересылается
+        String roomId = cluster.newRoomId();
 
         // Создаем room через domain model
-        RoomAggregate room = RoomAggregate.create(roomId, hostId, strategy);
-        rooms.put(roomId, room);
+        journal
+            .creating(() -> {
+                RoomAggregate room = RoomAggregate.create(
+                    roomId,
+                    hostId,
+                    strategyFor(completionType)
+                );
+                room.setPacingMode(pacingMode);
+                Journaled<Void> created = journal.append(
+                    RoomJournal.created(room),
+                    null
+                );
+                rooms.register(
+                    roomId,
+                    dispatcher.spawn(room),
+                    room.getCreatedAt()
+                );
+                return created;
+            })
+            .await();
 
         log.infof(
             "Created room {} with host {} and completion type {}",
@@ -75,14 +166,37 @@ public class RoomApplicationService {
      * Присоединиться к комнате
      */
     public JoinRoomResponse joinRoom(String roomId, String participantId) {
-        RoomAggregate room = rooms.get(roomId);
+        if (cluster.forwards(roomId)) {
+            return cluster.forward(
+                roomId,
+                new RoomCommand.Join(participantId),
+                JoinRoomResponse.class
+            );
+        }
+
+        Actor<RoomAggregate> room = activeRoom(roomId);
 
         if (room == null) {
             return new JoinRoomResponse(false, "Room not found");
         }
 
         try {
-            room.addParticipant(participantId);
+            RoomInfo roomInfo = room
+                .call(r -> {
+                    r.addParticipant(participantId);
+
+                    // Создаем RoomInfo для успешного ответа
+                    return journal.append(
+                        new JournalRecord.Join(roomId, participantId),
+                        new RoomInfo(
+                            r.getId(),
+                            null, // фильтры пока null
+                            r.getParticipants().size(),
+                            r.getState() != RoomState.COMPLETED
+                        )
+                    );
+                })
+                .await();
 
             // Broadcast событие
             broadcastService.broadcast(
@@ -90,14 +204,6 @@ public class RoomApplicationService {
                 new ServerMessage.ParticipantJoined(participantId)
             );
 
-            // Создаем RoomInfo для успешного ответа
-            RoomInfo roomInfo = new RoomInfo(
-                room.getId(),
-                null, // фильтры пока null
-                room.getParticipants().size(),
-                room.getState() != RoomState.COMPLETED
-            );
-
             log.infof("Participant {} joined room {}", participantId, roomId);
             return new JoinRoomResponse(true, "Joined successfully", roomInfo);
         } catch (IllegalStateException e) {
@@ -110,10 +216,32 @@ public class RoomApplicationService {
      * Выйти из комнаты
      */
     public void leaveRoom(String roomId, String participantId) {
-        RoomAggregate room = rooms.get(roomId);
+        if (cluster.forwards(roomId)) {
+            cluster.forward(
+                roomId,
+                new RoomCommand.Leave(participantId),
+                Void.class
+            );
+            return;
+        }
+
+        Actor<RoomAggregate> room = activeRoom(roomId);
         if (room == null) return;
 
-        room.removeParticipant(participantId);
+        boolean destroy = room
+            .call(r -> {
+                r.removeParticipant(participantId);
+                return journal.append(
+                    new JournalRecord.Leave(roomId, participantId),
+                    r.shouldBeDestroyed()
+                );
+            })
+            .await();
+        movieSelectionService.discardPrewarmedDeck(roomId, participantId);
+        if (!destroy) {
+            // Вышедший мог держать темп DEMAND-подачи
+            movieSelectionService.onParticipantLeft(roomId, room);
+        }
 
         // Broadcast событие
         broadcastService.broadcast(
@@ -124,8 +252,9 @@ public class RoomApplicationService {
         log.infof("Participant {} left room {}", participantId, roomId);
 
         // Проверяем, нужно ли уничтожить комнату
-        if (room.shouldBeDestroyed()) {
+        if (destroy) {
             rooms.remove(roomId);
+            releaseRoom(roomId);
             log.infof("Room {} destroyed", roomId);
         }
     }
@@ -142,7 +271,23 @@ public class RoomApplicationService {
         java.math.BigDecimal minRating,
         String type
     ) {
-        RoomAggregate room = rooms.get(roomId);
+        if (cluster.forwards(roomId)) {
+            cluster.forward(
+                roomId,
+                new RoomCommand.SetFilters(
+                    participantId,
+                    genre,
+                    yearFrom,
+                    yearTo,
+                    minRating,
+                    type
+                ),
+                Void.class
+            );
+            return;
+        }
+
+        Actor<RoomAggregate> room = activeRoom(roomId);
         if (room == null) {
             throw new IllegalArgumentException("Room not found");
         }
@@ -155,7 +300,26 @@ public class RoomApplicationService {
             .type(type)
             .build();
 
-        room.setParticipantFilters(participantId, filters);
+        room
+            .call(r -> {
+                r.setParticipantFilters(participantId, filters);
+                return journal.append(
+                    new JournalRecord.Filters(
+                        roomId,
+                        participantId,
+                        genre,
+                        yearFrom,
+                        yearTo,
+                        minRating,
+                        type
+                    ),
+                    null
+                );
+            })
+            .await();
+
+        // Колода грузится в фоне, пока остальные еще выбирают фильтры
+        movieSelectionService.prewarmDeck(roomId, room, participantId);
 
         log.infof(
             "Participant {} set filters in room {}",
@@ -172,12 +336,29 @@ public class RoomApplicationService {
         String participantId,
         String movieId
     ) {
-        RoomAggregate room = rooms.get(roomId);
+        if (cluster.forwards(roomId)) {
+            cluster.forward(
+                roomId,
+                new RoomCommand.AddMovie(participantId, movieId),
+                Void.class
+            );
+            return;
+        }
+
+        Actor<RoomAggregate> room = activeRoom(roomId);
         if (room == null) {
             throw new IllegalArgumentException("Room not found");
         }
 
-        room.addMovieToParticipant(participantId, movieId);
+        room
+            .call(r -> {
+                r.addMovieToParticipant(participantId, movieId);
+                return journal.append(
+                    new JournalRecord.AddMovie(roomId, participantId, movieId),
+                    null
+                );
+            })
+            .await();
 
         log.infof(
             "Participant {} added movie {} in room {}",
@@ -191,15 +372,34 @@ public class RoomApplicationService {
      * Участник готов к голосованию
      */
     public void markParticipantReady(String roomId, String participantId) {
-        RoomAggregate room = rooms.get(roomId);
+        if (cluster.forwards(roomId)) {
+            cluster.forward(
+                roomId,
+                new RoomCommand.Ready(participantId),
+                Void.class
+            );
+            return;
+        }
+
+        Actor<RoomAggregate> room = activeRoom(roomId);
         if (room == null) {
             throw new IllegalArgumentException("Room not found");
         }
 
-        room.markParticipantReady(participantId);
-
-        int readyCount = room.getReadyParticipantsCount();
-        int totalCount = room.getParticipantIds().size();
+        ReadyCount ready = room
+            .call(r -> {
+                r.markParticipantReady(participantId);
+                return journal.append(
+                    new JournalRecord.Ready(roomId, participantId),
+                    new ReadyCount(
+                        r.getReadyParticipantsCount(),
+                        r.getParticipantIds().size()
+                    )
+                );
+            })
+            .await();
+        int readyCount = ready.ready();
+        int totalCount = ready.total();
 
         // Broadcast обновление готовности
         broadcastService.broadcast(
@@ -224,13 +424,29 @@ public class RoomApplicationService {
      * Начать голосование
      */
     public void startVoting(String roomId) {
-        RoomAggregate room = rooms.get(roomId);
+        if (cluster.forwards(roomId)) {
+            cluster.forward(roomId, new RoomCommand.StartVoting(), Void.class);
+            return;
+        }
+
+        Actor<RoomAggregate> room = activeRoom(roomId);
         if (room == null) {
             throw new IllegalArgumentException("Room not found");
         }
 
         try {
-            room.startVoting();
+            room
+                .call(r -> {
+                    r.startVoting();
+                    return journal.append(
+                        new JournalRecord.StartVoting(
+                            roomId,
+                            r.getParticipantIds()
+                        ),
+                        null
+                    );
+                })
+                .await();
 
             // Broadcast событие
             broadcastService.broadcast(
@@ -261,12 +477,37 @@ public class RoomApplicationService {
         String movieId,
         boolean isLike
     ) {
-        RoomAggregate room = rooms.get(roomId);
+        if (cluster.forwards(roomId)) {
+            cluster.forward(
+                roomId,
+                new RoomCommand.Vote(participantId, movieId, isLike),
+                Void.class
+            );
+            return;
+        }
+
+        Actor<RoomAggregate> room = activeRoom(roomId);
         if (room == null) {
             throw new IllegalArgumentException("Room not found");
         }
 
-        room.recordVote(participantId, movieId, isLike);
+        Optional<List<String>> matched = room
+            .call(r -> {
+                r.recordVote(participantId, movieId, isLike);
+                return journal.append(
+                    new JournalRecord.Vote(
+                        roomId,
+                        participantId,
+                        movieId,
+                        isLike
+                    ),
+                    r.getState() == RoomState.COMPLETED
+                        ? Optional.of(r.getMatchedMovies())
+                        : Optional.<List<String>>empty()
+                );
+            })
+            .await();
+        movieSelectionService.onVote(roomId, room, participantId, movieId);
 
         // Broadcast событие
         broadcastService.broadcast(
@@ -275,12 +516,15 @@ public class RoomApplicationService {
         );
 
         // Если голосование завершено
-        if (room.getState() == RoomState.COMPLETED) {
-            List<String> matchedMovieIds = room.getMatchedMovies();
+        if (matched.isPresent()) {
+            List<String> matchedMovieIds = matched.get();
 
             broadcastService.broadcast(
                 roomId,
-                new ServerMessage.VotingCompleted(matchedMovieIds)
+                new ServerMessage.VotingCompleted(
+                    matchedMovieIds,
+                    movieSelectionService.findCards(matchedMovieIds)
+                )
             );
 
             log.infof(
@@ -291,11 +535,150 @@ public class RoomApplicationService {
         }
     }
 
+    /**
+     * Открылась или закрылась WebSocket-сессия комнаты
+     *
+     * Число сессий читается внутри команды актора, поэтому комната видит
+     * последнее значение при любом порядке открытий и закрытий.
+     * Завершенная комната без открытых сессий удаляется сразу.
+     *
+     * В кластере узел сообщает владельцу свое число сессий, владелец
+     * считает сумму по всем узлам
+     */
+    public void sessionsChanged(String roomId) {
+        if (cluster.forwards(roomId)) {
+            cluster.publishSessions(
+                roomId,
+                broadcastService.getSessionCount(roomId)
+            );
+            return;
+        }
+
+        Actor<RoomAggregate> room = activeRoom(roomId);
+        if (room == null) return;
+
+        boolean destroy = room.call(r -> {
+            r.updateConnectedSessions(
+                broadcastService.getSessionCount(roomId) +
+                    cluster.remoteSessions(roomId)
+            );
+            return r.shouldBeDestroyed();
+        });
+
+        if (destroy && rooms.remove(roomId)) {
+            releaseRoom(roomId);
+            log.infof("Room {} destroyed: no open sessions", roomId);
+        }
+    }
+
+    /**
+     * Есть ли комната (на этом узле или у владельца)
+     */
+    public boolean roomExists(String roomId) {
+        if (cluster.forwards(roomId)) {
+            return Boolean.TRUE.equals(
+                cluster.forward(
+                    roomId,
+                    new RoomCommand.Exists(),
+                    Boolean.class
+                )
+            );
+        }
+        return rooms.find(roomId).isPresent();
+    }
+
+    /**
+     * Все участники готовы и их не меньше двух - можно стартовать
+     */
+    public boolean readyToStart(String roomId) {
+        if (cluster.forwards(roomId)) {
+            return Boolean.TRUE.equals(
+                cluster.forward(
+                    roomId,
+                    new RoomCommand.ReadyToStart(),
+                    Boolean.class
+                )
+            );
+        }
+
+        return rooms
+            .find(roomId)
+            .map(room ->
+                room.call(r -> {
+                    int readyCount = r.getReadyParticipantsCount();
+                    int totalCount = r.getParticipantIds().size();
+                    return readyCount == totalCount && totalCount >= 2;
+                })
+            )
+            .orElse(false);
+    }
+
+    /**
+     * Выполнить команду, пересланную другим узлом
+     *
+     * @return результат для узла-отправителя
+     */
+    Object apply(String roomId, RoomCommand command) {
+        return switch (command) {
+            case RoomCommand.Join join -> joinRoom(
+                roomId,
+                join.participantId()
+            );
+            case RoomCommand.Leave leave -> {
+                leaveRoom(roomId, leave.participantId());
+                yield null;
+            }
+            case RoomCommand.SetFilters filters -> {
+                setParticipantFilters(
+                    roomId,
+                    filters.participantId(),
+                    filters.genre(),
+                    filters.yearFrom(),
+                    filters.yearTo(),
+                    filters.minRating(),
+                    filters.type()
+                );
+                yield null;
+            }
+            case RoomCommand.AddMovie add -> {
+                addMovieToParticipant(
+                    roomId,
+                    add.participantId(),
+                    add.movieId()
+                );
+                yield null;
+            }
+            case RoomCommand.Ready ready -> {
+                markParticipantReady(roomId, ready.participantId());
+                yield null;
+            }
+            case RoomCommand.StartVoting start -> {
+                startVoting(roomId);
+                yield null;
+            }
+            case RoomCommand.Vote vote -> {
+                recordVote(
+                    roomId,
+                    vote.participantId(),
+                    vote.movieId(),
+                    vote.isLike()
+                );
+                yield null;
+            }
+            case RoomCommand.Exists exists -> roomExists(roomId);
+            case RoomCommand.ReadyToStart ready -> readyToStart(roomId);
+            case RoomCommand.SessionsChanged changed -> {
+                sessionsChanged(roomId);
+                yield null;
+            }
+        };
+    }
+
     /**
      * Получить информацию о комнате
      */
     public Optional<RoomInfo> getRoomInfo(String roomId) {
-        RoomAggregate room = rooms.get(roomId);
+        Actor<RoomAggregate> room = rooms.find(roomId).orElse(null);
         if (room == null) {
             return Optional.empty();
         }
@@ -305,34 +688,79 @@ public class RoomApplicationService {
     }
 
     /**
-     * Получить комнату (для внутреннего использования)
+     * Получить актор комнаты (для внутреннего использования)
+     *
+     * Только комнаты этого узла - в кластере см. roomExists
      */
-    public Optional<RoomAggregate> getRoom(String roomId) {
-        return Optional.ofNullable(rooms.get(roomId));
+    public Optional<Actor<RoomAggregate>> getRoom(String roomId) {
+        return rooms.find(roomId);
     }
 
     /**
-     * Scheduled cleanup для старых комнат
+     * Scheduled cleanup для старых и простаивающих комнат
+     *
+     * Shard за shard-ом реестр снимает комнаты с истекшим сроком жизни
+     * или простоя по своему индексу - работа O(истекших), без обхода
+     * всех комнат. Пустые и завершенные без сессий комнаты удаляются
+     * сразу (leaveRoom, sessionsChanged)
      */
     @io.quarkus.scheduler.Scheduled(every = "1m")
     void cleanupOldRooms() {
         int removed = 0;
-
-        for (var entry : rooms.entrySet()) {
-            RoomAggregate room = entry.getValue();
-
-            if (
-                room.shouldBeDestroyed() ||
-                room.isOlderThan(Duration.ofHours(24))
-            ) {
-                rooms.remove(entry.getKey());
-                removed++;
-                log.infof("Removed old/empty room {}", entry.getKey());
-            }
+        long now = System.nanoTime();
+        for (int shard = 0; shard < rooms.shards(); shard++) {
+            List<String> expired = rooms.expire(shard, now);
+            expired.forEach(roomId -> {
+                releaseRoom(roomId);
+                log.infof("Removed old/idle room {}", roomId);
+            });
+            removed += expired.size();
         }
 
         if (removed > 0) {
             log.infof("Cleaned up {} rooms", removed);
         }
     }
+
+    /**
+     * Снапшот журнала комнат: восстановление читает его и короткий хвост
+     */
+    @io.quarkus.scheduler.Scheduled(
+        every = "${movie.room.journal.snapshot-interval:5m}",
+        delayed = "${movie.room.journal.snapshot-interval:5m}"
+    )
+    void snapshotJournal() {
+        journal.snapshot(rooms);
+    }
+
+    /**
+     * Стратегия завершения голосования по типу
+     */
+    static VotingCompletionStrategy strategyFor(
+        VotingCompletionType completionType
+    ) {
+        return switch (completionType) {
+            case UNANIMOUS -> new UnanimousVotingStrategy();
+            case MAJORITY -> new MajorityVotingStrategy();
+        };
+    }
+
+    // Комната команды; каждая команда отодвигает срок простоя
+    private Actor<RoomAggregate> activeRoom(String roomId) {
+        Optional<Actor<RoomAggregate>> room = rooms.find(roomId);
+        if (room.isPresent()) {
+            rooms.touch(roomId);
+        }
+        return room.orElse(null);
+    }
+
+    // Колоды и стриминг удаленной из реестра комнаты
+    private void releaseRoom(String roomId) {
+        movieSelectionService.discardPrewarmedDecks(roomId);
+        movieSelectionService.stopStream(roomId);
+        cluster.forget(roomId);
+        journal.append(new JournalRecord.Remove(roomId), null);
+    }
+
+    private record ReadyCount(int ready, int total) {}
 }
@@ -0,0 +1,622 @@
+package com.moviematcher.service;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviematcher.infrastructure.cluster.ClusterBus;
+import com.moviematcher.infrastructure.cluster.ConsistentHashRing;
+import com.moviematcher.model.RoomCommand;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Кластерный режим комнат: владелец комнаты, пересылка команд и рассылка
+ * кадров между узлами
+ *
+ * Комната живет в памяти одного узла - владельца по consistent hashing
+ * на roomId (ConsistentHashRing над movie.cluster.nodes). Узел создает
+ * только комнаты, которыми владеет сам, поэтому создание не пересылается.
+ * Остальные команды с чужого узла уходят владельцу (RoomCommand) и
+ * синхронно ждут ответа; исключения владельца пробрасываются как есть.
+ *
+ * WebSocket участника может быть открыт на любом узле. Узел сообщает
+ * владельцу, сколько сессий комнаты у него открыто, и владелец рассылает
+ * каждый ServerMessage всем узлам с сессиями этой комнаты.
+ * Узел повторяет свои ненулевые числа каждые sessions-heartbeat;
+ * владелец забывает сессии узла, от которого их не было три интервала
+ * или до которого не дошел кадр, - иначе сессии упавшего узла навсегда
+ * держали бы комнату живой.
+ *
+ * Транспорт - ClusterBus (Postgres LISTEN/NOTIFY). При отключенном
+ * кластере (по умолчанию) узел владеет всеми комнатами и ничего не шлет.
+ * Комнаты упавшего узла теряются вместе с его памятью.
+ *
+ * Метрики:
+ * - movie.cluster.forwarded - команды, отправленные владельцу
+ * - movie.cluster.fanout - кадры, отправленные другим узлам
+ */
+@ApplicationScoped
+public class RoomCluster {
+
+    private static final Logger log = Logger.getLogger(RoomCluster.class);
+
+    /**
+     * Выполняет команду на узле-владельце; результат уходит обратно как JSON
+     */
+    @FunctionalInterface
+    public interface CommandHandler {
+        Object apply(String roomId, RoomCommand command);
+    }
+
+    // Команда, пришедшая с другого узла, выполняется здесь, даже если
+    // кольца узлов разошлись - без пересылки по кругу
+    private static final ThreadLocal<Boolean> INBOUND = ThreadLocal.withInitial(
+        () -> false
+    );
+
+    private final String nodeId;
+    private final ConsistentHashRing ring;
+    private final ClusterBus bus;
+    private final ObjectMapper objectMapper;
+    private final long forwardTimeoutMillis;
+    private final long sessionsTtlNanos;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final Map<String, CompletableFuture<Message.Reply>> pending =
+        new ConcurrentHashMap<>();
+
+    // roomId → узел → сессии комнаты на этом узле (только на владельце)
+    private final Map<String, Map<String, NodeSessions>> remoteSessions =
+        new ConcurrentHashMap<>();
+    private final AtomicLong sessionsSequence = new AtomicLong();
+    // roomId → последнее число сессий этого узла, сообщенное владельцу
+    private final Map<String, Integer> localSessions = new ConcurrentHashMap<>();
+
+    // Команды с других узлов блокируются на акторе комнаты - не в потоке шины
+    private final ExecutorService inbound;
+
+    private final LongAdder forwarded = new LongAdder();
+    private final LongAdder fannedOut = new LongAdder();
+
+    private volatile CommandHandler commandHandler;
+    private volatile BiConsumer<String, String> frameListener;
+
+    @jakarta.inject.Inject
+    public RoomCluster(
+        ClusterBus bus,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        @ConfigProperty(
+            name = "movie.cluster.enabled",
+            defaultValue = "false"
+        ) boolean enabled,
+        @ConfigProperty(
+            name = "movie.cluster.node-id",
+            defaultValue = "node-1"
+        ) String nodeId,
+        @ConfigProperty(name = "movie.cluster.nodes") Optional<
+            List<String>
+        > nodes,
+        @ConfigProperty(
+            name = "movie.cluster.virtual-nodes",
+            defaultValue = "128"
+        ) int virtualNodes,
+        @ConfigProperty(
+            name = "movie.cluster.forward-timeout",
+            defaultValue = "5s"
+        ) Duration forwardTimeout,
+        @ConfigProperty(
+            name = "movie.cluster.sessions-heartbeat",
+            defaultValue = "10s"
+        ) Duration sessionsHeartbeat
+    ) {
+        this(
+            nodeId,
+            enabled ? nodes.orElse(List.of(nodeId)) : List.of(),
+            virtualNodes,
+            forwardTimeout,
+            sessionsHeartbeat,
+            enabled ? bus : null,
+            objectMapper
+        );
+
+        FunctionCounter.builder(
+            "movie.cluster.forwarded",
+            forwarded,
+            LongAdder::sum
+        )
+            .description("Room commands forwarded to the owning node")
+            .register(meterRegistry);
+        FunctionCounter.builder(
+            "movie.cluster.fanout",
+            fannedOut,
+            LongAdder::sum
+        )
+            .description("Room broadcasts published to other nodes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @param nodes ID узлов кластера; пусто - узел один, шина не нужна
+     * @param sessionsHeartbeat интервал повтора чисел сессий
+     * @param bus   шина между узлами, null для одиночного узла
+     */
+    RoomCluster(
+        String nodeId,
+        List<String> nodes,
+        int virtualNodes,
+        Duration forwardTimeout,
+        Duration sessionsHeartbeat,
+        ClusterBus bus,
+        ObjectMapper objectMapper
+    ) {
+        if (!nodes.isEmpty() && !nodes.contains(nodeId)) {
+            throw new IllegalStateException(
+                "Node " + nodeId + " is not listed in cluster nodes " + nodes
+            );
+        }
+
+        this.nodeId = nodeId;
+        this.ring = nodes.size() > 1
+            ? new ConsistentHashRing(nodes, virtualNodes)
+            : null;
+        this.bus = ring != null ? bus : null;
+        this.objectMapper = objectMapper;
+        this.forwardTimeoutMillis = forwardTimeout.toMillis();
+        this.sessionsTtlNanos = sessionsHeartbeat.multipliedBy(3).toNanos();
+        this.inbound = this.bus != null
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : null;
+    }
+
+    /**
+     * Одиночный узел: владеет всеми комнатами
+     */
+    public static RoomCluster standalone() {
+        return new RoomCluster(
+            "local",
+            List.of(),
+            1,
+            Duration.ZERO,
+            Duration.ZERO,
+            null,
+            null
+        );
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        start();
+    }
+
+    /**
+     * Начать прием сообщений других узлов
+     */
+    void start() {
+        if (!clustered()) {
+            return;
+        }
+        bus.start(nodeId, this::receive);
+        log.infof("Room cluster node {} of {}", nodeId, ring.nodes());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (clustered()) {
+            bus.close();
+            inbound.shutdownNow();
+        }
+    }
+
+    /**
+     * Обработчик команд, пересланных этому узлу
+     */
+    public void onCommand(CommandHandler handler) {
+        this.commandHandler = handler;
+    }
+
+    /**
+     * Получатель кадров комнат, которыми владеют другие узлы
+     */
+    public void onFrame(BiConsumer<String, String> listener) {
+        this.frameListener = listener;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public boolean clustered() {
+        return ring != null;
+    }
+
+    /**
+     * Узел-владелец комнаты
+     */
+    public String ownerOf(String roomId) {
+        return ring != null ? ring.ownerOf(roomId) : nodeId;
+    }
+
+    /**
+     * Команду комнаты нужно переслать владельцу
+     */
+    public boolean forwards(String roomId) {
+        return ring != null && !INBOUND.get() && !ownerOf(roomId).equals(nodeId);
+    }
+
+    /**
+     * Новый ID комнаты, которой владеет этот узел
+     *
+     * В среднем N попыток для кластера из N узлов
+     */
+    public String newRoomId() {
+        String roomId;
+        do {
+            roomId = UUID.randomUUID().toString();
+        } while (ring != null && !ring.ownerOf(roomId).equals(nodeId));
+        return roomId;
+    }
+
+    /**
+     * Выполнить команду на владельце комнаты и дождаться результата
+     *
+     * @throws IllegalArgumentException если ее бросил владелец
+     * @throws IllegalStateException    ошибка владельца или таймаут
+     */
+    public <T> T forward(
+        String roomId,
+        RoomCommand command,
+        Class<T> resultType
+    ) {
+        String owner = ownerOf(roomId);
+        String requestId = nodeId + "-" + requests.incrementAndGet();
+        CompletableFuture<Message.Reply> reply = new CompletableFuture<>();
+        pending.put(requestId, reply);
+        forwarded.increment();
+
+        try {
+            send(
+                owner,
+                new Message.Command(requestId, nodeId, roomId, command)
+            );
+            Message.Reply result = reply.get(
+                forwardTimeoutMillis,
+                TimeUnit.MILLISECONDS
+            );
+
+            if (result.error() != null) {
+                throw "IllegalArgumentException".equals(result.error())
+                    ? new IllegalArgumentException(result.message())
+                    : new IllegalStateException(result.message());
+            }
+            if (
+                resultType == Void.class ||
+                result.result() == null ||
+                result.result().isNull()
+            ) {
+                return null;
+            }
+            return objectMapper.treeToValue(result.result(), resultType);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException(
+                "Room owner " + owner + " did not respond"
+            );
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for " + owner);
+        } catch (ExecutionException | JsonProcessingException e) {
+            throw new IllegalStateException(
+                "Forwarding to " + owner + " failed",
+                e
+            );
+        } finally {
+            pending.remove(requestId);
+        }
+    }
+
+    /**
+     * Сообщить владельцу комнаты число ее сессий на этом узле
+     *
+     * Шлется абсолютное значение с номером: устаревшее сообщение,
+     * пришедшее позже нового, владелец отбросит
+     */
+    public void publishSessions(String roomId, int count) {
+        if (count > 0) {
+            localSessions.put(roomId, count);
+        } else {
+            localSessions.remove(roomId);
+        }
+        try {
+            send(
+                ownerOf(roomId),
+                new Message.Sessions(
+                    roomId,
+                    nodeId,
+                    count,
+                    sessionsSequence.incrementAndGet()
+                )
+            );
+        } catch (RuntimeException e) {
+            log.warnf(
+                "Failed to report sessions of room {} to {}: {}",
+                roomId,
+                ownerOf(roomId),
+                e.getMessage()
+            );
+        }
+    }
+
+    /**
+     * Повторить владельцам ненулевые числа сессий этого узла
+     * и забыть сессии узлов, переставших их повторять
+     */
+    @Scheduled(
+        every = "${movie.cluster.sessions-heartbeat:10s}",
+        concurrentExecution = Scheduled.ConcurrentExecution.SKIP
+    )
+    void heartbeat() {
+        if (!clustered()) {
+            return;
+        }
+        localSessions.forEach(this::publishSessions);
+        expireSessions(System.nanoTime());
+    }
+
+    /**
+     * Забыть сессии узлов, не сообщавших о них дольше трех интервалов
+     */
+    void expireSessions(long nowNanos) {
+        remoteSessions.forEach((roomId, nodes) -> {
+            boolean expired = nodes
+                .values()
+                .removeIf(
+                    sessions ->
+                        nowNanos - sessions.receivedAtNanos() > sessionsTtlNanos
+                );
+            if (expired) {
+                log.infof("Dropped sessions of silent nodes in room {}", roomId);
+                sessionsChangedLocally(roomId);
+            }
+        });
+    }
+
+    /**
+     * Сессии комнаты на других узлах (для владельца)
+     */
+    public int remoteSessions(String roomId) {
+        Map<String, NodeSessions> nodes = remoteSessions.get(roomId);
+        if (nodes == null) {
+            return 0;
+        }
+        int total = 0;
+        for (NodeSessions sessions : nodes.values()) {
+            total += sessions.count();
+        }
+        return total;
+    }
+
+    /**
+     * Разослать кадр комнаты узлам, где открыты ее сессии
+     *
+     * Ошибка отправки только логируется - рассылка не валит команду
+     */
+    public void fanOut(String roomId, String json) {
+        Map<String, NodeSessions> nodes = remoteSessions.get(roomId);
+        if (nodes == null) {
+            return;
+        }
+
+        nodes.forEach((node, sessions) -> {
+            if (sessions.count() == 0) {
+                return;
+            }
+            try {
+                send(node, new Message.Frame(roomId, json));
+                fannedOut.increment();
+            } catch (RuntimeException e) {
+                log.warnf(
+                    "Failed to fan out room {} to {}, dropping its sessions: {}",
+                    roomId,
+                    node,
+                    e.getMessage()
+                );
+                // Узел снова сообщит о сессиях следующим heartbeat-ом
+                if (nodes.remove(node, sessions)) {
+                    sessionsChangedLocally(roomId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Комната удалена: забыть сессии других узлов
+     */
+    public void forget(String roomId) {
+        remoteSessions.remove(roomId);
+    }
+
+    private void send(String node, Message message) {
+        try {
+            bus.publish(node, objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + message, e);
+        }
+    }
+
+    // Поток шины: ответы и кадры - сразу, команды - в inbound
+    void receive(String raw) {
+        Message message;
+        try {
+            message = objectMapper.readValue(raw, Message.class);
+        } catch (JsonProcessingException e) {
+            log.errorf("Malformed cluster message dropped: {}", e.getMessage());
+            return;
+        }
+
+        switch (message) {
+            case Message.Command command -> inbound.execute(() ->
+                handle(command)
+            );
+            case Message.Reply reply -> {
+                CompletableFuture<Message.Reply> waiting = pending.get(
+                    reply.requestId()
+                );
+                if (waiting != null) {
+                    waiting.complete(reply);
+                }
+            }
+            case Message.Frame frame -> {
+                BiConsumer<String, String> listener = frameListener;
+                if (listener != null) {
+                    listener.accept(frame.roomId(), frame.json());
+                }
+            }
+            case Message.Sessions sessions -> {
+                remoteSessions
+                    .computeIfAbsent(sessions.roomId(), k ->
+                        new ConcurrentHashMap<>()
+                    )
+                    .merge(
+                        sessions.node(),
+                        new NodeSessions(
+                            sessions.count(),
+                            sessions.seq(),
+                            System.nanoTime()
+                        ),
+                        (old, fresh) -> fresh.seq() > old.seq() ? fresh : old
+                    );
+                sessionsChangedLocally(sessions.roomId());
+            }
+        }
+    }
+
+    // Владелец пересчитывает сессии комнаты в inbound, не в потоке шины
+    private void sessionsChangedLocally(String roomId) {
+        inbound.execute(() ->
+            handleInbound(roomId, new RoomCommand.SessionsChanged())
+        );
+    }
+
+    private void handle(Message.Command command) {
+        Message.Reply reply;
+        try {
+            Object result = handleInbound(command.roomId(), command.command());
+            reply = new Message.Reply(
+                command.requestId(),
+                result != null ? objectMapper.valueToTree(result) : null,
+                null,
+                null
+            );
+        } catch (IllegalArgumentException e) {
+            reply = new Message.Reply(
+                command.requestId(),
+                null,
+                "IllegalArgumentException",
+                e.getMessage()
+            );
+        } catch (RuntimeException e) {
+            if (!(e instanceof IllegalStateException)) {
+                log.errorf(
+                    "Forwarded command {} for room {} failed",
+                    command.command(),
+                    command.roomId(),
+                    e
+                );
+            }
+            reply = new Message.Reply(
+                command.requestId(),
+                null,
+                "IllegalStateException",
+                e.getMessage()
+            );
+        }
+
+        try {
+            send(command.origin(), reply);
+        } catch (RuntimeException e) {
+            log.warnf(
+                "Failed to reply to {}: {}",
+                command.origin(),
+                e.getMessage()
+            );
+        }
+    }
+
+    private Object handleInbound(String roomId, RoomCommand command) {
+        CommandHandler handler = commandHandler;
+        if (handler == null) {
+            throw new IllegalArgumentException("Room not found");
+        }
+
+        INBOUND.set(true);
+        try {
+            return handler.apply(roomId, command);
+        } finally {
+            INBOUND.set(false);
+        }
+    }
+
+    private record NodeSessions(int count, long seq, long receivedAtNanos) {}
+
+    /**
+     * Сообщения между узлами
+     */
+    @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "kind")
+    @JsonSubTypes(
+        {
+            @JsonSubTypes.Type(value = Message.Command.class, name = "Command"),
+            @JsonSubTypes.Type(value = Message.Reply.class, name = "Reply"),
+            @JsonSubTypes.Type(value = Message.Frame.class, name = "Frame"),
+            @JsonSubTypes.Type(
+                value = Message.Sessions.class,
+                name = "Sessions"
+            ),
+        }
+    )
+    sealed interface Message {
+        record Command(
+            String requestId,
+            String origin,
+            String roomId,
+            RoomCommand command
+        ) implements Message {}
+
+        /**
+         * Ответ владельца: result или error (простое имя класса исключения)
+         */
+        record Reply(
+            String requestId,
+            JsonNode result,
+            String error,
+            String message
+        ) implements Message {}
+
+        record Frame(String roomId, String json) implements Message {}
+
+        record Sessions(String roomId, String node, int count, long seq)
+            implements Message {}
+    }
+}
@@ -0,0 +1,70 @@
+package com.moviematcher.service;
+
+import com.moviematcher.domain.model.RoomAggregate;
+import com.moviematcher.infrastructure.actor.Actor;
+import com.moviematcher.infrastructure.actor.ActorPool;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Акторы комнат: все команды RoomAggregate идут через очередь комнаты
+ *
+ * RoomAggregate и VotingSession не потокобезопасны, а меняют их
+ * обработчики WebSocket, REST, очистка по расписанию, шаги стриминга
+ * и загрузчики колод. Каждая комната получает Actor на общем пуле
+ * event-loop потоков (ActorPool) - единственный писатель ее состояния.
+ *
+ * Метрика movie.room.dispatcher.backlog - команды, ждущие выполнения
+ */
+@ApplicationScoped
+public class RoomDispatcher {
+
+    private static final Logger log = Logger.getLogger(RoomDispatcher.class);
+
+    private final ActorPool pool;
+
+    @jakarta.inject.Inject
+    public RoomDispatcher(
+        MeterRegistry meterRegistry,
+        @ConfigProperty(
+            name = "movie.room.dispatcher.threads",
+            defaultValue = "0"
+        ) int threads
+    ) {
+        this(threads);
+        Gauge.builder(
+            "movie.room.dispatcher.backlog",
+            pool,
+            ActorPool::backlog
+        )
+            .description("Room commands waiting in actor mailboxes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @param threads число event-loop потоков, 0 - по числу ядер
+     */
+    public RoomDispatcher(int threads) {
+        int size = threads > 0
+            ? threads
+            : Runtime.getRuntime().availableProcessors();
+        this.pool = new ActorPool(size, "room-actor");
+        log.infof("Room dispatcher started with {} event loops", size);
+    }
+
+    /**
+     * Актор новой комнаты
+     */
+    public Actor<RoomAggregate> spawn(RoomAggregate room) {
+        return pool.spawn(room.getId(), room);
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.close();
+    }
+}
@@ -0,0 +1,555 @@
+package com.moviematcher.service;
+
+import com.moviematcher.domain.model.MovieFilters;
+import com.moviematcher.domain.model.Participant;
+import com.moviematcher.domain.model.RoomAggregate;
+import com.moviematcher.domain.model.RoomState;
+import com.moviematcher.infrastructure.actor.Actor;
+import com.moviematcher.infrastructure.journal.JournalEntry;
+import com.moviematcher.infrastructure.journal.JournalRecord;
+import com.moviematcher.infrastructure.journal.SegmentedJournal;
+import com.moviematcher.infrastructure.registry.RoomRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Журнал команд комнат для восстановления после рестарта
+ *
+ * Каждая успешная команда комнаты (создание, вход, выход, фильтры,
+ * ручные фильмы, готовность, старт, голос, удаление) добавляется в
+ * SegmentedJournal внутри команды актора комнаты - порядок записей
+ * комнаты совпадает с порядком команд. Ответ клиенту уходит после
+ * записи (Journaled.await), сам актор записи не ждет.
+ *
+ * При старте recover читает последний снапшот и хвост журнала и
+ * собирает RoomAggregate/VotingSession повторным выполнением команд.
+ * Снапшот по расписанию записывает для каждой живой комнаты минимальный
+ * набор команд, дающих ее текущее состояние, и журнал до него удаляется.
+ *
+ * Не журналируются очереди фильмов и позиция стриминга: после
+ * восстановления колоды грузятся заново по фильтрам с тем же seed, и
+ * уже показанные фильмы могут прийти еще раз. Не журналируются и
+ * WebSocket-сессии - клиенты переподключаются.
+ *
+ * Метрики:
+ * - movie.room.journal.append - от добавления до записи пачки
+ * - movie.room.journal.batches / records - пачки group commit и записи в них
+ */
+@ApplicationScoped
+public class RoomJournal {
+
+    private static final Logger log = Logger.getLogger(RoomJournal.class);
+
+    // null - журнал отключен
+    private final SegmentedJournal journal;
+    private final Duration maxAge;
+
+    // Создание комнаты (запись + регистрация) не должно разорваться
+    // снапшотом: он видит либо обе части, либо ни одной
+    private final ReadWriteLock creates = new ReentrantReadWriteLock();
+
+    private Timer appendLatency;
+    private volatile boolean recovered;
+
+    @jakarta.inject.Inject
+    public RoomJournal(
+        MeterRegistry meterRegistry,
+        @ConfigProperty(
+            name = "movie.room.journal.enabled",
+            defaultValue = "true"
+        ) boolean enabled,
+        @ConfigProperty(
+            name = "movie.room.journal.dir",
+            defaultValue = "data/room-journal"
+        ) String dir,
+        @ConfigProperty(
+            name = "movie.room.journal.segment-size",
+            defaultValue = "16M"
+        ) MemorySize segmentSize,
+        @ConfigProperty(
+            name = "movie.room.journal.max-batch",
+            defaultValue = "256"
+        ) int maxBatch,
+        @ConfigProperty(
+            name = "movie.room.journal.fsync",
+            defaultValue = "false"
+        ) boolean fsync,
+        @ConfigProperty(
+            name = "movie.room.max-age",
+            defaultValue = "24h"
+        ) Duration maxAge
+    ) {
+        this(
+            enabled
+                ? new SegmentedJournal(
+                    Path.of(dir),
+                    segmentSize.asBigInteger().intValueExact(),
+                    maxBatch,
+                    fsync
+                )
+                : null,
+            maxAge
+        );
+
+        if (journal != null) {
+            this.appendLatency = Timer.builder("movie.room.journal.append")
+                .description("Time from a room command to its journal write")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+            FunctionCounter.builder(
+                "movie.room.journal.batches",
+                journal,
+                SegmentedJournal::batches
+            )
+                .description("Group commit batches written to the journal")
+                .register(meterRegistry);
+            FunctionCounter.builder(
+                "movie.room.journal.records",
+                journal,
+                SegmentedJournal::records
+            )
+                .description("Room commands written to the journal")
+                .register(meterRegistry);
+        }
+    }
+
+    /**
+     * @param journal журнал, null - не журналировать
+     * @param maxAge  комнаты старше не восстанавливаются
+     */
+    RoomJournal(SegmentedJournal journal, Duration maxAge) {
+        this.journal = journal;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Без журнала: комнаты живут только в памяти
+     */
+    public static RoomJournal disabled() {
+        return new RoomJournal(null, Duration.ZERO);
+    }
+
+    public boolean enabled() {
+        return journal != null;
+    }
+
+    /**
+     * Восстановить комнаты из снапшота и хвоста журнала и начать запись
+     *
+     * Команда, которая не выполняется при повторе (комната удалена или
+     * неизвестна), пропускается
+     *
+     * @return живые комнаты в порядке создания
+     */
+    public List<RoomAggregate> recover() {
+        if (journal == null) {
+            return List.of();
+        }
+
+        long started = System.nanoTime();
+        Map<String, RoomAggregate> rooms = new LinkedHashMap<>();
+        int[] replayed = new int[2]; // [0] - выполнено, [1] - пропущено
+        long lastSequence;
+        try {
+            lastSequence = journal.recover(entry -> {
+                if (replay(rooms, entry.record())) {
+                    replayed[0]++;
+                } else {
+                    replayed[1]++;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Room journal recovery failed", e);
+        }
+        journal.start();
+        recovered = true;
+
+        log.infof(
+            "Recovered {} rooms from journal in {} ms " +
+            "({} commands replayed, {} skipped, last seq {})",
+            rooms.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+            replayed[0],
+            replayed[1],
+            lastSequence
+        );
+        return new ArrayList<>(rooms.values());
+    }
+
+    /**
+     * Добавить запись команды комнаты
+     *
+     * Вызывается внутри команды актора комнаты, после успешного изменения
+     * состояния - тогда порядок записей комнаты совпадает с порядком команд
+     *
+     * @param value результат команды, возвращается из Journaled.await
+     */
+    public <T> Journaled<T> append(JournalRecord record, T value) {
+        if (journal == null || !recovered) {
+            return new Journaled<>(value, null);
+        }
+        long started = System.nanoTime();
+        CompletableFuture<Long> written = journal.append(record);
+        if (appendLatency != null) {
+            written.whenComplete((seq, error) ->
+                appendLatency.record(
+                    System.nanoTime() - started,
+                    TimeUnit.NANOSECONDS
+                )
+            );
+        }
+        return new Journaled<>(value, written);
+    }
+
+    /**
+     * Создать комнату: запись CREATE и регистрация вместе относительно снапшота
+     */
+    public <T> T creating(Supplier<T> create) {
+        creates.readLock().lock();
+        try {
+            return create.get();
+        } finally {
+            creates.readLock().unlock();
+        }
+    }
+
+    /**
+     * Запись создания комнаты
+     */
+    static JournalRecord.Create created(RoomAggregate room) {
+        return new JournalRecord.Create(
+            room.getId(),
+            room.getHostId(),
+            room.getCompletionType(),
+            room.getPacingMode(),
+            room.getDeckSeed(),
+            room.getCreatedAt()
+                .atZone(ZoneId.systemDefault())
+                .toInstant()
+                .toEpochMilli()
+        );
+    }
+
+    /**
+     * Записать снапшот живых комнат и удалить покрытый им журнал
+     *
+     * Комнаты читаются командами их акторов - снапшот не останавливает
+     * голосование. Номер, учтенный для комнаты, берется внутри ее команды:
+     * все записи комнаты до него в снапшоте, после - в хвосте журнала
+     */
+    public void snapshot(RoomRegistry rooms) {
+        if (journal == null || !recovered) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        long fromSequence;
+        List<Map.Entry<String, Actor<RoomAggregate>>> live =
+            new ArrayList<>();
+        creates.writeLock().lock();
+        try {
+            fromSequence = journal.lastSequence();
+            for (int shard = 0; shard < rooms.shards(); shard++) {
+                live.addAll(rooms.snapshot(shard).entrySet());
+            }
+        } finally {
+            creates.writeLock().unlock();
+        }
+
+        List<JournalEntry> entries = new ArrayList<>();
+        for (Map.Entry<String, Actor<RoomAggregate>> room : live) {
+            List<JournalEntry> roomEntries = room
+                .getValue()
+                .call(r -> entriesOf(r, journal.lastSequence()));
+            // Удаленная после чтения списка комната уже записала REMOVE
+            // с номером меньше учтенного - в снапшот ее не берем
+            if (rooms.find(room.getKey()).isPresent()) {
+                entries.addAll(roomEntries);
+            }
+        }
+
+        try {
+            journal.snapshot(fromSequence, entries);
+        } catch (IOException e) {
+            log.errorf(e, "Room journal snapshot at {} failed", fromSequence);
+            return;
+        }
+        log.debugf(
+            "Room journal snapshot of {} rooms took {} ms",
+            live.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)
+        );
+    }
+
+    @PreDestroy
+    void close() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Команды, собирающие текущее состояние комнаты
+     *
+     * Голоса завершенной комнаты идут так, чтобы завершающий лайк
+     * совпавших фильмов был последним. После начала голосования комната
+     * собирается по участникам сессии: вышедшие во время голосования
+     * входят, голосуют и выходят только после своих голосов
+     */
+    private static List<JournalEntry> entriesOf(RoomAggregate room, long seq) {
+        String roomId = room.getId();
+        boolean voting = room.getState() != RoomState.WAITING;
+        List<Participant> participants = voting
+            ? room.getVotingParticipants()
+            : room.getParticipants();
+        List<JournalRecord> records = new ArrayList<>();
+
+        records.add(created(room));
+        boolean hostPresent = false;
+        for (Participant participant : participants) {
+            if (participant.getId().equals(room.getHostId())) {
+                hostPresent = true;
+            } else {
+                records.add(
+                    new JournalRecord.Join(roomId, participant.getId())
+                );
+            }
+        }
+        if (!hostPresent) {
+            records.add(new JournalRecord.Leave(roomId, room.getHostId()));
+        }
+
+        for (Participant participant : participants) {
+            MovieFilters filters = participant.getFilters();
+            if (filters != null) {
+                records.add(
+                    new JournalRecord.Filters(
+                        roomId,
+                        participant.getId(),
+                        filters.getGenre(),
+                        filters.getYearFrom(),
+                        filters.getYearTo(),
+                        filters.getMinRating(),
+                        filters.getType()
+                    )
+                );
+            }
+            for (String movieId : participant.getManuallySelectedMovies()) {
+                records.add(
+                    new JournalRecord.AddMovie(
+                        roomId,
+                        participant.getId(),
+                        movieId
+                    )
+                );
+            }
+        }
+        for (Participant participant : participants) {
+            if (participant.isReadyToVote()) {
+                records.add(
+                    new JournalRecord.Ready(roomId, participant.getId())
+                );
+            }
+        }
+
+        if (voting) {
+            records.add(
+                new JournalRecord.StartVoting(
+                    roomId,
+                    participants.stream().map(Participant::getId).toList()
+                )
+            );
+
+            Set<String> matched = room.getState() == RoomState.COMPLETED
+                ? Set.copyOf(room.getMatchedMovies())
+                : Set.of();
+            List<JournalRecord> completing = new ArrayList<>();
+            for (Participant participant : participants) {
+                for (String movieId : participant.getDislikedMovies()) {
+                    records.add(
+                        new JournalRecord.Vote(
+                            roomId,
+                            participant.getId(),
+                            movieId,
+                            false
+                        )
+                    );
+                }
+            }
+            for (Participant participant : participants) {
+                for (String movieId : participant.getLikedMovies()) {
+                    JournalRecord.Vote vote = new JournalRecord.Vote(
+                        roomId,
+                        participant.getId(),
+                        movieId,
+                        true
+                    );
+                    if (matched.contains(movieId)) {
+                        completing.add(vote);
+                    } else {
+                        records.add(vote);
+                    }
+                }
+            }
+            records.addAll(completing);
+
+            List<String> present = room.getParticipantIds();
+            for (Participant participant : participants) {
+                if (!present.contains(participant.getId())) {
+                    records.add(
+                        new JournalRecord.Leave(roomId, participant.getId())
+                    );
+                }
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        List<JournalEntry> entries = new ArrayList<>(records.size());
+        for (JournalRecord record : records) {
+            entries.add(new JournalEntry(seq, now, record));
+        }
+        return entries;
+    }
+
+    /**
+     * Повторить команду над восстанавливаемыми комнатами
+     *
+     * @return false, если команда пропущена
+     */
+    private boolean replay(
+        Map<String, RoomAggregate> rooms,
+        JournalRecord record
+    ) {
+        if (record instanceof JournalRecord.Create create) {
+            LocalDateTime createdAt = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(create.createdAtMillis()),
+                ZoneId.systemDefault()
+            );
+            if (LocalDateTime.now().isAfter(createdAt.plus(maxAge))) {
+                return false;
+            }
+            RoomAggregate room = RoomAggregate.create(
+                create.roomId(),
+                create.hostId(),
+                RoomApplicationService.strategyFor(create.completionType()),
+                create.deckSeed(),
+                createdAt
+            );
+            room.setPacingMode(create.pacingMode());
+            rooms.put(create.roomId(), room);
+            return true;
+        }
+        if (record instanceof JournalRecord.Remove remove) {
+            return rooms.remove(remove.roomId()) != null;
+        }
+
+        RoomAggregate room = rooms.get(record.roomId());
+        if (room == null) {
+            return false;
+        }
+        try {
+            if (record instanceof JournalRecord.Join join) {
+                room.addParticipant(join.participantId());
+            } else if (record instanceof JournalRecord.Leave leave) {
+                room.removeParticipant(leave.participantId());
+            } else if (record instanceof JournalRecord.Filters filters) {
+                room.setParticipantFilters(
+                    filters.participantId(),
+                    MovieFilters.builder()
+                        .genre(filters.genre())
+                        .yearFrom(filters.yearFrom())
+                        .yearTo(filters.yearTo())
+                        .minRating(filters.minRating())
+                        .type(filters.type())
+                        .build()
+                );
+            } else if (record instanceof JournalRecord.AddMovie add) {
+                room.addMovieToParticipant(
+                    add.participantId(),
+                    add.movieId()
+                );
+            } else if (record instanceof JournalRecord.Ready ready) {
+                room.markParticipantReady(ready.participantId());
+            } else if (record instanceof JournalRecord.StartVoting start) {
+                if (!room.getParticipantIds().equals(start.participantIds())) {
+                    throw new IllegalStateException(
+                        "Participants differ from the voting session " +
+                        start.participantIds()
+                    );
+                }
+                room.startVoting();
+            } else if (record instanceof JournalRecord.Vote vote) {
+                room.recordVote(
+                    vote.participantId(),
+                    vote.movieId(),
+                    vote.isLike()
+                );
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.debugf("Skipped journal record {}: {}", record, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Результат команды комнаты и ее запись в журнал
+     */
+    public static final class Journaled<T> {
+
+        private final T value;
+        private final CompletableFuture<Long> written;
+
+        Journaled(T value, CompletableFuture<Long> written) {
+            this.value = value;
+            this.written = written;
+        }
+
+        /**
+         * Дождаться записи и вернуть результат команды
+         *
+         * Команда уже выполнена, поэтому ошибка журнала только логируется:
+         * комната работает, но может не пережить рестарт
+         */
+        public T await() {
+            if (written == null) {
+                return value;
+            }
+            try {
+                written.get();
+            } catch (ExecutionException e) {
+                log.errorf(
+                    "Room command was not journaled: {}",
+                    e.getCause().getMessage()
+                );
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return value;
+        }
+    }
+}
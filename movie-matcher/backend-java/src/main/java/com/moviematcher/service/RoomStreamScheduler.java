@@ -0,0 +1,158 @@
+package com.moviematcher.service;
+
+import com.moviematcher.infrastructure.scheduling.TimingWheel;
+import com.moviematcher.infrastructure.scheduling.TimingWheel.Timeout;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.virtual.threads.VirtualThreads;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Единый планировщик шагов стриминга всех комнат
+ *
+ * Вместо цепочки Uni.delayIt() на каждую комнату - одно колесо таймеров
+ * (TimingWheel) с одним дедлайном на комнату и один поток-тикер.
+ * На каждом тике истекшие комнаты пачками по batch-size уходят
+ * в пул виртуальных потоков.
+ *
+ * Метрики:
+ * - movie.stream.scheduler.queue-depth - сколько комнат ждут своего шага
+ * - movie.stream.scheduler.lag - насколько шаг запущен позже дедлайна
+ */
+@ApplicationScoped
+public class RoomStreamScheduler {
+
+    private static final Logger log = Logger.getLogger(
+        RoomStreamScheduler.class
+    );
+
+    private final ExecutorService workers;
+    private final Duration tick;
+    private final int batchSize;
+    private final TimingWheel<String, Runnable> wheel;
+    private final Timer lag;
+
+    private ScheduledExecutorService ticker;
+
+    @jakarta.inject.Inject
+    public RoomStreamScheduler(
+        @VirtualThreads ExecutorService workers,
+        MeterRegistry meterRegistry,
+        @ConfigProperty(
+            name = "movie.stream.scheduler.tick",
+            defaultValue = "10ms"
+        ) Duration tick,
+        @ConfigProperty(
+            name = "movie.stream.scheduler.wheel-size",
+            defaultValue = "512"
+        ) int wheelSize,
+        @ConfigProperty(
+            name = "movie.stream.scheduler.batch-size",
+            defaultValue = "64"
+        ) int batchSize
+    ) {
+        this.workers = workers;
+        this.tick = tick;
+        this.batchSize = batchSize;
+        this.wheel = new TimingWheel<>(tick, wheelSize, System.nanoTime());
+
+        Gauge.builder("movie.stream.scheduler.queue-depth", wheel::size)
+            .description("Rooms waiting for their next stream step")
+            .register(meterRegistry);
+        this.lag = Timer.builder("movie.stream.scheduler.lag")
+            .description("Delay between a room's deadline and its dispatch")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "room-stream-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(
+            this::advance,
+            tick.toNanos(),
+            tick.toNanos(),
+            TimeUnit.NANOSECONDS
+        );
+    }
+
+    @PreDestroy
+    void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * Запланировать следующий шаг комнаты через delay.
+     * Заменяет ранее запланированный шаг этой комнаты
+     */
+    public void schedule(String roomId, Duration delay, Runnable step) {
+        wheel.schedule(roomId, step, System.nanoTime() + delay.toNanos());
+    }
+
+    /**
+     * Отменить запланированный шаг комнаты (голосование закончилось)
+     */
+    public void cancel(String roomId) {
+        wheel.cancel(roomId);
+    }
+
+    /**
+     * Сколько комнат ждут шага
+     */
+    public int queueDepth() {
+        return wheel.size();
+    }
+
+    private void advance() {
+        try {
+            long now = System.nanoTime();
+            List<Timeout<String, Runnable>> due = wheel.advance(now);
+            for (Timeout<String, Runnable> timeout : due) {
+                lag.record(
+                    Math.max(0, now - timeout.deadlineNanos()),
+                    TimeUnit.NANOSECONDS
+                );
+            }
+
+            for (int from = 0; from < due.size(); from += batchSize) {
+                List<Timeout<String, Runnable>> batch = due.subList(
+                    from,
+                    Math.min(from + batchSize, due.size())
+                );
+                workers.execute(() -> batch.forEach(this::run));
+            }
+        } catch (Exception e) {
+            // Поток-тикер не должен умереть из-за одной ошибки
+            log.error("Room stream scheduler tick failed", e);
+        }
+    }
+
+    private void run(Timeout<String, Runnable> timeout) {
+        try {
+            timeout.value().run();
+        } catch (Exception e) {
+            log.errorf(
+                "Stream step failed for room {}",
+                timeout.key(),
+                e
+            );
+        }
+    }
+}
@@ -10,6 +10,13 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import org.jboss.logging.Logger;
 
+/**
+ * Рассылка ServerMessage WebSocket-сессиям комнаты
+ *
+ * Сессии - только этого узла. В кластере (RoomCluster) владелец комнаты
+ * дополнительно публикует каждый кадр узлам, где открыты ее сессии;
+ * пришедший с другого узла кадр доставляется только локально
+ */
 @ApplicationScoped
 public class WebSocketBroadcastService {
 
@@ -21,10 +28,16 @@ public class WebSocketBroadcastService {
         new ConcurrentHashMap<>();
 
     private final ObjectMapper objectMapper;
+    private final RoomCluster cluster;
 
     @jakarta.inject.Inject
-    public WebSocketBroadcastService(ObjectMapper objectMapper) {
+    public WebSocketBroadcastService(
+        ObjectMapper objectMapper,
+        RoomCluster cluster
+    ) {
         this.objectMapper = objectMapper;
+        this.cluster = cluster;
+        cluster.onFrame(this::deliverLocal);
     }
 
     public void registerSession(String roomId, Session session) {
@@ -51,23 +64,46 @@ public class WebSocketBroadcastService {
 
     public void broadcast(String roomId, ServerMessage message) {
         Set<Session> sessions = roomSessions.get(roomId);
-        if (sessions == null || sessions.isEmpty()) {
+        // Без локальных сессий кадр все равно нужен другим узлам
+        if ((sessions == null || sessions.isEmpty()) && !cluster.clustered()) {
             return;
         }
 
         try {
-            String json = objectMapper.writeValueAsString(message);
+            broadcastFrame(roomId, objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            log.errorf("Error serializing message: {}", message, e);
+        }
+    }
 
-            // Remove closed sessions
-            sessions.removeIf(session -> !session.isOpen());
+    /**
+     * Отправить уже сериализованный кадр (см. MovieFrameCache)
+     */
+    public void broadcastFrame(String roomId, String json) {
+        deliverLocal(roomId, json);
+        if (cluster.clustered()) {
+            cluster.fanOut(roomId, json);
+        }
+    }
 
-            for (Session session : sessions) {
-                if (session.isOpen()) {
-                    session.getAsyncRemote().sendText(json);
-                }
+    // Только сессии этого узла
+    private void deliverLocal(String roomId, String json) {
+        Set<Session> sessions = roomSessions.get(roomId);
+        if (sessions == null || sessions.isEmpty()) {
+            return;
+        }
+
+        send(sessions, json);
+    }
+
+    private void send(Set<Session> sessions, String json) {
+        // Remove closed sessions
+        sessions.removeIf(session -> !session.isOpen());
+
+        for (Session session : sessions) {
+            if (session.isOpen()) {
+                session.getAsyncRemote().sendText(json);
             }
-        } catch (JsonProcessingException e) {
-            log.errorf("Error serializing message: {}", message, e);
         }
     }
 
@@ -6,6 +6,7 @@ import com.moviematcher.service.RoomApplicationService;
 import com.moviematcher.entity.Movie;
 import com.moviematcher.model.ClientMessage;
 import com.moviematcher.model.ServerMessage;
+import com.moviematcher.repository.MovieCardRepository;
 import com.moviematcher.service.WebSocketBroadcastService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.websocket.*;
@@ -13,7 +14,6 @@ import jakarta.websocket.server.PathParam;
 import jakarta.websocket.server.ServerEndpoint;
 
 import java.util.Optional;
-import java.util.stream.Collectors;
 import org.jboss.logging.Logger;
 
 /**
@@ -31,24 +31,27 @@ public class RoomWebSocket {
     private final MovieSearchService movieSearchService;
     private final WebSocketBroadcastService broadcastService;
     private final ObjectMapper objectMapper;
+    private final MovieCardRepository movieCardRepository;
 
     @jakarta.inject.Inject
     public RoomWebSocket(
         RoomApplicationService roomService,
         MovieSearchService movieSearchService,
         WebSocketBroadcastService broadcastService,
-        ObjectMapper objectMapper
+        ObjectMapper objectMapper,
+        MovieCardRepository movieCardRepository
     ) {
         this.roomService = roomService;
         this.movieSearchService = movieSearchService;
         this.broadcastService = broadcastService;
         this.objectMapper = objectMapper;
+        this.movieCardRepository = movieCardRepository;
     }
 
     @OnOpen
     public void onOpen(Session session, @PathParam("roomId") String roomId) {
         // Проверяем существование комнаты
-        if (roomService.getRoom(roomId).isEmpty()) {
+        if (!roomService.roomExists(roomId)) {
             log.errorf("Room {} not found for WebSocket connection", roomId);
             try {
                 session.close(
@@ -64,6 +67,7 @@ public class RoomWebSocket {
         }
 
         broadcastService.registerSession(roomId, session);
+        roomService.sessionsChanged(roomId);
         log.infof(
             "WebSocket connection opened for room {}, session {}",
             roomId,
@@ -125,6 +129,7 @@ public class RoomWebSocket {
     @OnClose
     public void onClose(Session session, @PathParam("roomId") String roomId) {
         broadcastService.unregisterSession(roomId, session);
+        roomService.sessionsChanged(roomId);
         log.infof(
             "WebSocket connection closed for room {}, session {}",
             roomId,
@@ -197,7 +202,10 @@ public class RoomWebSocket {
 
             if (movie.isPresent()) {
                 // Отправляем результат только этому участнику
-                var movieData = convertToMovieData(movie.get());
+                // Свежий результат TMDB/OMDB может быть еще не виден запросу
+                var movieData = movieCardRepository
+                    .findCard(movie.get().imdbId)
+                    .orElseGet(() -> MovieCardRepository.fromEntity(movie.get()));
                 sendToSession(session, new ServerMessage.NewMovie(movieData));
 
                 log.infof(
@@ -258,19 +266,13 @@ public class RoomWebSocket {
             );
 
             // Проверяем, все ли готовы - если да, автостарт
-            var room = roomService.getRoom(roomId);
-            if (room.isPresent()) {
-                int readyCount = room.get().getReadyParticipantsCount();
-                int totalCount = room.get().getParticipantIds().size();
-
-                if (readyCount == totalCount && totalCount >= 2) {
-                    // Все готовы - стартуем голосование
-                    roomService.startVoting(roomId);
-                    log.infof(
-                        "Auto-starting voting in room {} (all participants ready)",
-                        roomId
-                    );
-                }
+            if (roomService.readyToStart(roomId)) {
+                // Все готовы - стартуем голосование
+                roomService.startVoting(roomId);
+                log.infof(
+                    "Auto-starting voting in room {} (all participants ready)",
+                    roomId
+                );
             }
         } catch (Exception e) {
             log.errorf("Error marking ready: {}", e.getMessage());
@@ -328,61 +330,4 @@ public class RoomWebSocket {
     private void sendErrorToSession(Session session, String errorMessage) {
         sendToSession(session, new ServerMessage.Error(errorMessage));
     }
-
-    /**
-     * Конвертация Movie entity → MovieData DTO
-     */
-    private com.moviematcher.model.MovieData convertToMovieData(Movie movie) {
-        return new com.moviematcher.model.MovieData(
-            movie.title,
-            movie.year != null ? movie.year.toString() : "",
-            "",
-            movie.runtime != null ? movie.runtime + " min" : "",
-            movie.posterUrl,
-            extractDirector(movie),
-            extractActors(movie),
-            movie.plot,
-            extractCountry(movie),
-            extractGenres(movie),
-            movie.imdbRating != null ? movie.imdbRating.toString() : "",
-            movie.imdbId
-        );
-    }
-
-    private String extractDirector(Movie movie) {
-        if (movie.credits == null) return "";
-        return movie.credits
-            .stream()
-            .filter(c -> "director".equals(c.roleType))
-            .map(c -> c.person.name)
-            .findFirst()
-            .orElse("");
-    }
-
-    private String extractActors(Movie movie) {
-        if (movie.credits == null) return "";
-        return movie.credits
-            .stream()
-            .filter(c -> "actor".equals(c.roleType))
-            .limit(3)
-            .map(c -> c.person.name)
-            .collect(Collectors.joining(", "));
-    }
-
-    private String extractCountry(Movie movie) {
-        if (movie.countries == null || movie.countries.isEmpty()) return "";
-        return movie.countries
-            .stream()
-            .map(c -> c.name)
-            .findFirst()
-            .orElse("");
-    }
-
-    private String extractGenres(Movie movie) {
-        if (movie.genres == null || movie.genres.isEmpty()) return "";
-        return movie.genres
-            .stream()
-            .map(g -> g.name)
-            .collect(Collectors.joining(", "));
-    }
 }
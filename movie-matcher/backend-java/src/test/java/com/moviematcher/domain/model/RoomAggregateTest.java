@@ -368,6 +368,35 @@ class RoomAggregateTest {
         assertThat(room.shouldBeDestroyed()).isTrue();
     }
 
+    @Test
+    @DisplayName("Завершенная комната уничтожается, когда закрыты все сессии")
+    void shouldBeDestroyedWhenCompletedWithoutSessions() {
+        // Given
+        RoomAggregate room = RoomAggregate.create(
+            "room1",
+            "host123",
+            strategy
+        );
+        room.addParticipant("participant1");
+        room.addMovieToParticipant("host123", "movie1");
+        room.addMovieToParticipant("participant1", "movie2");
+        room.markParticipantReady("host123");
+        room.markParticipantReady("participant1");
+        room.startVoting();
+        room.updateConnectedSessions(2);
+        room.recordVote("host123", "movie1", true);
+        room.recordVote("participant1", "movie1", true);
+
+        // When
+        boolean withSessions = room.shouldBeDestroyed();
+        room.updateConnectedSessions(0);
+
+        // Then
+        assertThat(room.getState()).isEqualTo(RoomState.COMPLETED);
+        assertThat(withSessions).isFalse();
+        assertThat(room.shouldBeDestroyed()).isTrue();
+    }
+
     @Test
     @DisplayName("Не должен позволить создать комнату с null ID")
     void shouldNotAllowNullRoomId() {
@@ -0,0 +1,75 @@
+package com.moviematcher.domain.model;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Smoke тесты для StreamPacing value object
+ *
+ * Проверяют:
+ * - Кредит подачи от самого медленного и медианного участника
+ * - Остановку подачи, пока никто не голосует
+ * - Валидацию параметров
+ */
+@DisplayName("StreamPacing Smoke Tests")
+class StreamPacingTest {
+
+    @Test
+    @DisplayName("Должен держать комнату на lookahead впереди самого медленного")
+    void shouldKeepLookaheadAheadOfSlowest() {
+        // Given
+        StreamPacing pacing = demand(3, StreamPacing.Basis.SLOWEST);
+
+        // When
+        int credit = pacing.credit(5, List.of(2, 5, 4));
+
+        // Then - медленный проголосовал 2, можно держать до 5 отправленных
+        assertThat(credit).isZero();
+        assertThat(pacing.credit(4, List.of(2, 5, 4))).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Должен ориентироваться на медианного участника")
+    void shouldFollowMedianVoter() {
+        // Given
+        StreamPacing pacing = demand(2, StreamPacing.Basis.MEDIAN);
+
+        // When
+        int credit = pacing.credit(5, List.of(0, 4, 6));
+
+        // Then
+        assertThat(credit).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Должен остановить подачу, пока никто не голосует")
+    void shouldStopWhenNobodyVotes() {
+        // Given
+        StreamPacing pacing = demand(3, StreamPacing.Basis.SLOWEST);
+
+        // When / Then
+        assertThat(pacing.credit(0, List.of(0, 0))).isEqualTo(3);
+        assertThat(pacing.credit(3, List.of(0, 0))).isZero();
+    }
+
+    @Test
+    @DisplayName("Должен отклонить lookahead меньше 1")
+    void shouldRejectZeroLookahead() {
+        assertThatThrownBy(() -> demand(0, StreamPacing.Basis.SLOWEST))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("lookahead");
+    }
+
+    private StreamPacing demand(int lookahead, StreamPacing.Basis basis) {
+        return new StreamPacing(
+            StreamPacing.Mode.DEMAND,
+            Duration.ofMillis(500),
+            lookahead,
+            basis
+        );
+    }
+}
@@ -0,0 +1,162 @@
+package com.moviematcher.domain.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.moviematcher.domain.strategy.UnanimousVotingStrategy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Бенчмарк памяти сессии голосования
+ *
+ * Сравнивает байты на комнату у прежней раскладки (String в HashSet
+ * и LinkedList) и у номеров из MovieIdInterner в BitSet/IntRingBuffer
+ * на 2, 10 и 50 участниках × 500 показанных фильмов. Каждый участник
+ * голосует за каждый показанный фильм, в очередях остается по 20 фильмов.
+ *
+ * Строки ID создаются заранее и живут весь тест, как карточки каталога, -
+ * в замер попадают только структуры комнаты. Память - разница занятой
+ * кучи после GC, поделенная на число комнат; запуск с -DskipITs=false
+ */
+@DisplayName("VotingSession memory benchmark")
+class VotingSessionMemoryIT {
+
+    private static final Logger log = Logger.getLogger(
+        VotingSessionMemoryIT.class
+    );
+
+    private static final int SHOWN_MOVIES = 500;
+    private static final int QUEUED_PER_PARTICIPANT = 20;
+    private static final int ROOMS = 40;
+
+    @Test
+    @DisplayName("Бенчмарк: байты на комнату при 2/10/50 участниках")
+    void benchmarkBytesPerRoom() {
+        for (int participants : new int[] { 2, 10, 50 }) {
+            // Given
+            List<String> movieIds = new ArrayList<>();
+            int total = SHOWN_MOVIES + participants * QUEUED_PER_PARTICIPANT;
+            for (int i = 0; i < total; i++) {
+                movieIds.add(String.format("tt%07d", i));
+            }
+            compactRoom(participants, movieIds); // прогрев
+            legacyRoom(participants, movieIds);
+
+            // When
+            long legacy = bytesPerRoom(() ->
+                legacyRoom(participants, movieIds)
+            );
+            long compact = bytesPerRoom(() ->
+                compactRoom(participants, movieIds)
+            );
+
+            // Then
+            log.infof(
+                "Voting room with %d participants x %d shown movies: legacy %d bytes, compact %d bytes",
+                participants,
+                SHOWN_MOVIES,
+                legacy,
+                compact
+            );
+            assertThat(compact).isLessThan(legacy);
+        }
+    }
+
+    private VotingSession compactRoom(int size, List<String> movieIds) {
+        List<Participant> participants = new ArrayList<>();
+        for (int p = 0; p < size; p++) {
+            participants.add(new Participant("user" + p, p == 0));
+        }
+        VotingSession session = new VotingSession(
+            participants,
+            new UnanimousVotingStrategy()
+        );
+        for (int p = 0; p < size; p++) {
+            session.addMoviesToParticipant(
+                "user" + p,
+                deck(movieIds, p, size)
+            );
+        }
+
+        for (int m = 0; m < SHOWN_MOVIES; m++) {
+            String movieId = session.getNextMovie().orElseThrow();
+            for (int p = 0; p < size; p++) {
+                // Без совпадения: хотя бы один дизлайк на фильм
+                boolean like = p > 0 && m % 3 == p % 3;
+                session.recordVote("user" + p, movieId, like);
+            }
+        }
+        return session;
+    }
+
+    private LegacyRoom legacyRoom(int size, List<String> movieIds) {
+        LegacyRoom room = new LegacyRoom();
+        for (int p = 0; p < size; p++) {
+            Queue<String> queue = new LinkedList<>(deck(movieIds, p, size));
+            room.queues.put("user" + p, queue);
+            room.likes.put("user" + p, new HashSet<>());
+            room.dislikes.put("user" + p, new HashSet<>());
+        }
+
+        for (int m = 0; m < SHOWN_MOVIES; m++) {
+            String movieId = room.queues.get("user" + (m % size)).poll();
+            room.shown.add(movieId);
+            for (int p = 0; p < size; p++) {
+                boolean like = p > 0 && m % 3 == p % 3;
+                (like ? room.likes : room.dislikes).get("user" + p).add(
+                    movieId
+                );
+            }
+        }
+        return room;
+    }
+
+    // Фильмы участника p: каждый size-й из общего списка
+    private List<String> deck(List<String> movieIds, int p, int size) {
+        List<String> deck = new ArrayList<>();
+        for (int i = p; i < movieIds.size(); i += size) {
+            deck.add(movieIds.get(i));
+        }
+        return deck;
+    }
+
+    private long bytesPerRoom(Supplier<Object> room) {
+        List<Object> rooms = new ArrayList<>(ROOMS);
+        long before = usedHeap();
+        for (int i = 0; i < ROOMS; i++) {
+            rooms.add(room.get());
+        }
+        long after = usedHeap();
+        assertThat(rooms).hasSize(ROOMS);
+        return (after - before) / ROOMS;
+    }
+
+    private long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Прежняя раскладка VotingSession и Participant
+     */
+    private static final class LegacyRoom {
+
+        final Set<String> shown = new HashSet<>();
+        final Map<String, Queue<String>> queues = new HashMap<>();
+        final Map<String, Set<String>> likes = new HashMap<>();
+        final Map<String, Set<String>> dislikes = new HashMap<>();
+    }
+}
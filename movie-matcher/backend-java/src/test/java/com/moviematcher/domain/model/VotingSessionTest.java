@@ -4,9 +4,11 @@ import static org.assertj.core.api.Assertions.*;
 
 import com.moviematcher.domain.strategy.UnanimousVotingStrategy;
 import com.moviematcher.domain.strategy.VotingCompletionStrategy;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -19,6 +21,7 @@ import org.junit.jupiter.api.Test;
  * - Приоритет вручную выбранных фильмов
  * - Уникальность показываемых фильмов
  * - Логику завершения голосования
+ * - Перенос голосов, отданных до сессии, в номера сессии
  */
 @DisplayName("VotingSession Smoke Tests")
 class VotingSessionTest {
@@ -88,6 +91,24 @@ class VotingSessionTest {
         assertThat(nextMovie).contains("manual1"); // Вручную выбранный первым!
     }
 
+    @Test
+    @DisplayName("Должен вернуть размер очереди участника для дозагрузки")
+    void shouldReportParticipantQueueSize() {
+        // Given
+        VotingSession session = new VotingSession(
+            Arrays.asList(participant1, participant2),
+            strategy
+        );
+
+        // When
+        session.addMoviesToParticipant("user2", List.of("m1", "m2", "m3"));
+
+        // Then
+        assertThat(session.getQueueSize("user2")).isEqualTo(3);
+        assertThat(session.getQueueSize("user1")).isZero();
+        assertThat(session.getQueueSize("unknown")).isZero();
+    }
+
     @Test
     @DisplayName("Должен чередовать фильмы между участниками")
     void shouldRotateMoviesBetweenParticipants() {
@@ -309,4 +330,56 @@ class VotingSessionTest {
         Optional<String> next = session.getNextMovie();
         assertThat(next).contains("movie2"); // movie1 пропущен как дубликат
     }
+
+    @Test
+    @DisplayName("Очередь сохраняет порядок после роста буфера")
+    void shouldKeepQueueOrderAcrossGrowth() {
+        // Given
+        VotingSession session = new VotingSession(
+            Arrays.asList(participant1, participant2),
+            strategy
+        );
+        List<String> movies = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            movies.add("m" + i);
+        }
+
+        // When - часть очереди выбрана до того, как буфер вырос
+        session.addMoviesToParticipant("user1", movies.subList(0, 6));
+        List<String> shown = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            shown.add(session.getNextMovie().orElseThrow());
+        }
+        session.addMoviesToParticipant("user1", movies.subList(6, 40));
+        session.getNextMovie().ifPresent(shown::add);
+        while (session.getQueueSize("user1") > 0) {
+            session.getNextMovie().ifPresent(shown::add);
+        }
+
+        // Then
+        assertThat(shown).containsExactlyElementsOf(movies);
+    }
+
+    @Test
+    @DisplayName("Лайк до начала сессии учитывается после нее")
+    void shouldKeepLikesGivenBeforeSession() {
+        // Given
+        participant1.likeMovie("movie1");
+        participant2.dislikeMovie("movie1");
+
+        // When
+        VotingSession session = new VotingSession(
+            Arrays.asList(participant1, participant2),
+            strategy
+        );
+        session.recordVote("user2", "movie1", true);
+
+        // Then
+        assertThat(participant1.hasLiked("movie1")).isTrue();
+        assertThat(session.getAllLikes())
+            .containsEntry("user1", Set.of("movie1"))
+            .containsEntry("user2", Set.of("movie1"));
+        assertThat(session.isCompleted()).isTrue();
+        assertThat(session.getMatchedMovies()).containsExactly("movie1");
+    }
 }
@@ -0,0 +1,84 @@
+package com.moviematcher.domain.strategy;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Smoke тесты для LikeTally
+ *
+ * Проверяют:
+ * - Снятие лайка возвращает фильм под порог
+ * - Совпадение инкрементального и пакетного API стратегий
+ *   на случайных последовательностях голосов
+ */
+@DisplayName("LikeTally Smoke Tests")
+class LikeTallyTest {
+
+    @Test
+    @DisplayName("Снятый лайк убирает фильм из совпадений")
+    void shouldDropMatchOnUnlike() {
+        // Given
+        LikeTally tally = new UnanimousVotingStrategy().newTally(2);
+        tally.onLike("movie1");
+        tally.onLike("movie1");
+
+        // When
+        tally.onUnlike("movie1");
+
+        // Then
+        assertThat(tally.isComplete()).isFalse();
+        assertThat(tally.getLikes("movie1")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Единогласие: инкрементальный и пакетный API совпадают")
+    void unanimousIncrementalShouldMatchBatch() {
+        assertSameDecisions(new UnanimousVotingStrategy());
+    }
+
+    @Test
+    @DisplayName("Большинство: инкрементальный и пакетный API совпадают")
+    void majorityIncrementalShouldMatchBatch() {
+        assertSameDecisions(new MajorityVotingStrategy());
+    }
+
+    private void assertSameDecisions(VotingCompletionStrategy strategy) {
+        Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            // Given
+            int participants = 2 + random.nextInt(7);
+            Map<String, Set<String>> likes = new HashMap<>();
+            for (int p = 0; p < participants; p++) {
+                likes.put("user" + p, new HashSet<>());
+            }
+            LikeTally tally = strategy.newTally(participants);
+
+            for (int vote = 0; vote < 60; vote++) {
+                // When - случайный лайк или дизлайк, как в VotingSession
+                Set<String> liked = likes.get(
+                    "user" + random.nextInt(participants)
+                );
+                String movie = "movie" + random.nextInt(8);
+                if (random.nextInt(3) > 0) {
+                    if (liked.add(movie)) {
+                        tally.onLike(movie);
+                    }
+                } else if (liked.remove(movie)) {
+                    tally.onUnlike(movie);
+                }
+
+                // Then
+                assertThat(tally.isComplete()).isEqualTo(
+                    strategy.isComplete(likes, participants)
+                );
+                assertThat(tally.getMatchedMovies())
+                    .containsExactlyInAnyOrderElementsOf(
+                        strategy.getMatchedMovies(likes, participants)
+                    );
+            }
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.moviematcher.infrastructure.actor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.moviematcher.domain.model.RoomAggregate;
+import com.moviematcher.domain.model.RoomState;
+import com.moviematcher.domain.strategy.UnanimousVotingStrategy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Smoke и стресс тесты для ActorPool
+ *
+ * Стресс-тест гоняет входы, выходы, дозагрузку очередей, показ фильмов
+ * и голоса в комнаты из нескольких потоков сразу и проверяет инварианты
+ * RoomAggregate, которые без единственного писателя ломаются гонками.
+ * Пропускная способность (команд в секунду) пишется в лог
+ */
+class ActorPoolTest {
+
+    private static final Logger log = Logger.getLogger(ActorPoolTest.class);
+
+    private static final int ROOMS = 64;
+    private static final int THREADS = 8;
+    private static final int JOINS_PER_THREAD = 6;
+    private static final int STEPS_PER_THREAD = 50;
+
+    private ActorPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ActorPool(4, "test-actor");
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("Ошибка команды доходит до вызывающего, вложенный call не ждет")
+    void shouldPropagateErrorsAndRunNestedCallsInline() {
+        // Given
+        Actor<List<String>> actor = pool.spawn("room", new ArrayList<>());
+
+        // When
+        int size = actor.call(list -> {
+            list.add("outer");
+            return actor.call(inner -> {
+                inner.add("nested");
+                return inner.size();
+            });
+        });
+
+        // Then
+        assertThat(size).isEqualTo(2);
+        assertThatThrownBy(() ->
+            actor.execute(list -> {
+                throw new IllegalStateException("rejected");
+            })
+        )
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("rejected");
+        assertThat(pool.backlog()).isZero();
+    }
+
+    @Test
+    @DisplayName("Error в tell не останавливает актор")
+    void shouldKeepDrainingAfterErrorInTell() {
+        // Given
+        Actor<List<String>> actor = pool.spawn("room", new ArrayList<>());
+
+        // When
+        actor.tell(list -> {
+            throw new AssertionError("broken command");
+        });
+        actor.tell(list -> list.add("after"));
+
+        // Then
+        List<String> state = actor.call(List::copyOf);
+        assertThat(state).containsExactly("after");
+        assertThat(pool.backlog()).isZero();
+    }
+
+    @Test
+    @DisplayName("Стресс: параллельные входы, выходы и голоса не ломают комнату")
+    void shouldKeepRoomInvariantsUnderConcurrentCommands() throws Exception {
+        // Given
+        List<Actor<RoomAggregate>> rooms = new ArrayList<>();
+        for (int r = 0; r < ROOMS; r++) {
+            rooms.add(
+                pool.spawn(
+                    "room" + r,
+                    RoomAggregate.create(
+                        "room" + r,
+                        "host",
+                        new UnanimousVotingStrategy()
+                    )
+                )
+            );
+        }
+        AtomicLong commands = new AtomicLong();
+        AtomicInteger sharedJoins = new AtomicInteger();
+        long start = System.nanoTime();
+
+        // When - входы и выходы; "shared" пытаются занять все потоки
+        concurrently(t -> {
+            for (Actor<RoomAggregate> room : rooms) {
+                for (int i = 0; i < JOINS_PER_THREAD; i++) {
+                    String participant = "u" + t + "-" + i;
+                    room.execute(r -> r.addParticipant(participant));
+                    if (i % 3 == 0) {
+                        room.execute(r -> r.removeParticipant(participant));
+                        commands.incrementAndGet();
+                    }
+                    commands.incrementAndGet();
+                }
+                try {
+                    room.execute(r -> r.addParticipant("shared"));
+                    sharedJoins.incrementAndGet();
+                } catch (IllegalStateException alreadyInRoom) {
+                    // Ожидаемо для всех потоков, кроме одного
+                }
+                commands.incrementAndGet();
+            }
+        });
+
+        // Then
+        assertThat(sharedJoins).hasValue(ROOMS);
+        Set<String> expected = new HashSet<>(Set.of("host", "shared"));
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < JOINS_PER_THREAD; i++) {
+                if (i % 3 != 0) {
+                    expected.add("u" + t + "-" + i);
+                }
+            }
+        }
+        for (Actor<RoomAggregate> room : rooms) {
+            List<String> ids = room.call(RoomAggregate::getParticipantIds);
+            assertThat(ids).hasSize(expected.size());
+            assertThat(new HashSet<>(ids)).isEqualTo(expected);
+        }
+
+        // Given - все готовы, голосование идет
+        for (Actor<RoomAggregate> room : rooms) {
+            room.execute(r -> {
+                for (String id : r.getParticipantIds()) {
+                    r.addMovieToParticipant(id, "manual-" + id);
+                    r.markParticipantReady(id);
+                }
+                r.startVoting();
+            });
+        }
+
+        // When - дозагрузка колод, показ и дизлайки одновременно
+        Set<String> shown = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        concurrently(t -> {
+            for (Actor<RoomAggregate> room : rooms) {
+                String roomId = room.call(RoomAggregate::getId);
+                for (int i = 0; i < STEPS_PER_THREAD; i++) {
+                    String voter = "u" + t + "-" + (1 + i % 2);
+                    List<String> batch = List.of(
+                        "m" + t + "-" + i,
+                        "m" + ((t + 1) % THREADS) + "-" + i
+                    );
+                    room.execute(r ->
+                        r.addMoviesToParticipantQueue(voter, batch)
+                    );
+                    Optional<String> next = room.call(
+                        RoomAggregate::getNextMovie
+                    );
+                    if (next.isPresent()) {
+                        if (!shown.add(roomId + "/" + next.get())) {
+                            duplicates.incrementAndGet();
+                        }
+                        room.execute(r ->
+                            r.recordVote(voter, next.get(), false)
+                        );
+                        commands.incrementAndGet();
+                    }
+                    commands.addAndGet(2);
+                }
+            }
+        });
+
+        // Then - ни один фильм не показан дважды, совпадений нет
+        assertThat(duplicates).hasValue(0);
+        for (Actor<RoomAggregate> room : rooms) {
+            assertThat(room.call(RoomAggregate::getState)).isEqualTo(
+                RoomState.VOTING
+            );
+        }
+
+        // When - все лайкают один фильм параллельно
+        concurrently(t -> {
+            for (Actor<RoomAggregate> room : rooms) {
+                List<String> ids = room.call(RoomAggregate::getParticipantIds);
+                for (int i = t; i < ids.size(); i += THREADS) {
+                    String voter = ids.get(i);
+                    room.execute(r -> r.recordVote(voter, "final", true));
+                    commands.incrementAndGet();
+                }
+            }
+        });
+        long elapsed = System.nanoTime() - start;
+
+        // Then - ни один лайк не потерян: единогласие достигнуто
+        for (Actor<RoomAggregate> room : rooms) {
+            assertThat(room.call(RoomAggregate::getState)).isEqualTo(
+                RoomState.COMPLETED
+            );
+            assertThat(room.call(RoomAggregate::getMatchedMovies))
+                .containsExactly("final");
+        }
+        assertThat(pool.backlog()).isZero();
+        log.infof(
+            "Room actors: %d commands from %d threads on %d event loops, %d commands/s",
+            commands.get(),
+            THREADS,
+            pool.threads(),
+            commands.get() * 1_000_000_000L / elapsed
+        );
+    }
+
+    private void concurrently(ThreadTask task) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                done.add(
+                    clients.submit(() -> {
+                        go.await();
+                        task.run(thread);
+                        return null;
+                    })
+                );
+            }
+            go.countDown();
+            for (Future<?> future : done) {
+                future.get();
+            }
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+}
@@ -0,0 +1,209 @@
+package com.moviematcher.infrastructure.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.moviematcher.model.RoomFilters;
+import com.moviematcher.repository.MovieRepository.MatchMode;
+import com.moviematcher.repository.MovieRepository.MovieFilterCriteria;
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Smoke тесты для CatalogIndex
+ */
+class CatalogIndexTest {
+
+    private CatalogIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CatalogIndex();
+        index.upsert(
+            row(1, "tt1", "movie", 1999, "8.7", Map.of("drama", "Drama"), "US")
+        );
+        index.upsert(
+            row(2, "tt2", "movie", 2010, "7.0", Map.of("comedy", "Comedy"), "FR")
+        );
+        index.upsert(
+            row(
+                3,
+                "tt3",
+                "movie",
+                2015,
+                null,
+                Map.of("drama", "Drama", "comedy", "Comedy"),
+                "US"
+            )
+        );
+        index.upsert(
+            row(4, "tt4", "series", 2020, "9.1", Map.of("drama", "Drama"), "US")
+        );
+    }
+
+    @Test
+    @DisplayName("Фильтры комнаты: жанр по подстроке, тип, годы и рейтинг")
+    void shouldMatchRoomFilters() {
+        // Given
+        RoomFilters filters = new RoomFilters(
+            "dram",
+            1990,
+            2016,
+            new BigDecimal("8.0"),
+            "movie"
+        );
+
+        // When
+        List<String> ids = index.page(index.match(filters), 0, 10);
+
+        // Then - tt3 без рейтинга, tt4 - сериал
+        assertThat(ids).containsExactly("tt1");
+    }
+
+    @Test
+    @DisplayName("ALL требует все жанры, ANY - хотя бы один")
+    void shouldApplyMatchModes() {
+        // Given
+        MovieFilterCriteria all = MovieFilterCriteria.builder()
+            .withGenres(List.of("drama", "comedy"), MatchMode.ALL);
+        all.sortBy = null;
+        MovieFilterCriteria any = MovieFilterCriteria.builder()
+            .withGenres(List.of("drama", "comedy"), MatchMode.ANY);
+        any.sortBy = null;
+
+        // When
+        BitSet allRows = index.match(all).orElseThrow();
+        BitSet anyRows = index.match(any).orElseThrow();
+
+        // Then
+        assertThat(index.page(allRows, 0, 10)).containsExactly("tt3");
+        assertThat(index.page(anyRows, 0, 10)).containsExactly(
+            "tt1",
+            "tt2",
+            "tt3",
+            "tt4"
+        );
+    }
+
+    @Test
+    @DisplayName("Критерии вне индекса не вычисляются")
+    void shouldRejectUnsupportedCriteria() {
+        // Given
+        MovieFilterCriteria criteria = MovieFilterCriteria.builder()
+            .withTitleSearch("matrix");
+
+        // When / Then
+        assertThat(index.match(criteria)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Обновление фильма перезаписывает его строку")
+    void shouldOverwriteRowOnUpsert() {
+        // Given
+        index.upsert(
+            row(2, "tt2", "movie", 2010, "7.0", Map.of("drama", "Drama"), "FR")
+        );
+        RoomFilters comedies = new RoomFilters(
+            "comedy",
+            null,
+            null,
+            null,
+            "movie"
+        );
+
+        // When
+        List<String> ids = index.page(index.match(comedies), 0, 10);
+
+        // Then
+        assertThat(ids).containsExactly("tt3");
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Смена типа при обновлении убирает строку из старого типа")
+    void shouldMoveRowBetweenTypesOnUpsert() {
+        // Given
+        index.upsert(
+            row(4, "tt4", "movie", 2020, "9.1", Map.of("drama", "Drama"), "US")
+        );
+        RoomFilters series = new RoomFilters(null, null, null, null, "series");
+        RoomFilters movies = new RoomFilters(null, null, null, null, "movie");
+
+        // When / Then
+        assertThat(index.page(index.match(series), 0, 10)).isEmpty();
+        assertThat(index.page(index.match(movies), 0, 10)).containsExactly(
+            "tt1",
+            "tt2",
+            "tt3",
+            "tt4"
+        );
+    }
+
+    @Test
+    @DisplayName("Выборка воспроизводима по seed, страницы не пересекаются")
+    void shouldSampleDeterministically() {
+        // Given
+        CatalogIndex large = new CatalogIndex();
+        for (int i = 0; i < 100_000; i++) {
+            Map<String, String> genres = i % 3 == 0
+                ? Map.of("drama", "Drama")
+                : Map.of("comedy", "Comedy");
+            large.upsert(
+                row(
+                    i,
+                    "tt" + i,
+                    "movie",
+                    1950 + (i % 70),
+                    String.valueOf(1 + (i % 90) / 10.0),
+                    genres,
+                    "US"
+                )
+            );
+        }
+        RoomFilters filters = new RoomFilters(
+            "drama",
+            1990,
+            null,
+            new BigDecimal("6.5"),
+            "movie"
+        );
+
+        // When
+        BitSet rows = large.match(filters);
+        List<String> first = large.sample(rows, 42L, 0, 20);
+        List<String> again = large.sample(large.match(filters), 42L, 0, 20);
+        List<String> second = large.sample(rows, 42L, 20, 20);
+
+        // Then
+        assertThat(first).hasSize(20).doesNotHaveDuplicates();
+        assertThat(again).isEqualTo(first);
+        assertThat(second).hasSize(20).doesNotContainAnyElementsOf(first);
+    }
+
+    private CatalogRow row(
+        long movieId,
+        String imdbId,
+        String type,
+        Integer year,
+        String rating,
+        Map<String, String> genres,
+        String country
+    ) {
+        return new CatalogRow(
+            movieId,
+            imdbId,
+            type,
+            year,
+            120,
+            rating != null ? new BigDecimal(rating) : null,
+            genres,
+            Set.of(country),
+            Set.of()
+        );
+    }
+}
@@ -0,0 +1,88 @@
+package com.moviematcher.infrastructure.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Smoke тесты для ConsistentHashRing
+ */
+class ConsistentHashRingTest {
+
+    @Test
+    @DisplayName("Владелец ключа не зависит от порядка узлов")
+    void shouldAgreeOnOwnerRegardlessOfNodeOrder() {
+        // Given
+        ConsistentHashRing ring = new ConsistentHashRing(
+            List.of("node-1", "node-2", "node-3"),
+            64
+        );
+        ConsistentHashRing reordered = new ConsistentHashRing(
+            List.of("node-3", "node-1", "node-2"),
+            64
+        );
+
+        // When / Then
+        for (int i = 0; i < 1000; i++) {
+            String roomId = UUID.randomUUID().toString();
+            assertThat(reordered.ownerOf(roomId)).isEqualTo(
+                ring.ownerOf(roomId)
+            );
+        }
+    }
+
+    @Test
+    @DisplayName("Комнаты распределяются между узлами примерно поровну")
+    void shouldBalanceKeys() {
+        // Given
+        ConsistentHashRing ring = new ConsistentHashRing(
+            List.of("node-1", "node-2", "node-3"),
+            128
+        );
+
+        // When
+        Map<String, Integer> owned = new HashMap<>();
+        for (int i = 0; i < 30_000; i++) {
+            owned.merge(ring.ownerOf(UUID.randomUUID().toString()), 1, Integer::sum);
+        }
+
+        // Then - каждому узлу ~10000, допускаем ±25%
+        assertThat(owned).hasSize(3);
+        assertThat(owned.values()).allSatisfy(count ->
+            assertThat(count).isBetween(7_500, 12_500)
+        );
+    }
+
+    @Test
+    @DisplayName("Новый узел забирает ключи только себе")
+    void shouldMoveOnlyKeysOfNewNode() {
+        // Given
+        ConsistentHashRing before = new ConsistentHashRing(
+            List.of("node-1", "node-2", "node-3"),
+            128
+        );
+        ConsistentHashRing after = new ConsistentHashRing(
+            List.of("node-1", "node-2", "node-3", "node-4"),
+            128
+        );
+
+        // When
+        int moved = 0;
+        for (int i = 0; i < 10_000; i++) {
+            String roomId = UUID.randomUUID().toString();
+            String owner = after.ownerOf(roomId);
+            if (!owner.equals(before.ownerOf(roomId))) {
+                assertThat(owner).isEqualTo("node-4");
+                moved++;
+            }
+        }
+
+        // Then - примерно четверть ключей
+        assertThat(moved).isBetween(1_500, 3_500);
+    }
+}
@@ -0,0 +1,49 @@
+package com.moviematcher.infrastructure.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Smoke тесты для PostgresNotifyBus: части сообщений и имя канала
+ */
+class PostgresNotifyBusTest {
+
+    @Test
+    @DisplayName("Длинное сообщение режется на части NOTIFY и склеивается")
+    void shouldSplitAndAssembleLongMessage() {
+        // Given - кириллица и суррогатные пары на границах частей
+        String message = "фильм🎬".repeat(1_000);
+
+        // When
+        List<String> chunks = PostgresNotifyBus.split("m1", message);
+        PostgresNotifyBus.Assembler assembler =
+            new PostgresNotifyBus.Assembler();
+        String assembled = null;
+        for (String chunk : chunks) {
+            assertThat(assembled).isNull();
+            assembled = assembler.accept(chunk);
+        }
+
+        // Then
+        assertThat(chunks).hasSizeGreaterThan(1);
+        assertThat(chunks).allSatisfy(chunk ->
+            assertThat(
+                chunk.getBytes(StandardCharsets.UTF_8).length
+            ).isLessThan(8000)
+        );
+        assertThat(assembled).isEqualTo(message);
+        assertThat(assembler.pending()).isZero();
+    }
+
+    @Test
+    @DisplayName("Канал узла - безопасный идентификатор Postgres")
+    void shouldSanitizeChannelName() {
+        assertThat(PostgresNotifyBus.channel("Node-2.local")).isEqualTo(
+            "movie_matcher_node_2_local"
+        );
+    }
+}
@@ -0,0 +1,257 @@
+package com.moviematcher.infrastructure.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.moviematcher.domain.model.StreamPacing;
+import com.moviematcher.domain.model.VotingCompletionType;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Smoke тесты для SegmentedJournal
+ */
+class SegmentedJournalTest {
+
+    private static final int SEGMENT = 4096;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Записи всех типов читаются после переоткрытия по порядку")
+    void shouldReadRecordsBackAfterReopen() throws Exception {
+        // Given
+        List<JournalRecord> written = List.of(
+            new JournalRecord.Create(
+                "room1",
+                "host",
+                VotingCompletionType.MAJORITY,
+                StreamPacing.Mode.DEMAND,
+                42L,
+                1_700_000_000_000L
+            ),
+            new JournalRecord.Join("room1", "guest"),
+            new JournalRecord.Filters(
+                "room1",
+                "guest",
+                "Drama",
+                1990,
+                null,
+                new BigDecimal("7.5"),
+                "movie"
+            ),
+            new JournalRecord.AddMovie("room1", "host", "tt0111161"),
+            new JournalRecord.Ready("room1", "host"),
+            new JournalRecord.StartVoting("room1", List.of("host", "guest")),
+            new JournalRecord.Vote("room1", "guest", "tt0111161", true),
+            new JournalRecord.Leave("room1", "guest"),
+            new JournalRecord.Remove("room1")
+        );
+        SegmentedJournal journal = open();
+        journal.recover(entry -> {});
+        journal.start();
+        CompletableFuture<Long> last = null;
+        for (JournalRecord record : written) {
+            last = journal.append(record);
+        }
+        last.get();
+        journal.close();
+
+        // When
+        List<JournalEntry> read = new ArrayList<>();
+        long lastSequence = open().recover(read::add);
+
+        // Then
+        assertThat(lastSequence).isEqualTo(written.size());
+        assertThat(read)
+            .extracting(JournalEntry::record)
+            .containsExactlyElementsOf(written);
+        assertThat(read)
+            .extracting(JournalEntry::seq)
+            .containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L);
+    }
+
+    @Test
+    @DisplayName("Оборванная запись в конце отбрасывается, запись продолжается")
+    void shouldTruncateTornTail() throws Exception {
+        // Given
+        SegmentedJournal journal = open();
+        journal.recover(entry -> {});
+        journal.start();
+        journal.append(new JournalRecord.Join("room1", "a")).get();
+        journal.append(new JournalRecord.Join("room1", "b")).get();
+        journal.close();
+
+        // Портим тело второй записи - CRC не сходится
+        Path segment = files("segment-").get(0);
+        int first = frameSize(new JournalRecord.Join("room1", "a"), 1);
+        try (
+            RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")
+        ) {
+            file.seek(first + 12);
+            file.write(0x7f);
+        }
+
+        // When
+        List<JournalEntry> read = new ArrayList<>();
+        SegmentedJournal reopened = open();
+        long lastSequence = reopened.recover(read::add);
+        reopened.start();
+        reopened.append(new JournalRecord.Join("room1", "c")).get();
+        reopened.close();
+
+        List<JournalEntry> again = new ArrayList<>();
+        open().recover(again::add);
+
+        // Then
+        assertThat(lastSequence).isEqualTo(1);
+        assertThat(read).hasSize(1);
+        assertThat(again)
+            .extracting(entry ->
+                ((JournalRecord.Join) entry.record()).participantId()
+            )
+            .containsExactly("a", "c");
+    }
+
+    @Test
+    @DisplayName("Полный сегмент сменяется следующим")
+    void shouldRollSegments() throws Exception {
+        // Given
+        SegmentedJournal journal = open();
+        journal.recover(entry -> {});
+        journal.start();
+
+        // When
+        CompletableFuture<Long> last = null;
+        for (int i = 0; i < 500; i++) {
+            last = journal.append(
+                new JournalRecord.Vote("room1", "u", "tt" + i, true)
+            );
+        }
+        last.get();
+        journal.close();
+
+        List<JournalEntry> read = new ArrayList<>();
+        open().recover(read::add);
+
+        // Then
+        assertThat(files("segment-")).hasSizeGreaterThan(1);
+        assertThat(read).hasSize(500);
+        assertThat(read.get(499).seq()).isEqualTo(500);
+    }
+
+    @Test
+    @DisplayName("Снапшот заменяет покрытые сегменты, хвост читается после него")
+    void shouldReplaySnapshotAndTail() throws Exception {
+        // Given
+        SegmentedJournal journal = open();
+        journal.recover(entry -> {});
+        journal.start();
+        CompletableFuture<Long> last = null;
+        for (int i = 0; i < 500; i++) {
+            last = journal.append(
+                new JournalRecord.Vote("room1", "u", "tt" + i, true)
+            );
+        }
+        long covered = last.get();
+        int segmentsBefore = journal.segments();
+
+        // When
+        journal.snapshot(
+            covered,
+            List.of(
+                new JournalEntry(
+                    covered,
+                    0,
+                    new JournalRecord.Join("room1", "u")
+                )
+            )
+        );
+        journal
+            .append(new JournalRecord.Vote("room1", "u", "tail", false))
+            .get();
+        journal.close();
+
+        List<JournalEntry> read = new ArrayList<>();
+        long lastSequence = open().recover(read::add);
+
+        // Then
+        assertThat(journal.segments()).isLessThan(segmentsBefore);
+        assertThat(files("snapshot-")).hasSize(1);
+        assertThat(lastSequence).isEqualTo(501);
+        assertThat(read)
+            .extracting(JournalEntry::record)
+            .containsExactly(
+                new JournalRecord.Join("room1", "u"),
+                new JournalRecord.Vote("room1", "u", "tail", false)
+            );
+    }
+
+    @Test
+    @DisplayName("Запись больше сегмента отклоняется без номера, соседи пишутся")
+    void shouldRejectOversizedRecordBeforeSequence() throws Exception {
+        // Given
+        SegmentedJournal journal = open();
+        journal.recover(entry -> {});
+        journal.start();
+        List<String> crowd = IntStream.range(0, 1000)
+            .mapToObj(i -> "participant-" + i)
+            .toList();
+
+        // When
+        CompletableFuture<Long> before = journal.append(
+            new JournalRecord.Join("room1", "a")
+        );
+        CompletableFuture<Long> oversized = journal.append(
+            new JournalRecord.StartVoting("room1", crowd)
+        );
+        CompletableFuture<Long> after = journal.append(
+            new JournalRecord.Join("room1", "b")
+        );
+        after.get();
+        journal.close();
+
+        List<JournalEntry> read = new ArrayList<>();
+        open().recover(read::add);
+
+        // Then
+        assertThat(oversized).isCompletedExceptionally();
+        assertThat(before.get()).isEqualTo(1L);
+        assertThat(after.get()).isEqualTo(2L);
+        assertThat(read)
+            .extracting(JournalEntry::record)
+            .containsExactly(
+                new JournalRecord.Join("room1", "a"),
+                new JournalRecord.Join("room1", "b")
+            );
+    }
+
+    private SegmentedJournal open() {
+        return new SegmentedJournal(dir, SEGMENT, 64, false);
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> paths = Files.list(dir)) {
+            return paths
+                .filter(path ->
+                    path.getFileName().toString().startsWith(prefix)
+                )
+                .toList();
+        }
+    }
+
+    private static int frameSize(JournalRecord record, long seq) {
+        return 8 + JournalCodec.encode(seq, 0, record).length;
+    }
+}
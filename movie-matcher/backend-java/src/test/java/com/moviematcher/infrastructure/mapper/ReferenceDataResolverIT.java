@@ -0,0 +1,113 @@
+package com.moviematcher.infrastructure.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.moviematcher.entity.Genre;
+import com.moviematcher.entity.Person;
+import com.moviematcher.entity.Studio;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Интеграционные тесты для ReferenceDataResolver
+ *
+ * Недостающие справочники создаются в транзакции вызывающего,
+ * наружу отдаются копии, а не общие экземпляры из кэша
+ */
+@QuarkusTest
+@DisplayName("ReferenceDataResolver Integration Tests")
+class ReferenceDataResolverIT {
+
+    @Inject
+    ReferenceDataResolver referenceData;
+
+    @Test
+    @DisplayName("Созданный жанр сохраняется вместе с транзакцией вызывающего")
+    void shouldCreateMissingGenreInCallerTransaction() {
+        // When
+        Genre genre = QuarkusTransaction.requiringNew().call(() ->
+            referenceData
+                .resolveGenres(Map.of("Resolver genre", "resolver-genre"))
+                .get("Resolver genre")
+        );
+
+        // Then
+        assertThat(genre.id).isNotNull();
+        Genre stored = QuarkusTransaction.requiringNew().call(() ->
+            Genre.findByName("Resolver genre")
+        );
+        assertThat(stored.id).isEqualTo(genre.id);
+        assertThat(stored.slug).isEqualTo("resolver-genre");
+    }
+
+    @Test
+    @DisplayName("Откат транзакции фильма не оставляет созданных справочников")
+    void shouldRollbackCreatedRowsWithCaller() {
+        // When
+        assertThatThrownBy(() ->
+            QuarkusTransaction.requiringNew().run(() -> {
+                referenceData.resolveStudios(List.of("Rolled back studio"));
+                referenceData.resolvePeople(List.of("Rolled back person"));
+                throw new IllegalStateException("movie mapping failed");
+            })
+        ).isInstanceOf(IllegalStateException.class);
+
+        // Then
+        QuarkusTransaction.requiringNew().run(() -> {
+            assertThat(Studio.findByName("Rolled back studio")).isNull();
+            assertThat(Person.count("name", "Rolled back person")).isZero();
+        });
+
+        // И кэш не отдает id откаченной строки
+        Studio studio = QuarkusTransaction.requiringNew().call(() ->
+            referenceData
+                .resolveStudios(List.of("Rolled back studio"))
+                .get("Rolled back studio")
+        );
+        Studio stored = QuarkusTransaction.requiringNew().call(() ->
+            Studio.findByName("Rolled back studio")
+        );
+        assertThat(studio.id).isEqualTo(stored.id);
+    }
+
+    @Test
+    @DisplayName("Каждый вызов получает свою копию с тем же id")
+    void shouldReturnCopiesInsteadOfSharedInstances() {
+        // Given
+        QuarkusTransaction.requiringNew().run(() ->
+            referenceData.resolvePeople(List.of("Shared person"))
+        );
+
+        // When
+        Person first = QuarkusTransaction.requiringNew().call(() ->
+            referenceData.resolvePeople(List.of("Shared person")).get("Shared person")
+        );
+        Person second = QuarkusTransaction.requiringNew().call(() ->
+            referenceData.resolvePeople(List.of("Shared person")).get("Shared person")
+        );
+
+        // Then
+        assertThat(first).isNotSameAs(second);
+        assertThat(first.id).isEqualTo(second.id);
+        assertThat(Person.count("name", "Shared person")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Пустые имена пропускаются")
+    void shouldSkipBlankNames() {
+        // When
+        Map<String, Person> people = QuarkusTransaction.requiringNew().call(() ->
+            referenceData.resolvePeople(Arrays.asList(null, " ", "Named person"))
+        );
+
+        // Then
+        assertThat(people).containsOnlyKeys("Named person");
+    }
+}
@@ -0,0 +1,180 @@
+package com.moviematcher.infrastructure.registry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.moviematcher.domain.model.RoomAggregate;
+import com.moviematcher.domain.strategy.UnanimousVotingStrategy;
+import com.moviematcher.infrastructure.actor.Actor;
+import com.moviematcher.infrastructure.actor.ActorPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Smoke тесты для ShardedRoomRegistry
+ */
+class ShardedRoomRegistryTest {
+
+    private static final long HOUR = Duration.ofHours(1).toNanos();
+    private static final long MINUTE = Duration.ofMinutes(1).toNanos();
+
+    private ActorPool pool;
+    private SimpleMeterRegistry meterRegistry;
+    private ShardedRoomRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ActorPool(1, "test-registry");
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new ShardedRoomRegistry(
+            meterRegistry,
+            4,
+            Duration.ofHours(1),
+            Duration.ofMinutes(10)
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("Комнаты расходятся по shard-ам и находятся по ID")
+    void shouldFindRoomsAcrossShards() {
+        // Given
+        for (int i = 0; i < 100; i++) {
+            register("room" + i);
+        }
+
+        // When
+        boolean found = registry.find("room42").isPresent();
+        boolean missing = registry.find("unknown").isPresent();
+
+        // Then
+        assertThat(found).isTrue();
+        assertThat(missing).isFalse();
+        assertThat(registry.size()).isEqualTo(100);
+        for (int shard = 0; shard < registry.shards(); shard++) {
+            assertThat(registry.snapshot(shard)).isNotEmpty();
+        }
+        assertThat(
+            meterRegistry
+                .get("movie.room.registry.lookups")
+                .tag("result", "miss")
+                .functionCounters()
+        )
+            .extracting(counter -> counter.count())
+            .containsOnly(0.0, 1.0);
+        assertThatThrownBy(() -> register("room1"))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("По сроку простоя снимаются только истекшие комнаты")
+    void shouldExpireOnlyOverdueRooms() {
+        // Given
+        for (int i = 0; i < 20; i++) {
+            register("room" + i);
+        }
+        registry.remove("room3");
+
+        // When
+        List<String> early = expireAll(System.nanoTime() + 5 * MINUTE);
+        List<String> expired = expireAll(System.nanoTime() + 11 * MINUTE);
+
+        // Then - удаленная раньше срока комната не возвращается
+        assertThat(early).isEmpty();
+        assertThat(expired).hasSize(19).doesNotContain("room3");
+        assertThat(registry.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Активность отодвигает простой, но не срок жизни")
+    void shouldExtendIdleDeadlineOnActivity() {
+        // Given - часы теста, простой 10 минут, срок жизни час
+        AtomicLong clock = new AtomicLong();
+        registry = new ShardedRoomRegistry(
+            4,
+            Duration.ofHours(1),
+            Duration.ofMinutes(10),
+            clock::get
+        );
+        register("active");
+        register("idle");
+
+        // When - в "active" что-то происходит каждые 8 минут
+        clock.set(8 * MINUTE);
+        registry.touch("active");
+        List<String> idle = expireAll(11 * MINUTE);
+        List<String> survived = new ArrayList<>();
+        for (long t = 16 * MINUTE; t < HOUR; t += 8 * MINUTE) {
+            clock.set(t);
+            registry.touch("active");
+            survived.addAll(expireAll(t));
+        }
+        List<String> old = expireAll(HOUR);
+
+        // Then
+        assertThat(idle).containsExactly("idle");
+        assertThat(survived).isEmpty();
+        assertThat(old).containsExactly("active");
+    }
+
+    @Test
+    @DisplayName("Комната из журнала сохраняет свой возраст, а удаленная - не ждет в куче")
+    void shouldKeepAgeOfRestoredRoomAndReregisterRemovedId() {
+        // Given - срок жизни час, простой 10 минут
+        AtomicLong clock = new AtomicLong();
+        registry = new ShardedRoomRegistry(
+            4,
+            Duration.ofHours(1),
+            Duration.ofMinutes(10),
+            clock::get
+        );
+        registry.register(
+            "restored",
+            room("restored"),
+            LocalDateTime.now().minusMinutes(55)
+        );
+        register("reused");
+        registry.remove("reused");
+
+        // When - ID занят заново, старая запись кучи к нему не относится
+        clock.set(5 * MINUTE);
+        register("reused");
+        List<String> early = expireAll(6 * MINUTE);
+        List<String> late = expireAll(15 * MINUTE);
+
+        // Then
+        assertThat(early).containsExactly("restored");
+        assertThat(late).containsExactly("reused");
+    }
+
+    private void register(String roomId) {
+        registry.register(roomId, room(roomId), LocalDateTime.now());
+    }
+
+    private List<String> expireAll(long nowNanos) {
+        List<String> expired = new ArrayList<>();
+        for (int shard = 0; shard < registry.shards(); shard++) {
+            expired.addAll(registry.expire(shard, nowNanos));
+        }
+        return expired;
+    }
+
+    private Actor<RoomAggregate> room(String roomId) {
+        return pool.spawn(
+            roomId,
+            RoomAggregate.create(roomId, "host", new UnanimousVotingStrategy())
+        );
+    }
+}
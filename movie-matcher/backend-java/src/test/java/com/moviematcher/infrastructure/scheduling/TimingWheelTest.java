@@ -0,0 +1,101 @@
+package com.moviematcher.infrastructure.scheduling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.moviematcher.infrastructure.scheduling.TimingWheel.Timeout;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Smoke тесты для TimingWheel
+ */
+class TimingWheelTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    @DisplayName("Таймаут срабатывает на первом тике после дедлайна")
+    void shouldExpireAfterDeadline() {
+        // Given
+        TimingWheel<String, String> wheel = wheel(8);
+        wheel.schedule("room", "step", 25 * MS);
+
+        // When
+        List<Timeout<String, String>> early = wheel.advance(20 * MS);
+        List<Timeout<String, String>> due = wheel.advance(30 * MS);
+
+        // Then
+        assertThat(early).isEmpty();
+        assertThat(due).extracting(Timeout::key).containsExactly("room");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Дедлайн дальше одного оборота колеса ждет нужный оборот")
+    void shouldWaitFullRounds() {
+        // Given - 8 ячеек по 10 мс, оборот 80 мс
+        TimingWheel<String, String> wheel = wheel(8);
+        wheel.schedule("room", "step", 250 * MS);
+
+        // When / Then
+        assertThat(wheel.advance(240 * MS)).isEmpty();
+        assertThat(wheel.advance(250 * MS)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Повторный schedule заменяет, cancel отменяет")
+    void shouldRescheduleAndCancel() {
+        // Given
+        TimingWheel<String, String> wheel = wheel(8);
+        wheel.schedule("a", "first", 10 * MS);
+        wheel.schedule("a", "second", 40 * MS);
+        wheel.schedule("b", "step", 10 * MS);
+
+        // When
+        boolean cancelled = wheel.cancel("b");
+        List<Timeout<String, String>> due = wheel.advance(50 * MS);
+
+        // Then
+        assertThat(cancelled).isTrue();
+        assertThat(due).extracting(Timeout::value).containsExactly("second");
+    }
+
+    @Test
+    @DisplayName("50 000 комнат срабатывают ровно по одному разу")
+    void shouldHandleManyRooms() {
+        // Given
+        TimingWheel<String, Integer> wheel = new TimingWheel<>(
+            Duration.ofMillis(10),
+            512,
+            0
+        );
+        int rooms = 50_000;
+        for (int i = 0; i < rooms; i++) {
+            wheel.schedule("room-" + i, i, (i % 1000) * MS);
+        }
+
+        // When
+        Set<String> fired = new HashSet<>();
+        int total = 0;
+        for (long now = 0; now <= 1000 * MS; now += 10 * MS) {
+            for (Timeout<String, Integer> timeout : wheel.advance(now)) {
+                assertThat(timeout.deadlineNanos()).isLessThanOrEqualTo(now);
+                fired.add(timeout.key());
+                total++;
+            }
+        }
+
+        // Then
+        assertThat(total).isEqualTo(rooms);
+        assertThat(fired).hasSize(rooms);
+        assertThat(wheel.size()).isZero();
+    }
+
+    private TimingWheel<String, String> wheel(int size) {
+        return new TimingWheel<>(Duration.ofMillis(10), size, 0);
+    }
+}
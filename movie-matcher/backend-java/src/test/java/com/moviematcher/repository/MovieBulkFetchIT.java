@@ -0,0 +1,210 @@
+package com.moviematcher.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.moviematcher.entity.Country;
+import com.moviematcher.entity.Genre;
+import com.moviematcher.entity.Movie;
+import com.moviematcher.entity.MovieCredit;
+import com.moviematcher.entity.Person;
+import com.moviematcher.model.MovieData;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Интеграционные тесты и микробенчмарк для MovieRepository.findByImdbIds
+ *
+ * Сравнивает построение карточек по одному ID (findByImdbId + ленивые
+ * коллекции) и пакетное (findByImdbIds) на 20, 100 и 1000 фильмах
+ */
+@QuarkusTest
+@DisplayName("MovieRepository bulk fetch Integration Tests")
+class MovieBulkFetchIT {
+
+    private static final Logger log = Logger.getLogger(MovieBulkFetchIT.class);
+
+    private static final int MOVIES = 1000;
+    private static final int GENRES = 8;
+    private static final int COUNTRIES = 5;
+    private static final int PEOPLE = 200;
+    private static final int CREDITS_PER_MOVIE = 6;
+    private static final int RUNS = 5;
+
+    @Inject
+    MovieRepository movieRepository;
+
+    @Inject
+    EntityManager em;
+
+    @BeforeEach
+    @Transactional
+    void seedCatalog() {
+        if (Movie.count("imdbId like ?1", "ttbulk%") > 0) {
+            return;
+        }
+
+        List<Genre> genres = new ArrayList<>();
+        for (int i = 0; i < GENRES; i++) {
+            Genre genre = new Genre();
+            genre.name = "Bulk genre " + i;
+            genre.slug = "bulk-genre-" + i;
+            genre.persist();
+            genres.add(genre);
+        }
+
+        List<Country> countries = new ArrayList<>();
+        for (int i = 0; i < COUNTRIES; i++) {
+            Country country = new Country();
+            country.code = "Q" + i;
+            country.name = "Bulk country " + i;
+            country.persist();
+            countries.add(country);
+        }
+
+        List<Person> people = new ArrayList<>();
+        for (int i = 0; i < PEOPLE; i++) {
+            Person person = new Person();
+            person.name = "Bulk person " + i;
+            person.persist();
+            people.add(person);
+        }
+
+        for (int i = 0; i < MOVIES; i++) {
+            Movie movie = new Movie();
+            movie.imdbId = "ttbulk" + i;
+            movie.title = "Bulk movie " + i;
+            movie.type = "movie";
+            movie.year = 1980 + (i % 40);
+            movie.runtime = 90 + (i % 60);
+            movie.imdbRating = BigDecimal.valueOf(10 + (i % 90), 1);
+
+            movie.genres.add(genres.get(i % GENRES));
+            movie.genres.add(genres.get((i + 3) % GENRES));
+            movie.countries.add(countries.get(i % COUNTRIES));
+            for (int c = 0; c < CREDITS_PER_MOVIE; c++) {
+                MovieCredit credit = new MovieCredit();
+                credit.movie = movie;
+                credit.person = people.get((i * 7 + c) % PEOPLE);
+                credit.roleType = c == 0 ? "director" : "actor";
+                credit.orderIndex = c;
+                movie.credits.add(credit);
+            }
+            movie.persist();
+        }
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Пакетная загрузка сохраняет порядок и пропускает неизвестные ID")
+    void shouldKeepOrderAndSkipUnknownIds() {
+        // Given
+        List<String> imdbIds = List.of("ttbulk5", "tt-missing", "ttbulk1");
+
+        // When
+        Map<String, Movie> movies = movieRepository.findByImdbIds(imdbIds);
+
+        // Then
+        assertThat(movies).containsOnlyKeys("ttbulk5", "ttbulk1");
+        assertThat(movies.keySet()).containsExactly("ttbulk5", "ttbulk1");
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Карточки пакетной загрузки совпадают с загрузкой по одному")
+    void shouldBuildSameCardsAsPerIdLookup() {
+        // Given
+        List<String> imdbIds = ids(100);
+
+        // When
+        List<MovieData> perId = perIdCards(imdbIds);
+        em.clear();
+        List<MovieData> batched = batchedCards(imdbIds);
+
+        // Then
+        assertThat(batched).containsExactlyElementsOf(perId);
+        assertThat(batched).allSatisfy(card -> {
+            assertThat(card.director()).isNotEmpty();
+            assertThat(card.genre()).isNotEmpty();
+        });
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Бенчмарк: по одному ID против findByImdbIds на 20/100/1000")
+    void benchmarkPerIdAgainstBatched() {
+        for (int size : new int[] { 20, 100, 1000 }) {
+            // Given
+            List<String> imdbIds = ids(size);
+            perIdCards(imdbIds); // прогрев
+            em.clear();
+            batchedCards(imdbIds);
+            em.clear();
+
+            // When
+            long[] perIdNanos = new long[RUNS];
+            long[] batchedNanos = new long[RUNS];
+            for (int i = 0; i < RUNS; i++) {
+                long start = System.nanoTime();
+                perIdCards(imdbIds);
+                perIdNanos[i] = System.nanoTime() - start;
+                em.clear();
+
+                start = System.nanoTime();
+                batchedCards(imdbIds);
+                batchedNanos[i] = System.nanoTime() - start;
+                em.clear();
+            }
+
+            // Then
+            long perIdMedian = median(perIdNanos);
+            long batchedMedian = median(batchedNanos);
+            log.infof(
+                "Card resolution for %d ids (median of %d): per-id %d us, batched %d us",
+                size,
+                RUNS,
+                perIdMedian / 1000,
+                batchedMedian / 1000
+            );
+            assertThat(batchedMedian).isPositive();
+        }
+    }
+
+    private List<MovieData> perIdCards(List<String> imdbIds) {
+        return imdbIds
+            .stream()
+            .map(movieRepository::findByImdbId)
+            .map(MovieCardRepository::fromEntity)
+            .toList();
+    }
+
+    private List<MovieData> batchedCards(List<String> imdbIds) {
+        return movieRepository
+            .findByImdbIds(imdbIds)
+            .values()
+            .stream()
+            .map(MovieCardRepository::fromEntity)
+            .toList();
+    }
+
+    private List<String> ids(int size) {
+        return IntStream.range(0, size).mapToObj(i -> "ttbulk" + i).toList();
+    }
+
+    private long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,125 @@
+package com.moviematcher.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.moviematcher.entity.Country;
+import com.moviematcher.entity.Genre;
+import com.moviematcher.entity.Movie;
+import com.moviematcher.entity.MovieCredit;
+import com.moviematcher.entity.Person;
+import com.moviematcher.model.MovieData;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Интеграционные тесты для MovieCardRepository.findCardsByImdbIds
+ * (карточки голосования одним проекционным запросом)
+ */
+@QuarkusTest
+@DisplayName("MovieCardRepository Integration Tests")
+class MovieCardRepositoryIT {
+
+    @Inject
+    MovieCardRepository movieCardRepository;
+
+    @Inject
+    EntityManager em;
+
+    @Test
+    @Transactional
+    @DisplayName("Карточки в порядке запроса, неизвестные ID пропускаются")
+    void shouldKeepOrderAndSkipUnknownIds() {
+        // Given
+        persistMovie("ttcard-a");
+        persistMovie("ttcard-b");
+        em.flush();
+
+        // When
+        Map<String, MovieData> cards = movieCardRepository.findCardsByImdbIds(
+            List.of("ttcard-b", "tt-missing", "ttcard-a")
+        );
+
+        // Then
+        assertThat(cards.keySet()).containsExactly("ttcard-b", "ttcard-a");
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Проекция совпадает с карточкой из сущности")
+    void shouldMatchCardBuiltFromEntity() {
+        // Given
+        Movie movie = persistMovie("ttcard-full");
+        em.flush();
+        MovieData expected = MovieCardRepository.fromEntity(movie);
+        em.clear();
+
+        // When
+        MovieData card = movieCardRepository
+            .findCard("ttcard-full")
+            .orElseThrow();
+
+        // Then
+        assertThat(card).isEqualTo(expected);
+        assertThat(card.director()).isEqualTo("Card director");
+        assertThat(card.actors()).isEqualTo(
+            "Card actor 0, Card actor 1, Card actor 2"
+        );
+    }
+
+    // Режиссер, 4 актера в обратном порядке вставки, страна и два жанра
+    private Movie persistMovie(String imdbId) {
+        Movie movie = new Movie();
+        movie.imdbId = imdbId;
+        movie.title = "Card movie " + imdbId;
+        movie.type = "movie";
+        movie.year = 2001;
+        movie.runtime = 100;
+        movie.imdbRating = new BigDecimal("8.1");
+
+        for (String name : List.of("drama", "comedy")) {
+            Genre genre = new Genre();
+            genre.name = "Card " + name + " " + imdbId;
+            genre.slug = imdbId + "-" + name;
+            genre.persist();
+            movie.genres.add(genre);
+        }
+
+        Country country = new Country();
+        country.code = "Y" + Character.toUpperCase(imdbId.charAt(7));
+        country.name = "Card country " + imdbId;
+        country.persist();
+        movie.countries.add(country);
+
+        movie.credits.add(credit(movie, "Card director", "director", 0));
+        for (int i = 3; i >= 0; i--) {
+            movie.credits.add(credit(movie, "Card actor " + i, "actor", i));
+        }
+        movie.persist();
+        return movie;
+    }
+
+    private static MovieCredit credit(
+        Movie movie,
+        String name,
+        String roleType,
+        int orderIndex
+    ) {
+        Person person = new Person();
+        person.name = name;
+        person.persist();
+
+        MovieCredit credit = new MovieCredit();
+        credit.movie = movie;
+        credit.person = person;
+        credit.roleType = roleType;
+        credit.orderIndex = orderIndex;
+        return credit;
+    }
+}
@@ -0,0 +1,101 @@
+package com.moviematcher.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.moviematcher.repository.MovieRepository.MovieFilterCriteria;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Smoke тесты для MovieCountCache и отпечатка фильтров
+ */
+class MovieCountCacheTest {
+
+    @Test
+    @DisplayName("Сохраненный total возвращается по отпечатку")
+    void shouldReturnCachedTotal() {
+        // Given
+        MovieCountCache cache = new MovieCountCache(Duration.ofMinutes(5), 10);
+
+        // When
+        cache.put("fp", 42, cache.generation());
+
+        // Then
+        assertThat(cache.get("fp")).hasValue(42);
+        assertThat(cache.get("other")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Count, посчитанный до инвалидации, не попадает в кэш")
+    void shouldDropCountFromStaleGeneration() {
+        // Given
+        MovieCountCache cache = new MovieCountCache(Duration.ofMinutes(5), 10);
+        long generation = cache.generation();
+
+        // When
+        cache.invalidateAll();
+        cache.put("fp", 42, generation);
+
+        // Then
+        assertThat(cache.get("fp")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Протухшая запись не возвращается")
+    void shouldExpireEntries() {
+        // Given
+        MovieCountCache cache = new MovieCountCache(Duration.ZERO, 10);
+
+        // When
+        cache.put("fp", 42, cache.generation());
+
+        // Then
+        assertThat(cache.get("fp")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Отпечаток не зависит от порядка значений и пагинации")
+    void shouldNormalizeFingerprint() {
+        // Given
+        MovieFilterCriteria first = new MovieFilterCriteria();
+        first.genreSlugs = List.of("drama", "comedy");
+        first.minImdbRating = new BigDecimal("7.0");
+        first.titleSearch = "Matrix";
+        first.page = 0;
+
+        MovieFilterCriteria second = new MovieFilterCriteria();
+        second.genreSlugs = List.of("comedy", "drama", "comedy");
+        second.minImdbRating = new BigDecimal("7");
+        second.titleSearch = "matrix";
+        second.page = 5;
+        second.countMode = MovieRepository.CountMode.CACHED;
+
+        // When / Then
+        assertThat(first.fingerprint()).isEqualTo(second.fingerprint());
+    }
+
+    @Test
+    @DisplayName("Точные фильтры с разным регистром дают разные отпечатки")
+    void shouldKeepExactFiltersCaseSensitive() {
+        // Given
+        MovieFilterCriteria lower = new MovieFilterCriteria();
+        lower.type = "movie";
+        lower.genreSlugs = List.of("drama");
+
+        MovieFilterCriteria upperType = new MovieFilterCriteria();
+        upperType.type = "Movie";
+        upperType.genreSlugs = List.of("drama");
+
+        MovieFilterCriteria paddedGenre = new MovieFilterCriteria();
+        paddedGenre.type = "movie";
+        paddedGenre.genreSlugs = List.of("drama ");
+
+        // When / Then
+        assertThat(lower.fingerprint())
+            .isNotEqualTo(upperType.fingerprint())
+            .isNotEqualTo(paddedGenre.fingerprint());
+    }
+}
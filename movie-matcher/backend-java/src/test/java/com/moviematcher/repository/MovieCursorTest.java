@@ -0,0 +1,99 @@
+package com.moviematcher.repository;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Smoke тесты для MovieCursor
+ *
+ * Проверяют:
+ * - Кодирование и декодирование токена
+ * - Привязку токена к сортировке
+ * - Отказ на поврежденных токенах
+ */
+@DisplayName("MovieCursor Smoke Tests")
+class MovieCursorTest {
+
+    @Test
+    @DisplayName("Должен восстановить курсор после кодирования")
+    void shouldRoundTrip() {
+        // Given
+        MovieCursor cursor = new MovieCursor("rating", false, "8.5", "120345", 42L);
+
+        // When
+        MovieCursor decoded = MovieCursor.decode(cursor.encode());
+
+        // Then
+        assertThat(decoded).isEqualTo(cursor);
+    }
+
+    @Test
+    @DisplayName("Должен сохранить название с разделителями и кириллицей")
+    void shouldKeepTitleWithSpecialCharacters() {
+        // Given
+        MovieCursor cursor = new MovieCursor(
+            "title",
+            true,
+            "Кин-дза-дза! | 100% ~",
+            null,
+            7L
+        );
+
+        // When
+        MovieCursor decoded = MovieCursor.decode(cursor.encode());
+
+        // Then
+        assertThat(decoded.primaryKey()).isEqualTo("Кин-дза-дза! | 100% ~");
+        assertThat(decoded.secondaryKey()).isNull();
+    }
+
+    @Test
+    @DisplayName("Должен отличать пустую строку от null")
+    void shouldDistinguishEmptyFromNull() {
+        // Given
+        MovieCursor cursor = new MovieCursor("title", true, "", null, 1L);
+
+        // When
+        MovieCursor decoded = MovieCursor.decode(cursor.encode());
+
+        // Then
+        assertThat(decoded.primaryKey()).isEmpty();
+        assertThat(decoded.secondaryKey()).isNull();
+    }
+
+    @Test
+    @DisplayName("Должен быть URL-safe")
+    void shouldBeUrlSafe() {
+        // Given
+        MovieCursor cursor = new MovieCursor("title", true, "a/b+c=d?", null, 1L);
+
+        // When
+        String token = cursor.encode();
+
+        // Then
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    @DisplayName("Должен проверять соответствие сортировке")
+    void shouldMatchOnlySameSort() {
+        // Given
+        MovieCursor cursor = new MovieCursor("year", false, "2010", null, 5L);
+
+        // Then
+        assertThat(cursor.matches("year", false)).isTrue();
+        assertThat(cursor.matches("year", true)).isFalse();
+        assertThat(cursor.matches("title", false)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Должен отклонить поврежденный токен")
+    void shouldRejectGarbage() {
+        assertThatThrownBy(() -> MovieCursor.decode("not-a-cursor"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MovieCursor.decode(""))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
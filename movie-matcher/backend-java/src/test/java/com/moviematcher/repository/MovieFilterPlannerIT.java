@@ -0,0 +1,244 @@
+package com.moviematcher.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.moviematcher.entity.Keyword;
+import com.moviematcher.entity.Movie;
+import com.moviematcher.entity.MovieCredit;
+import com.moviematcher.entity.Person;
+import com.moviematcher.repository.MovieRepository.MatchMode;
+import com.moviematcher.repository.MovieRepository.MovieFilterCriteria;
+import com.moviematcher.repository.MovieRepository.MovieSearchResult;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Интеграционные тесты и бенчмарк для EXISTS-планировщика фильтров
+ *
+ * Каталог с большим fan-out: у каждого фильма много актеров и ключевых слов,
+ * поэтому старый вариант (JOIN + DISTINCT) размножает строки, а EXISTS - нет
+ */
+@QuarkusTest
+@DisplayName("MovieRepository filter planner Integration Tests")
+class MovieFilterPlannerIT {
+
+    private static final Logger log = Logger.getLogger(
+        MovieFilterPlannerIT.class
+    );
+
+    private static final int MOVIES = 400;
+    private static final int KEYWORDS = 60;
+    private static final int KEYWORDS_PER_MOVIE = 25;
+    private static final int PEOPLE = 300;
+    private static final int CREDITS_PER_MOVIE = 40;
+    private static final int RUNS = 15;
+
+    private static final List<String> REQUESTED_KEYWORDS = List.of(
+        "kw-1",
+        "kw-2",
+        "kw-3",
+        "kw-4",
+        "kw-5",
+        "kw-6",
+        "kw-7",
+        "kw-8"
+    );
+
+    @Inject
+    MovieRepository movieRepository;
+
+    @Inject
+    EntityManager em;
+
+    @BeforeEach
+    @Transactional
+    void seedCatalog() {
+        if (Movie.count("imdbId like ?1", "ttplan%") > 0) {
+            return;
+        }
+
+        List<Keyword> keywords = new ArrayList<>();
+        for (int i = 0; i < KEYWORDS; i++) {
+            Keyword keyword = new Keyword();
+            keyword.name = "Keyword " + i;
+            keyword.slug = "kw-" + i;
+            keyword.persist();
+            keywords.add(keyword);
+        }
+
+        List<Person> people = new ArrayList<>();
+        for (int i = 0; i < PEOPLE; i++) {
+            Person person = new Person();
+            person.name = "Actor " + i;
+            person.persist();
+            people.add(person);
+        }
+
+        for (int i = 0; i < MOVIES; i++) {
+            Movie movie = new Movie();
+            movie.imdbId = "ttplan" + i;
+            movie.title = "Planner movie " + i;
+            movie.type = "movie";
+            movie.year = 1980 + (i % 40);
+            movie.imdbRating = BigDecimal.valueOf(10 + (i % 90), 1);
+            movie.imdbVotes = 1000 + i;
+
+            for (int k = 0; k < KEYWORDS_PER_MOVIE; k++) {
+                movie.keywords.add(keywords.get((i + k * 7) % KEYWORDS));
+            }
+            for (int c = 0; c < CREDITS_PER_MOVIE; c++) {
+                MovieCredit credit = new MovieCredit();
+                credit.movie = movie;
+                credit.person = people.get((i * 3 + c * 11) % PEOPLE);
+                credit.roleType = "actor";
+                credit.orderIndex = c;
+                movie.credits.add(credit);
+            }
+            movie.persist();
+        }
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("EXISTS-фильтр возвращает ту же страницу, что JOIN + DISTINCT")
+    void shouldMatchLegacyJoinResults() {
+        // Given
+        MovieFilterCriteria criteria = fanOutCriteria();
+
+        // When
+        MovieSearchResult result = movieRepository.findByFilters(criteria);
+        List<Long> legacyIds = legacyJoinQuery(criteria.pageSize);
+
+        // Then
+        assertThat(result.movies)
+            .extracting(m -> m.id)
+            .containsExactlyElementsOf(legacyIds);
+        assertThat(result.total).isEqualTo(legacyJoinCount());
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("ALL требует все значения, ANY - хотя бы одно")
+    void shouldApplyAllAndAnySemantics() {
+        // Given
+        MovieFilterCriteria any = MovieFilterCriteria.builder()
+            .withKeywords(List.of("kw-0", "kw-7"), MatchMode.ANY)
+            .withPage(0, 500);
+        MovieFilterCriteria all = MovieFilterCriteria.builder()
+            .withKeywords(List.of("kw-0", "kw-7"), MatchMode.ALL)
+            .withPage(0, 500);
+
+        // When
+        MovieSearchResult anyResult = movieRepository.findByFilters(any);
+        MovieSearchResult allResult = movieRepository.findByFilters(all);
+
+        // Then
+        assertThat(allResult.total).isPositive();
+        assertThat(allResult.total).isLessThan(anyResult.total);
+        assertThat(allResult.movies).allSatisfy(movie ->
+            assertThat(movie.keywords)
+                .extracting(k -> k.slug)
+                .contains("kw-0", "kw-7")
+        );
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Бенчмарк: EXISTS против JOIN + DISTINCT на fan-out каталоге")
+    void benchmarkExistsAgainstJoins() {
+        // Given
+        MovieFilterCriteria criteria = fanOutCriteria();
+        // прогрев
+        movieRepository.findByFilters(criteria);
+        legacyJoinQuery(criteria.pageSize);
+
+        // When
+        long[] existsNanos = new long[RUNS];
+        long[] joinNanos = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            movieRepository.findByFilters(criteria);
+            existsNanos[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            legacyJoinQuery(criteria.pageSize);
+            legacyJoinCount();
+            joinNanos[i] = System.nanoTime() - start;
+        }
+
+        // Then
+        long existsMedian = median(existsNanos);
+        long joinMedian = median(joinNanos);
+        log.infof(
+            "Filter planner (page + count, median of %d): EXISTS %d us, JOIN+DISTINCT %d us",
+            RUNS,
+            existsMedian / 1000,
+            joinMedian / 1000
+        );
+        assertThat(existsMedian).isPositive();
+    }
+
+    private MovieFilterCriteria fanOutCriteria() {
+        MovieFilterCriteria criteria = MovieFilterCriteria.builder()
+            .withKeywords(REQUESTED_KEYWORDS, MatchMode.ANY)
+            .withPage(0, 20);
+        criteria.actorName = "actor 1";
+        return criteria;
+    }
+
+    /**
+     * Прежняя форма запроса: INNER JOIN по каждому измерению + DISTINCT
+     */
+    private List<Long> legacyJoinQuery(int limit) {
+        return em
+            .createQuery(
+                """
+                SELECT DISTINCT m.id, m.imdbRating, m.imdbVotes FROM Movie m
+                JOIN m.keywords k JOIN m.credits c JOIN c.person p
+                WHERE k.slug IN :keywords AND c.roleType = 'actor'
+                  AND lower(p.name) LIKE :actor AND m.imdbRating IS NOT NULL
+                ORDER BY m.imdbRating DESC, m.imdbVotes DESC, m.id DESC
+                """,
+                Object[].class
+            )
+            .setParameter("keywords", REQUESTED_KEYWORDS)
+            .setParameter("actor", "%actor 1%")
+            .setMaxResults(limit)
+            .getResultList()
+            .stream()
+            .map(row -> (Long) row[0])
+            .toList();
+    }
+
+    private long legacyJoinCount() {
+        return em
+            .createQuery(
+                """
+                SELECT count(DISTINCT m) FROM Movie m
+                JOIN m.keywords k JOIN m.credits c JOIN c.person p
+                WHERE k.slug IN :keywords AND c.roleType = 'actor'
+                  AND lower(p.name) LIKE :actor AND m.imdbRating IS NOT NULL
+                """,
+                Long.class
+            )
+            .setParameter("keywords", REQUESTED_KEYWORDS)
+            .setParameter("actor", "%actor 1%")
+            .getSingleResult();
+    }
+
+    private long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,70 @@
+package com.moviematcher.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.moviematcher.entity.Genre;
+import com.moviematcher.entity.Movie;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Интеграционные тесты для MovieRepository.insertIfAbsent
+ * (пакетное сохранение результатов TMDB discover)
+ */
+@QuarkusTest
+@DisplayName("MovieRepository insertIfAbsent Integration Tests")
+class MovieInsertIfAbsentIT {
+
+    @Inject
+    MovieRepository movieRepository;
+
+    @Test
+    @Transactional
+    @DisplayName("Вставляет только новые фильмы и связывает их с жанрами")
+    void shouldInsertOnlyNewMoviesWithGenres() {
+        // Given
+        Genre genre = new Genre();
+        genre.name = "Discover genre";
+        genre.slug = "discover-genre";
+        genre.persist();
+
+        Movie existing = movie("ttdisc-existing", genre);
+        existing.persist();
+
+        // When
+        Map<String, Long> inserted = movieRepository.insertIfAbsent(
+            List.of(
+                movie("ttdisc-existing", genre),
+                movie("ttdisc-new", genre),
+                movie("ttdisc-new", genre)
+            )
+        );
+
+        // Then
+        assertThat(inserted).containsOnlyKeys("ttdisc-new");
+        Movie created = movieRepository
+            .findByImdbIds(List.of("ttdisc-new"))
+            .get("ttdisc-new");
+        assertThat(created.randomKey).isNotNull();
+        assertThat(created.genres).extracting(g -> g.slug).containsExactly(
+            "discover-genre"
+        );
+    }
+
+    private Movie movie(String imdbId, Genre genre) {
+        Movie movie = new Movie();
+        movie.imdbId = imdbId;
+        movie.title = "Discovered " + imdbId;
+        movie.type = "movie";
+        movie.year = 2020;
+        movie.imdbRating = new BigDecimal("7.5");
+        movie.genres.add(genre);
+        return movie;
+    }
+}
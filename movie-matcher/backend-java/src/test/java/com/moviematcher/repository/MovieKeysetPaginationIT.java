@@ -0,0 +1,118 @@
+package com.moviematcher.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.moviematcher.entity.Movie;
+import com.moviematcher.repository.MovieRepository.CountMode;
+import com.moviematcher.repository.MovieRepository.MovieFilterCriteria;
+import com.moviematcher.repository.MovieRepository.MovieSearchResult;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Интеграционные тесты для keyset-режима MovieRepository.findByFilters
+ *
+ * Много равных рейтингов и голосов, часть фильмов без рейтинга:
+ * обход всех страниц должен дать ровно то же, что один запрос
+ * без пагинации - без повторов и пропусков
+ */
+@QuarkusTest
+@DisplayName("MovieRepository keyset pagination Integration Tests")
+class MovieKeysetPaginationIT {
+
+    private static final String TITLE = "Keyset walk";
+    private static final int MOVIES = 57;
+    private static final int PAGE_SIZE = 7;
+
+    @Inject
+    MovieRepository movieRepository;
+
+    @BeforeEach
+    @Transactional
+    void seedMovies() {
+        if (Movie.count("imdbId like ?1", "ttkeyset%") > 0) {
+            return;
+        }
+
+        for (int i = 0; i < MOVIES; i++) {
+            Movie movie = new Movie();
+            movie.imdbId = "ttkeyset" + i;
+            movie.title = TITLE + " " + (i % 5);
+            movie.type = "movie";
+            // Каждый девятый без рейтинга, у остальных 4 значения и 3 - голосов
+            movie.imdbRating = i % 9 == 0
+                ? null
+                : new BigDecimal("6.0").add(BigDecimal.valueOf(i % 4, 1));
+            movie.imdbVotes = i % 11 == 0 ? null : 1000 * (i % 3);
+            movie.year = i % 13 == 0 ? null : 2000 + i % 6;
+            movie.persist();
+        }
+    }
+
+    @Test
+    @DisplayName("Рейтинг по убыванию: страницы без повторов и пропусков")
+    void shouldWalkRatingDescending() {
+        assertWalkMatchesSingleQuery("rating", false);
+    }
+
+    @Test
+    @DisplayName("Рейтинг по возрастанию: страницы без повторов и пропусков")
+    void shouldWalkRatingAscending() {
+        assertWalkMatchesSingleQuery("rating", true);
+    }
+
+    @Test
+    @DisplayName("Год и название: страницы без повторов и пропусков")
+    void shouldWalkYearAndTitle() {
+        assertWalkMatchesSingleQuery("year", true);
+        assertWalkMatchesSingleQuery("year", false);
+        assertWalkMatchesSingleQuery("title", true);
+        assertWalkMatchesSingleQuery("popularity", false);
+    }
+
+    private void assertWalkMatchesSingleQuery(String sortBy, boolean ascending) {
+        // Given - весь результат одной страницей
+        List<Long> expected = ids(
+            movieRepository.findByFilters(
+                criteria(sortBy, ascending).withCursor(null, MOVIES + 1)
+            )
+        );
+
+        // When
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MovieSearchResult page = movieRepository.findByFilters(
+                criteria(sortBy, ascending).withCursor(cursor, PAGE_SIZE)
+            );
+            walked.addAll(ids(page));
+            cursor = page.nextCursor;
+            pages++;
+        } while (cursor != null && pages <= MOVIES);
+
+        // Then
+        assertThat(expected).isNotEmpty();
+        assertThat(walked)
+            .doesNotHaveDuplicates()
+            .containsExactlyElementsOf(expected);
+    }
+
+    private static MovieFilterCriteria criteria(String sortBy, boolean ascending) {
+        return MovieFilterCriteria.builder()
+            .withTitleSearch(TITLE)
+            .withSorting(sortBy, ascending)
+            .withCountMode(CountMode.HAS_NEXT);
+    }
+
+    private static List<Long> ids(MovieSearchResult result) {
+        return result.movies.stream().map(movie -> movie.id).toList();
+    }
+}
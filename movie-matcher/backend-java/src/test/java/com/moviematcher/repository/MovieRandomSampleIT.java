@@ -0,0 +1,127 @@
+package com.moviematcher.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.moviematcher.entity.Genre;
+import com.moviematcher.entity.Movie;
+import com.moviematcher.repository.MovieRepository.RandomKeyCursor;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Интеграционные тесты для MovieRepository.findRandomByFilters
+ * (seek по random_key вместо OFFSET)
+ */
+@QuarkusTest
+@DisplayName("MovieRepository random sampling Integration Tests")
+class MovieRandomSampleIT {
+
+    private static final String GENRE = "Seek sample genre";
+    private static final int MOVIES = 23;
+    private static final int PAGE_SIZE = 5;
+    private static final long SEED = 42L;
+
+    @Inject
+    MovieRepository movieRepository;
+
+    @Test
+    @Transactional
+    @DisplayName("Страницы seek-ом обходят окружность целиком без повторов")
+    void shouldCoverCircleWithoutRepeats() {
+        // Given
+        persistMovies();
+
+        // When
+        List<String> seen = new ArrayList<>();
+        RandomKeyCursor after = null;
+        List<Movie> page;
+        do {
+            page = movieRepository.findRandomByFilters(
+                GENRE,
+                null,
+                null,
+                null,
+                "movie",
+                SEED,
+                after,
+                PAGE_SIZE
+            );
+            page.forEach(movie -> seen.add(movie.imdbId));
+            if (!page.isEmpty()) {
+                after = RandomKeyCursor.of(page.get(page.size() - 1));
+            }
+        } while (page.size() == PAGE_SIZE);
+
+        // Then
+        assertThat(seen).hasSize(MOVIES).doesNotHaveDuplicates();
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Номер страницы дает ту же страницу, что и seek с позиции")
+    void shouldMatchPageNumberWithSeek() {
+        // Given
+        persistMovies();
+        List<Movie> first = page(0);
+
+        // When
+        List<Movie> second = page(1);
+        List<Movie> seek = movieRepository.findRandomByFilters(
+            GENRE,
+            null,
+            null,
+            null,
+            "movie",
+            SEED,
+            RandomKeyCursor.of(first.get(first.size() - 1)),
+            PAGE_SIZE
+        );
+
+        // Then
+        assertThat(second)
+            .extracting(movie -> movie.imdbId)
+            .containsExactlyElementsOf(
+                seek.stream().map(movie -> movie.imdbId).toList()
+            );
+        assertThat(page(MOVIES / PAGE_SIZE)).hasSize(MOVIES % PAGE_SIZE);
+        assertThat(page(MOVIES / PAGE_SIZE + 1)).isEmpty();
+    }
+
+    private List<Movie> page(int page) {
+        return movieRepository.findRandomByFilters(
+            GENRE,
+            null,
+            null,
+            null,
+            "movie",
+            SEED,
+            page,
+            PAGE_SIZE
+        );
+    }
+
+    private void persistMovies() {
+        Genre genre = new Genre();
+        genre.name = GENRE;
+        genre.slug = "seek-sample-genre";
+        genre.persist();
+
+        for (int i = 0; i < MOVIES; i++) {
+            Movie movie = new Movie();
+            movie.imdbId = "ttseek" + i;
+            movie.title = "Seek sample " + i;
+            movie.type = "movie";
+            movie.year = 2020;
+            movie.imdbRating = new BigDecimal("7.0");
+            movie.genres.add(genre);
+            movie.persist();
+        }
+        movieRepository.flush();
+    }
+}
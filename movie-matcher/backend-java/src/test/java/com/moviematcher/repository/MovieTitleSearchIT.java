@@ -0,0 +1,96 @@
+package com.moviematcher.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.moviematcher.entity.Movie;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Интеграционные тесты для MovieRepository.quickSearchByTitle
+ *
+ * Поиск идет по триграммам (pg_trgm): находит названия с опечатками
+ * и ранжирует по похожести раньше, чем по числу голосов
+ */
+@QuarkusTest
+@DisplayName("MovieRepository title search Integration Tests")
+class MovieTitleSearchIT {
+
+    @Inject
+    MovieRepository movieRepository;
+
+    @BeforeEach
+    @Transactional
+    void seedMovies() {
+        if (Movie.count("imdbId like ?1", "tttrgm%") > 0) {
+            return;
+        }
+
+        // У более длинного названия больше голосов: ранжировать
+        // должна похожесть, а не популярность
+        persist("tttrgm1", "Zanzibar Lighthouse", 1_000);
+        persist("tttrgm2", "Zanzibar Lighthouse Keeper Chronicles", 900_000);
+        persist("tttrgm3", "Quokka Parliament", 5_000);
+    }
+
+    @Test
+    @DisplayName("Название с опечатками находится по триграммам")
+    void shouldMatchMisspelledTitle() {
+        // When
+        List<Movie> results = movieRepository.quickSearchByTitle(
+            "Qoukka Parlament",
+            5
+        );
+
+        // Then
+        assertThat(results)
+            .extracting(movie -> movie.imdbId)
+            .first()
+            .isEqualTo("tttrgm3");
+    }
+
+    @Test
+    @DisplayName("Более похожее название идет первым, несмотря на голоса")
+    void shouldRankBySimilarityBeforeVotes() {
+        // When
+        List<Movie> results = movieRepository.quickSearchByTitle(
+            "zanzibar lighthous",
+            5
+        );
+
+        // Then
+        assertThat(results)
+            .extracting(movie -> movie.imdbId)
+            .startsWith("tttrgm1", "tttrgm2")
+            .doesNotContain("tttrgm3");
+    }
+
+    @Test
+    @DisplayName("Точное совпадение идет первым")
+    void shouldRankExactMatchFirst() {
+        // When
+        List<Movie> results = movieRepository.quickSearchByTitle(
+            "ZANZIBAR LIGHTHOUSE",
+            1
+        );
+
+        // Then
+        assertThat(results)
+            .extracting(movie -> movie.imdbId)
+            .containsExactly("tttrgm1");
+    }
+
+    private static void persist(String imdbId, String title, int votes) {
+        Movie movie = new Movie();
+        movie.imdbId = imdbId;
+        movie.title = title;
+        movie.type = "movie";
+        movie.imdbVotes = votes;
+        movie.persist();
+    }
+}
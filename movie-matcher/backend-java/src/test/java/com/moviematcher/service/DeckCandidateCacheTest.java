@@ -0,0 +1,260 @@
+package com.moviematcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.moviematcher.domain.model.MovieFilters;
+import com.moviematcher.entity.Genre;
+import com.moviematcher.entity.Movie;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Smoke тесты для DeckCandidateCache
+ */
+class DeckCandidateCacheTest {
+
+    private SimpleMeterRegistry registry;
+    private DeckCandidateCache cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new DeckCandidateCache(
+            null,
+            registry,
+            Duration.ofMinutes(10),
+            100
+        );
+    }
+
+    @Test
+    @DisplayName("Одинаковые по смыслу фильтры дают один отпечаток")
+    void shouldNormalizeSignature() {
+        // Given
+        MovieFilters a = comedies(new BigDecimal("7.0"));
+        MovieFilters b = MovieFilters.builder()
+            .genre("Комедия")
+            .yearFrom(2010)
+            .yearTo(2024)
+            .minRating(new BigDecimal("7"))
+            .build();
+
+        // When / Then
+        assertThat(DeckCandidateCache.signature(a)).isEqualTo(
+            DeckCandidateCache.signature(b)
+        );
+    }
+
+    @Test
+    @DisplayName("Тип и пробелы жанра в отпечатке не нормализуются - как в запросе")
+    void shouldKeepTypeAndGenrePaddingExact() {
+        // Given
+        MovieFilters movie = MovieFilters.builder().type("movie").build();
+        MovieFilters upper = MovieFilters.builder().type("Movie").build();
+        MovieFilters padded = MovieFilters.builder().genre(" комедия ").build();
+
+        // When / Then
+        assertThat(DeckCandidateCache.signature(movie)).isNotEqualTo(
+            DeckCandidateCache.signature(upper)
+        );
+        assertThat(DeckCandidateCache.signature(padded)).isNotEqualTo(
+            DeckCandidateCache.signature(comedyGenre())
+        );
+    }
+
+    @Test
+    @DisplayName("Вторая комната с теми же фильтрами не загружает кандидатов")
+    void shouldShareCandidatesAcrossRooms() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        List<String> ids = ids(50);
+
+        // When
+        cache.candidates(comedies(null), () -> {
+            loads.incrementAndGet();
+            return ids;
+        });
+        List<String> second = cache.candidates(comedies(null), () -> {
+            loads.incrementAndGet();
+            return ids;
+        });
+
+        // Then
+        assertThat(loads).hasValue(1);
+        assertThat(second).containsExactlyElementsOf(ids);
+        assertThat(
+            registry
+                .get("movie.deck.candidate-cache")
+                .tag("result", "hit")
+                .counter()
+                .count()
+        ).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Страницы одного seed не пересекаются, разные seed - разный порядок")
+    void shouldDrawSeededViews() {
+        // Given
+        List<String> ids = ids(100);
+
+        // When
+        List<String> page1 = DeckCandidateCache.view(ids, id -> id, 42, null, 20);
+        List<String> page2 = DeckCandidateCache.view(
+            ids,
+            id -> id,
+            42,
+            page1.get(19),
+            20
+        );
+        List<String> other = DeckCandidateCache.view(ids, id -> id, 7, null, 20);
+
+        // Then
+        assertThat(page1).hasSize(20).doesNotContainAnyElementsOf(page2);
+        assertThat(page2).hasSize(20);
+        assertThat(
+            DeckCandidateCache.view(ids, id -> id, 42, null, 20)
+        ).isEqualTo(page1);
+        assertThat(other).isNotEqualTo(page1);
+    }
+
+    @Test
+    @DisplayName("Обход страницами дает весь пул ровно один раз")
+    void shouldWalkWholePoolWithoutRepeats() {
+        // Given
+        List<String> ids = ids(95);
+
+        // When
+        List<String> walked = walk(ids, 42, 20);
+
+        // Then
+        assertThat(walked).hasSize(95).containsExactlyInAnyOrderElementsOf(ids);
+    }
+
+    @Test
+    @DisplayName("Дописанный в пул фильм не сдвигает границы страниц")
+    void shouldNotRepeatOrSkipWhenPoolGrowsBetweenPages() {
+        // Given
+        List<String> ids = ids(100);
+        List<String> page1 = DeckCandidateCache.view(ids, id -> id, 42, null, 20);
+
+        // When - между страницами в пул дописаны новые фильмы
+        List<String> grown = new ArrayList<>(ids);
+        IntStream.range(0, 30).forEach(i -> grown.add("tt-new" + i));
+        List<String> rest = new ArrayList<>();
+        String after = page1.get(19);
+        List<String> page;
+        while (
+            !(page = DeckCandidateCache.view(grown, id -> id, 42, after, 20))
+                .isEmpty()
+        ) {
+            rest.addAll(page);
+            after = page.get(page.size() - 1);
+        }
+
+        // Then - старые фильмы ровно по разу
+        assertThat(rest)
+            .doesNotContainAnyElementsOf(page1)
+            .doesNotHaveDuplicates();
+        List<String> seen = new ArrayList<>(page1);
+        seen.addAll(rest);
+        assertThat(seen).containsAll(ids);
+    }
+
+    @Test
+    @DisplayName("Новый подходящий фильм дописывается в запись")
+    void shouldExtendMatchingEntryWithNewMovie() {
+        // Given
+        cache.candidates(comedies(null), () -> ids(3));
+        cache.candidates(MovieFilters.builder().genre("drama").build(), () ->
+            ids(3)
+        );
+
+        // When
+        cache.apply(movie("tt-new", "Комедия", 2015));
+        cache.apply(movie("tt-old", "Комедия", 1999));
+
+        // Then
+        assertThat(cache.candidates(comedies(null), List::of)).contains(
+            "tt-new"
+        );
+        assertThat(
+            cache.candidates(MovieFilters.builder().genre("drama").build(), () ->
+                List.of()
+            )
+        ).doesNotContain("tt-new");
+        assertThat(cache.candidates(comedies(null), List::of)).doesNotContain(
+            "tt-old"
+        );
+    }
+
+    @Test
+    @DisplayName("Запись сбрасывается, только когда ее фильм перестал подходить")
+    void shouldDropPoolWhenMemberStopsMatching() {
+        // Given
+        cache.candidates(comedyGenre(), () -> ids(3));
+
+        // When
+        cache.apply(movie("tt1", "Комедия", 2015));
+
+        // Then
+        assertThat(cache.size()).isEqualTo(1);
+
+        // When
+        cache.apply(movie("tt1", "Драма", 2015));
+
+        // Then
+        assertThat(cache.size()).isZero();
+    }
+
+    private List<String> walk(List<String> ids, long seed, int pageSize) {
+        List<String> walked = new ArrayList<>();
+        String after = null;
+        List<String> page;
+        while (
+            !(page = DeckCandidateCache.view(ids, id -> id, seed, after, pageSize))
+                .isEmpty()
+        ) {
+            walked.addAll(page);
+            after = page.get(page.size() - 1);
+        }
+        return walked;
+    }
+
+    private MovieFilters comedyGenre() {
+        return MovieFilters.builder().genre("комедия").build();
+    }
+
+    private MovieFilters comedies(BigDecimal minRating) {
+        return MovieFilters.builder()
+            .genre("комедия")
+            .yearFrom(2010)
+            .yearTo(2024)
+            .minRating(minRating)
+            .build();
+    }
+
+    private List<String> ids(int count) {
+        return new ArrayList<>(
+            IntStream.range(0, count).mapToObj(i -> "tt" + i).toList()
+        );
+    }
+
+    private Movie movie(String imdbId, String genreName, int year) {
+        Genre genre = new Genre();
+        genre.name = genreName;
+        Movie movie = new Movie();
+        movie.imdbId = imdbId;
+        movie.type = "movie";
+        movie.year = year;
+        movie.genres.add(genre);
+        return movie;
+    }
+}
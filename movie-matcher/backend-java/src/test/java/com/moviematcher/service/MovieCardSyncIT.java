@@ -0,0 +1,99 @@
+package com.moviematcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.moviematcher.entity.Genre;
+import com.moviematcher.entity.Movie;
+import com.moviematcher.entity.MovieCard;
+import com.moviematcher.model.MovieData;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Интеграционные тесты для MovieCardSyncService
+ *
+ * Карточка пересобирается после коммита: и при сохранении Movie,
+ * и когда у сохраненного фильма меняются только связи
+ */
+@QuarkusTest
+@DisplayName("MovieCardSyncService Integration Tests")
+class MovieCardSyncIT {
+
+    @Inject
+    DiscoveredMovieIngestService discoveredMovies;
+
+    @Test
+    @DisplayName("Сохранение фильма пишет его карточку")
+    void shouldWriteCardOnPersist() {
+        // When
+        QuarkusTransaction.requiringNew().run(() ->
+            movie("ttsync-persist").persist()
+        );
+
+        // Then
+        MovieCard card = card("ttsync-persist");
+        assertThat(card).isNotNull();
+        assertThat(card.title).isEqualTo("Sync movie ttsync-persist");
+    }
+
+    @Test
+    @DisplayName("Новые жанры сохраненного фильма попадают в карточку")
+    void shouldRefreshCardOnAssociationOnlyChange() {
+        // Given
+        QuarkusTransaction.requiringNew().run(() ->
+            movie("ttsync-links").persist()
+        );
+        Genre genre = QuarkusTransaction.requiringNew().call(() -> {
+            Genre created = new Genre();
+            created.name = "Sync genre";
+            created.slug = "sync-genre";
+            created.persist();
+            return created;
+        });
+        assertThat(card("ttsync-links").genres).isNullOrEmpty();
+
+        // When
+        Movie discovered = movie("ttsync-links");
+        discovered.genres.add(genre);
+        discoveredMovies.ingest(List.of(discovered));
+
+        // Then
+        assertThat(card("ttsync-links").genres).isEqualTo("Sync genre");
+    }
+
+    @Test
+    @DisplayName("Фильмы discover без imdbId не попадают ни в БД, ни в карточки")
+    void shouldSkipDiscoveredMoviesWithoutImdbId() {
+        // When
+        List<MovieData> cards = discoveredMovies.ingest(
+            List.of(movie(null), movie("ttsync-imdb"))
+        );
+
+        // Then
+        assertThat(cards)
+            .extracting(MovieData::imdbId)
+            .containsExactly("ttsync-imdb");
+        assertThat(card("ttsync-imdb")).isNotNull();
+    }
+
+    private static Movie movie(String imdbId) {
+        Movie movie = new Movie();
+        movie.imdbId = imdbId;
+        movie.title = "Sync movie " + imdbId;
+        movie.type = "movie";
+        movie.year = 2015;
+        movie.imdbRating = new BigDecimal("6.5");
+        return movie;
+    }
+
+    private static MovieCard card(String imdbId) {
+        return QuarkusTransaction.requiringNew().call(() ->
+            MovieCard.<MovieCard>findById(imdbId)
+        );
+    }
+}
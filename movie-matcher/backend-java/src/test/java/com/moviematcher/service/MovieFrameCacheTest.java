@@ -0,0 +1,134 @@
+package com.moviematcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviematcher.model.MovieData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Smoke тесты для MovieFrameCache
+ */
+class MovieFrameCacheTest {
+
+    private SimpleMeterRegistry registry;
+    private AtomicInteger lookups;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        lookups = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Повторный показ отдает готовый кадр без поиска карточки")
+    void shouldServeEncodedFrameOnHit() {
+        // Given
+        MovieFrameCache cache = cache(10);
+        String first = frame(cache, "tt1").orElseThrow();
+
+        // When
+        String second = frame(cache, "tt1").orElseThrow();
+
+        // Then
+        assertThat(second).isSameAs(first).contains("\"NewMovie\"");
+        assertThat(lookups).hasValue(1);
+        assertThat(
+            registry
+                .get("movie.stream.frame-cache.allocations-saved")
+                .counter()
+                .count()
+        ).isEqualTo(1.0);
+        assertThat(cache.hitRatio()).isEqualTo(0.5);
+    }
+
+    @Test
+    @DisplayName("Изменение фильма сбрасывает его кадр")
+    void shouldReencodeAfterInvalidation() {
+        // Given
+        MovieFrameCache cache = cache(10);
+        frame(cache, "tt1");
+
+        // When
+        cache.invalidate("tt1");
+        frame(cache, "tt1");
+
+        // Then
+        assertThat(lookups).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Сброс во время промаха не оставляет в кэше старый кадр")
+    void shouldNotAdmitFrameInvalidatedDuringMiss() {
+        // Given
+        MovieFrameCache cache = cache(10);
+
+        // When - фильм изменился, пока кадр строился из старой карточки
+        cache.newMovieFrame("tt1", () -> {
+            lookups.incrementAndGet();
+            cache.invalidate("tt1");
+            return Optional.of(card("tt1"));
+        });
+        frame(cache, "tt1");
+
+        // Then
+        assertThat(lookups).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Разовый фильм не вытесняет популярные, частый - вытесняет")
+    void shouldAdmitOnlyMoreFrequentMovies() {
+        // Given - кэш на два кадра, оба фильма популярны
+        MovieFrameCache cache = cache(2);
+        for (int i = 0; i < 3; i++) {
+            frame(cache, "popular-1");
+            frame(cache, "popular-2");
+        }
+
+        // When
+        frame(cache, "one-off");
+        for (int i = 0; i < 5; i++) {
+            frame(cache, "rising");
+        }
+
+        // Then
+        assertThat(cache.size()).isEqualTo(2);
+        int before = lookups.get();
+        frame(cache, "rising");
+        frame(cache, "one-off");
+        assertThat(lookups.get() - before).isEqualTo(1);
+    }
+
+    private MovieFrameCache cache(int maxSize) {
+        return new MovieFrameCache(new ObjectMapper(), registry, maxSize);
+    }
+
+    private Optional<String> frame(MovieFrameCache cache, String imdbId) {
+        return cache.newMovieFrame(imdbId, () -> {
+            lookups.incrementAndGet();
+            return Optional.of(card(imdbId));
+        });
+    }
+
+    private MovieData card(String imdbId) {
+        return new MovieData(
+            "Фильм " + imdbId,
+            "2020",
+            null,
+            "120 min",
+            null,
+            null,
+            null,
+            "Описание",
+            null,
+            "Комедия",
+            "7.5",
+            imdbId
+        );
+    }
+}
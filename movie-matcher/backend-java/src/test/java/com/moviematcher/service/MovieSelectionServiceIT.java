@@ -0,0 +1,138 @@
+package com.moviematcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.moviematcher.domain.model.MovieFilters;
+import com.moviematcher.domain.model.RoomAggregate;
+import com.moviematcher.domain.model.StreamPacing;
+import com.moviematcher.domain.strategy.UnanimousVotingStrategy;
+import com.moviematcher.infrastructure.actor.Actor;
+import com.moviematcher.infrastructure.adapter.CatalogMovieDataSource;
+import com.moviematcher.infrastructure.adapter.DatabaseMovieDataSource;
+import com.moviematcher.infrastructure.adapter.TmdbApiDataSource;
+import com.moviematcher.repository.MovieCardRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Интеграционные тесты загрузки колод MovieSelectionService
+ *
+ * Транзакции и карточки настоящие, источники кандидатов - моки:
+ * сбой TMDB не должен терять уже собранную страницу каталога
+ */
+@QuarkusTest
+@DisplayName("MovieSelectionService Integration Tests")
+class MovieSelectionServiceIT {
+
+    private static final String ROOM_ID = "room-tmdb-down";
+
+    @Inject
+    MovieCardRepository movieCardRepository;
+
+    private final DeckCandidateCache candidateCache = mock(
+        DeckCandidateCache.class
+    );
+    private final RoomStreamScheduler scheduler = mock(
+        RoomStreamScheduler.class
+    );
+    private final ExecutorService deckLoader =
+        Executors.newVirtualThreadPerTaskExecutor();
+
+    private MovieSelectionService service;
+
+    @BeforeEach
+    void setUp() {
+        MovieFrameCache frameCache = mock(MovieFrameCache.class);
+        when(frameCache.newMovieFrame(anyString(), any())).thenAnswer(
+            invocation -> Optional.of("frame " + invocation.getArgument(0))
+        );
+        service = new MovieSelectionService(
+            mock(DatabaseMovieDataSource.class),
+            mock(CatalogMovieDataSource.class),
+            mock(TmdbApiDataSource.class),
+            mock(WebSocketBroadcastService.class),
+            frameCache,
+            movieCardRepository,
+            candidateCache,
+            mock(DiscoveredMovieIngestService.class),
+            scheduler,
+            deckLoader,
+            Duration.ofSeconds(5),
+            20,
+            5,
+            new SimpleMeterRegistry(),
+            StreamPacing.Mode.FIXED_RATE,
+            Duration.ofMillis(500),
+            1,
+            StreamPacing.Basis.SLOWEST
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        deckLoader.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Сбой TMDB оставляет страницу каталога и повторяется дозагрузкой")
+    void shouldKeepCatalogPageWhenTmdbFails() {
+        // Given - в каталоге две кандидатуры, TMDB недоступен
+        when(candidateCache.candidates(any(), any())).thenReturn(
+            List.of("ttdown1", "ttdown2")
+        );
+        when(candidateCache.tmdbPage(any(), anyInt(), any())).thenThrow(
+            new IllegalStateException("TMDB is down")
+        );
+        Actor<RoomAggregate> room = votingRoom();
+
+        // When
+        service.startMovieStream(ROOM_ID, room);
+
+        // Then - колода хоста собрана из каталога
+        ArgumentCaptor<Runnable> step = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, timeout(5000)).schedule(
+            eq(ROOM_ID),
+            any(),
+            step.capture()
+        );
+        int queued = room.call(r -> r.getParticipantQueueSize("host"));
+        assertThat(queued).isEqualTo(2);
+
+        // И следующая дозагрузка снова просит ту же страницу TMDB
+        step.getValue().run();
+        verify(candidateCache, timeout(5000).times(2)).tmdbPage(
+            any(),
+            eq(1),
+            any()
+        );
+        verify(candidateCache, times(1)).candidates(any(), any());
+    }
+
+    private static Actor<RoomAggregate> votingRoom() {
+        RoomAggregate aggregate = RoomAggregate.create(
+            ROOM_ID,
+            "host",
+            new UnanimousVotingStrategy()
+        );
+        aggregate.addParticipant("guest");
+        aggregate.setParticipantFilters("host", MovieFilters.noFilter());
+        aggregate.addMovieToParticipant("guest", "ttguest");
+        aggregate.markParticipantReady("host");
+        aggregate.markParticipantReady("guest");
+        aggregate.startVoting();
+        return new RoomDispatcher(1).spawn(aggregate);
+    }
+}
@@ -0,0 +1,321 @@
+package com.moviematcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.moviematcher.domain.model.MovieFilters;
+import com.moviematcher.domain.model.RoomAggregate;
+import com.moviematcher.domain.model.StreamPacing;
+import com.moviematcher.domain.strategy.UnanimousVotingStrategy;
+import com.moviematcher.infrastructure.actor.Actor;
+import com.moviematcher.infrastructure.adapter.CatalogMovieDataSource;
+import com.moviematcher.infrastructure.adapter.DatabaseMovieDataSource;
+import com.moviematcher.infrastructure.adapter.TmdbApiDataSource;
+import com.moviematcher.model.MovieData;
+import com.moviematcher.repository.MovieCardRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Smoke тесты для MovieSelectionService
+ *
+ * Проверяют темп подачи DEMAND на уровне сервиса: шаги стриминга
+ * перехватываются у RoomStreamScheduler и выполняются вручную. Колоды
+ * с фильтрами грузятся на настоящем пуле: долгая или упавшая колода
+ * одного участника не держит остальных
+ */
+@DisplayName("MovieSelectionService Smoke Tests")
+class MovieSelectionServiceTest {
+
+    private static final String ROOM_ID = "room1";
+
+    @Mock
+    private WebSocketBroadcastService broadcastService;
+
+    @Mock
+    private MovieFrameCache frameCache;
+
+    @Mock
+    private RoomStreamScheduler scheduler;
+
+    private MovieSelectionService service;
+    private Actor<RoomAggregate> room;
+    private ExecutorService deckLoader;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(frameCache.newMovieFrame(anyString(), any())).thenAnswer(
+            invocation -> Optional.of("frame " + invocation.getArgument(0))
+        );
+        service = new MovieSelectionService(
+            mock(DatabaseMovieDataSource.class),
+            mock(CatalogMovieDataSource.class),
+            mock(TmdbApiDataSource.class),
+            broadcastService,
+            frameCache,
+            mock(MovieCardRepository.class),
+            mock(DeckCandidateCache.class),
+            mock(DiscoveredMovieIngestService.class),
+            scheduler,
+            mock(ExecutorService.class),
+            Duration.ofSeconds(5),
+            20,
+            5,
+            new SimpleMeterRegistry(),
+            StreamPacing.Mode.DEMAND,
+            Duration.ofMillis(500),
+            1,
+            StreamPacing.Basis.SLOWEST
+        );
+
+        // Участники без фильтров: колоды грузить не нужно,
+        // фильмы - выбранные вручную
+        RoomAggregate aggregate = RoomAggregate.create(
+            ROOM_ID,
+            "host",
+            new UnanimousVotingStrategy()
+        );
+        aggregate.setPacingMode(StreamPacing.Mode.DEMAND);
+        aggregate.addParticipant("guest");
+        aggregate.addMovieToParticipant("host", "tt1");
+        aggregate.addMovieToParticipant("guest", "tt2");
+        aggregate.markParticipantReady("host");
+        aggregate.markParticipantReady("guest");
+        aggregate.startVoting();
+        room = new RoomDispatcher(1).spawn(aggregate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (deckLoader != null) {
+            deckLoader.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Выход самого медленного участника возобновляет DEMAND-подачу")
+    void shouldResumeParkedStreamWhenSlowestParticipantLeaves() {
+        // Given - первый фильм отправлен, lookahead 1 исчерпан
+        service.startMovieStream(ROOM_ID, room);
+        runScheduledStep(1);
+        runScheduledStep(2);
+        verify(broadcastService, times(1)).broadcastFrame(eq(ROOM_ID), any());
+
+        // Голос хоста кредита не дает: гость еще не голосовал
+        service.onVote(ROOM_ID, room, "host", "tt1");
+        verify(scheduler, times(2)).schedule(eq(ROOM_ID), any(), any());
+
+        // When
+        room.execute(r -> r.removeParticipant("guest"));
+        service.onParticipantLeft(ROOM_ID, room);
+
+        // Then
+        runScheduledStep(3);
+        verify(broadcastService, times(2)).broadcastFrame(eq(ROOM_ID), any());
+    }
+
+    @Test
+    @DisplayName("Выход участника без остановленной подачи ничего не планирует")
+    void shouldNotScheduleOnLeaveWhenStreamIsNotParked() {
+        // Given
+        service.startMovieStream(ROOM_ID, room);
+
+        // When
+        room.execute(r -> r.removeParticipant("guest"));
+        service.onParticipantLeft(ROOM_ID, room);
+
+        // Then
+        verify(scheduler, times(1)).schedule(eq(ROOM_ID), any(), any());
+    }
+
+    @Test
+    @DisplayName("Шаг, оставшийся после остановки стрима, ничего не отправляет")
+    void shouldIgnoreStepAfterStreamStopped() {
+        // Given
+        service.startMovieStream(ROOM_ID, room);
+        service.stopStream(ROOM_ID);
+
+        // When
+        runScheduledStep(1);
+
+        // Then
+        verify(broadcastService, never()).broadcastFrame(any(), any());
+        verify(scheduler, times(1)).schedule(eq(ROOM_ID), any(), any());
+    }
+
+    @Test
+    @DisplayName("Долгая колода одного участника не держит подачу остальных")
+    void shouldStreamOtherDecksWhileOneDeckIsSlow() throws Exception {
+        // Given - колода гостя грузится дольше дедлайна
+        CountDownLatch release = new CountDownLatch(1);
+        DeckCandidateCache candidateCache = deckCandidates();
+        when(candidateCache.candidates(argThat(genre("Drama")), any()))
+            .thenAnswer(invocation -> {
+                release.await();
+                return List.of();
+            });
+        when(
+            candidateCache.tmdbPage(argThat(genre("Drama")), anyInt(), any())
+        ).thenReturn(List.of(card("ttlate1"), card("ttlate2")));
+        MovieSelectionService deckService = deckService(
+            candidateCache,
+            Duration.ofSeconds(1)
+        );
+        Actor<RoomAggregate> filtered = filteredRoom();
+
+        // When
+        deckService.startMovieStream(ROOM_ID, filtered);
+
+        // Then - подача стартует по колоде хоста, не дожидаясь гостя
+        verify(scheduler, timeout(500)).schedule(eq(ROOM_ID), any(), any());
+        int hostQueue = filtered.call(r -> r.getParticipantQueueSize("host"));
+        assertThat(hostQueue).isEqualTo(3);
+
+        // Колода, догрузившаяся после дедлайна, уже заменена пустой
+        Thread.sleep(1200);
+        release.countDown();
+        verify(candidateCache, timeout(1000)).tmdbPage(
+            argThat(genre("Drama")),
+            eq(1),
+            any()
+        );
+        Thread.sleep(100);
+        int guestQueue = filtered.call(r -> r.getParticipantQueueSize("guest"));
+        assertThat(guestQueue).isZero();
+        verify(scheduler, times(1)).schedule(eq(ROOM_ID), any(), any());
+    }
+
+    @Test
+    @DisplayName("Сбой колоды одного участника дает ему пустую колоду")
+    void shouldFallBackToEmptyDeckWhenOneDeckFails() {
+        // Given - кандидаты гостя не загружаются
+        DeckCandidateCache candidateCache = deckCandidates();
+        when(candidateCache.candidates(argThat(genre("Drama")), any()))
+            .thenThrow(new IllegalStateException("Catalog is down"));
+        MovieSelectionService deckService = deckService(
+            candidateCache,
+            Duration.ofSeconds(5)
+        );
+        Actor<RoomAggregate> filtered = filteredRoom();
+
+        // When
+        deckService.startMovieStream(ROOM_ID, filtered);
+
+        // Then
+        verify(scheduler, timeout(1000)).schedule(eq(ROOM_ID), any(), any());
+        int hostQueue = filtered.call(r -> r.getParticipantQueueSize("host"));
+        int guestQueue = filtered.call(r -> r.getParticipantQueueSize("guest"));
+        assertThat(hostQueue).isEqualTo(3);
+        assertThat(guestQueue).isZero();
+    }
+
+    // Кандидатов каталога нет, TMDB отдает колоду хоста
+    private DeckCandidateCache deckCandidates() {
+        DeckCandidateCache candidateCache = mock(DeckCandidateCache.class);
+        when(candidateCache.candidates(any(), any())).thenReturn(List.of());
+        when(candidateCache.tmdbPage(any(), anyInt(), any())).thenReturn(
+            List.of()
+        );
+        when(
+            candidateCache.tmdbPage(argThat(genre("Comedy")), eq(1), any())
+        ).thenReturn(List.of(card("tthost1"), card("tthost2"), card("tthost3")));
+        return candidateCache;
+    }
+
+    // Колоды грузятся на настоящем пуле с заданным дедлайном
+    private MovieSelectionService deckService(
+        DeckCandidateCache candidateCache,
+        Duration deckLoadTimeout
+    ) {
+        deckLoader = Executors.newVirtualThreadPerTaskExecutor();
+        return new MovieSelectionService(
+            mock(DatabaseMovieDataSource.class),
+            mock(CatalogMovieDataSource.class),
+            mock(TmdbApiDataSource.class),
+            broadcastService,
+            frameCache,
+            mock(MovieCardRepository.class),
+            candidateCache,
+            mock(DiscoveredMovieIngestService.class),
+            scheduler,
+            deckLoader,
+            deckLoadTimeout,
+            20,
+            5,
+            new SimpleMeterRegistry(),
+            StreamPacing.Mode.FIXED_RATE,
+            Duration.ofMillis(500),
+            1,
+            StreamPacing.Basis.SLOWEST
+        );
+    }
+
+    // Хост и гость с разными фильтрами, голосование идет
+    private static Actor<RoomAggregate> filteredRoom() {
+        RoomAggregate aggregate = RoomAggregate.create(
+            ROOM_ID,
+            "host",
+            new UnanimousVotingStrategy()
+        );
+        aggregate.addParticipant("guest");
+        aggregate.setParticipantFilters(
+            "host",
+            MovieFilters.builder().genre("Comedy").build()
+        );
+        aggregate.setParticipantFilters(
+            "guest",
+            MovieFilters.builder().genre("Drama").build()
+        );
+        aggregate.markParticipantReady("host");
+        aggregate.markParticipantReady("guest");
+        aggregate.startVoting();
+        return new RoomDispatcher(1).spawn(aggregate);
+    }
+
+    private static ArgumentMatcher<MovieFilters> genre(String genre) {
+        return filters -> filters != null && genre.equals(filters.getGenre());
+    }
+
+    private static MovieData card(String imdbId) {
+        return new MovieData(
+            imdbId,
+            "2020",
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            imdbId
+        );
+    }
+
+    // Выполнить последний из calls запланированных шагов
+    private void runScheduledStep(int calls) {
+        ArgumentCaptor<Runnable> step = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, times(calls)).schedule(
+            eq(ROOM_ID),
+            any(),
+            step.capture()
+        );
+        step.getValue().run();
+    }
+}
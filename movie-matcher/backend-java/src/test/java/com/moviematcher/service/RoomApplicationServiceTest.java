@@ -5,8 +5,10 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 import com.moviematcher.domain.model.VotingCompletionType;
+import com.moviematcher.infrastructure.registry.ShardedRoomRegistry;
 import com.moviematcher.model.CreateRoomResponse;
 import com.moviematcher.model.JoinRoomResponse;
+import java.time.Duration;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -37,7 +39,13 @@ class RoomApplicationServiceTest {
         MockitoAnnotations.openMocks(this);
         service = new RoomApplicationService(
             broadcastService,
-            movieSelectionService
+            movieSelectionService,
+            new RoomDispatcher(2),
+            new ShardedRoomRegistry(
+                4,
+                Duration.ofHours(24),
+                Duration.ofMinutes(30)
+            )
         );
     }
 
@@ -151,4 +159,32 @@ class RoomApplicationServiceTest {
         // Then
         assertThat(room1.roomId()).isNotEqualTo(room2.roomId());
     }
+
+    @Test
+    @DisplayName("Смена фильтров запускает фоновую загрузку колоды")
+    void shouldPrewarmDeckWhenFiltersChange() {
+        // Given
+        String hostId = "host123";
+        String roomId = service
+            .createRoom(hostId, VotingCompletionType.UNANIMOUS)
+            .roomId();
+
+        // When
+        service.setParticipantFilters(
+            roomId,
+            hostId,
+            "drama",
+            1990,
+            null,
+            null,
+            "movie"
+        );
+
+        // Then
+        verify(movieSelectionService).prewarmDeck(
+            eq(roomId),
+            any(),
+            eq(hostId)
+        );
+    }
 }
@@ -0,0 +1,265 @@
+package com.moviematcher.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviematcher.domain.model.VotingCompletionType;
+import com.moviematcher.infrastructure.cluster.ClusterBus;
+import com.moviematcher.infrastructure.registry.ShardedRoomRegistry;
+import com.moviematcher.model.JoinRoomResponse;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.Session;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Два узла кластера в одном процессе: шина в памяти вместо
+ * LISTEN/NOTIFY, остальное - настоящие RoomCluster, RoomApplicationService
+ * и WebSocketBroadcastService
+ */
+@DisplayName("RoomCluster Smoke Tests")
+class RoomClusterTest {
+
+    private static final List<String> NODES = List.of("node-a", "node-b");
+    private static final Duration HEARTBEAT = Duration.ofSeconds(10);
+
+    private final InMemoryBus bus = new InMemoryBus();
+    private Node a;
+    private Node b;
+
+    @BeforeEach
+    void setUp() {
+        a = new Node("node-a");
+        b = new Node("node-b");
+    }
+
+    @AfterEach
+    void tearDown() {
+        a.cluster.stop();
+        b.cluster.stop();
+        bus.close();
+    }
+
+    @Test
+    @DisplayName("Узел создает только комнаты, которыми владеет")
+    void shouldCreateOwnedRooms() {
+        for (int i = 0; i < 20; i++) {
+            String roomId = a.service
+                .createRoom("host" + i, VotingCompletionType.UNANIMOUS)
+                .roomId();
+
+            assertThat(a.cluster.ownerOf(roomId)).isEqualTo("node-a");
+            assertThat(b.cluster.forwards(roomId)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Команда с чужого узла выполняется на владельце")
+    void shouldForwardCommandToOwner() {
+        // Given
+        String roomId = a.service
+            .createRoom("host", VotingCompletionType.UNANIMOUS)
+            .roomId();
+
+        // When
+        JoinRoomResponse joined = b.service.joinRoom(roomId, "guest");
+        JoinRoomResponse duplicate = b.service.joinRoom(roomId, "guest");
+
+        // Then
+        assertThat(joined.success()).isTrue();
+        assertThat(joined.room().participantsCount()).isEqualTo(2);
+        assertThat(duplicate.success()).isFalse();
+        assertThat(b.service.roomExists(roomId)).isTrue();
+        assertThat(b.service.getRoom(roomId)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Исключение владельца пробрасывается на узел-отправитель")
+    void shouldRethrowOwnerException() {
+        // Given
+        String roomId = a.service
+            .createRoom("host", VotingCompletionType.UNANIMOUS)
+            .roomId();
+        String missing = a.cluster.newRoomId();
+
+        // When / Then
+        assertThatThrownBy(() -> b.service.startVoting(roomId))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("at least 2 participants");
+        assertThatThrownBy(() ->
+            b.service.recordVote(missing, "guest", "tt0111161", true)
+        )
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("not found");
+        assertThat(b.service.roomExists(missing)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Рассылка владельца доходит до сессий на другом узле")
+    void shouldFanOutBroadcastToSessionNode() throws Exception {
+        // Given - сессия комнаты узла A открыта на узле B
+        String roomId = a.service
+            .createRoom("host", VotingCompletionType.UNANIMOUS)
+            .roomId();
+        RemoteEndpoint.Async remote = mock(RemoteEndpoint.Async.class);
+        Session session = mock(Session.class);
+        when(session.getId()).thenReturn("s1");
+        when(session.isOpen()).thenReturn(true);
+        when(session.getAsyncRemote()).thenReturn(remote);
+
+        b.broadcastService.registerSession(roomId, session);
+        b.service.sessionsChanged(roomId);
+        awaitRemoteSessions(roomId, 1);
+
+        // When
+        b.service.joinRoom(roomId, "guest");
+
+        // Then
+        verify(remote, timeout(2000)).sendText(
+            contains("ParticipantJoined")
+        );
+    }
+
+    @Test
+    @DisplayName("Владелец учитывает сессии других узлов")
+    void shouldCountSessionsOfOtherNodes() throws Exception {
+        // Given
+        String roomId = a.service
+            .createRoom("host", VotingCompletionType.UNANIMOUS)
+            .roomId();
+        Session session = mock(Session.class);
+        when(session.getId()).thenReturn("s1");
+        when(session.isOpen()).thenReturn(true);
+
+        // When
+        b.broadcastService.registerSession(roomId, session);
+        b.service.sessionsChanged(roomId);
+        awaitRemoteSessions(roomId, 1);
+        b.broadcastService.unregisterSession(roomId, session);
+        b.service.sessionsChanged(roomId);
+
+        // Then
+        awaitRemoteSessions(roomId, 0);
+    }
+
+    @Test
+    @DisplayName("Сессии узла, переставшего слать heartbeat, забываются")
+    void shouldExpireSessionsOfSilentNode() throws Exception {
+        // Given
+        String roomId = a.service
+            .createRoom("host", VotingCompletionType.UNANIMOUS)
+            .roomId();
+        Session session = mock(Session.class);
+        when(session.getId()).thenReturn("s1");
+        when(session.isOpen()).thenReturn(true);
+        b.broadcastService.registerSession(roomId, session);
+        b.service.sessionsChanged(roomId);
+        awaitRemoteSessions(roomId, 1);
+
+        // When - меньше трех интервалов сессии держатся
+        a.cluster.expireSessions(System.nanoTime() + HEARTBEAT.toNanos());
+        int beforeTimeout = a.cluster.remoteSessions(roomId);
+        a.cluster.expireSessions(
+            System.nanoTime() + HEARTBEAT.multipliedBy(4).toNanos()
+        );
+
+        // Then
+        assertThat(beforeTimeout).isEqualTo(1);
+        assertThat(a.cluster.remoteSessions(roomId)).isZero();
+
+        // И следующий heartbeat узла B возвращает их
+        b.cluster.heartbeat();
+        awaitRemoteSessions(roomId, 1);
+    }
+
+    private void awaitRemoteSessions(String roomId, int expected)
+        throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (
+            a.cluster.remoteSessions(roomId) != expected &&
+            System.nanoTime() < deadline
+        ) {
+            Thread.sleep(10);
+        }
+        assertThat(a.cluster.remoteSessions(roomId)).isEqualTo(expected);
+    }
+
+    private final class Node {
+
+        final RoomCluster cluster;
+        final WebSocketBroadcastService broadcastService;
+        final RoomApplicationService service;
+
+        Node(String nodeId) {
+            ObjectMapper objectMapper = new ObjectMapper();
+            cluster = new RoomCluster(
+                nodeId,
+                NODES,
+                64,
+                Duration.ofSeconds(2),
+                HEARTBEAT,
+                bus,
+                objectMapper
+            );
+            broadcastService = new WebSocketBroadcastService(
+                objectMapper,
+                cluster
+            );
+            service = new RoomApplicationService(
+                broadcastService,
+                mock(MovieSelectionService.class),
+                new RoomDispatcher(1),
+                new ShardedRoomRegistry(
+                    2,
+                    Duration.ofHours(24),
+                    Duration.ofMinutes(30)
+                ),
+                cluster,
+                RoomJournal.disabled()
+            );
+            cluster.start();
+        }
+    }
+
+    /**
+     * Шина в памяти: у каждого узла свой поток доставки, как у слушателя
+     * LISTEN - сообщения одного узла приходят по порядку
+     */
+    private static final class InMemoryBus implements ClusterBus {
+
+        private final Map<String, Consumer<String>> listeners =
+            new ConcurrentHashMap<>();
+        private final Map<String, ExecutorService> delivery =
+            new ConcurrentHashMap<>();
+
+        @Override
+        public void start(String nodeId, Consumer<String> listener) {
+            listeners.put(nodeId, listener);
+            delivery.put(nodeId, Executors.newSingleThreadExecutor());
+        }
+
+        @Override
+        public void publish(String nodeId, String message) {
+            Consumer<String> listener = listeners.get(nodeId);
+            if (listener != null) {
+                delivery.get(nodeId).execute(() -> listener.accept(message));
+            }
+        }
+
+        @Override
+        public void close() {
+            delivery.values().forEach(ExecutorService::shutdownNow);
+        }
+    }
+}
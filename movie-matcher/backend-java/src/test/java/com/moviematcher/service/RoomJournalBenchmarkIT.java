@@ -0,0 +1,213 @@
+package com.moviematcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.moviematcher.domain.model.VotingCompletionType;
+import com.moviematcher.infrastructure.journal.SegmentedJournal;
+import com.moviematcher.infrastructure.registry.ShardedRoomRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Бенчмарк журнала комнат
+ *
+ * 1. Задержка recordVote без журнала, с журналом (mmap, без fsync) и с
+ *    fsync каждой пачки: 20 000 голосов в одной комнате, p50/p99.
+ * 2. Время старта с 10 000 комнат (2 участника, фильтры, голосование,
+ *    10 голосов в каждой) - из журнала целиком и из снапшота. Еще 10 000
+ *    комнат за это время создаются и удаляются: журнал хранит их команды,
+ *    снапшот - нет.
+ *
+ * Рассылки и колоды - моки, в замер попадают команда актора и журнал.
+ * Запуск с -DskipITs=false
+ */
+@DisplayName("RoomJournal benchmark")
+class RoomJournalBenchmarkIT {
+
+    private static final Logger log = Logger.getLogger(
+        RoomJournalBenchmarkIT.class
+    );
+
+    private static final int VOTES = 20_000;
+    private static final int WARMUP = 5_000;
+    private static final int ROOMS = 10_000;
+    private static final int VOTES_PER_ROOM = 10;
+
+    @TempDir
+    Path dir;
+
+    private String lastRoomId;
+
+    @Test
+    @DisplayName("Бенчмарк: задержка голоса без журнала, с журналом и fsync")
+    void benchmarkVoteLatency() throws Exception {
+        for (String mode : List.of("off", "mmap", "fsync")) {
+            // Given
+            Path journalDir = Files.createDirectories(dir.resolve(mode));
+            RoomJournal journal = switch (mode) {
+                case "off" -> RoomJournal.disabled();
+                default -> new RoomJournal(
+                    new SegmentedJournal(
+                        journalDir,
+                        64 << 20,
+                        256,
+                        mode.equals("fsync")
+                    ),
+                    Duration.ofHours(24)
+                );
+            };
+            RoomDispatcher dispatcher = new RoomDispatcher(2);
+            RoomApplicationService service = service(dispatcher, journal);
+            service.restoreRooms();
+            String roomId = votingRoom(service, 0);
+
+            // When
+            long[] latencies = new long[VOTES];
+            for (int i = -WARMUP; i < VOTES; i++) {
+                long started = System.nanoTime();
+                service.recordVote(roomId, "guest", "tt" + (i & 1023), false);
+                if (i >= 0) {
+                    latencies[i] = System.nanoTime() - started;
+                }
+            }
+            journal.close();
+            dispatcher.stop();
+
+            // Then
+            Arrays.sort(latencies);
+            log.infof(
+                "Vote latency, journal %s: p50 %d us, p99 %d us",
+                mode,
+                TimeUnit.NANOSECONDS.toMicros(latencies[VOTES / 2]),
+                TimeUnit.NANOSECONDS.toMicros(latencies[VOTES * 99 / 100])
+            );
+            assertThat(latencies[0]).isPositive();
+        }
+    }
+
+    @Test
+    @DisplayName("Бенчмарк: старт с 10 000 комнат из журнала и из снапшота")
+    void benchmarkRestore() {
+        // Given
+        RoomDispatcher dispatcher = new RoomDispatcher(0);
+        RoomJournal journal = journal();
+        RoomApplicationService service = service(dispatcher, journal);
+        service.restoreRooms();
+        for (int room = 0; room < ROOMS; room++) {
+            String roomId = votingRoom(service, room);
+            for (int vote = 0; vote < VOTES_PER_ROOM; vote++) {
+                service.recordVote(
+                    roomId,
+                    vote % 2 == 0 ? "host-" + room : "guest",
+                    "tt" + room + "-" + vote,
+                    vote % 4 == 0
+                );
+            }
+            lastRoomId = roomId;
+
+            String gone = service
+                .createRoom("gone-" + room, VotingCompletionType.MAJORITY)
+                .roomId();
+            service.joinRoom(gone, "guest");
+            service.leaveRoom(gone, "guest");
+            service.leaveRoom(gone, "gone-" + room);
+        }
+        journal.close();
+        dispatcher.stop();
+
+        // When
+        long fromLog = restore();
+
+        RoomDispatcher snapshotDispatcher = new RoomDispatcher(0);
+        RoomJournal snapshotJournal = journal();
+        RoomApplicationService snapshotService = service(
+            snapshotDispatcher,
+            snapshotJournal
+        );
+        snapshotService.restoreRooms();
+        snapshotService.snapshotJournal();
+        snapshotJournal.close();
+        snapshotDispatcher.stop();
+
+        long fromSnapshot = restore();
+
+        // Then
+        log.infof(
+            "Restore of %d rooms: from journal %d ms, from snapshot %d ms",
+            ROOMS,
+            fromLog,
+            fromSnapshot
+        );
+    }
+
+    // Время restoreRooms нового узла над каталогом журнала, мс
+    private long restore() {
+        RoomDispatcher dispatcher = new RoomDispatcher(0);
+        RoomJournal journal = journal();
+        RoomApplicationService service = service(dispatcher, journal);
+
+        long started = System.nanoTime();
+        service.restoreRooms();
+        long elapsed = System.nanoTime() - started;
+
+        assertThat(service.roomExists(lastRoomId)).isTrue();
+        journal.close();
+        dispatcher.stop();
+        return TimeUnit.NANOSECONDS.toMillis(elapsed);
+    }
+
+    private RoomJournal journal() {
+        return new RoomJournal(
+            new SegmentedJournal(dir, 64 << 20, 256, false),
+            Duration.ofHours(24)
+        );
+    }
+
+    private static RoomApplicationService service(
+        RoomDispatcher dispatcher,
+        RoomJournal journal
+    ) {
+        return new RoomApplicationService(
+            mock(WebSocketBroadcastService.class),
+            mock(MovieSelectionService.class),
+            dispatcher,
+            new ShardedRoomRegistry(
+                16,
+                Duration.ofHours(24),
+                Duration.ofMinutes(30)
+            ),
+            RoomCluster.standalone(),
+            journal
+        );
+    }
+
+    private static String votingRoom(RoomApplicationService service, int n) {
+        String roomId = service
+            .createRoom("host-" + n, VotingCompletionType.UNANIMOUS)
+            .roomId();
+        service.joinRoom(roomId, "guest");
+        for (String participant : List.of("host-" + n, "guest")) {
+            service.setParticipantFilters(
+                roomId,
+                participant,
+                "Comedy",
+                2000,
+                null,
+                null,
+                "movie"
+            );
+            service.markParticipantReady(roomId, participant);
+        }
+        service.startVoting(roomId);
+        return roomId;
+    }
+}
@@ -0,0 +1,232 @@
+package com.moviematcher.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.moviematcher.domain.model.Participant;
+import com.moviematcher.domain.model.RoomAggregate;
+import com.moviematcher.domain.model.RoomState;
+import com.moviematcher.domain.model.VotingCompletionType;
+import com.moviematcher.infrastructure.journal.SegmentedJournal;
+import com.moviematcher.infrastructure.registry.ShardedRoomRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Smoke тесты для RoomJournal
+ *
+ * Каждый тест поднимает узел над каталогом журнала, выполняет команды,
+ * останавливает узел и поднимает новый над тем же каталогом
+ */
+@DisplayName("RoomJournal Smoke Tests")
+class RoomJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<Node> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(Node::stop);
+    }
+
+    @Test
+    @DisplayName("Комната с голосами восстанавливается после рестарта")
+    void shouldRestoreVotingRoom() {
+        // Given
+        Node node = start();
+        String roomId = votingRoom(node.service);
+        node.service.recordVote(roomId, "host", "tt1", true);
+        node.service.recordVote(roomId, "guest", "tt2", false);
+        node.stop();
+
+        // When
+        Node restarted = start();
+
+        // Then
+        RoomAggregate room = restarted.room(roomId);
+        assertThat(room.getState()).isEqualTo(RoomState.VOTING);
+        assertThat(room.getParticipantIds()).containsExactly("host", "guest");
+        assertThat(room.getParticipants().get(0).getLikedMovies())
+            .containsExactly("tt1");
+        verify(restarted.movieSelection).startMovieStream(eq(roomId), any());
+
+        // Голосование продолжается с восстановленного состояния
+        restarted.service.recordVote(roomId, "guest", "tt1", true);
+        assertThat(restarted.room(roomId).getMatchedMovies())
+            .containsExactly("tt1");
+    }
+
+    @Test
+    @DisplayName("Удаленная комната не восстанавливается")
+    void shouldNotRestoreRemovedRoom() {
+        // Given
+        Node node = start();
+        String roomId = node.service
+            .createRoom("host", VotingCompletionType.UNANIMOUS)
+            .roomId();
+        node.service.leaveRoom(roomId, "host");
+        node.stop();
+
+        // When
+        Node restarted = start();
+
+        // Then
+        assertThat(restarted.service.roomExists(roomId)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Снапшот и хвост журнала дают то же состояние")
+    void shouldRestoreFromSnapshotAndTail() {
+        // Given
+        Node node = start();
+        String roomId = votingRoom(node.service);
+        node.service.recordVote(roomId, "host", "tt1", true);
+        node.service.recordVote(roomId, "guest", "tt2", false);
+        String waiting = node.service
+            .createRoom("solo", VotingCompletionType.MAJORITY)
+            .roomId();
+        node.service.addMovieToParticipant(waiting, "solo", "tt9");
+        node.service.markParticipantReady(waiting, "solo");
+        node.service.snapshotJournal();
+
+        // Хвост после снапшота
+        node.service.recordVote(roomId, "guest", "tt1", true);
+        node.service.joinRoom(waiting, "late");
+        node.stop();
+
+        // When
+        Node restarted = start();
+
+        // Then
+        RoomAggregate completed = restarted.room(roomId);
+        assertThat(completed.getState()).isEqualTo(RoomState.COMPLETED);
+        assertThat(completed.getMatchedMovies()).containsExactly("tt1");
+
+        RoomAggregate room = restarted.room(waiting);
+        assertThat(room.getParticipantIds()).containsExactly("solo", "late");
+        assertThat(room.getReadyParticipantsCount()).isEqualTo(1);
+        assertThat(room.getParticipants().get(0).getManuallySelectedMovies())
+            .containsExactly("tt9");
+    }
+
+    @Test
+    @DisplayName("Снапшот сохраняет сессию с голосами вышедшего участника")
+    void shouldRestoreDepartedVoterFromSnapshot() {
+        // Given - третий участник против tt1 и вышел во время голосования
+        Node node = start();
+        String roomId = votingRoom(node.service, "host", "guest", "third");
+        node.service.recordVote(roomId, "third", "tt1", false);
+        node.service.leaveRoom(roomId, "third");
+        node.service.recordVote(roomId, "host", "tt1", true);
+        node.service.snapshotJournal();
+
+        // Хвост после снапшота
+        node.service.recordVote(roomId, "guest", "tt1", true);
+        RoomState live = node.room(roomId).getState();
+        node.stop();
+
+        // When
+        Node restarted = start();
+
+        // Then - его голос по-прежнему мешает единогласию
+        RoomAggregate room = restarted.room(roomId);
+        assertThat(live).isEqualTo(RoomState.VOTING);
+        assertThat(room.getState()).isEqualTo(live);
+        assertThat(room.getParticipantIds()).containsExactly("host", "guest");
+        assertThat(room.getVotingParticipants())
+            .extracting(Participant::getId)
+            .containsExactly("host", "guest", "third");
+        assertThat(room.getVotingParticipants().get(2).getDislikedMovies())
+            .containsExactly("tt1");
+    }
+
+    // Два участника с фильтрами, голосование идет
+    private static String votingRoom(RoomApplicationService service) {
+        return votingRoom(service, "host", "guest");
+    }
+
+    private static String votingRoom(
+        RoomApplicationService service,
+        String host,
+        String... guests
+    ) {
+        String roomId = service
+            .createRoom(host, VotingCompletionType.UNANIMOUS)
+            .roomId();
+        List<String> participants = new ArrayList<>(List.of(host));
+        for (String guest : guests) {
+            service.joinRoom(roomId, guest);
+            participants.add(guest);
+        }
+        for (String participant : participants) {
+            service.setParticipantFilters(
+                roomId,
+                participant,
+                "Comedy",
+                2000,
+                null,
+                null,
+                "movie"
+            );
+            service.markParticipantReady(roomId, participant);
+        }
+        service.startVoting(roomId);
+        return roomId;
+    }
+
+    private Node start() {
+        Node node = new Node(dir);
+        nodes.add(node);
+        return node;
+    }
+
+    private static final class Node {
+
+        final MovieSelectionService movieSelection = mock(
+            MovieSelectionService.class
+        );
+        final RoomDispatcher dispatcher = new RoomDispatcher(1);
+        final RoomJournal journal;
+        final RoomApplicationService service;
+
+        Node(Path dir) {
+            journal = new RoomJournal(
+                new SegmentedJournal(dir, 1 << 16, 64, false),
+                Duration.ofHours(24)
+            );
+            service = new RoomApplicationService(
+                mock(WebSocketBroadcastService.class),
+                movieSelection,
+                dispatcher,
+                new ShardedRoomRegistry(
+                    2,
+                    Duration.ofHours(24),
+                    Duration.ofMinutes(30)
+                ),
+                RoomCluster.standalone(),
+                journal
+            );
+            service.restoreRooms();
+        }
+
+        RoomAggregate room(String roomId) {
+            return service.getRoom(roomId).orElseThrow().call(r -> r);
+        }
+
+        void stop() {
+            journal.close();
+            dispatcher.stop();
+        }
+    }
+}